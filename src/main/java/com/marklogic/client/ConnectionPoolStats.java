@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client;
+
+/**
+ * A ConnectionPoolStats object reports the state of the connection pool
+ * of a database client at the time the statistics were requested.
+ * @see DatabaseClient#getConnectionPoolStats()
+ */
+public interface ConnectionPoolStats {
+	/**
+	 * Returns the number of connections in use by requests.
+	 * @return	the leased connections
+	 */
+	public int getLeased();
+	/**
+	 * Returns the number of open connections waiting in the pool
+	 * for the next request.
+	 * @return	the available connections
+	 */
+	public int getAvailable();
+	/**
+	 * Returns the number of requests waiting for a connection
+	 * because the pool has reached its maximum.
+	 * @return	the pending requests
+	 */
+	public int getPending();
+	/**
+	 * Returns the maximum number of connections in the pool.
+	 * @return	the maximum connections
+	 */
+	public int getMax();
+}
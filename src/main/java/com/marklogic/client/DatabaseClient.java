@@ -29,6 +29,7 @@ import com.marklogic.client.extensions.ResourceManager;
 import com.marklogic.client.admin.ExtensionMetadata;
 import com.marklogic.client.query.QueryManager;
 import com.marklogic.client.alerting.RuleManager;
+import com.marklogic.client.util.AsyncRequestLogger;
 import com.marklogic.client.util.RequestLogger;
 import com.marklogic.client.pojo.PojoRepository;
 
@@ -145,6 +146,18 @@ public interface DatabaseClient {
      */
     public RequestLogger newLogger(OutputStream out);
 
+    /**
+     * Creates a logger for document and query requests that writes to the log
+     * on a background thread.  Requests put log records into a buffer with the
+     * specified capacity, and records are dropped instead of slowing requests
+     * when the buffer is full.
+     * 
+     * @param out	the output stream for the logging output
+     * @param capacity	the maximum number of records waiting to be written
+     * @return	the logger for client requests
+     */
+    public AsyncRequestLogger newAsyncLogger(OutputStream out, int capacity);
+
     /**
      * Closes the database client and releases associated resources.  After the client is closed,
      * document and query managers can no longer access the database.
@@ -168,6 +181,21 @@ public interface DatabaseClient {
      */
     public Object getClientImplementation();
 
+    /**
+     * Returns the current state of the pool of connections to the server
+     * such as the number of connections in use and the number of requests
+     * waiting for a connection.
+     * @return	the statistics for the connection pool or null after the client is released
+     */
+    public ConnectionPoolStats getConnectionPoolStats();
+
+    /**
+     * Returns the latency, size, and outcome of the requests sent by
+     * this client for each kind of operation.
+     * @return	the metrics for requests or null after the client is released
+     */
+    public RequestMetrics getRequestMetrics();
+
     /**
      * Creates a ServerEvaluationCall for eval and invoke of server-side xquery or 
      * javascript code.  Eval requires the xdbc:eval privilege and invoke requires the
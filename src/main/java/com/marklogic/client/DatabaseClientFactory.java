@@ -16,6 +16,8 @@
 package com.marklogic.client;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Set;
 
 import javax.net.ssl.SSLContext;
@@ -24,6 +26,7 @@ import javax.net.ssl.SSLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.marklogic.client.RequestMetrics.Operation;
 import com.marklogic.client.extra.httpclient.HttpClientConfigurator;
 import com.marklogic.client.impl.DatabaseClientImpl;
 import com.marklogic.client.impl.HandleFactoryRegistryImpl;
@@ -39,6 +42,10 @@ public class DatabaseClientFactory {
 	static final private Logger logger = LoggerFactory.getLogger(DatabaseClientFactory.class);
 
 	static private ClientConfigurator<?> clientConfigurator;
+	static private ConnectionPolicy      connectionPolicy;
+	static private RetryPolicy           retryPolicy;
+	static private AsyncPolicy           asyncPolicy;
+	static private CompressionPolicy     compressionPolicy;
 	static private HandleFactoryRegistry handleRegistry =
 		HandleFactoryRegistryImpl.newDefault();
 
@@ -66,6 +73,550 @@ public class DatabaseClientFactory {
 		}
 	}
 
+	/**
+	 * LoadBalancing enumerates the policies for choosing the host
+	 * that receives a request from a client for a cluster.
+	 */
+	public enum LoadBalancing {
+		/**
+		 * Sends requests to each available host in turn.
+		 */
+		ROUND_ROBIN,
+		/**
+		 * Sends each request to the available host that is
+		 * waiting on the fewest responses.
+		 */
+		LEAST_OUTSTANDING;
+
+		/**
+		 * Returns the enumerated value for the case-insensitive name.
+		 * @param name	the name of the enumerated value
+		 * @return	the enumerated value
+		 */
+		static public LoadBalancing valueOfUncased(String name) {
+			return LoadBalancing.valueOf(name.toUpperCase());
+		}
+	}
+
+	/**
+	 * A ConnectionPolicy configures the pool of connections that a client
+	 * keeps open to the server.  All times are in milliseconds.
+	 *
+	 * The settings for how the client handles requests over those
+	 * connections have their own policies: a {@link RetryPolicy} for
+	 * retrying requests, an {@link AsyncPolicy} for the threads of
+	 * asynchronous managers, and a {@link CompressionPolicy} for
+	 * compressing request and response bodies.
+	 */
+	static public class ConnectionPolicy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private int  maxPerRoute        = 100;
+		private int  maxTotal           = 0;
+		private int  connectTimeout     = 0;
+		private int  readTimeout        = 0;
+		private long evictionInterval   = 30000;
+		private long idleTimeout        = 60000;
+		private long keepAlive          = -1;
+
+		/**
+		 * Zero-argument constructor for the default policy.
+		 */
+		public ConnectionPolicy() {
+			super();
+		}
+
+		/**
+		 * Returns the maximum number of connections to each host.
+		 * @return	the maximum connections per host (default: 100)
+		 */
+		public int getMaxPerRoute() {
+			return maxPerRoute;
+		}
+		/**
+		 * Specifies the maximum number of connections to each host.
+		 * @param maxPerRoute	the maximum connections per host
+		 */
+		public void setMaxPerRoute(int maxPerRoute) {
+			if (maxPerRoute <= 0)
+				throw new IllegalArgumentException("Maximum connections per route must be positive");
+			this.maxPerRoute = maxPerRoute;
+		}
+		/**
+		 * Returns the maximum number of connections in the pool,
+		 * where zero sizes the pool for twice the maximum per host
+		 * or the maximum per host for each host of a cluster.
+		 * @return	the maximum connections (default: 0)
+		 */
+		public int getMaxTotal() {
+			return maxTotal;
+		}
+		/**
+		 * Specifies the maximum number of connections in the pool.
+		 * @param maxTotal	the maximum connections or zero to size the pool from the maximum per host
+		 */
+		public void setMaxTotal(int maxTotal) {
+			if (maxTotal < 0)
+				throw new IllegalArgumentException("Maximum connections cannot be negative");
+			this.maxTotal = maxTotal;
+		}
+		/**
+		 * Returns the time to wait while opening a connection, where
+		 * zero waits indefinitely.
+		 * @return	the connect timeout (default: 0)
+		 */
+		public int getConnectTimeout() {
+			return connectTimeout;
+		}
+		/**
+		 * Specifies the time to wait while opening a connection.
+		 * @param connectTimeout	the connect timeout or zero to wait indefinitely
+		 */
+		public void setConnectTimeout(int connectTimeout) {
+			if (connectTimeout < 0)
+				throw new IllegalArgumentException("Connect timeout cannot be negative");
+			this.connectTimeout = connectTimeout;
+		}
+		/**
+		 * Returns the time to wait for data from the server after
+		 * sending a request or receiving data, where zero waits indefinitely.
+		 * @return	the read timeout (default: 0)
+		 */
+		public int getReadTimeout() {
+			return readTimeout;
+		}
+		/**
+		 * Specifies the time to wait for data from the server.  The timeout
+		 * must exceed the time that the server takes for the slowest request.
+		 * @param readTimeout	the read timeout or zero to wait indefinitely
+		 */
+		public void setReadTimeout(int readTimeout) {
+			if (readTimeout < 0)
+				throw new IllegalArgumentException("Read timeout cannot be negative");
+			this.readTimeout = readTimeout;
+		}
+		/**
+		 * Returns the interval between checks that close idle and expired
+		 * connections in the background, where zero disables the checks.
+		 * @return	the eviction interval (default: 30000)
+		 */
+		public long getEvictionInterval() {
+			return evictionInterval;
+		}
+		/**
+		 * Specifies the interval between checks that close idle and expired
+		 * connections in the background.
+		 * @param evictionInterval	the eviction interval or zero to disable the checks
+		 */
+		public void setEvictionInterval(long evictionInterval) {
+			if (evictionInterval < 0)
+				throw new IllegalArgumentException("Eviction interval cannot be negative");
+			this.evictionInterval = evictionInterval;
+		}
+		/**
+		 * Returns the time that a connection can wait in the pool before
+		 * the background check closes it, where zero closes only expired connections.
+		 * @return	the idle timeout (default: 60000)
+		 */
+		public long getIdleTimeout() {
+			return idleTimeout;
+		}
+		/**
+		 * Specifies the time that a connection can wait in the pool before
+		 * the background check closes it.
+		 * @param idleTimeout	the idle timeout or zero to close only expired connections
+		 */
+		public void setIdleTimeout(long idleTimeout) {
+			if (idleTimeout < 0)
+				throw new IllegalArgumentException("Idle timeout cannot be negative");
+			this.idleTimeout = idleTimeout;
+		}
+		/**
+		 * Returns the time to keep a connection for reuse when the server
+		 * does not specify a shorter time in its Keep-Alive header, where
+		 * a negative value keeps the connection until the server specifies
+		 * a time or closes the connection.
+		 * @return	the keep-alive time (default: -1)
+		 */
+		public long getKeepAlive() {
+			return keepAlive;
+		}
+		/**
+		 * Specifies the time to keep a connection for reuse when the server
+		 * does not specify a shorter time.
+		 * @param keepAlive	the keep-alive time or a negative value to follow the server
+		 */
+		public void setKeepAlive(long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+	}
+
+	/**
+	 * An AsyncPolicy configures the threads that execute the requests
+	 * of the asynchronous document and query managers of a client.
+	 *
+	 * The asynchronous managers offload requests to these threads; they
+	 * do not provide non-blocking I/O.  Each request in progress occupies
+	 * a thread until the server responds, so the threads bound the
+	 * requests sent concurrently.  Requests beyond the threads wait in
+	 * a bounded queue, and the overflow policy decides what happens to
+	 * a request when the queue is full.
+	 */
+	static public class AsyncPolicy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Overflow enumerates what happens to an asynchronous request
+		 * submitted when every thread is busy and the queue is full.
+		 */
+		public enum Overflow {
+			/**
+			 * Refuses the request with a
+			 * java.util.concurrent.RejectedExecutionException so the
+			 * submitting thread never blocks.
+			 */
+			REJECT,
+			/**
+			 * Executes the request on the submitting thread, which
+			 * slows submission to the rate at which requests complete.
+			 * The asynchronous method then blocks for the full round trip
+			 * and calls the callback before it returns.
+			 */
+			CALLER_RUNS;
+		}
+
+		private int      threads   = 16;
+		private int      queueSize = 1024;
+		private Overflow overflow  = Overflow.REJECT;
+
+		/**
+		 * Zero-argument constructor for the default policy.
+		 */
+		public AsyncPolicy() {
+			super();
+		}
+
+		/**
+		 * Returns the number of threads that execute asynchronous requests.
+		 * @return	the asynchronous request threads (default: 16)
+		 */
+		public int getThreads() {
+			return threads;
+		}
+		/**
+		 * Specifies the number of threads that execute asynchronous requests.
+		 * Requests beyond the number of threads wait in a queue.
+		 * @param threads	the asynchronous request threads
+		 */
+		public void setThreads(int threads) {
+			if (threads <= 0)
+				throw new IllegalArgumentException("Asynchronous request threads must be positive");
+			this.threads = threads;
+		}
+		/**
+		 * Returns the number of asynchronous requests that can wait
+		 * for a thread.
+		 * @return	the queue size (default: 1024)
+		 */
+		public int getQueueSize() {
+			return queueSize;
+		}
+		/**
+		 * Specifies the number of asynchronous requests that can wait
+		 * for a thread, which bounds the memory held by waiting requests.
+		 * @param queueSize	the queue size
+		 */
+		public void setQueueSize(int queueSize) {
+			if (queueSize <= 0)
+				throw new IllegalArgumentException("Asynchronous request queue size must be positive");
+			this.queueSize = queueSize;
+		}
+		/**
+		 * Returns what happens to a request submitted when the queue is full.
+		 * @return	the overflow policy (default: REJECT)
+		 */
+		public Overflow getOverflow() {
+			return overflow;
+		}
+		/**
+		 * Specifies what happens to a request submitted when the queue is full.
+		 * @param overflow	the overflow policy
+		 */
+		public void setOverflow(Overflow overflow) {
+			if (overflow == null)
+				throw new IllegalArgumentException("Cannot set null overflow policy");
+			this.overflow = overflow;
+		}
+	}
+
+	/**
+	 * A CompressionPolicy configures whether a client compresses
+	 * the documents that it writes and accepts compressed responses.
+	 */
+	static public class CompressionPolicy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private boolean gzipRequests  = false;
+		private boolean gzipResponses = false;
+
+		/**
+		 * Zero-argument constructor for the default policy.
+		 */
+		public CompressionPolicy() {
+			super();
+		}
+
+		/**
+		 * Returns whether the client compresses the documents that it writes.
+		 * @return	whether document writes are compressed (default: false)
+		 */
+		public boolean isGzipRequests() {
+			return gzipRequests;
+		}
+		/**
+		 * Specifies whether the client compresses the documents that it writes
+		 * with gzip as it sends them, which reduces network traffic for documents
+		 * such as XML and JSON at the cost of client processor time.  Enable
+		 * compression only for a server or proxy that accepts a gzip
+		 * Content-Encoding for request bodies.
+		 * @param gzipRequests	whether to compress document writes
+		 */
+		public void setGzipRequests(boolean gzipRequests) {
+			this.gzipRequests = gzipRequests;
+		}
+		/**
+		 * Returns whether the client asks the server to compress responses.
+		 * @return	whether responses may be compressed (default: false)
+		 */
+		public boolean isGzipResponses() {
+			return gzipResponses;
+		}
+		/**
+		 * Specifies whether the client asks the server to compress responses
+		 * such as documents and search results with gzip.  The client
+		 * decompresses a compressed response as the response is read, so the
+		 * length of a compressed document is unknown.
+		 * @param gzipResponses	whether responses may be compressed
+		 */
+		public void setGzipResponses(boolean gzipResponses) {
+			this.gzipResponses = gzipResponses;
+		}
+	}
+
+	/**
+	 * A RetryPolicy configures how a client retries a request after
+	 * the server responds with a retryable status such as 503 Service Unavailable.
+	 * A request is retried at least the minimum number of times and until
+	 * the maximum retry time elapses.  Each retry waits for a random delay
+	 * between the minimum delay and a ceiling that doubles with each retry up to
+	 * the maximum delay, so threads refused at the same time don't retry
+	 * in lockstep.  A Retry-After header from the server lengthens the delay
+	 * up to the maximum delay.
+	 *
+	 * When the failure threshold is positive, the policy also acts as
+	 * a circuit breaker.  After the threshold of consecutive requests fail with
+	 * a retryable status or without a response, the client stops retrying
+	 * and fails new requests immediately with a FailedRequestException until
+	 * the open interval elapses.  Then one trial request is sent, and its
+	 * success resumes normal requests.  The circuit breaker applies only to
+	 * clients for a single host.  A cluster client ignores the failure threshold
+	 * so that one failing host doesn't stop requests to the other hosts.
+	 * All times are in milliseconds.
+	 */
+	static public class RetryPolicy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private int   minRetries       = 8;
+		private long  maxRetryTime     = 120000;
+		private int   minDelay         = 125;
+		private int   maxDelay         = 2000;
+		private int[] retryStatuses    = {503};
+		private int   failureThreshold = 0;
+		private long  openInterval     = 30000;
+
+		private EnumMap<Operation, Integer> operationMinRetries =
+			new EnumMap<Operation, Integer>(Operation.class);
+		private EnumMap<Operation, Long>    operationMaxRetryTime =
+			new EnumMap<Operation, Long>(Operation.class);
+
+		/**
+		 * Zero-argument constructor for the default policy.
+		 */
+		public RetryPolicy() {
+			super();
+		}
+
+		/**
+		 * Returns the number of retries attempted before the maximum
+		 * retry time applies.
+		 * @return	the minimum retries (default: 8)
+		 */
+		public int getMinRetries() {
+			return minRetries;
+		}
+		/**
+		 * Specifies the number of retries attempted before the maximum
+		 * retry time applies.
+		 * @param minRetries	the minimum retries or zero to rely on the maximum retry time
+		 */
+		public void setMinRetries(int minRetries) {
+			if (minRetries < 0)
+				throw new IllegalArgumentException("Minimum retries cannot be negative");
+			this.minRetries = minRetries;
+		}
+		/**
+		 * Returns the time after the first attempt during which
+		 * a request is retried.
+		 * @return	the maximum retry time (default: 120000)
+		 */
+		public long getMaxRetryTime() {
+			return maxRetryTime;
+		}
+		/**
+		 * Specifies the time after the first attempt during which
+		 * a request is retried.
+		 * @param maxRetryTime	the maximum retry time
+		 */
+		public void setMaxRetryTime(long maxRetryTime) {
+			if (maxRetryTime < 0)
+				throw new IllegalArgumentException("Maximum retry time cannot be negative");
+			this.maxRetryTime = maxRetryTime;
+		}
+		/**
+		 * Returns the minimum retries for a kind of operation, which is
+		 * the minimum retries of the policy unless the operation has a budget.
+		 * @param operation	the kind of operation
+		 * @return	the minimum retries for the operation
+		 */
+		public int getMinRetries(Operation operation) {
+			Integer retries = operationMinRetries.get(operation);
+			return (retries != null) ? retries : minRetries;
+		}
+		/**
+		 * Returns the maximum retry time for a kind of operation, which is
+		 * the maximum retry time of the policy unless the operation has a budget.
+		 * @param operation	the kind of operation
+		 * @return	the maximum retry time for the operation
+		 */
+		public long getMaxRetryTime(Operation operation) {
+			Long time = operationMaxRetryTime.get(operation);
+			return (time != null) ? time : maxRetryTime;
+		}
+		/**
+		 * Specifies a retry budget for a kind of operation that replaces
+		 * the minimum retries and maximum retry time of the policy, such as
+		 * no retries for searches that can be abandoned or longer retries
+		 * for document writes that must succeed.
+		 * @param operation	the kind of operation
+		 * @param minRetries	the minimum retries for the operation
+		 * @param maxRetryTime	the maximum retry time for the operation
+		 */
+		public void setOperationBudget(Operation operation, int minRetries, long maxRetryTime) {
+			if (operation == null)
+				throw new IllegalArgumentException("Cannot set retry budget for null operation");
+			if (minRetries < 0)
+				throw new IllegalArgumentException("Minimum retries cannot be negative");
+			if (maxRetryTime < 0)
+				throw new IllegalArgumentException("Maximum retry time cannot be negative");
+			operationMinRetries.put(operation, minRetries);
+			operationMaxRetryTime.put(operation, maxRetryTime);
+		}
+
+		/**
+		 * Returns the shortest delay before a retry.
+		 * @return	the minimum delay (default: 125)
+		 */
+		public int getMinDelay() {
+			return minDelay;
+		}
+		/**
+		 * Specifies the shortest delay before a retry.
+		 * @param minDelay	the minimum delay
+		 */
+		public void setMinDelay(int minDelay) {
+			if (minDelay <= 0)
+				throw new IllegalArgumentException("Minimum delay must be positive");
+			this.minDelay = minDelay;
+		}
+		/**
+		 * Returns the longest delay before a retry.
+		 * @return	the maximum delay (default: 2000)
+		 */
+		public int getMaxDelay() {
+			return maxDelay;
+		}
+		/**
+		 * Specifies the longest delay before a retry, which cannot be less
+		 * than the minimum delay when the client is created.
+		 * @param maxDelay	the maximum delay
+		 */
+		public void setMaxDelay(int maxDelay) {
+			if (maxDelay <= 0)
+				throw new IllegalArgumentException("Maximum delay must be positive");
+			this.maxDelay = maxDelay;
+		}
+
+		/**
+		 * Returns the HTTP statuses for which requests are retried.
+		 * @return	the retryable statuses (default: 503)
+		 */
+		public int[] getRetryStatuses() {
+			return retryStatuses.clone();
+		}
+		/**
+		 * Specifies the HTTP statuses for which requests are retried,
+		 * such as 502 and 504 from a load balancer in front of the cluster.
+		 * @param statuses	the retryable statuses
+		 */
+		public void setRetryStatuses(int... statuses) {
+			if (statuses == null)
+				throw new IllegalArgumentException("Cannot set null retry statuses");
+			for (int status: statuses) {
+				if (status < 400 || status > 599)
+					throw new IllegalArgumentException("Retry status must be an error status: "+status);
+			}
+			this.retryStatuses = statuses.clone();
+		}
+
+		/**
+		 * Returns the number of consecutive failed requests that opens
+		 * the circuit, where zero never opens the circuit.
+		 * @return	the failure threshold (default: 0)
+		 */
+		public int getFailureThreshold() {
+			return failureThreshold;
+		}
+		/**
+		 * Specifies the number of consecutive failed requests that opens
+		 * the circuit so requests fail immediately.  A cluster client
+		 * ignores the failure threshold.
+		 * @param failureThreshold	the failure threshold or zero to never open the circuit
+		 */
+		public void setFailureThreshold(int failureThreshold) {
+			if (failureThreshold < 0)
+				throw new IllegalArgumentException("Failure threshold cannot be negative");
+			this.failureThreshold = failureThreshold;
+		}
+		/**
+		 * Returns the time that the circuit stays open before
+		 * a trial request is sent.
+		 * @return	the open interval (default: 30000)
+		 */
+		public long getOpenInterval() {
+			return openInterval;
+		}
+		/**
+		 * Specifies the time that the circuit stays open before
+		 * a trial request is sent.
+		 * @param openInterval	the open interval
+		 */
+		public void setOpenInterval(long openInterval) {
+			if (openInterval < 0)
+				throw new IllegalArgumentException("Open interval cannot be negative");
+			this.openInterval = openInterval;
+		}
+	}
+
 	/**
 	 * An SSLHostnameVerifier checks whether a hostname is acceptable
 	 * during SSL authentication.
@@ -293,7 +844,8 @@ public class DatabaseClientFactory {
 	 * @return	a new client for making database requests
 	 */
 	static public DatabaseClient newClient(String host, int port, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier) {
-		DatabaseClientImpl client = newClientImpl(host, port, null, user, password, type, context, verifier);
+		DatabaseClientImpl client = newClientImpl(host, port, null, user, password, type, context, verifier,
+				getConnectionPolicy(), getRetryPolicy(), getAsyncPolicy(), getCompressionPolicy());
 		client.setHandleRegistry(getHandleRegistry().copy());
 		return client;
 	}
@@ -311,15 +863,91 @@ public class DatabaseClientFactory {
 	 * @return	a new client for making database requests
 	 */
 	static public DatabaseClient newClient(String host, int port, String database, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier) {
-		DatabaseClientImpl client = newClientImpl(host, port, database, user, password, type, context, verifier);
+		DatabaseClientImpl client = newClientImpl(host, port, database, user, password, type, context, verifier,
+				getConnectionPolicy(), getRetryPolicy(), getAsyncPolicy(), getCompressionPolicy());
+		client.setHandleRegistry(getHandleRegistry().copy());
+		return client;
+	}
+	/**
+	 * Creates a client to access the database by means of the REST servers
+	 * on the hosts of a cluster.  The client spreads requests across the hosts
+	 * with round-robin load balancing and stops sending requests to a host
+	 * while the host refuses connections.
+	 * 
+	 * @param hosts	the hosts with the REST server, optionally as host:port
+	 * @param port	the port for the REST server on hosts without a port
+	 * @param user	the user with read, write, or administrative privileges
+	 * @param password	the password for the user
+	 * @param type	the type of authentication applied to the request
+	 * @return	a new client for making database requests
+	 */
+	static public DatabaseClient newClusterClient(String[] hosts, int port, String user, String password, Authentication type) {
+		return newClusterClient(hosts, port, null, user, password, type, null, null, null);
+	}
+	/**
+	 * Creates a client to access the database by means of the REST servers
+	 * on the hosts of a cluster.  The client stops sending requests to a host
+	 * while the host refuses connections.
+	 * 
+	 * @param hosts	the hosts with the REST server, optionally as host:port
+	 * @param port	the port for the REST server on hosts without a port
+	 * @param database	the database to access (default: configured database for the REST server)
+	 * @param user	the user with read, write, or administrative privileges
+	 * @param password	the password for the user
+	 * @param type	the type of authentication applied to the request
+	 * @param balancing	the policy for spreading requests across the hosts (default: round robin)
+	 * @return	a new client for making database requests
+	 */
+	static public DatabaseClient newClusterClient(String[] hosts, int port, String database, String user, String password, Authentication type, LoadBalancing balancing) {
+		return newClusterClient(hosts, port, database, user, password, type, null, null, balancing);
+	}
+	/**
+	 * Creates a client to access the database by means of the REST servers
+	 * on the hosts of a cluster.  The client stops sending requests to a host
+	 * while the host refuses connections, checking the host with a ping
+	 * before sending requests to it again.  Requests in a multi-statement
+	 * transaction are always sent to the host that opened the transaction.
+	 * With digest authentication, each thread keeps sending requests
+	 * to the same host while that host is available.
+	 * 
+	 * @param hosts	the hosts with the REST server, optionally as host:port
+	 * @param port	the port for the REST server on hosts without a port
+	 * @param database	the database to access (default: configured database for the REST server)
+	 * @param user	the user with read, write, or administrative privileges
+	 * @param password	the password for the user
+	 * @param type	the type of authentication applied to the request
+	 * @param context	the SSL context for authenticating with the server
+	 * @param verifier	a callback for checking hostnames
+	 * @param balancing	the policy for spreading requests across the hosts (default: round robin)
+	 * @return	a new client for making database requests
+	 */
+	static public DatabaseClient newClusterClient(String[] hosts, int port, String database, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier, LoadBalancing balancing) {
+		DatabaseClientImpl client = newClientImpl(hosts, port, database, user, password, type, context, verifier, balancing,
+				getConnectionPolicy(), getRetryPolicy(), getAsyncPolicy(), getCompressionPolicy());
 		client.setHandleRegistry(getHandleRegistry().copy());
 		return client;
 	}
-	static private DatabaseClientImpl newClientImpl(String host, int port, String database, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier) {
+	static private DatabaseClientImpl newClientImpl(String host, int port, String database, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier,
+			ConnectionPolicy policy, RetryPolicy retryPolicy, AsyncPolicy asyncPolicy, CompressionPolicy compressionPolicy) {
 		logger.debug("Creating new database client for server at "+host+":"+port);
 		JerseyServices services = new JerseyServices();
-		services.connect(host, port, database, user, password, type, context, verifier);
+		services.connect((host == null) ? null : new String[] {host}, port, database, user, password, type, context, verifier, null,
+				policy, retryPolicy, asyncPolicy, compressionPolicy);
 
+		return configureClientImpl(services);
+	}
+	static private DatabaseClientImpl newClientImpl(String[] hosts, int port, String database, String user, String password, Authentication type, SSLContext context, SSLHostnameVerifier verifier, LoadBalancing balancing,
+			ConnectionPolicy policy, RetryPolicy retryPolicy, AsyncPolicy asyncPolicy, CompressionPolicy compressionPolicy) {
+		if (hosts == null || hosts.length == 0)
+			throw new IllegalArgumentException("No hosts provided");
+		logger.debug("Creating new database client for servers at "+Arrays.toString(hosts)+":"+port);
+		JerseyServices services = new JerseyServices();
+		services.connect(hosts, port, database, user, password, type, context, verifier, balancing,
+				policy, retryPolicy, asyncPolicy, compressionPolicy);
+
+		return configureClientImpl(services);
+	}
+	static private DatabaseClientImpl configureClientImpl(JerseyServices services) {
 		if (clientConfigurator != null) {
 			((HttpClientConfigurator) clientConfigurator).configure(
 				services.getClientImplementation()
@@ -371,6 +999,78 @@ public class DatabaseClientFactory {
 		clientConfigurator = configurator;
 	}
 
+	/**
+	 * Returns the policy for the connection pool of clients created
+	 * by the static newClient() and newClusterClient() factory methods.
+	 * @return	the connection policy or null for the default policy
+	 */
+	static public ConnectionPolicy getConnectionPolicy() {
+		return connectionPolicy;
+	}
+	/**
+	 * Specifies the policy for the connection pool of clients created
+	 * afterward by the static newClient() and newClusterClient() factory methods.
+	 * Changing the policy object after creating a client has no effect on the client.
+	 * @param policy	the connection policy or null for the default policy
+	 */
+	static public void setConnectionPolicy(ConnectionPolicy policy) {
+		connectionPolicy = policy;
+	}
+	/**
+	 * Returns the policy for retrying the requests of clients created
+	 * by the static newClient() and newClusterClient() factory methods.
+	 * @return	the retry policy or null for the default policy
+	 */
+	static public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+	/**
+	 * Specifies the policy for retrying the requests of clients created
+	 * afterward by the static newClient() and newClusterClient() factory methods.
+	 * A null policy uses the default policy adjusted by the
+	 * com.marklogic.client.maximumRetrySeconds and
+	 * com.marklogic.client.minimumRetries system properties.
+	 * Changing the policy object after creating a client has no effect on the client.
+	 * @param policy	the retry policy or null for the default policy
+	 */
+	static public void setRetryPolicy(RetryPolicy policy) {
+		retryPolicy = policy;
+	}
+	/**
+	 * Returns the policy for the asynchronous requests of clients created
+	 * by the static newClient() and newClusterClient() factory methods.
+	 * @return	the asynchronous policy or null for the default policy
+	 */
+	static public AsyncPolicy getAsyncPolicy() {
+		return asyncPolicy;
+	}
+	/**
+	 * Specifies the policy for the asynchronous requests of clients created
+	 * afterward by the static newClient() and newClusterClient() factory methods.
+	 * Changing the policy object after creating a client has no effect on the client.
+	 * @param policy	the asynchronous policy or null for the default policy
+	 */
+	static public void setAsyncPolicy(AsyncPolicy policy) {
+		asyncPolicy = policy;
+	}
+	/**
+	 * Returns the policy for compressing the requests and responses of clients
+	 * created by the static newClient() and newClusterClient() factory methods.
+	 * @return	the compression policy or null for no compression
+	 */
+	static public CompressionPolicy getCompressionPolicy() {
+		return compressionPolicy;
+	}
+	/**
+	 * Specifies the policy for compressing the requests and responses of clients
+	 * created afterward by the static newClient() and newClusterClient() factory methods.
+	 * Changing the policy object after creating a client has no effect on the client.
+	 * @param policy	the compression policy or null for no compression
+	 */
+	static public void setCompressionPolicy(CompressionPolicy policy) {
+		compressionPolicy = policy;
+	}
+
 	/**
 	 * A Database Client Factory Bean provides an object for specifying configuration
 	 * before creating a client to make database requests.
@@ -397,11 +1097,17 @@ public class DatabaseClientFactory {
 		private static final long serialVersionUID = 1L;
 
 		private           String                host;
+		private           String[]              hosts;
 		private           int                   port;
 		private           String                database;
 		private           String                user;
 		private           String                password;
 		private           Authentication        authentication;
+		private           LoadBalancing         loadBalancing;
+		private           ConnectionPolicy      connectionPolicy;
+		private           RetryPolicy           retryPolicy;
+		private           AsyncPolicy           asyncPolicy;
+		private           CompressionPolicy     compressionPolicy;
 		private           HandleFactoryRegistry handleRegistry =
 			HandleFactoryRegistryImpl.newDefault();
 
@@ -433,6 +1139,23 @@ public class DatabaseClientFactory {
 		public void setHost(String host) {
 			this.host = host;
 		}
+		/**
+		 * Returns the cluster hosts for clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @return	the client hosts
+		 */
+		public String[] getHosts() {
+			return hosts;
+		}
+		/**
+		 * Specifies the cluster hosts for clients created from a
+		 * DatabaseClientFactory.Bean object.  When specified, the
+		 * hosts take precedence over the single host.
+		 * @param hosts	the client hosts
+		 */
+		public void setHosts(String[] hosts) {
+			this.hosts = hosts;
+		}
 		/**
 		 * Returns the port for clients created with a
 		 * DatabaseClientFactory.Bean object.
@@ -505,6 +1228,94 @@ public class DatabaseClientFactory {
 		public void setAuthenticationValue(String authentication) {
 			this.authentication = Authentication.valueOfUncased(authentication);
 		}
+		/**
+		 * Returns the load balancing policy for cluster clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @return	the load balancing policy
+		 */
+		public LoadBalancing getLoadBalancing() {
+			return loadBalancing;
+		}
+		/**
+		 * Specifies the load balancing policy for cluster clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @param loadBalancing	the load balancing policy
+		 */
+		public void setLoadBalancing(LoadBalancing loadBalancing) {
+			this.loadBalancing = loadBalancing;
+		}
+		/**
+		 * Specifies the load balancing policy for cluster clients created with a
+		 * DatabaseClientFactory.Bean object based on a string value.
+		 * @param loadBalancing	the load balancing policy
+		 */
+		public void setLoadBalancingValue(String loadBalancing) {
+			this.loadBalancing = LoadBalancing.valueOfUncased(loadBalancing);
+		}
+		/**
+		 * Returns the policy for the connection pool of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @return	the connection policy
+		 */
+		public ConnectionPolicy getConnectionPolicy() {
+			return connectionPolicy;
+		}
+		/**
+		 * Specifies the policy for the connection pool of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @param connectionPolicy	the connection policy
+		 */
+		public void setConnectionPolicy(ConnectionPolicy connectionPolicy) {
+			this.connectionPolicy = connectionPolicy;
+		}
+		/**
+		 * Returns the policy for retrying the requests of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @return	the retry policy
+		 */
+		public RetryPolicy getRetryPolicy() {
+			return retryPolicy;
+		}
+		/**
+		 * Specifies the policy for retrying the requests of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @param retryPolicy	the retry policy
+		 */
+		public void setRetryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+		}
+		/**
+		 * Returns the policy for the asynchronous requests of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @return	the asynchronous policy
+		 */
+		public AsyncPolicy getAsyncPolicy() {
+			return asyncPolicy;
+		}
+		/**
+		 * Specifies the policy for the asynchronous requests of clients created with a
+		 * DatabaseClientFactory.Bean object.
+		 * @param asyncPolicy	the asynchronous policy
+		 */
+		public void setAsyncPolicy(AsyncPolicy asyncPolicy) {
+			this.asyncPolicy = asyncPolicy;
+		}
+		/**
+		 * Returns the policy for compressing the requests and responses of clients
+		 * created with a DatabaseClientFactory.Bean object.
+		 * @return	the compression policy
+		 */
+		public CompressionPolicy getCompressionPolicy() {
+			return compressionPolicy;
+		}
+		/**
+		 * Specifies the policy for compressing the requests and responses of clients
+		 * created with a DatabaseClientFactory.Bean object.
+		 * @param compressionPolicy	the compression policy
+		 */
+		public void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+			this.compressionPolicy = compressionPolicy;
+		}
 		/**
 		 * Returns the SSLContext for SSL clients created with a
 		 * DatabaseClientFactory.Bean object.
@@ -572,7 +1383,11 @@ public class DatabaseClientFactory {
 		 * @return	a new client for making database requests
 		 */
 		public DatabaseClient newClient() {
-			DatabaseClientImpl client = newClientImpl(host, port, database, user, password, authentication, context, verifier);
+			DatabaseClientImpl client = (hosts != null && hosts.length > 0) ?
+				newClientImpl(hosts, port, database, user, password, authentication, context, verifier, loadBalancing,
+						connectionPolicy, retryPolicy, asyncPolicy, compressionPolicy) :
+				newClientImpl(host, port, database, user, password, authentication, context, verifier,
+						connectionPolicy, retryPolicy, asyncPolicy, compressionPolicy);
 			client.setHandleRegistry(getHandleRegistry().copy());
 
 			return client;
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client;
+
+/**
+ * RequestMetrics records the latency, size, and outcome of every request
+ * that a database client sends to the server, grouped by the kind of
+ * operation.  Every attempt counts as a request, including an attempt
+ * retried after the server was unavailable.  Latency is measured until
+ * the response headers arrive, so it excludes the time for reading
+ * a streamed response.
+ *
+ * The metrics can be read directly, passed to a listener after each request,
+ * or published as JMX MBeans.
+ * @see DatabaseClient#getRequestMetrics()
+ */
+public interface RequestMetrics {
+	/**
+	 * The kind of operation performed by a request.  Tuples requests
+	 * share the values endpoint, so they are recorded as VALUES.
+	 */
+	public enum Operation {
+		DOCUMENT_READ, DOCUMENT_WRITE, DOCUMENT_DELETE, BULK_READ, BULK_WRITE,
+		SEARCH, VALUES, EVAL, RESOURCE, TRANSACTION, OTHER;
+	}
+
+	/**
+	 * OperationMetrics reports the requests for one kind of operation.
+	 * Latencies are recorded in a histogram whose buckets have upper bounds of
+	 * successive powers of two microseconds, so percentiles are approximate.
+	 */
+	public interface OperationMetrics {
+		/**
+		 * Returns the number of requests sent.
+		 * @return	the number of requests
+		 */
+		public long getRequestCount();
+		/**
+		 * Returns the number of requests that failed with an error status,
+		 * including a status that the client retried, or without a response.
+		 * @return	the number of failures
+		 */
+		public long getFailureCount();
+		/**
+		 * Returns the number of times that the client retried a request
+		 * under the retry policy.
+		 * @return	the number of retries
+		 */
+		public long getRetryCount();
+		/**
+		 * Returns the number of requests failed by the client without
+		 * sending them because the circuit was open.
+		 * @return	the number of rejected requests
+		 * @see com.marklogic.client.DatabaseClientFactory.RetryPolicy
+		 */
+		public long getRejectedCount();
+		/**
+		 * Returns the number of requests waiting for a response.
+		 * @return	the requests in flight
+		 */
+		public long getInFlightCount();
+		/**
+		 * Returns the number of bytes sent in request bodies.
+		 * @return	the bytes sent
+		 */
+		public long getBytesSent();
+		/**
+		 * Returns the number of bytes read from response bodies.
+		 * @return	the bytes received
+		 */
+		public long getBytesReceived();
+		/**
+		 * Returns the mean latency of the requests.
+		 * @return	the mean latency in microseconds
+		 */
+		public long getMeanLatencyMicros();
+		/**
+		 * Returns the longest latency of the requests.
+		 * @return	the maximum latency in microseconds
+		 */
+		public long getMaxLatencyMicros();
+		/**
+		 * Returns the upper bound of the histogram bucket containing
+		 * the latency at the percentile.
+		 * @param percentile	the percentile between 0 and 100 such as 99
+		 * @return	the latency in microseconds
+		 */
+		public long getLatencyPercentileMicros(double percentile);
+		/**
+		 * Returns the number of requests in each latency bucket, where bucket i
+		 * counts the latencies of less than 2<sup>i</sup> microseconds that
+		 * weren't counted by a smaller bucket.  The last bucket also counts
+		 * all longer latencies.
+		 * @return	the request counts for the buckets
+		 */
+		public long[] getLatencyHistogram();
+	}
+
+	/**
+	 * A RequestListener receives each request after the response headers
+	 * arrive or the request fails.  Listeners are called on the thread
+	 * that sent the request and should return quickly.
+	 */
+	public interface RequestListener {
+		/**
+		 * Processes a completed request.
+		 * @param operation	the kind of operation
+		 * @param status	the HTTP status or -1 if no response was received
+		 * @param latencyNanos	the time until the response in nanoseconds
+		 * @param bytesSent	the bytes sent in the request body
+		 * @param bytesReceived	the length of the response body or -1 if unknown
+		 */
+		public void requestCompleted(Operation operation, int status, long latencyNanos,
+				long bytesSent, long bytesReceived);
+	}
+
+	/**
+	 * Returns the metrics for one kind of operation.
+	 * @param operation	the kind of operation
+	 * @return	the metrics for the operation
+	 */
+	public OperationMetrics getOperationMetrics(Operation operation);
+
+	/**
+	 * Adds a listener for every completed request.
+	 * @param listener	the listener
+	 */
+	public void addRequestListener(RequestListener listener);
+	/**
+	 * Removes a listener added previously.
+	 * @param listener	the listener
+	 */
+	public void removeRequestListener(RequestListener listener);
+
+	/**
+	 * Sets every count to zero except the requests in flight.
+	 */
+	public void reset();
+
+	/**
+	 * Publishes the metrics for each kind of operation as an MBean
+	 * on the platform MBean server with a name such as
+	 * com.marklogic.client:type=RequestMetrics,client="name",operation=SEARCH.
+	 * The MBeans are unregistered when the client is released.
+	 * @param clientName	the name distinguishing the client
+	 */
+	public void registerMBeans(String clientName);
+	/**
+	 * Removes the MBeans published for the metrics.
+	 */
+	public void unregisterMBeans();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client;
+
+/**
+ * A ResultCallback receives the outcome of an asynchronous request
+ * on the thread that executed the request.
+ * @param <T>	the type of the result
+ */
+public interface ResultCallback<T> {
+	/**
+	 * Processes the result of a request that succeeded.
+	 * @param result	the result of the request
+	 */
+	public void onSuccess(T result);
+	/**
+	 * Processes the error for a request that failed or was cancelled.
+	 * @param failure	the error for the request
+	 */
+	public void onFailure(Throwable failure);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.document;
+
+import java.util.concurrent.Future;
+
+import com.marklogic.client.ResultCallback;
+import com.marklogic.client.io.marker.AbstractReadHandle;
+import com.marklogic.client.io.marker.AbstractWriteHandle;
+import com.marklogic.client.io.marker.DocumentMetadataReadHandle;
+import com.marklogic.client.io.marker.DocumentMetadataWriteHandle;
+import com.marklogic.client.query.QueryDefinition;
+
+/**
+ * An AsyncDocumentManager sends document requests without blocking
+ * the calling thread.  Each method returns a Future for the result
+ * and, optionally, passes the result or error to a callback.
+ *
+ * The requests use the configuration of the document manager that
+ * created the AsyncDocumentManager at the time the request executes.
+ * The requests run on a pool of threads shared by the database client
+ * and configured by {@link com.marklogic.client.DatabaseClientFactory.AsyncPolicy}.
+ * The manager is a thread-offload wrapper around the synchronous manager,
+ * not non-blocking I/O: each request in progress occupies a pool thread
+ * until the server responds.
+ *
+ * When every thread is busy and the queue is full, a method throws a
+ * java.util.concurrent.RejectedExecutionException by default.  With the
+ * {@link com.marklogic.client.DatabaseClientFactory.AsyncPolicy.Overflow#CALLER_RUNS}
+ * overflow policy, the method instead executes the request and calls the
+ * callback on the calling thread, blocking that thread until the request
+ * completes.
+ *
+ * @param <R>	the set of handles for reading the document content
+ * @param <W>	the set of handles for writing the document content
+ */
+public interface AsyncDocumentManager<R extends AbstractReadHandle, W extends AbstractWriteHandle> {
+	/**
+	 * Returns the synchronous document manager that executes the requests.
+	 * @return	the document manager
+	 */
+	public DocumentManager<R, W> getDocumentManager();
+
+	/**
+	 * Reads the document content from the database in the representation
+	 * provided by the handle.
+	 * @param docId	the URI identifier for the document
+	 * @param contentHandle	a handle for reading the content of the document
+	 * @return	a future for the handle populated with the content
+	 */
+	public <T extends R> Future<T> read(String docId, T contentHandle);
+	/**
+	 * Reads the document content from the database in the representation
+	 * provided by the handle and passes the handle to the callback.
+	 * @param docId	the URI identifier for the document
+	 * @param contentHandle	a handle for reading the content of the document
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the handle populated with the content
+	 */
+	public <T extends R> Future<T> read(String docId, T contentHandle, ResultCallback<T> callback);
+	/**
+	 * Reads the document metadata and content from the database
+	 * and passes the content handle to the callback.
+	 * @param docId	the URI identifier for the document
+	 * @param metadataHandle	a handle for reading the metadata of the document
+	 * @param contentHandle	a handle for reading the content of the document
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the handle populated with the content
+	 */
+	public <T extends R> Future<T> read(String docId, DocumentMetadataReadHandle metadataHandle,
+			T contentHandle, ResultCallback<T> callback);
+
+	/**
+	 * Writes the document content to the database from the representation
+	 * provided by the handle.
+	 * @param docId	the URI identifier for the document
+	 * @param contentHandle	a handle for writing the content of the document
+	 * @return	a future that completes when the document is written
+	 */
+	public Future<Void> write(String docId, W contentHandle);
+	/**
+	 * Writes the document metadata and content to the database
+	 * and notifies the callback when the write completes.
+	 * @param docId	the URI identifier for the document
+	 * @param metadataHandle	a handle for writing the metadata of the document
+	 * @param contentHandle	a handle for writing the content of the document
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future that completes when the document is written
+	 */
+	public Future<Void> write(String docId, DocumentMetadataWriteHandle metadataHandle,
+			W contentHandle, ResultCallback<Void> callback);
+	/**
+	 * Writes a set of documents in one request and notifies the callback
+	 * when the write completes.
+	 * @param writeSet	the set of documents to write
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future that completes when the documents are written
+	 */
+	public Future<Void> write(DocumentWriteSet writeSet, ResultCallback<Void> callback);
+
+	/**
+	 * Deletes the document metadata and content from the database.
+	 * @param docId	the URI identifier for the document
+	 * @return	a future that completes when the document is deleted
+	 */
+	public Future<Void> delete(String docId);
+	/**
+	 * Deletes the document metadata and content from the database
+	 * and notifies the callback when the delete completes.
+	 * @param docId	the URI identifier for the document
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future that completes when the document is deleted
+	 */
+	public Future<Void> delete(String docId, ResultCallback<Void> callback);
+
+	/**
+	 * Reads the page of documents matching the query starting with
+	 * the specified result.
+	 * @param querydef	the definition of query criteria and query options
+	 * @param start	the offset of the first document in the page (where 1 is the first result)
+	 * @return	a future for the page of matching documents
+	 */
+	public Future<DocumentPage> search(QueryDefinition querydef, long start);
+	/**
+	 * Reads the page of documents matching the query starting with
+	 * the specified result and passes the page to the callback.
+	 * @param querydef	the definition of query criteria and query options
+	 * @param start	the offset of the first document in the page (where 1 is the first result)
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the page of matching documents
+	 */
+	public Future<DocumentPage> search(QueryDefinition querydef, long start, ResultCallback<DocumentPage> callback);
+}
@@ -312,6 +312,13 @@ public interface BinaryDocumentManager extends DocumentManager<BinaryReadHandle,
 	public <T extends BinaryReadHandle> T read(DocumentDescriptor desc, DocumentMetadataReadHandle metadataHandle, T contentHandle, ServerTransform transform, long start, long length, Transaction transaction)
 	throws ResourceNotFoundException, ForbiddenUserException,  FailedRequestException;
 
+	/**
+	 * Creates a downloader that reads the content of a large binary
+	 * document to a file in concurrent byte ranges using this document manager.
+	 * @return	the new range downloader
+	 */
+	public RangeDownloader newRangeDownloader();
+
 	/**
 	 * Returns the metadata extraction policy.
 	 * @return	the policy for extracting metadata
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.document;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A DocumentCache keeps the content of recently read documents on the client
+ * so repeated reads of documents that seldom change don't transfer the content
+ * again.  The cache holds at most a maximum number of bytes of content and
+ * evicts the least recently read documents first.
+ *
+ * Create a cache with {@link DocumentManager#newDocumentCache(long)} and
+ * enable it with {@link DocumentManager#setDocumentCache(DocumentCache)}.
+ * A cache may be shared by the document managers of one database client.
+ *
+ * A read is served from the cache if the document was read or revalidated
+ * within the maximum age.  Otherwise, the read sends the version of the cached
+ * document to the server, which replies without the content if the document
+ * hasn't changed.  By default, the maximum age is zero, so every read is
+ * revalidated.  Only reads of content without metadata, transforms, or a
+ * transaction use the cache, and only documents read with a version are kept.
+ * Reads into an InputStreamHandle, ReaderHandle, or FileChannelHandle bypass
+ * the cache so the content streams without being buffered on the heap.
+ * Writes and deletes through a document manager using the cache remove the
+ * documents from the cache.
+ */
+public interface DocumentCache {
+	/**
+	 * Returns the maximum number of bytes of content kept by the cache.
+	 * @return	the maximum bytes
+	 */
+	public long getMaxBytes();
+	/**
+	 * Returns the number of bytes of content currently kept by the cache.
+	 * @return	the current bytes
+	 */
+	public long getCurrentBytes();
+	/**
+	 * Returns the number of documents currently kept by the cache.
+	 * @return	the number of documents
+	 */
+	public int getDocumentCount();
+
+	/**
+	 * Returns the time after reading or revalidating a document during which
+	 * reads are served from the cache without a request.
+	 * @param unit	the unit for the returned age
+	 * @return	the maximum age
+	 */
+	public long getMaxAge(TimeUnit unit);
+	/**
+	 * Specifies the time after reading or revalidating a document during which
+	 * reads are served from the cache without a request.  Reads of documents
+	 * changed on the server during that time return the cached content.
+	 * @param age	the maximum age
+	 * @param unit	the unit for the age
+	 */
+	public void setMaxAge(long age, TimeUnit unit);
+
+	/**
+	 * Returns the number of reads served from the cache, including reads
+	 * revalidated with the server.
+	 * @return	the number of hits
+	 */
+	public long getHitCount();
+	/**
+	 * Returns the number of reads for which the server confirmed that the
+	 * cached document hadn't changed.
+	 * @return	the number of revalidations
+	 */
+	public long getRevalidationCount();
+	/**
+	 * Returns the number of reads that transferred the document content.
+	 * @return	the number of misses
+	 */
+	public long getMissCount();
+	/**
+	 * Returns the number of documents removed to keep the cache within
+	 * the maximum bytes.
+	 * @return	the number of evictions
+	 */
+	public long getEvictionCount();
+
+	/**
+	 * Removes a document from the cache.
+	 * @param uri	the identifier for the document
+	 */
+	public void invalidate(String uri);
+	/**
+	 * Removes every document from the cache.
+	 */
+	public void clear();
+}
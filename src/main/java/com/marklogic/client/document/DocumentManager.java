@@ -555,8 +555,75 @@ public interface DocumentManager<R extends AbstractReadHandle, W extends Abstrac
      */
     public void setSearchView(QueryView view);
 
+    /**
+     * Returns whether the DocumentPage returned by {@link #read(String...) read}
+     * and {@link #search(QueryDefinition, long) search} streams documents from
+     * the response instead of reading the entire response before returning.
+     * @return	true if pages are streamed
+     */
+    public boolean isPageStreaming();
+
+    /**
+     * Specifies whether the DocumentPage returned by {@link #read(String...) read}
+     * and {@link #search(QueryDefinition, long) search} streams documents from
+     * the response as the page is iterated instead of reading the entire response
+     * before returning, so memory use does not grow with the size of the page.
+     * When pages are streamed, the content of a DocumentRecord must be read
+     * before calling next() for the following record, and
+     * {@link DocumentPage#size() DocumentPage.size()} reports the number of
+     * documents requested or estimated rather than the number returned.
+     * By default, pages are not streamed.
+     * @param streaming	true to stream pages
+     */
+    public void setPageStreaming(boolean streaming);
+
     public DocumentWriteSet newWriteSet();
 
+    /**
+     * Creates a batcher that writes documents in parallel batches
+     * using this document manager.  Call {@link WriteBatcher#release()}
+     * when finished adding documents to stop the worker threads.
+     * @return	the new write batcher
+     */
+    public WriteBatcher newWriteBatcher();
+
+    /**
+     * Creates a batcher that reads the documents or uris matching a query
+     * in parallel pages using this document manager.  Documents are read
+     * in the format, with the metadata categories, configured for
+     * this document manager.
+     * @param query	the query that selects the documents
+     * @return	the new query batcher
+     */
+    public QueryBatcher newQueryBatcher(QueryDefinition query);
+
+    /**
+     * Creates a cache that keeps up to the specified bytes of document content
+     * read by document managers that use the cache.
+     * @param maxBytes	the maximum bytes of content in the cache
+     * @return	the new document cache
+     */
+    public DocumentCache newDocumentCache(long maxBytes);
+    /**
+     * Returns the cache for documents read by this document manager.
+     * @return	the document cache or null if documents aren't cached
+     */
+    public DocumentCache getDocumentCache();
+    /**
+     * Specifies a cache for the content of documents read by this
+     * document manager.  By default, documents aren't cached.
+     * @param cache	the document cache or null to stop caching documents
+     */
+    public void setDocumentCache(DocumentCache cache);
+
+    /**
+     * Creates a manager that sends read, write, delete, and search requests
+     * without blocking the calling thread, using the configuration of this
+     * document manager.
+     * @return	the new asynchronous document manager
+     */
+    public AsyncDocumentManager<R, W> newAsyncManager();
+
     /**
      * Write a set of documents and metadata to the server via REST API bulk capabilities.
      * @param writeSet	the set of documents and metadata to write
@@ -869,6 +936,30 @@ public interface DocumentManager<R extends AbstractReadHandle, W extends Abstrac
     public void delete(DocumentDescriptor desc, Transaction transaction)
 		throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
 
+    /**
+     * Deletes the metadata and content of the documents with the uris from
+     * the database in a single request.  Uris that do not identify a document
+     * are ignored.
+     * 
+     * To call delete(), an application must authenticate as rest-writer or rest-admin.
+     * 
+     * @param uris	the URI identifiers for the documents
+     */
+    public void delete(String... uris)
+    	throws ForbiddenUserException, FailedRequestException;
+    /**
+     * Deletes the metadata and content of the documents with the uris from
+     * an open database transaction in a single request.  Uris that do not
+     * identify a document are ignored.
+     * 
+     * To call delete(), an application must authenticate as rest-writer or rest-admin.
+     * 
+     * @param transaction	a open transaction under which the documents may have been created or deleted
+     * @param uris	the URI identifiers for the documents
+     */
+    public void delete(Transaction transaction, String... uris)
+    	throws ForbiddenUserException, FailedRequestException;
+
     /**
 	 * Creates a database document with a uri assigned by the server from an object of an IO class.
      * 
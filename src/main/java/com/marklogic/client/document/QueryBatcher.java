@@ -0,0 +1,242 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.document;
+
+import java.util.concurrent.TimeUnit;
+
+import com.marklogic.client.query.QueryDefinition;
+
+/**
+ * A QueryBatcher reads every document or uri matching a query by requesting
+ * pages of results in parallel on a pool of worker threads and passing each
+ * page to a listener as a batch.
+ *
+ * Create a QueryBatcher with {@link DocumentManager#newQueryBatcher(QueryDefinition)},
+ * set either a {@link UriBatchListener} or a {@link DocumentBatchListener},
+ * call {@link #start()}, and call {@link #awaitCompletion()} to wait until
+ * every page has been processed.  Call {@link #stop()} to finish early.
+ *
+ * When the server reports the timestamp at which it evaluated the first page,
+ * the remaining pages are requested at the same timestamp so documents
+ * written during the export do not shift results between pages.
+ */
+public interface QueryBatcher {
+	/**
+	 * A QueryBatch identifies a page of query results read by a QueryBatcher.
+	 */
+	public interface QueryBatch {
+		/**
+		 * Returns the sequence number of the batch within the QueryBatcher,
+		 * starting with 1.
+		 * @return	the batch number
+		 */
+		public long getBatchNumber();
+		/**
+		 * Returns the position of the first result of the batch
+		 * within the query results, starting with 1.
+		 * @return	the start of the batch
+		 */
+		public long getStart();
+		/**
+		 * Returns the server timestamp at which the batch was read.
+		 * @return	the timestamp or -1 if the server did not report a timestamp
+		 */
+		public long getServerTimestamp();
+	}
+
+	/**
+	 * A UriBatchListener processes the uris of the documents matching the query.
+	 */
+	public interface UriBatchListener {
+		/**
+		 * Processes the uris for a batch on a worker thread.
+		 * @param batch	the batch
+		 * @param uris	the uris of the documents in the batch
+		 */
+		public void processUris(QueryBatch batch, String[] uris);
+	}
+
+	/**
+	 * A DocumentBatchListener processes the documents matching the query.
+	 */
+	public interface DocumentBatchListener {
+		/**
+		 * Processes the documents for a batch on a worker thread.
+		 * The page is closed after the listener returns.
+		 * @param batch	the batch
+		 * @param documents	the documents in the batch
+		 */
+		public void processDocuments(QueryBatch batch, DocumentPage documents);
+	}
+
+	/**
+	 * A QueryFailureListener is notified on a worker thread when a batch
+	 * could not be read.  The batcher continues with the following batches
+	 * unless the first batch failed or the consecutive failures reached
+	 * the maximum, in which case the batcher stops after notifying
+	 * the listener.
+	 */
+	public interface QueryFailureListener {
+		/**
+		 * Processes a batch that could not be read.
+		 * @param batch	the failed batch
+		 * @param failure	the error for the failed request
+		 */
+		public void batchFailed(QueryBatch batch, Throwable failure);
+	}
+
+	/**
+	 * Returns the query that selects the documents.
+	 * @return	the query
+	 */
+	public QueryDefinition getQuery();
+
+	/**
+	 * Returns the number of results read in each request.
+	 * @return	the batch size (default: 100)
+	 */
+	public int getBatchSize();
+	/**
+	 * Specifies the number of results read in each request.
+	 * The batch size cannot be changed after the batcher starts.
+	 * @param batchSize	the batch size
+	 */
+	public void setBatchSize(int batchSize);
+
+	/**
+	 * Returns the number of worker threads that read batches.
+	 * @return	the thread count (default: 4)
+	 */
+	public int getThreadCount();
+	/**
+	 * Specifies the number of worker threads that read batches.
+	 * The thread count cannot be changed after the batcher starts.
+	 * @param threadCount	the thread count
+	 */
+	public void setThreadCount(int threadCount);
+
+	/**
+	 * Returns whether pages are read at the server timestamp of the first page.
+	 * @return	true if pages are read at a consistent point in time (default: true)
+	 */
+	public boolean isConsistentSnapshot();
+	/**
+	 * Specifies whether pages are read at the server timestamp of the first
+	 * page.  Without a consistent snapshot, documents written during the
+	 * export may be skipped or read twice.
+	 * @param consistentSnapshot	true to read pages at a consistent point in time
+	 */
+	public void setConsistentSnapshot(boolean consistentSnapshot);
+
+	/**
+	 * Returns the number of consecutive batch failures that stop the batcher.
+	 * @return	the maximum consecutive failures (default: 3)
+	 */
+	public int getMaxConsecutiveFailures();
+	/**
+	 * Specifies the number of consecutive batch failures that stop the
+	 * batcher.  A failure of the first batch always stops the batcher
+	 * because the first batch establishes the server timestamp and the
+	 * following batches would most likely fail in the same way.
+	 * Stopping leaves the unread batches unread, so {@link #isStopped()}
+	 * reports whether the export is incomplete.
+	 * The maximum cannot be changed after the batcher starts.
+	 * @param maxConsecutiveFailures	the maximum consecutive failures
+	 */
+	public void setMaxConsecutiveFailures(int maxConsecutiveFailures);
+
+	/**
+	 * Specifies the listener that receives the uris of the matching
+	 * documents.  Only the uris are read from the server.
+	 * @param listener	the uri listener
+	 */
+	public void setUriBatchListener(UriBatchListener listener);
+	/**
+	 * Specifies the listener that receives the matching documents.
+	 * @param listener	the document listener
+	 */
+	public void setDocumentBatchListener(DocumentBatchListener listener);
+	/**
+	 * Specifies the listener notified when a batch cannot be read.
+	 * Without a failure listener, failures are logged and counted.
+	 * @param listener	the failure listener or null
+	 */
+	public void setQueryFailureListener(QueryFailureListener listener);
+
+	/**
+	 * Starts reading batches on the worker threads.  Exactly one of
+	 * the uri or document listeners must be set before starting,
+	 * and a batcher can only be started once.
+	 */
+	public void start();
+	/**
+	 * Stops requesting batches.  Batches already being read are still
+	 * passed to the listener.
+	 */
+	public void stop();
+	/**
+	 * Returns whether the batcher was stopped before reading every batch,
+	 * either by a call to stop() or by batch failures.
+	 * @return	true if the batcher was stopped
+	 */
+	public boolean isStopped();
+	/**
+	 * Waits until every batch has been processed or the batcher has stopped.
+	 * @return	true if the batcher finished or false if the thread was interrupted
+	 */
+	public boolean awaitCompletion();
+	/**
+	 * Waits up to the timeout until every batch has been processed or
+	 * the batcher has stopped.
+	 * @param timeout	the maximum time to wait
+	 * @param unit	the unit of the timeout
+	 * @return	true if the batcher finished or false if the timeout elapsed or the thread was interrupted
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit);
+
+	/**
+	 * Returns the server timestamp at which the batches are read.
+	 * @return	the timestamp or -1 if the timestamp is not known
+	 */
+	public long getServerTimestamp();
+	/**
+	 * Returns the most recent server estimate of the number of
+	 * matching documents.
+	 * @return	the estimate or -1 before the first batch is read
+	 */
+	public long getEstimatedTotal();
+	/**
+	 * Returns the number of batches passed to the listener.
+	 * @return	the processed batches
+	 */
+	public long getBatchesProcessed();
+	/**
+	 * Returns the number of documents or uris passed to the listener.
+	 * @return	the processed documents
+	 */
+	public long getDocumentsProcessed();
+	/**
+	 * Returns the number of batches that could not be read.
+	 * @return	the failed batches
+	 */
+	public long getBatchesFailed();
+	/**
+	 * Returns the rate at which documents or uris were read from the start
+	 * of the batcher to the most recently processed batch.
+	 * @return	the documents read per second
+	 */
+	public double getDocumentsPerSecond();
+}
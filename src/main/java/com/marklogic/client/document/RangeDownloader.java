@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.document;
+
+import java.io.File;
+
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.ForbiddenUserException;
+import com.marklogic.client.ResourceNotFoundException;
+
+/**
+ * A RangeDownloader downloads a large binary document to a file by
+ * splitting the content into byte ranges and reading the ranges
+ * concurrently on a pool of worker threads.  Each range is written
+ * at its offset in the file as it arrives.
+ *
+ * Create a RangeDownloader with {@link BinaryDocumentManager#newRangeDownloader()}.
+ * While a download is in progress, the downloader records the completed
+ * ranges in a companion file named by appending {@link #PROGRESS_SUFFIX}
+ * to the name of the target file.  If the download is interrupted or
+ * a range fails, downloading the same document to the same file again
+ * reads only the ranges that are missing, provided the document has the
+ * same version and length.  The companion file is deleted when the
+ * download completes.
+ *
+ * A downloader downloads one document at a time.
+ */
+public interface RangeDownloader {
+	/**
+	 * The suffix appended to the name of the target file to name the file
+	 * that records the progress of the download.
+	 */
+	public static final String PROGRESS_SUFFIX = ".ranges";
+
+	/**
+	 * Returns the number of worker threads that read ranges.
+	 * @return	the thread count (default: 4)
+	 */
+	public int getThreadCount();
+	/**
+	 * Specifies the number of worker threads that read ranges.
+	 * @param threadCount	the thread count
+	 */
+	public void setThreadCount(int threadCount);
+
+	/**
+	 * Returns the number of bytes read in each request.
+	 * @return	the range size (default: 8 MB)
+	 */
+	public long getRangeSize();
+	/**
+	 * Specifies the number of bytes read in each request.  Changing
+	 * the range size causes an interrupted download to start over.
+	 * @param rangeSize	the range size
+	 */
+	public void setRangeSize(long rangeSize);
+
+	/**
+	 * Downloads the content of a binary document to a file, resuming
+	 * an earlier download of the same document to the same file.
+	 * If any range cannot be read, the error is thrown after the
+	 * other ranges in progress finish.
+	 * @param uri	the identifier for the document
+	 * @param target	the file that receives the content
+	 * @return	a descriptor with the version and length of the downloaded document
+	 */
+	public DocumentDescriptor download(String uri, File target)
+		throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
+
+	/**
+	 * Returns the number of ranges read by the most recent download.
+	 * @return	the downloaded ranges
+	 */
+	public int getRangesDownloaded();
+	/**
+	 * Returns the number of ranges the most recent download skipped
+	 * because an earlier download had completed them.
+	 * @return	the resumed ranges
+	 */
+	public int getRangesResumed();
+	/**
+	 * Returns the number of bytes read by the most recent download.
+	 * @return	the downloaded bytes
+	 */
+	public long getBytesDownloaded();
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.document;
+
+import java.util.concurrent.TimeUnit;
+
+import com.marklogic.client.io.marker.AbstractWriteHandle;
+import com.marklogic.client.io.marker.DocumentMetadataWriteHandle;
+
+/**
+ * A WriteBatcher writes many documents to the database by collecting
+ * the documents added from any thread into batches and writing each batch
+ * as a {@link DocumentWriteSet} on a pool of worker threads.
+ *
+ * Create a WriteBatcher with {@link DocumentManager#newWriteBatcher()},
+ * configure it, add documents, and call {@link #flush()} and
+ * {@link #awaitCompletion()} to write the last partial batch and wait for
+ * every batch to finish.  Call {@link #release()} when done with the batcher
+ * to stop the worker threads.
+ *
+ * When all worker threads are busy and the queue of batches is full,
+ * adding a document that completes a batch waits until a worker is available.
+ */
+public interface WriteBatcher {
+	/**
+	 * A WriteBatch identifies a batch of documents written by a WriteBatcher.
+	 */
+	public interface WriteBatch {
+		/**
+		 * Returns the sequence number of the batch within the WriteBatcher,
+		 * starting with 1.
+		 * @return	the batch number
+		 */
+		public long getBatchNumber();
+		/**
+		 * Returns the documents written by the batch.
+		 * @return	the documents in the batch
+		 */
+		public DocumentWriteSet getWriteSet();
+	}
+
+	/**
+	 * A BatchListener is notified on a worker thread after a batch is written.
+	 */
+	public interface BatchListener {
+		/**
+		 * Processes a batch that was written successfully.
+		 * @param batch	the written batch
+		 */
+		public void batchWritten(WriteBatch batch);
+	}
+
+	/**
+	 * A BatchFailureListener is notified on a worker thread when a batch
+	 * could not be written.  The listener can call {@link WriteBatcher#retry(WriteBatch)}
+	 * to write the batch again.
+	 */
+	public interface BatchFailureListener {
+		/**
+		 * Processes a batch that could not be written.
+		 * @param batch	the failed batch
+		 * @param failure	the error for the failed request
+		 */
+		public void batchFailed(WriteBatch batch, Throwable failure);
+	}
+
+	/**
+	 * Returns the number of documents written in each request.
+	 * @return	the batch size (default: 100)
+	 */
+	public int getBatchSize();
+	/**
+	 * Specifies the number of documents written in each request.
+	 * The batch size cannot be changed after the first document is added.
+	 * @param batchSize	the batch size
+	 */
+	public void setBatchSize(int batchSize);
+
+	/**
+	 * Returns the number of worker threads that write batches.
+	 * @return	the thread count (default: 4)
+	 */
+	public int getThreadCount();
+	/**
+	 * Specifies the number of worker threads that write batches.
+	 * The thread count cannot be changed after the first document is added.
+	 * @param threadCount	the thread count
+	 */
+	public void setThreadCount(int threadCount);
+
+	/**
+	 * Returns the server transform applied to each batch.
+	 * @return	the transform or null to use the write transform of the document manager
+	 */
+	public ServerTransform getTransform();
+	/**
+	 * Specifies a server transform to modify the content of each document.
+	 * @param transform	the transform or null to use the write transform of the document manager
+	 */
+	public void setTransform(ServerTransform transform);
+
+	/**
+	 * Specifies the listener notified after each batch is written,
+	 * replacing any previous listener.
+	 * @param listener	the success listener or null
+	 */
+	public void setBatchListener(BatchListener listener);
+	/**
+	 * Specifies the listener notified when a batch cannot be written,
+	 * replacing any previous listener.  Without a failure listener,
+	 * failures are logged and counted.
+	 * @param listener	the failure listener or null
+	 */
+	public void setBatchFailureListener(BatchFailureListener listener);
+
+	/**
+	 * Adds a document to the current batch, writing the batch
+	 * when it reaches the batch size.
+	 * @param uri	the identifier for the document
+	 * @param contentHandle	a handle for writing the content of the document
+	 * @return	the batcher for chaining
+	 */
+	public WriteBatcher add(String uri, AbstractWriteHandle contentHandle);
+	/**
+	 * Adds a document with metadata to the current batch, writing the batch
+	 * when it reaches the batch size.
+	 * @param uri	the identifier for the document
+	 * @param metadataHandle	a handle for writing the metadata of the document
+	 * @param contentHandle	a handle for writing the content of the document
+	 * @return	the batcher for chaining
+	 */
+	public WriteBatcher add(String uri, DocumentMetadataWriteHandle metadataHandle, AbstractWriteHandle contentHandle);
+	/**
+	 * Adds a document to the current batch from an object of an IO class,
+	 * writing the batch when it reaches the batch size.
+	 * @param uri	the identifier for the document
+	 * @param content	an IO representation of the document content
+	 * @return	the batcher for chaining
+	 */
+	public WriteBatcher addAs(String uri, Object content);
+	/**
+	 * Adds a document with metadata to the current batch from an object of
+	 * an IO class, writing the batch when it reaches the batch size.
+	 * @param uri	the identifier for the document
+	 * @param metadataHandle	a handle for writing the metadata of the document
+	 * @param content	an IO representation of the document content
+	 * @return	the batcher for chaining
+	 */
+	public WriteBatcher addAs(String uri, DocumentMetadataWriteHandle metadataHandle, Object content);
+
+	/**
+	 * Sends the current partial batch to the worker threads without
+	 * waiting for the batch to be written.
+	 */
+	public void flush();
+	/**
+	 * Waits until every batch sent to the worker threads has been written
+	 * or has failed.  Documents in the current partial batch are not
+	 * written until the batch is full or flushed.
+	 * @return	true if the batches completed or false if the thread was interrupted
+	 */
+	public boolean awaitCompletion();
+	/**
+	 * Waits up to the timeout until every batch sent to the worker threads
+	 * has been written or has failed.
+	 * @param timeout	the maximum time to wait
+	 * @param unit	the unit of the timeout
+	 * @return	true if the batches completed or false if the timeout elapsed or the thread was interrupted
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit);
+	/**
+	 * Writes a batch again on the calling thread, typically from
+	 * a failure listener after correcting the cause of the failure.
+	 * If the write fails again, the error is thrown to the caller.
+	 * @param batch	the batch to write
+	 */
+	public void retry(WriteBatch batch);
+	/**
+	 * Flushes the current batch, waits for the batches to complete, and
+	 * stops the worker threads.  Documents cannot be added after release.
+	 */
+	public void release();
+
+	/**
+	 * Returns the number of batches written successfully.
+	 * @return	the written batches
+	 */
+	public long getBatchesWritten();
+	/**
+	 * Returns the number of documents written successfully.
+	 * @return	the written documents
+	 */
+	public long getDocumentsWritten();
+	/**
+	 * Returns the number of batch writes that failed, including
+	 * failures for batches written later by {@link #retry(WriteBatch)}.
+	 * @return	the failed batches
+	 */
+	public long getBatchesFailed();
+	/**
+	 * Returns the number of documents in failed batch writes.
+	 * @return	the failed documents
+	 */
+	public long getDocumentsFailed();
+	/**
+	 * Returns the rate of successful writes from the first added document
+	 * to the most recently completed batch.
+	 * @return	the documents written per second
+	 */
+	public double getDocumentsPerSecond();
+}
@@ -74,8 +74,21 @@ public interface EvalResult {
      */
     public Number getNumber();
 
+    /** This result parsed to a long without creating a Number, typically
+     * for a result of the {@link Type#INTEGER INTEGER} type.
+     * @return this result as a long
+     * @throws NumberFormatException if the result is not an integer
+     */
+    public long getLong();
+
+    /** This result parsed to a double without creating a Number.
+     * @return this result as a double
+     * @throws NumberFormatException if the result is not a number
+     */
+    public double getDouble();
+
     /** This result parsed to a Boolean.
-     * @return a boolean as generated by new Boolean({@link #getString getString()})
+     * @return a boolean as generated by Boolean.valueOf({@link #getString getString()})
      */
     public Boolean getBoolean();
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.eval;
+
+/**
+ * A PreparedServerEvaluation is the code or module path of a
+ * {@link ServerEvaluationCall} encoded once for sending to the server so
+ * applications that run the same code many times with different variables
+ * pay for encoding the code only once.
+ *
+ * Prepare the code once and start a call for each request: <pre>{@code
+ *PreparedServerEvaluation prepared = client.newServerEval()
+ *    .javascript(javascript)
+ *    .prepare();
+ *String response = prepared.newCall()
+ *    .addVariable("name", "Mars")
+ *    .evalAs(String.class);
+ *}</pre>
+ *
+ * A PreparedServerEvaluation is immutable and can be shared by threads.
+ * Each call belongs to one request.
+ */
+public interface PreparedServerEvaluation {
+    /** Starts a call that evaluates or invokes the prepared code with the namespaces
+     * and streaming setting of the prepared call.  Add the variables and transaction
+     * for the request to the new call.  The code, module path, and namespaces
+     * of the new call cannot be changed.
+     * @return a new ServerEvaluationCall for one request
+     */
+    public ServerEvaluationCall newCall();
+}
@@ -183,6 +183,25 @@ public interface ServerEvaluationCall {
      */
     public ServerEvaluationCall namespaceContext(EditableNamespaceContext namespaces);
 
+    /** Specifies whether {@link #eval()} parses each result from the response as the
+     * iterator advances instead of reading every result before returning the iterator.
+     * Streaming keeps memory bounded for calls that return millions of results, but
+     * the content of a result can be read only once and only until the iterator
+     * advances to the next result.
+     * @param streaming true to stream the results (default: false)
+     * @return a reference to this ServerEvaluationCall instance for use as a fluent-style builder
+     */
+    public ServerEvaluationCall streaming(boolean streaming);
+
+    /** Encodes the code or module path of this call once so the code can be evaluated
+     * or invoked many times, concurrently if needed, with different variables.
+     * The prepared calls have the namespaces and streaming setting of this call
+     * but not the variables or transaction, which belong to each request.
+     * @return a PreparedServerEvaluation that starts calls for the code
+     * @throws IllegalStateException if no code or module path was initialized
+     */
+    public PreparedServerEvaluation prepare();
+
     /** Conveneince method to get the response serialized to a particular type by an io handle.
      * Like other <a href="http://www.marklogic.com/blog/io-shortcut-marklogic-java-client-api/">
      * *As convenience methods</a> throughout the API, the return value
@@ -37,6 +37,14 @@ abstract class AbstractLoggingManager {
 
 		requestLogger = null;
 	}
+	// the logger for one request; an asynchronous logger decides whether
+	// to sample the request once, before any of its content is logged
+	protected RequestLogger requestLog() {
+		RequestLogger logger = requestLogger;
+		if (logger instanceof AsyncRequestLoggerImpl)
+			return ((AsyncRequestLoggerImpl) logger).forRequest();
+		return logger;
+	}
 	protected boolean isLoggerEnabled() {
 		if (requestLogger != null)
 			return requestLogger.isEnabled();
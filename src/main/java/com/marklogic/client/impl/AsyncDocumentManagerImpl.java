@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.marklogic.client.ResultCallback;
+import com.marklogic.client.document.AsyncDocumentManager;
+import com.marklogic.client.document.DocumentManager;
+import com.marklogic.client.document.DocumentPage;
+import com.marklogic.client.document.DocumentWriteSet;
+import com.marklogic.client.io.marker.AbstractReadHandle;
+import com.marklogic.client.io.marker.AbstractWriteHandle;
+import com.marklogic.client.io.marker.DocumentMetadataReadHandle;
+import com.marklogic.client.io.marker.DocumentMetadataWriteHandle;
+import com.marklogic.client.query.QueryDefinition;
+
+class AsyncDocumentManagerImpl<R extends AbstractReadHandle, W extends AbstractWriteHandle>
+	implements AsyncDocumentManager<R, W>
+{
+	private DocumentManager<R, W> docMgr;
+	private ExecutorService       executor;
+
+	AsyncDocumentManagerImpl(DocumentManager<R, W> docMgr, ExecutorService executor) {
+		super();
+		this.docMgr   = docMgr;
+		this.executor = executor;
+	}
+
+	@Override
+	public DocumentManager<R, W> getDocumentManager() {
+		return docMgr;
+	}
+
+	@Override
+	public <T extends R> Future<T> read(String docId, T contentHandle) {
+		return read(docId, null, contentHandle, null);
+	}
+	@Override
+	public <T extends R> Future<T> read(String docId, T contentHandle, ResultCallback<T> callback) {
+		return read(docId, null, contentHandle, callback);
+	}
+	@Override
+	public <T extends R> Future<T> read(final String docId,
+			final DocumentMetadataReadHandle metadataHandle, final T contentHandle,
+			ResultCallback<T> callback) {
+		return CallbackFuture.submit(executor, new Callable<T>() {
+			@Override
+			public T call() {
+				return docMgr.read(docId, metadataHandle, contentHandle);
+			}
+		}, callback);
+	}
+
+	@Override
+	public Future<Void> write(String docId, W contentHandle) {
+		return write(docId, null, contentHandle, null);
+	}
+	@Override
+	public Future<Void> write(final String docId,
+			final DocumentMetadataWriteHandle metadataHandle, final W contentHandle,
+			ResultCallback<Void> callback) {
+		return CallbackFuture.submit(executor, new Callable<Void>() {
+			@Override
+			public Void call() {
+				docMgr.write(docId, metadataHandle, contentHandle);
+				return null;
+			}
+		}, callback);
+	}
+	@Override
+	public Future<Void> write(final DocumentWriteSet writeSet, ResultCallback<Void> callback) {
+		return CallbackFuture.submit(executor, new Callable<Void>() {
+			@Override
+			public Void call() {
+				docMgr.write(writeSet);
+				return null;
+			}
+		}, callback);
+	}
+
+	@Override
+	public Future<Void> delete(String docId) {
+		return delete(docId, null);
+	}
+	@Override
+	public Future<Void> delete(final String docId, ResultCallback<Void> callback) {
+		return CallbackFuture.submit(executor, new Callable<Void>() {
+			@Override
+			public Void call() {
+				docMgr.delete(docId);
+				return null;
+			}
+		}, callback);
+	}
+
+	@Override
+	public Future<DocumentPage> search(QueryDefinition querydef, long start) {
+		return search(querydef, start, null);
+	}
+	@Override
+	public Future<DocumentPage> search(final QueryDefinition querydef, final long start,
+			ResultCallback<DocumentPage> callback) {
+		return CallbackFuture.submit(executor, new Callable<DocumentPage>() {
+			@Override
+			public DocumentPage call() {
+				return docMgr.search(querydef, start);
+			}
+		}, callback);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.marklogic.client.ResultCallback;
+import com.marklogic.client.io.marker.SearchReadHandle;
+import com.marklogic.client.io.marker.TuplesReadHandle;
+import com.marklogic.client.io.marker.ValuesReadHandle;
+import com.marklogic.client.query.AsyncQueryManager;
+import com.marklogic.client.query.QueryDefinition;
+import com.marklogic.client.query.QueryManager;
+import com.marklogic.client.query.ValuesDefinition;
+
+class AsyncQueryManagerImpl implements AsyncQueryManager {
+	private QueryManager    queryMgr;
+	private ExecutorService executor;
+
+	AsyncQueryManagerImpl(QueryManager queryMgr, ExecutorService executor) {
+		super();
+		this.queryMgr = queryMgr;
+		this.executor = executor;
+	}
+
+	@Override
+	public QueryManager getQueryManager() {
+		return queryMgr;
+	}
+
+	@Override
+	public <T extends SearchReadHandle> Future<T> search(QueryDefinition querydef, T searchHandle) {
+		return search(querydef, searchHandle, 1, null);
+	}
+	@Override
+	public <T extends SearchReadHandle> Future<T> search(final QueryDefinition querydef,
+			final T searchHandle, final long start, ResultCallback<T> callback) {
+		return CallbackFuture.submit(executor, new Callable<T>() {
+			@Override
+			public T call() {
+				return queryMgr.search(querydef, searchHandle, start);
+			}
+		}, callback);
+	}
+
+	@Override
+	public <T extends ValuesReadHandle> Future<T> values(ValuesDefinition valdef, T valueHandle) {
+		return values(valdef, valueHandle, null);
+	}
+	@Override
+	public <T extends ValuesReadHandle> Future<T> values(final ValuesDefinition valdef,
+			final T valueHandle, ResultCallback<T> callback) {
+		return CallbackFuture.submit(executor, new Callable<T>() {
+			@Override
+			public T call() {
+				return queryMgr.values(valdef, valueHandle);
+			}
+		}, callback);
+	}
+
+	@Override
+	public <T extends TuplesReadHandle> Future<T> tuples(ValuesDefinition valdef, T tupleHandle) {
+		return tuples(valdef, tupleHandle, null);
+	}
+	@Override
+	public <T extends TuplesReadHandle> Future<T> tuples(final ValuesDefinition valdef,
+			final T tupleHandle, ResultCallback<T> callback) {
+		return CallbackFuture.submit(executor, new Callable<T>() {
+			@Override
+			public T call() {
+				return queryMgr.tuples(valdef, tupleHandle);
+			}
+		}, callback);
+	}
+}
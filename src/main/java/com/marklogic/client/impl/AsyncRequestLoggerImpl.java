@@ -0,0 +1,358 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.util.AsyncRequestLogger;
+import com.marklogic.client.util.RequestLogger;
+
+class AsyncRequestLoggerImpl implements AsyncRequestLogger {
+	static final private Logger logger = LoggerFactory.getLogger(AsyncRequestLoggerImpl.class);
+
+	static final private AtomicInteger loggerCount = new AtomicInteger();
+
+	static final private long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	// the most content kept in one record regardless of the content maximum
+	// so logging a large stream never copies the stream onto the heap
+	static final int RECORD_MAX = 64 * 1024;
+
+	// set in the tail when the logger closes so no later record can be claimed
+	static final private long CLOSED = Long.MIN_VALUE;
+
+	private PrintStream   out;
+	private volatile boolean enabled    = true;
+	private volatile boolean closed     = false;
+	private volatile long    contentMax = NO_CONTENT;
+	private volatile int     sampleInterval = 1;
+
+	// a bounded ring of records with many producers and the writer as the only consumer;
+	// a producer claims a slot by advancing the tail and then publishes its record
+	// in the slot, and the writer clears the slot before advancing the head;
+	// closing sets the closed bit of the tail, which fails any later claim
+	private AtomicReferenceArray<Object> slots;
+	private int                          mask;
+	private AtomicLong                   tail     = new AtomicLong();
+	private volatile long                head     = 0;
+	private AtomicLong                   dropped  = new AtomicLong();
+	private AtomicLong                   requests = new AtomicLong();
+
+	private Thread writer;
+
+	AsyncRequestLoggerImpl(OutputStream out, int capacity) {
+		super();
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive");
+		if (capacity > (1 << 30))
+			throw new IllegalArgumentException("Capacity cannot exceed "+(1 << 30));
+
+		if (out == null)
+			this.out = System.out;
+		else if (out instanceof PrintStream)
+			this.out = (PrintStream) out;
+		else
+			this.out = new PrintStream(out);
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.slots = new AtomicReferenceArray<Object>(size);
+		this.mask  = size - 1;
+
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeRecords();
+			}
+		}, "marklogic-request-logger-"+loggerCount.incrementAndGet());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public int getCapacity() {
+		return slots.length();
+	}
+	@Override
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	@Override
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+	@Override
+	public void setSampleInterval(int interval) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("Sample interval must be positive");
+		this.sampleInterval = interval;
+	}
+
+	@Override
+	public long getContentMax() {
+		return contentMax;
+	}
+	@Override
+	public void setContentMax(long max) {
+		this.contentMax = max;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+	@Override
+	public void setEnabled(boolean enabled) {
+		if (closed && enabled == true)
+			throw new IllegalStateException("Cannot enable closed request logger");
+		this.enabled = enabled;
+	}
+
+	@Override
+	public PrintStream getPrintStream() {
+		return null;
+	}
+
+	// decides once whether a request is sampled before any of its content is
+	// captured, returning the logger for a sampled request and otherwise null
+	RequestLogger forRequest() {
+		int interval = sampleInterval;
+		if (!enabled || interval == 1 || requests.getAndIncrement() % interval == 0)
+			return this;
+		return null;
+	}
+
+	// called for the message that starts logging a request
+	void logMessage(String message, Object... params) {
+		if (!enabled)
+			return;
+
+		offer(new MessageRecord(message, params));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T copyContent(T content) {
+		if (content == null || !enabled)
+			return content;
+
+		long max = getContentMax();
+		if (max < 1)
+			return content;
+
+		long recordMax = Math.min(max, RECORD_MAX);
+
+		if (content instanceof InputStream) {
+			return (T) new InputStreamTee((InputStream) content, new ContentCapture(), recordMax);
+		}
+
+		if (content instanceof Reader) {
+			return (T) new ReaderTee((Reader) content, new ContentCapture(), recordMax);
+		}
+
+		// only the capped part of a byte array is copied in case the array is reused
+		if (content instanceof byte[]) {
+			byte[] b = (byte[]) content;
+			int length = (int) Math.min(b.length, recordMax);
+			byte[] record = new byte[length];
+			System.arraycopy(b, 0, record, 0, length);
+			offer(record);
+			return content;
+		}
+
+		// strings are immutable, so the writer caps the string
+		if (content instanceof String || content instanceof File) {
+			offer(new ContentRecord(content, max));
+			return content;
+		}
+
+		if (logger.isWarnEnabled())
+			logger.warn("Unknown {} class for content", content.getClass().getName());
+		return content;
+	}
+
+	// returns an output stream that logs the content written to it, for teeing
+	// content that the request writes to the server
+	OutputStream newContentTee() {
+		if (!enabled || contentMax < 1)
+			return null;
+		return new ContentCapture();
+	}
+
+	private boolean offer(Object record) {
+		long capacity = slots.length();
+		while (true) {
+			long claim = tail.get();
+			if ((claim & CLOSED) != 0 || claim - head >= capacity) {
+				dropped.incrementAndGet();
+				return false;
+			}
+			if (tail.compareAndSet(claim, claim + 1)) {
+				slots.lazySet((int) (claim & mask), record);
+				return true;
+			}
+		}
+	}
+	private Object poll() {
+		long next = head;
+		int  slot = (int) (next & mask);
+		Object record = slots.get(slot);
+		if (record == null)
+			return null;
+		slots.lazySet(slot, null);
+		head = next + 1;
+		return record;
+	}
+
+	private void writeRecords() {
+		while (true) {
+			Object record = poll();
+			if (record != null) {
+				writeRecord(record);
+				continue;
+			}
+
+			// no slot can be claimed after closing and a claimed slot is published
+			// soon after, so exit when every slot claimed before closing is written
+			long claimed = tail.get();
+			if ((claimed & CLOSED) != 0 && head == (claimed & ~CLOSED)) {
+				out.flush();
+				return;
+			}
+
+			out.flush();
+			LockSupport.parkNanos(this, IDLE_NANOS);
+		}
+	}
+	private void writeRecord(Object record) {
+		try {
+			if (record instanceof MessageRecord) {
+				MessageRecord message = (MessageRecord) record;
+				if (message.params == null || message.params.length == 0) {
+					out.println(message.message);
+				} else {
+					out.format(message.message, message.params);
+					out.println();
+				}
+			} else if (record instanceof ContentRecord) {
+				ContentRecord content = (ContentRecord) record;
+				RequestLoggerImpl.writeContent(out, content.content, content.max);
+			} else if (record instanceof byte[]) {
+				byte[] b = (byte[]) record;
+				out.write(b, 0, b.length);
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Could not write request log record", e);
+		}
+	}
+
+	@Override
+	public void flush() {
+		long target = tail.get() & ~CLOSED;
+		while (head < target && writer.isAlive()) {
+			LockSupport.parkNanos(this, IDLE_NANOS);
+		}
+		out.flush();
+	}
+	@Override
+	public void close() {
+		if (closed)
+			return;
+
+		closed  = true;
+		enabled = false;
+		while (true) {
+			long claim = tail.get();
+			if (tail.compareAndSet(claim, claim | CLOSED))
+				break;
+		}
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		out.close();
+	}
+
+	static class MessageRecord {
+		final String   message;
+		final Object[] params;
+		MessageRecord(String message, Object[] params) {
+			this.message = message;
+			this.params  = params;
+		}
+	}
+	static class ContentRecord {
+		final Object content;
+		final long   max;
+		ContentRecord(Object content, long max) {
+			this.content = content;
+			this.max     = max;
+		}
+	}
+
+	// collects content teed from a stream and logs it as a record when the tee
+	// flushes, which happens when the stream ends or reaches the content maximum;
+	// content past the record maximum is discarded
+	class ContentCapture extends ByteArrayOutputStream {
+		private long captured = 0;
+		ContentCapture() {
+			super(256);
+		}
+		@Override
+		public synchronized void write(int b) {
+			if (captured >= RECORD_MAX)
+				return;
+			super.write(b);
+			captured++;
+		}
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			int captureLen = (int) Math.min(len, RECORD_MAX - captured);
+			if (captureLen <= 0)
+				return;
+			super.write(b, off, captureLen);
+			captured += captureLen;
+		}
+		@Override
+		public synchronized void flush() {
+			if (count == 0)
+				return;
+			offer(toByteArray());
+			reset();
+		}
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+}
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import com.marklogic.client.document.BinaryDocumentManager;
 import com.marklogic.client.document.DocumentDescriptor;
+import com.marklogic.client.document.RangeDownloader;
 import com.marklogic.client.io.Format;
 import com.marklogic.client.FailedRequestException;
 import com.marklogic.client.ForbiddenUserException;
@@ -139,6 +140,11 @@ class BinaryDocumentImpl
 		return read(desc, metadataHandle, contentHandle, transform, transaction, null, extraParams);
 	}
 
+	@Override
+	public RangeDownloader newRangeDownloader() {
+		return new RangeDownloaderImpl(this);
+	}
+
 	public MetadataExtraction getMetadataExtraction() {
 		return metadataExtraction;
 	}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.ResultCallback;
+
+/**
+ * CallbackFuture runs a request on an executor and passes the
+ * outcome to an optional callback when the request completes.
+ */
+class CallbackFuture<T> extends FutureTask<T> {
+	static final private Logger logger = LoggerFactory.getLogger(CallbackFuture.class);
+
+	private ResultCallback<T> callback;
+
+	CallbackFuture(Callable<T> request, ResultCallback<T> callback) {
+		super(request);
+		this.callback = callback;
+	}
+
+	static <T> Future<T> submit(ExecutorService executor, Callable<T> request,
+			ResultCallback<T> callback) {
+		CallbackFuture<T> future = new CallbackFuture<T>(request, callback);
+		executor.execute(future);
+		return future;
+	}
+
+	@Override
+	protected void done() {
+		if (callback == null)
+			return;
+
+		T         result  = null;
+		Throwable failure = null;
+		try {
+			result = get();
+		} catch (CancellationException e) {
+			failure = e;
+		} catch (ExecutionException e) {
+			failure = (e.getCause() != null) ? e.getCause() : e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = e;
+		}
+
+		try {
+			if (failure == null) {
+				callback.onSuccess(result);
+			} else {
+				callback.onFailure(failure);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Callback for asynchronous request failed", e);
+		}
+	}
+}
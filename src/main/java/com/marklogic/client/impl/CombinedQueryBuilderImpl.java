@@ -20,7 +20,6 @@ import java.io.OutputStream;
 import java.nio.charset.Charset;
 
 import javax.xml.XMLConstants;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 
 import com.marklogic.client.MarkLogicIOException;
@@ -70,11 +69,8 @@ public class CombinedQueryBuilderImpl implements CombinedQueryBuilder {
     }
 
     private XMLStreamWriter makeSerializer(OutputStream out) {
-        XMLOutputFactory factory = XMLOutputFactory.newInstance();
-        factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
-
         try {
-            XMLStreamWriter serializer = factory.createXMLStreamWriter(out, "UTF-8");
+            XMLStreamWriter serializer = Utilities.getRepairingOutputFactory().createXMLStreamWriter(out, "UTF-8");
 
             serializer.setDefaultNamespace("http://marklogic.com/appservices/search");
             serializer.setPrefix("xs",  XMLConstants.W3C_XML_SCHEMA_NS_URI);
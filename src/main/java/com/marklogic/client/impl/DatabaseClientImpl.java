@@ -23,12 +23,15 @@ import org.slf4j.LoggerFactory;
 
 import com.marklogic.client.admin.ExtensionMetadata;
 import com.marklogic.client.document.BinaryDocumentManager;
+import com.marklogic.client.ConnectionPoolStats;
+import com.marklogic.client.RequestMetrics;
 import com.marklogic.client.DatabaseClient;
 import com.marklogic.client.FailedRequestException;
 import com.marklogic.client.ForbiddenUserException;
 import com.marklogic.client.document.GenericDocumentManager;
 import com.marklogic.client.document.JSONDocumentManager;
 import com.marklogic.client.query.QueryManager;
+import com.marklogic.client.util.AsyncRequestLogger;
 import com.marklogic.client.util.RequestLogger;
 import com.marklogic.client.eval.ServerEvaluationCall;
 import com.marklogic.client.extensions.ResourceManager;
@@ -134,6 +137,10 @@ public class DatabaseClientImpl implements DatabaseClient {
 	public RequestLogger newLogger(OutputStream out) {
 		return new RequestLoggerImpl(out);
 	}
+	@Override
+	public AsyncRequestLogger newAsyncLogger(OutputStream out, int capacity) {
+		return new AsyncRequestLoggerImpl(out, capacity);
+	}
 
 	@Override
     public <T extends ResourceManager> T init(String resourceName, T resourceManager) {
@@ -173,6 +180,20 @@ public class DatabaseClientImpl implements DatabaseClient {
 		return services.getClientImplementation();
 	}
 
+	@Override
+	public ConnectionPoolStats getConnectionPoolStats() {
+		if (services == null)
+			return null;
+		return services.getConnectionPoolStats();
+	}
+
+	@Override
+	public RequestMetrics getRequestMetrics() {
+		if (services == null)
+			return null;
+		return services.getRequestMetrics();
+	}
+
 	// undocumented backdoor access to JerseyServices
 	public RESTServices getServices() {
 		return services;
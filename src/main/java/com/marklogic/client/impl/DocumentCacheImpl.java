@@ -0,0 +1,237 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.marklogic.client.MarkLogicInternalException;
+import com.marklogic.client.document.DocumentCache;
+import com.marklogic.client.document.DocumentDescriptor;
+import com.marklogic.client.io.FileChannelHandle;
+import com.marklogic.client.io.Format;
+import com.marklogic.client.io.InputStreamHandle;
+import com.marklogic.client.io.ReaderHandle;
+import com.marklogic.client.io.marker.AbstractReadHandle;
+
+public class DocumentCacheImpl implements DocumentCache {
+	// the cached content of one document with the version read from the server
+	static class Entry {
+		final String  acceptMimetype;
+		final long    version;
+		final Format  format;
+		final String  mimetype;
+		final byte[]  content;
+		volatile long validatedAt;
+
+		Entry(String acceptMimetype, DocumentDescriptor desc, byte[] content) {
+			this.acceptMimetype = acceptMimetype;
+			this.version        = desc.getVersion();
+			this.format         = desc.getFormat();
+			this.mimetype       = desc.getMimetype();
+			this.content        = content;
+			this.validatedAt    = System.currentTimeMillis();
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		void copyTo(HandleImplementation handleBase) {
+			if (format != null && format != Format.UNKNOWN)
+				handleBase.setFormat(format);
+			if (mimetype != null)
+				handleBase.setMimetype(mimetype);
+			handleBase.setByteLength(content.length);
+			handleBase.receiveContent(asReceived(handleBase.receiveAs(), content));
+		}
+	}
+
+	private final long maxBytes;
+	private volatile long maxAge = 0;
+
+	// in access order so the least recently read document is first
+	private final LinkedHashMap<String, Entry> entries =
+		new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long currentBytes = 0;
+
+	private final AtomicLong hits          = new AtomicLong();
+	private final AtomicLong revalidations = new AtomicLong();
+	private final AtomicLong misses        = new AtomicLong();
+	private final AtomicLong evictions     = new AtomicLong();
+
+	public DocumentCacheImpl(long maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Document cache must hold at least one byte");
+		this.maxBytes = maxBytes;
+	}
+
+	// cached content can be delivered to handles that receive it in memory
+	static boolean canReceive(Class<?> as) {
+		return as == byte[].class || as == InputStream.class ||
+			as == String.class || as == Reader.class;
+	}
+	// handles that stream the content to the application bypass the cache
+	// so large documents are never buffered on the heap
+	static boolean isStreaming(AbstractReadHandle handle) {
+		return handle instanceof InputStreamHandle || handle instanceof ReaderHandle ||
+			handle instanceof FileChannelHandle;
+	}
+	// copies the bytes because a handle such as BytesHandle keeps the
+	// array it receives, and a change to the cached array would be
+	// served to every later read
+	static Object asReceived(Class<?> as, byte[] content) {
+		try {
+			if (as == byte[].class)
+				return content.clone();
+			if (as == InputStream.class)
+				return new ByteArrayInputStream(content);
+			if (as == String.class)
+				return new String(content, "UTF-8");
+			if (as == Reader.class)
+				return new InputStreamReader(new ByteArrayInputStream(content), "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new MarkLogicInternalException(e);
+		}
+		throw new IllegalArgumentException("Cannot receive cached content as "+as.getName());
+	}
+
+	// returns the cached document if it was read with the same mimetype
+	Entry get(String uri, String acceptMimetype) {
+		Entry entry = null;
+		synchronized(entries) {
+			entry = entries.get(uri);
+		}
+		if (entry == null)
+			return null;
+		if (acceptMimetype == null) {
+			if (entry.acceptMimetype != null)
+				return null;
+		} else if (!acceptMimetype.equals(entry.acceptMimetype)) {
+			return null;
+		}
+		return entry;
+	}
+	boolean isFresh(Entry entry) {
+		return System.currentTimeMillis() - entry.validatedAt < maxAge;
+	}
+
+	void hit() {
+		hits.incrementAndGet();
+	}
+	void revalidated(Entry entry) {
+		entry.validatedAt = System.currentTimeMillis();
+		revalidations.incrementAndGet();
+		hits.incrementAndGet();
+	}
+	// records a read that transferred the content, keeping the content
+	// if the server supplied a version for revalidating it later
+	Entry put(String uri, String acceptMimetype, DocumentDescriptor desc, byte[] content) {
+		misses.incrementAndGet();
+		if (content == null)
+			content = new byte[0];
+
+		Entry entry = new Entry(acceptMimetype, desc, content);
+		if (entry.version == DocumentDescriptor.UNKNOWN_VERSION || content.length > maxBytes) {
+			invalidate(uri);
+			return entry;
+		}
+
+		synchronized(entries) {
+			Entry previous = entries.put(uri, entry);
+			if (previous != null)
+				currentBytes -= previous.content.length;
+			currentBytes += content.length;
+
+			Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+			while (currentBytes > maxBytes && eldest.hasNext()) {
+				Entry evicted = eldest.next().getValue();
+				eldest.remove();
+				currentBytes -= evicted.content.length;
+				evictions.incrementAndGet();
+			}
+		}
+		return entry;
+	}
+
+	@Override
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+	@Override
+	public long getCurrentBytes() {
+		synchronized(entries) {
+			return currentBytes;
+		}
+	}
+	@Override
+	public int getDocumentCount() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	@Override
+	public long getMaxAge(TimeUnit unit) {
+		return unit.convert(maxAge, TimeUnit.MILLISECONDS);
+	}
+	@Override
+	public void setMaxAge(long age, TimeUnit unit) {
+		if (age < 0)
+			throw new IllegalArgumentException("Maximum age cannot be negative: "+age);
+		this.maxAge = TimeUnit.MILLISECONDS.convert(age, unit);
+	}
+
+	@Override
+	public long getHitCount() {
+		return hits.get();
+	}
+	@Override
+	public long getRevalidationCount() {
+		return revalidations.get();
+	}
+	@Override
+	public long getMissCount() {
+		return misses.get();
+	}
+	@Override
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public void invalidate(String uri) {
+		if (uri == null)
+			return;
+		synchronized(entries) {
+			Entry previous = entries.remove(uri);
+			if (previous != null)
+				currentBytes -= previous.content.length;
+		}
+	}
+	@Override
+	public void clear() {
+		synchronized(entries) {
+			entries.clear();
+			currentBytes = 0;
+		}
+	}
+}
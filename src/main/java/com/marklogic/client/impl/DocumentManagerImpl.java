@@ -18,6 +18,7 @@ package com.marklogic.client.impl;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -33,6 +34,8 @@ import com.marklogic.client.ForbiddenUserException;
 import com.marklogic.client.ResourceNotFoundException;
 import com.marklogic.client.Transaction;
 import com.marklogic.client.bitemporal.TemporalDocumentManager;
+import com.marklogic.client.document.AsyncDocumentManager;
+import com.marklogic.client.document.DocumentCache;
 import com.marklogic.client.document.DocumentDescriptor;
 import com.marklogic.client.document.DocumentManager;
 import com.marklogic.client.document.DocumentMetadataPatchBuilder;
@@ -41,7 +44,9 @@ import com.marklogic.client.document.DocumentPage;
 import com.marklogic.client.document.DocumentRecord;
 import com.marklogic.client.document.DocumentWriteOperation;
 import com.marklogic.client.document.DocumentWriteSet;
+import com.marklogic.client.document.QueryBatcher;
 import com.marklogic.client.document.ServerTransform;
+import com.marklogic.client.document.WriteBatcher;
 import com.marklogic.client.impl.DocumentMetadataPatchBuilderImpl.DocumentPatchHandleImpl;
 import com.marklogic.client.io.Format;
 import com.marklogic.client.io.marker.AbstractReadHandle;
@@ -51,6 +56,7 @@ import com.marklogic.client.io.marker.DocumentMetadataReadHandle;
 import com.marklogic.client.io.marker.DocumentMetadataWriteHandle;
 import com.marklogic.client.io.marker.DocumentPatchHandle;
 import com.marklogic.client.io.marker.SearchReadHandle;
+import com.marklogic.client.io.BytesHandle;
 import com.marklogic.client.io.JacksonHandle;
 import com.marklogic.client.io.SearchHandle;
 import com.marklogic.client.query.QueryDefinition;
@@ -89,9 +95,12 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
   private ServerTransform readTransform;
   private ServerTransform writeTransform;
   private String forestName;
-  private long pageLength = DEFAULT_PAGE_LENGTH;
-  private QueryView searchView = QueryView.RESULTS;
-  private Format nonDocumentFormat = null;
+  // volatile so a manager shared across threads sees the latest settings
+  private volatile long pageLength = DEFAULT_PAGE_LENGTH;
+  private volatile QueryView searchView = QueryView.RESULTS;
+  private volatile Format nonDocumentFormat = null;
+  private volatile boolean pageStreaming = false;
+  private volatile DocumentCacheImpl documentCache;
 
   DocumentManagerImpl(RESTServices services, Format contentFormat) {
     super();
@@ -153,7 +162,7 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
   @Override
   public DocumentDescriptor exists(String uri, Transaction transaction)
       throws ForbiddenUserException, FailedRequestException {
-    return services.head(requestLogger, uri, (transaction == null) ? null
+    return services.head(requestLog(), uri, (transaction == null) ? null
         : transaction.getTransactionId());
   }
 
@@ -383,8 +392,15 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
 
     extraParams = addTemporalParams(extraParams, temporalCollection, null);
 
+    DocumentCacheImpl cache = documentCache;
+    if (cache != null && isCacheable(desc, metadataHandle, contentHandle,
+        transform, transaction, extraParams)) {
+      readCached(cache, desc.getUri(), contentHandle);
+      return contentHandle;
+    }
+
     boolean wasModified = services.getDocument(
-        requestLogger,
+        requestLog(),
         desc,
         (transaction != null) ? transaction.getTransactionId() : null,
         (metadataHandle != null) ? processedMetadata : null,
@@ -396,6 +412,62 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     return wasModified ? contentHandle : null;
   }
 
+  // only plain reads of content by uri can be served from the cache
+  private boolean isCacheable(DocumentDescriptor desc,
+      DocumentMetadataReadHandle metadataHandle,
+      AbstractReadHandle contentHandle, ServerTransform transform,
+      Transaction transaction, RequestParameters extraParams) {
+    if (metadataHandle != null || contentHandle == null || transform != null
+        || getReadTransform() != null || transaction != null)
+      return false;
+    if (extraParams != null && !extraParams.isEmpty())
+      return false;
+    if (!(desc instanceof DocumentDescriptorImpl)
+        || !((DocumentDescriptorImpl) desc).isInternal())
+      return false;
+    if (DocumentCacheImpl.isStreaming(contentHandle))
+      return false;
+    return DocumentCacheImpl.canReceive(HandleAccessor.receiveAs(contentHandle));
+  }
+
+  // serves a fresh cached document locally, otherwise sends the cached
+  // version so the server only returns the content if the document changed
+  private void readCached(DocumentCacheImpl cache, String uri,
+      AbstractReadHandle contentHandle) {
+    HandleImplementation<?, ?> contentBase = HandleAccessor.as(contentHandle);
+    String acceptMimetype = contentBase.getMimetype();
+
+    DocumentCacheImpl.Entry entry = cache.get(uri, acceptMimetype);
+    if (entry != null && cache.isFresh(entry)) {
+      cache.hit();
+      entry.copyTo(contentBase);
+      return;
+    }
+
+    DocumentDescriptorImpl cacheDesc = new DocumentDescriptorImpl(uri, false);
+    if (entry != null)
+      cacheDesc.setVersion(entry.version);
+    BytesHandle bytesHandle = new BytesHandle();
+    bytesHandle.setFormat(contentBase.getFormat());
+    bytesHandle.setMimetype(acceptMimetype);
+
+    boolean wasModified = false;
+    try {
+      wasModified = services.getDocument(requestLog(), cacheDesc, null,
+          null, null, null, bytesHandle);
+    } catch (ResourceNotFoundException e) {
+      // the document was deleted since it was cached
+      cache.invalidate(uri);
+      throw e;
+    }
+    if (!wasModified && entry != null) {
+      cache.revalidated(entry);
+    } else {
+      entry = cache.put(uri, acceptMimetype, cacheDesc, bytesHandle.get());
+    }
+    entry.copyTo(contentBase);
+  }
+
   @Override
   public DocumentPage read(String... uris) {
     return read(null, null, uris);
@@ -438,14 +510,14 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
         temporalCollection, null);
 
     return services.getBulkDocuments(
-        requestLogger,
+        requestLog(),
         (transaction == null) ? null : transaction.getTransactionId(),
         // the default for bulk is no metadata, which differs from the normal
         // default of ALL
         isProcessedMetadataModified ? processedMetadata : null,
         nonDocumentFormat,
         mergeTransformParameters((transform != null) ? transform
-            : getReadTransform(), extraParams), withContent, uris);
+            : getReadTransform(), extraParams), withContent, pageStreaming, uris);
   }
 
   public DocumentPage readMetadata(String... uris) {
@@ -497,9 +569,42 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     // default of ALL
     Set<Metadata> metadata = isProcessedMetadataModified ? processedMetadata
         : null;
-    return services.getBulkDocuments(requestLogger, querydef, start,
+    boolean withContent = true;
+    return services.getBulkDocuments(requestLog(), querydef, start,
         getPageLength(), tid, searchHandle, searchView, metadata,
-        nonDocumentFormat, null);
+        nonDocumentFormat, null, withContent, pageStreaming);
+  }
+
+  // reads one page for a query batcher; a uri listing requests only the
+  // quality metadata so the server does not send the document content
+  DocumentPage searchBatch(QueryDefinition querydef, long start,
+      long pageLength, boolean withContent, RequestParameters extraParams) {
+    Set<Metadata> metadata = null;
+    if (!withContent) {
+      metadata = EnumSet.of(Metadata.QUALITY);
+    } else if (isProcessedMetadataModified) {
+      metadata = processedMetadata;
+    }
+    boolean streamPages = false;
+    return services.getBulkDocuments(requestLog(), querydef, start,
+        pageLength, null, null, null, metadata, nonDocumentFormat,
+        extraParams, withContent, streamPages);
+  }
+
+  // counts the documents matching the query by requesting an empty page,
+  // so the page length of the manager is left unchanged for other threads
+  long count(QueryDefinition querydef, Transaction transaction) {
+    String tid = transaction == null ? null : transaction.getTransactionId();
+    boolean withContent = true;
+    boolean streamPages = false;
+    DocumentPage page = services.getBulkDocuments(requestLog(), querydef, 1,
+        0, tid, null, null, null, nonDocumentFormat, null, withContent,
+        streamPages);
+    try {
+      return page.getTotalSize();
+    } finally {
+      page.close();
+    }
   }
 
   public long getPageLength() {
@@ -518,6 +623,14 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     this.searchView = view;
   }
 
+  public boolean isPageStreaming() {
+    return pageStreaming;
+  }
+
+  public void setPageStreaming(boolean streaming) {
+    this.pageStreaming = streaming;
+  }
+
   public Format getNonDocumentFormat() {
     return nonDocumentFormat;
   }
@@ -535,6 +648,47 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     return new DocumentWriteSetImpl();
   }
 
+  @Override
+  public WriteBatcher newWriteBatcher() {
+    return new WriteBatcherImpl(this);
+  }
+
+  @Override
+  public QueryBatcher newQueryBatcher(QueryDefinition query) {
+    if (query == null)
+      throw new IllegalArgumentException("Cannot create query batcher without query");
+    return new QueryBatcherImpl(this, query);
+  }
+
+  @Override
+  public DocumentCache newDocumentCache(long maxBytes) {
+    return new DocumentCacheImpl(maxBytes);
+  }
+
+  @Override
+  public DocumentCache getDocumentCache() {
+    return documentCache;
+  }
+
+  @Override
+  public void setDocumentCache(DocumentCache cache) {
+    if (cache != null && !(cache instanceof DocumentCacheImpl))
+      throw new IllegalArgumentException(
+          "Document cache must be created by a document manager");
+    this.documentCache = (DocumentCacheImpl) cache;
+  }
+
+  private void invalidateCached(String uri) {
+    DocumentCacheImpl cache = documentCache;
+    if (cache != null)
+      cache.invalidate(uri);
+  }
+
+  @Override
+  public AsyncDocumentManager<R, W> newAsyncManager() {
+    return new AsyncDocumentManagerImpl<R, W>(this, services.getAsyncExecutor());
+  }
+
   public void write(DocumentWriteSet writeSet) {
     write(writeSet, null, null);
   }
@@ -549,8 +703,14 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
 
   public void write(DocumentWriteSet writeSet, ServerTransform transform,
       Transaction transaction) {
+    DocumentCacheImpl cache = documentCache;
+    if (cache != null) {
+      for (DocumentWriteOperation op : writeSet) {
+        cache.invalidate(op.getUri());
+      }
+    }
     Format defaultFormat = contentFormat;
-    services.postBulkDocuments(requestLogger, writeSet,
+    services.postBulkDocuments(requestLog(), writeSet,
         (transform != null) ? transform : getWriteTransform(),
         (transaction == null) ? null : transaction.getTransactionId(),
         defaultFormat, null);
@@ -822,8 +982,9 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
 
     extraParams = addTemporalParams(extraParams, temporalCollection, systemTime);
 
+    invalidateCached(desc.getUri());
     services.putDocument(
-        requestLogger,
+        requestLog(),
         desc,
         (transaction == null) ? null : transaction.getTransactionId(),
         (metadataHandle != null) ? processedMetadata : null,
@@ -896,10 +1057,33 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     RequestParameters extraParams = addTemporalParams(new RequestParameters(),
         temporalCollection, systemTime);
 
-    services.deleteDocument(requestLogger, desc, (transaction == null) ? null
+    invalidateCached(desc.getUri());
+    services.deleteDocument(requestLog(), desc, (transaction == null) ? null
         : transaction.getTransactionId(), null, extraParams);
   }
 
+  @Override
+  public void delete(String... uris) throws ForbiddenUserException,
+      FailedRequestException {
+    delete((Transaction) null, uris);
+  }
+
+  @Override
+  public void delete(Transaction transaction, String... uris)
+      throws ForbiddenUserException, FailedRequestException {
+    if (uris == null || uris.length == 0)
+      throw new IllegalArgumentException("Deleting documents without uris");
+
+    if (logger.isInfoEnabled())
+      logger.info("Deleting {} documents", uris.length);
+
+    for (String uri : uris) {
+      invalidateCached(uri);
+    }
+    services.deleteDocuments(requestLog(), uris, (transaction == null) ? null
+        : transaction.getTransactionId(), null);
+  }
+
   // shortcut creators
   @Override
   public DocumentDescriptor createAs(DocumentUriTemplate template,
@@ -1047,7 +1231,7 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     checkContentFormat(contentHandle);
 
     return services.postDocument(
-        requestLogger,
+        requestLog(),
         template,
         (transaction == null) ? null : transaction.getTransactionId(),
         (metadataHandle != null) ? processedMetadata : null,
@@ -1109,7 +1293,8 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
 
     DocumentPatchHandleImpl builtPatch = (patch instanceof DocumentPatchHandleImpl) ? (DocumentPatchHandleImpl) patch
         : null;
-    services.patchDocument(requestLogger, desc, (transaction == null) ? null
+    invalidateCached(desc.getUri());
+    services.patchDocument(requestLog(), desc, (transaction == null) ? null
         : transaction.getTransactionId(),
         (builtPatch != null) ? builtPatch.getMetadata() : processedMetadata,
         (builtPatch != null) ? builtPatch.isOnContent() : true, patch);
@@ -1166,7 +1351,7 @@ abstract class DocumentManagerImpl<R extends AbstractReadHandle, W extends Abstr
     if (logger.isInfoEnabled())
       logger.info("Resetting metadata for {}", uri);
 
-    services.deleteDocument(requestLogger,
+    services.deleteDocument(requestLog(),
         new DocumentDescriptorImpl(uri, true), (transaction == null) ? null
             : transaction.getTransactionId(), processedMetadata,
         getWriteParams());
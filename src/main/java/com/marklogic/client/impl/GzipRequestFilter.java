@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * GzipRequestFilter compresses the documents sent by single
+ * and bulk document writes as they are written.
+ */
+class GzipRequestFilter extends ClientFilter {
+	static final private int BUFFER_SIZE = 8192;
+
+	GzipRequestFilter() {
+		super();
+	}
+
+	@Override
+	public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+		if (request.getEntity() != null &&
+				!request.getHeaders().containsKey("Content-Encoding") &&
+				"documents".equals(MetricsFilter.getResource(request.getURI()))) {
+			request.getHeaders().add("Content-Encoding", "gzip");
+			request.setAdapter(new GzipAdapter(request.getAdapter()));
+		}
+
+		return getNext().handle(request);
+	}
+
+	static class GzipAdapter extends AbstractClientRequestAdapter {
+		GzipAdapter(ClientRequestAdapter adapter) {
+			super(adapter);
+		}
+
+		@Override
+		public OutputStream adapt(ClientRequest request, OutputStream stream) throws IOException {
+			return new GZIPOutputStream(getAdapter().adapt(request, stream), BUFFER_SIZE);
+		}
+	}
+}
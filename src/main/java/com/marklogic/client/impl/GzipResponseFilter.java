@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * GzipResponseFilter accepts compressed responses and decompresses
+ * the response body as it is read instead of buffering the body.
+ */
+class GzipResponseFilter extends ClientFilter {
+	static final private int BUFFER_SIZE = 8192;
+
+	GzipResponseFilter() {
+		super();
+	}
+
+	@Override
+	public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+		if (!request.getHeaders().containsKey("Accept-Encoding"))
+			request.getHeaders().add("Accept-Encoding", "gzip");
+
+		ClientResponse response = getNext().handle(request);
+
+		MultivaluedMap<String, String> headers = response.getHeaders();
+		String encoding = headers.getFirst("Content-Encoding");
+		if (encoding != null && "gzip".equalsIgnoreCase(encoding.trim())) {
+			// the length of the compressed body isn't the length of the content
+			headers.remove("Content-Encoding");
+			headers.remove("Content-Length");
+			InputStream entity = response.getEntityInputStream();
+			if (entity != null)
+				response.setEntityInputStream(new DecompressingInputStream(entity));
+		}
+
+		return response;
+	}
+
+	// starts decompressing on the first read so an empty body,
+	// such as the body of a HEAD response, remains empty
+	static class DecompressingInputStream extends InputStream {
+		private InputStream compressed;
+		private InputStream content;
+
+		DecompressingInputStream(InputStream compressed) {
+			super();
+			this.compressed = compressed;
+		}
+
+		private InputStream getContent() throws IOException {
+			if (content == null) {
+				PushbackInputStream pushback = new PushbackInputStream(compressed, 1);
+				int first = pushback.read();
+				if (first == -1) {
+					content = pushback;
+				} else {
+					pushback.unread(first);
+					content = new GZIPInputStream(pushback, BUFFER_SIZE);
+				}
+			}
+			return content;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return getContent().read();
+		}
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return getContent().read(b, off, len);
+		}
+		@Override
+		public long skip(long n) throws IOException {
+			return getContent().skip(n);
+		}
+		@Override
+		public int available() throws IOException {
+			return (content == null) ? 0 : content.available();
+		}
+		@Override
+		public void close() throws IOException {
+			if (content != null)
+				content.close();
+			else
+				compressed.close();
+		}
+	}
+}
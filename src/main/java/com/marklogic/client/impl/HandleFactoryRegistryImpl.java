@@ -15,9 +15,9 @@
  */
 package com.marklogic.client.impl;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.marklogic.client.DatabaseClientFactory.HandleFactoryRegistry;
 import com.marklogic.client.io.BytesHandle;
@@ -35,9 +35,40 @@ import com.marklogic.client.io.XMLStreamReaderHandle;
 import com.marklogic.client.io.marker.ContentHandle;
 import com.marklogic.client.io.marker.ContentHandleFactory;
 
+/**
+ * The registry can be shared by threads.  Lookups read concurrent maps
+ * without locking.  The factory resolved for a class or the absence of
+ * a factory is cached so the class hierarchy is walked once per class.
+ * Resolutions are cached only while the cache is small, so looking up
+ * arbitrary or generated classes cannot grow the cache without bound
+ * or keep their class loaders alive.
+ * Registration replaces the cache so lookups that started before the
+ * change cannot put stale resolutions in the new cache.
+ */
 public class HandleFactoryRegistryImpl implements HandleFactoryRegistry {
+	// the size of the cache beyond which resolutions aren't cached
+	final static private int MAX_CACHED_CLASSES = 1024;
+
+	// marks classes without a registered factory in the cache
+	final static private ContentHandleFactory NO_FACTORY = new ContentHandleFactory() {
+		@Override
+		public Class<?>[] getHandledClasses() {
+			return new Class<?>[0];
+		}
+		@Override
+		public boolean isHandled(Class<?> type) {
+			return false;
+		}
+		@Override
+		public <C> ContentHandle<C> newHandle(Class<C> type) {
+			return null;
+		}
+	};
+
 	private Map<Class<?>,ContentHandleFactory> factories =
-		new HashMap<Class<?>,ContentHandleFactory>();
+		new ConcurrentHashMap<Class<?>,ContentHandleFactory>();
+	private volatile Map<Class<?>,ContentHandleFactory> resolvedFactories =
+		new ConcurrentHashMap<Class<?>,ContentHandleFactory>();
 
 	public static HandleFactoryRegistry newDefault() {
 		return registerDefaults(new HandleFactoryRegistryImpl());
@@ -78,10 +109,11 @@ public class HandleFactoryRegistryImpl implements HandleFactoryRegistry {
 		for (Class<?> type: types) {
 			factories.put(type, factory);
 		}
+		clearResolved();
 	}
 	@Override
 	public boolean isRegistered(Class<?> type) {
-		return (getRegisteredType(type) != null);
+		return (getFactory(type) != null);
 	}
 	@Override
 	public Set<Class<?>> listRegistered() {
@@ -93,16 +125,11 @@ public class HandleFactoryRegistryImpl implements HandleFactoryRegistry {
 			throw new IllegalArgumentException("Cannot make handle for null class");
 		}
 
-		Class<?> registeredType = getRegisteredType(type);
-		if (registeredType == null) {
+		ContentHandleFactory factory = getFactory(type);
+		if (factory == null) {
 			throw new IllegalArgumentException("No factory for class "+type.getName());
 		}
 
-		ContentHandleFactory factory = factories.get(registeredType);
-		if (type != registeredType) {
-			factories.put(type, factory);
-		}
-
 		ContentHandle<C> handle = factory.newHandle(type);
 		if (handle == null) {
 			throw new IllegalArgumentException("Factory "+factory.getClass().getName()+
@@ -118,6 +145,7 @@ public class HandleFactoryRegistryImpl implements HandleFactoryRegistry {
 		for (Class<?> type: types) {
 			factories.remove(type);
 		}
+		clearResolved();
 	}
 	@Override
 	public HandleFactoryRegistry copy() {
@@ -125,6 +153,29 @@ public class HandleFactoryRegistryImpl implements HandleFactoryRegistry {
 		copy.factories.putAll(this.factories);
 		return copy;
 	}
+	ContentHandleFactory getFactory(Class<?> type) {
+		if (type == null)
+			return null;
+
+		// read the cache before the factories so a concurrent change discards the resolution
+		Map<Class<?>,ContentHandleFactory> resolved = resolvedFactories;
+		ContentHandleFactory factory = resolved.get(type);
+		if (factory == null) {
+			Class<?> registeredType = getRegisteredType(type);
+			if (registeredType != null) {
+				factory = factories.get(registeredType);
+			}
+			if (resolved.size() < MAX_CACHED_CLASSES)
+				resolved.put(type, (factory != null) ? factory : NO_FACTORY);
+		} else if (factory == NO_FACTORY) {
+			factory = null;
+		}
+
+		return factory;
+	}
+	private void clearResolved() {
+		resolvedFactories = new ConcurrentHashMap<Class<?>,ContentHandleFactory>();
+	}
 	Class<?> getRegisteredType(Class<?> type) {
 		while (type != null && !type.isAssignableFrom(Object.class)) {
 			if (factories.containsKey(type)) {
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.UriBuilder;
+
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.DatabaseClientFactory.LoadBalancing;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * HostBalancingFilter spreads requests across the hosts of a cluster
+ * by rewriting the host of each request.  A host that refuses connections
+ * is marked as down and the request is sent to another host; the host
+ * is probed with a ping after the retry interval before receiving
+ * requests again.  Requests for a multi-statement transaction are always
+ * sent to the host that opened the transaction.
+ */
+class HostBalancingFilter extends ClientFilter {
+	static final private Logger logger = LoggerFactory.getLogger(HostBalancingFilter.class);
+
+	static final private int  DEFAULT_RETRY_INTERVAL    = 10000;
+	// how long to keep the host of a transaction opened without a time limit
+	static final private long DEFAULT_TRANSACTION_LIMIT = 3600000;
+
+	private HostState[]                          hosts;
+	private LoadBalancing                        balancing;
+	private String                               pingPath;
+	private int                                  retryInterval    = DEFAULT_RETRY_INTERVAL;
+	private AtomicInteger                        nextHost         = new AtomicInteger();
+	private ConcurrentHashMap<String, TransactionHost> transactionHosts =
+		new ConcurrentHashMap<String, TransactionHost>();
+
+	// when set, each thread keeps sending to the same host while it is up
+	private ThreadLocal<HostState>               threadHost;
+
+	static class HostState {
+		final String           name;
+		final int              port;
+		final AtomicInteger    outstanding = new AtomicInteger();
+		final AtomicBoolean    probing     = new AtomicBoolean();
+		volatile boolean       up          = true;
+		volatile long          retryTime   = 0;
+		HostState(String host, int defaultPort) {
+			this.name = getHostName(host);
+			this.port = getHostPort(host, defaultPort);
+		}
+		@Override
+		public String toString() {
+			return name+":"+port;
+		}
+	}
+
+	// the host of a transaction until the server abandons the transaction
+	static class TransactionHost {
+		final HostState host;
+		final long      expiresAt;
+		TransactionHost(HostState host, long expiresAt) {
+			this.host      = host;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * Returns the name of a host that may specify its own port as host:port.
+	 */
+	static String getHostName(String host) {
+		int colon = host.indexOf(':');
+		if (colon == -1 || colon != host.lastIndexOf(':'))
+			return host;
+		return host.substring(0, colon);
+	}
+	/**
+	 * Returns the port of a host that may specify its own port as host:port.
+	 */
+	static int getHostPort(String host, int defaultPort) {
+		int colon = host.indexOf(':');
+		if (colon == -1 || colon != host.lastIndexOf(':'))
+			return defaultPort;
+		try {
+			return Integer.parseInt(host.substring(colon + 1));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid port for host: "+host);
+		}
+	}
+
+	HostBalancingFilter(List<String> hostNames, int defaultPort, LoadBalancing balancing,
+			String basePath, boolean threadAffinity) {
+		super();
+		if (hostNames == null || hostNames.size() == 0)
+			throw new IllegalArgumentException("No hosts provided");
+		hosts = new HostState[hostNames.size()];
+		for (int i=0; i < hosts.length; i++) {
+			String hostName = hostNames.get(i);
+			if (hostName == null || hostName.length() == 0)
+				throw new IllegalArgumentException("Empty host in cluster host list");
+			hosts[i] = new HostState(hostName, defaultPort);
+		}
+		this.balancing = (balancing != null) ? balancing : LoadBalancing.ROUND_ROBIN;
+		this.pingPath  = basePath+"ping";
+		if (threadAffinity)
+			threadHost = new ThreadLocal<HostState>();
+	}
+
+	int getRetryInterval() {
+		return retryInterval;
+	}
+	void setRetryInterval(int retryInterval) {
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Returns the host used most recently by the current thread
+	 * or null if hosts are not assigned to threads.
+	 */
+	Object getThreadHost() {
+		return (threadHost == null) ? null : threadHost.get();
+	}
+
+	@Override
+	public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+		URI uri = request.getURI();
+
+		String txid = getTransactionId(uri);
+		TransactionHost transactionHost = (txid == null) ? null : transactionHosts.get(txid);
+		if (transactionHost != null) {
+			// the transaction only exists on its host, so no failover
+			try {
+				return send(transactionHost.host, request, uri);
+			} finally {
+				if (isTransactionCompletion(uri))
+					transactionHosts.remove(txid);
+			}
+		}
+
+		Set<HostState> tried = null;
+		ClientHandlerException failure = null;
+		while (true) {
+			HostState host = selectHost(tried);
+			if (host == null) {
+				if (failure != null)
+					throw failure;
+				throw new ClientHandlerException("No available host in cluster");
+			}
+
+			try {
+				ClientResponse response = send(host, request, uri);
+				if (!host.up)
+					markUp(host);
+				if (isTransactionOpen(request, uri, response))
+					recordTransaction(host, uri, response);
+				return response;
+			} catch (ClientHandlerException e) {
+				if (!isConnectFailure(e))
+					throw e;
+				markDown(host, e);
+				if (tried == null)
+					tried = new HashSet<HostState>();
+				tried.add(host);
+				failure = e;
+			}
+		}
+	}
+
+	private ClientResponse send(HostState host, ClientRequest request, URI uri) {
+		request.setURI(UriBuilder.fromUri(uri).host(host.name).port(host.port).build());
+		if (threadHost != null)
+			threadHost.set(host);
+		host.outstanding.incrementAndGet();
+		try {
+			return getNext().handle(request);
+		} finally {
+			host.outstanding.decrementAndGet();
+		}
+	}
+
+	private HostState selectHost(Set<HostState> tried) {
+		if (threadHost != null) {
+			HostState host = threadHost.get();
+			if (host != null && host.up && (tried == null || !tried.contains(host)))
+				return host;
+		}
+
+		long now = System.currentTimeMillis();
+
+		HostState selected = null;
+		int start = (nextHost.getAndIncrement() & Integer.MAX_VALUE) % hosts.length;
+		for (int i=0; i < hosts.length; i++) {
+			HostState host = hosts[(start + i) % hosts.length];
+			if (tried != null && tried.contains(host))
+				continue;
+			if (!host.up && !(now >= host.retryTime && probe(host)))
+				continue;
+			if (balancing == LoadBalancing.ROUND_ROBIN)
+				return host;
+			if (selected == null || host.outstanding.get() < selected.outstanding.get())
+				selected = host;
+		}
+		if (selected != null)
+			return selected;
+
+		// when every host is down, try the remaining hosts anyway
+		for (int i=0; i < hosts.length; i++) {
+			HostState host = hosts[(start + i) % hosts.length];
+			if (tried == null || !tried.contains(host))
+				return host;
+		}
+
+		return null;
+	}
+
+	private boolean probe(HostState host) {
+		// only one thread probes a host at a time
+		if (!host.probing.compareAndSet(false, true))
+			return false;
+		try {
+			URI pingUri = UriBuilder.fromUri(pingPath).host(host.name).port(host.port).build();
+			ClientResponse response = getNext().handle(
+					ClientRequest.create().build(pingUri, "HEAD"));
+			int status = response.getStatus();
+			response.close();
+			if (status == ClientResponse.Status.SERVICE_UNAVAILABLE.getStatusCode()) {
+				host.retryTime = System.currentTimeMillis() + retryInterval;
+				return false;
+			}
+			markUp(host);
+			return true;
+		} catch (ClientHandlerException e) {
+			host.retryTime = System.currentTimeMillis() + retryInterval;
+			return false;
+		} finally {
+			host.probing.set(false);
+		}
+	}
+
+	private void markUp(HostState host) {
+		if (logger.isInfoEnabled() && !host.up)
+			logger.info("Host {} is available again", host);
+		host.up = true;
+	}
+	private void markDown(HostState host, Exception cause) {
+		if (logger.isWarnEnabled() && host.up)
+			logger.warn("Host {} is unavailable: {}", host, cause.getMessage());
+		host.retryTime = System.currentTimeMillis() + retryInterval;
+		host.up        = false;
+	}
+
+	private boolean isConnectFailure(ClientHandlerException e) {
+		// only a failure to connect guarantees that the request was not received
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException ||
+					cause instanceof UnknownHostException)
+				return true;
+			if (cause instanceof InterruptedIOException)
+				return false;
+		}
+		return false;
+	}
+
+	private boolean isTransactionOpen(ClientRequest request, URI uri, ClientResponse response) {
+		return "POST".equals(request.getMethod()) && uri.getPath().endsWith("/transactions") &&
+			response.getStatus() == ClientResponse.Status.SEE_OTHER.getStatusCode();
+	}
+	private void recordTransaction(HostState host, URI uri, ClientResponse response) {
+		String location = response.getHeaders().getFirst("Location");
+		if (location == null || !location.contains("/"))
+			return;
+
+		// a transaction that is never committed or rolled back ends on the server
+		// after its time limit, so its entry expires then
+		long now = System.currentTimeMillis();
+		for (Iterator<TransactionHost> itr = transactionHosts.values().iterator(); itr.hasNext();) {
+			if (itr.next().expiresAt <= now)
+				itr.remove();
+		}
+
+		long timeLimit = getTimeLimit(uri);
+		transactionHosts.put(location.substring(location.lastIndexOf("/") + 1),
+				new TransactionHost(host, now + timeLimit));
+	}
+	private long getTimeLimit(URI uri) {
+		String query = uri.getRawQuery();
+		if (query != null) {
+			for (String param: query.split("&")) {
+				if (!param.startsWith("timeLimit="))
+					continue;
+				try {
+					return Integer.parseInt(param.substring("timeLimit=".length())) * 1000L;
+				} catch (NumberFormatException e) {
+					break;
+				}
+			}
+		}
+		return DEFAULT_TRANSACTION_LIMIT;
+	}
+	private boolean isTransactionCompletion(URI uri) {
+		String query = uri.getRawQuery();
+		return uri.getPath().contains("/transactions/") && query != null && query.contains("result=");
+	}
+	private String getTransactionId(URI uri) {
+		String path = uri.getPath();
+		if (path != null) {
+			int pos = path.indexOf("/transactions/");
+			if (pos != -1)
+				return path.substring(pos + "/transactions/".length());
+		}
+		String query = uri.getRawQuery();
+		if (query != null) {
+			for (String param: query.split("&")) {
+				if (param.startsWith("txid="))
+					return param.substring("txid=".length());
+			}
+		}
+		return null;
+	}
+}
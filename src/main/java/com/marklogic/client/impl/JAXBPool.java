@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import com.marklogic.client.MarkLogicBindingException;
+
+/**
+ * JAXBPool shares one JAXBContext for each bound class across the process
+ * and pools the marshallers and unmarshallers created from the contexts.
+ * Contexts are thread safe but expensive to build; marshallers and
+ * unmarshallers are cheap but not thread safe, so each is used by only
+ * one thread between borrowing and returning it.
+ */
+public class JAXBPool {
+	static final private int POOL_SIZE = 16;
+
+	static final private ConcurrentMap<Class<?>, JAXBContext> contexts =
+		new ConcurrentHashMap<Class<?>, JAXBContext>();
+	static final private ConcurrentMap<Class<?>, BlockingQueue<Unmarshaller>> unmarshallers =
+		new ConcurrentHashMap<Class<?>, BlockingQueue<Unmarshaller>>();
+	static final private ConcurrentMap<Class<?>, BlockingQueue<Marshaller>> marshallers =
+		new ConcurrentHashMap<Class<?>, BlockingQueue<Marshaller>>();
+
+	private JAXBPool() {
+	}
+
+	/**
+	 * Returns the shared context for the bound class, building it on first use.
+	 * @param boundClass	the root class bound by the context
+	 * @return	the context
+	 */
+	static public JAXBContext getContext(Class<?> boundClass) {
+		JAXBContext context = contexts.get(boundClass);
+		if (context != null)
+			return context;
+
+		try {
+			context = JAXBContext.newInstance(boundClass);
+		} catch (JAXBException e) {
+			throw new MarkLogicBindingException(e);
+		}
+
+		JAXBContext existing = contexts.putIfAbsent(boundClass, context);
+		return (existing != null) ? existing : context;
+	}
+
+	/**
+	 * Takes an unmarshaller for the bound class from the pool or creates one
+	 * if the pool is empty.  Return the unmarshaller after use with
+	 * {@link #returnUnmarshaller(Class, Unmarshaller)}.
+	 * @param boundClass	the root class bound by the context
+	 * @return	an unmarshaller used only by the caller
+	 */
+	static public Unmarshaller borrowUnmarshaller(Class<?> boundClass) {
+		Unmarshaller unmarshaller = getQueue(unmarshallers, boundClass).poll();
+		if (unmarshaller != null)
+			return unmarshaller;
+
+		try {
+			return getContext(boundClass).createUnmarshaller();
+		} catch (JAXBException e) {
+			throw new MarkLogicBindingException(e);
+		}
+	}
+	/**
+	 * Puts an unmarshaller back in the pool, discarding it if the pool is full.
+	 * @param boundClass	the root class bound by the context
+	 * @param unmarshaller	the borrowed unmarshaller
+	 */
+	static public void returnUnmarshaller(Class<?> boundClass, Unmarshaller unmarshaller) {
+		if (unmarshaller == null)
+			return;
+		getQueue(unmarshallers, boundClass).offer(unmarshaller);
+	}
+
+	/**
+	 * Takes a marshaller that formats its output for the bound class
+	 * from the pool or creates one if the pool is empty.  Return the
+	 * marshaller after use with {@link #returnMarshaller(Class, Marshaller)}.
+	 * @param boundClass	the root class bound by the context
+	 * @return	a marshaller used only by the caller
+	 */
+	static public Marshaller borrowMarshaller(Class<?> boundClass) {
+		Marshaller marshaller = getQueue(marshallers, boundClass).poll();
+		if (marshaller != null)
+			return marshaller;
+
+		try {
+			marshaller = getContext(boundClass).createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+			return marshaller;
+		} catch (JAXBException e) {
+			throw new MarkLogicBindingException(e);
+		}
+	}
+	/**
+	 * Puts a marshaller back in the pool, discarding it if the pool is full.
+	 * @param boundClass	the root class bound by the context
+	 * @param marshaller	the borrowed marshaller
+	 */
+	static public void returnMarshaller(Class<?> boundClass, Marshaller marshaller) {
+		if (marshaller == null)
+			return;
+		getQueue(marshallers, boundClass).offer(marshaller);
+	}
+
+	static private <T> BlockingQueue<T> getQueue(
+			ConcurrentMap<Class<?>, BlockingQueue<T>> queues, Class<?> boundClass) {
+		BlockingQueue<T> queue = queues.get(boundClass);
+		if (queue != null)
+			return queue;
+
+		queue = new ArrayBlockingQueue<T>(POOL_SIZE);
+		BlockingQueue<T> existing = queues.putIfAbsent(boundClass, queue);
+		return (existing != null) ? existing : queue;
+	}
+}
@@ -25,6 +25,7 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.HashMap;
@@ -32,9 +33,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
@@ -45,6 +53,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.auth.params.AuthPNames;
 import org.apache.http.client.HttpClient;
@@ -58,18 +67,29 @@ import org.apache.http.conn.scheme.SchemeSocketFactory;
 import org.apache.http.conn.ssl.AbstractVerifier;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.marklogic.client.ConnectionPoolStats;
+import com.marklogic.client.RequestMetrics;
+import com.marklogic.client.RequestMetrics.Operation;
 import com.marklogic.client.DatabaseClientFactory;
 import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.AsyncPolicy;
+import com.marklogic.client.DatabaseClientFactory.CompressionPolicy;
+import com.marklogic.client.DatabaseClientFactory.ConnectionPolicy;
+import com.marklogic.client.DatabaseClientFactory.RetryPolicy;
+import com.marklogic.client.DatabaseClientFactory.LoadBalancing;
 import com.marklogic.client.DatabaseClientFactory.SSLHostnameVerifier;
 import com.marklogic.client.DatabaseClient;
 import com.marklogic.client.FailedRequestException;
@@ -146,14 +166,9 @@ public class JerseyServices implements RESTServices {
 
 	static final private String DOCUMENT_URI_PREFIX = "/documents?uri=";
 
-	static final private int DELAY_FLOOR       =    125;
-	static final private int DELAY_CEILING     =   2000;
-	static final private int DELAY_MULTIPLIER  =     20;
-	static final private int DEFAULT_MAX_DELAY = 120000;
-	static final private int DEFAULT_MIN_RETRY =      8;
-
 	static final private String MAX_DELAY_PROP = "com.marklogic.client.maximumRetrySeconds";
 	static final private String MIN_RETRY_PROP = "com.marklogic.client.minimumRetries";
+	static final private String HOST_RETRY_PROP = "com.marklogic.client.hostRetrySeconds";
 
 	static protected class HostnameVerifierAdapter extends AbstractVerifier {
 		private SSLHostnameVerifier verifier;
@@ -173,18 +188,22 @@ public class JerseyServices implements RESTServices {
 	private DatabaseClient databaseClient;
 	private String database = null;
 	private ApacheHttpClient4 client;
+	private RequestMetricsImpl metrics = new RequestMetricsImpl();
 	private WebResource connection;
+	private HostBalancingFilter hostFilter;
+	private MonitoredConnManager connMgr;
+	private ExecutorService asyncExecutor;
+	private AsyncPolicy asyncPolicy = new AsyncPolicy();
 	private boolean released = false;
 
-	private Random randRetry    = new Random();
-
-	private int maxDelay = DEFAULT_MAX_DELAY;
-	private int minRetry = DEFAULT_MIN_RETRY;
+	private RetryController retryController;
 
 	private boolean checkFirstRequest = false;
 
 	static protected class ThreadState {
 		boolean isFirstRequest;
+		// the cluster host that received the last request from the thread
+		Object  host;
 		ThreadState(boolean value) {
 			isFirstRequest = value;
 		}
@@ -219,6 +238,15 @@ public class JerseyServices implements RESTServices {
 	public void connect(String host, int port, String database, String user, String password,
 			Authentication authenType, SSLContext context,
 			SSLHostnameVerifier verifier) {
+		connect((host == null) ? null : new String[] {host}, port, database, user, password,
+				authenType, context, verifier, null, null, null, null, null);
+	}
+
+	@Override
+	public void connect(String[] hosts, int port, String database, String user, String password,
+			Authentication authenType, SSLContext context,
+			SSLHostnameVerifier verifier, LoadBalancing balancing, ConnectionPolicy policy,
+			RetryPolicy retryPolicy, AsyncPolicy asyncPolicy, CompressionPolicy compressionPolicy) {
 		X509HostnameVerifier x509Verifier = null;
 		if (verifier == null) {
 			if (context != null)
@@ -236,18 +264,26 @@ public class JerseyServices implements RESTServices {
 			throw new IllegalArgumentException(
 					"Null SSLContent but non-null SSLHostnameVerifier for client");
 
-		connect(host, port, database, user, password, authenType, context, x509Verifier);
+		connect(hosts, port, database, user, password, authenType, context, x509Verifier, balancing,
+				policy, retryPolicy, asyncPolicy, compressionPolicy);
 	}
 
-	private void connect(String host, int port, String database, String user, String password,
+	private void connect(String[] hosts, int port, String database, String user, String password,
 			Authentication authenType, SSLContext context,
-			X509HostnameVerifier verifier) {
+			X509HostnameVerifier verifier, LoadBalancing balancing, ConnectionPolicy policy,
+			RetryPolicy retryPolicy, AsyncPolicy asyncPolicy, CompressionPolicy compressionPolicy) {
 		if (logger.isDebugEnabled())
-			logger.debug("Connecting to {} at {} as {}", new Object[] { host,
-					port, user });
+			logger.debug("Connecting to {} at {} as {}", new Object[] {
+					(hosts == null) ? null : Arrays.asList(hosts), port, user });
 
-		if (host == null)
+		if (hosts == null || hosts.length == 0)
 			throw new IllegalArgumentException("No host provided");
+		for (String clusterHost: hosts) {
+			if (clusterHost == null || clusterHost.length() == 0)
+				throw new IllegalArgumentException("No host provided");
+		}
+		String host = HostBalancingFilter.getHostName(hosts[0]);
+		int hostPort = HostBalancingFilter.getHostPort(hosts[0], port);
 
 		if (authenType == null) {
 			if (context != null) {
@@ -264,6 +300,9 @@ public class JerseyServices implements RESTServices {
 
 		if (connection != null)
 			connection = null;
+		hostFilter = null;
+		connMgr = null;
+		shutdownAsyncExecutor();
 		if (client != null) {
 			client.destroy();
 			client = null;
@@ -271,26 +310,39 @@ public class JerseyServices implements RESTServices {
 
 		this.database = database;
 
-		String baseUri = ((context == null) ? "http" : "https") + "://" + host
-				+ ":" + port + "/v1/";
+		String scheme = (context == null) ? "http" : "https";
+		String baseUri = scheme + "://" + host + ":" + hostPort + "/v1/";
 
 		Properties props = System.getProperties();
 
-		if (props.containsKey(MAX_DELAY_PROP)) {
-			String maxDelayStr = props.getProperty(MAX_DELAY_PROP);
-			if (maxDelayStr != null && maxDelayStr.length() > 0) {
-				int max = Integer.parseInt(maxDelayStr);
-				if (max > 0) {
-					maxDelay = max * 1000;
+		if (retryPolicy == null) {
+			retryPolicy = new RetryPolicy();
+			if (props.containsKey(MAX_DELAY_PROP)) {
+				String maxDelayStr = props.getProperty(MAX_DELAY_PROP);
+				if (maxDelayStr != null && maxDelayStr.length() > 0) {
+					int max = Integer.parseInt(maxDelayStr);
+					if (max > 0) {
+						retryPolicy.setMaxRetryTime(max * 1000L);
+					}
+				}
+			}
+			if (props.containsKey(MIN_RETRY_PROP)) {
+				String minRetryStr = props.getProperty(MIN_RETRY_PROP);
+				if (minRetryStr != null && minRetryStr.length() > 0) {
+					int min = Integer.parseInt(minRetryStr);
+					if (min > 0) {
+						retryPolicy.setMinRetries(min);
+					}
 				}
 			}
 		}
-		if (props.containsKey(MIN_RETRY_PROP)) {
-			String minRetryStr = props.getProperty(MIN_RETRY_PROP);
-			if (minRetryStr != null && minRetryStr.length() > 0) {
-				int min = Integer.parseInt(minRetryStr);
-				if (min > 0) {
-					minRetry = min;
+		int hostRetry = -1;
+		if (props.containsKey(HOST_RETRY_PROP)) {
+			String hostRetryStr = props.getProperty(HOST_RETRY_PROP);
+			if (hostRetryStr != null && hostRetryStr.length() > 0) {
+				int retry = Integer.parseInt(hostRetryStr);
+				if (retry > 0) {
+					hostRetry = retry * 1000;
 				}
 			}
 		}
@@ -311,21 +363,25 @@ public class JerseyServices implements RESTServices {
 				"warn");
 		}
 
-		Scheme scheme = null;
+		Scheme connScheme = null;
 		if (context == null) {
 			SchemeSocketFactory socketFactory = PlainSocketFactory
 					.getSocketFactory();
-			scheme = new Scheme("http", port, socketFactory);
+			connScheme = new Scheme("http", port, socketFactory);
 		} else {
 			SSLSocketFactory socketFactory = new SSLSocketFactory(context,
 					verifier);
-			scheme = new Scheme("https", port, socketFactory);
+			connScheme = new Scheme("https", port, socketFactory);
 		}
 		SchemeRegistry schemeRegistry = new SchemeRegistry();
-		schemeRegistry.register(scheme);
+		schemeRegistry.register(connScheme);
+
+		if (policy == null)
+			policy = new ConnectionPolicy();
 
-		int maxRouteConnections = 100;
-		int maxTotalConnections = 2 * maxRouteConnections;
+		int maxRouteConnections = policy.getMaxPerRoute();
+		int maxTotalConnections = (policy.getMaxTotal() > 0) ? policy.getMaxTotal() :
+			Math.max(2, hosts.length) * maxRouteConnections;
 
 		/*
 		 * 4.2 PoolingClientConnectionManager connMgr = new
@@ -336,13 +392,20 @@ public class JerseyServices implements RESTServices {
 		 *     maxRouteConnections);
 		 */
 		// start 4.1
-		ThreadSafeClientConnManager connMgr = new ThreadSafeClientConnManager(
-				schemeRegistry);
+		connMgr = new MonitoredConnManager(schemeRegistry);
 		connMgr.setMaxTotal(maxTotalConnections);
 		connMgr.setDefaultMaxPerRoute(maxRouteConnections);
 		connMgr.setMaxForRoute(new HttpRoute(new HttpHost(baseUri)),
 				maxRouteConnections);
 		// end 4.1
+		if (hosts.length > 1) {
+			for (String clusterHost: hosts) {
+				connMgr.setMaxForRoute(new HttpRoute(new HttpHost(
+						HostBalancingFilter.getHostName(clusterHost),
+						HostBalancingFilter.getHostPort(clusterHost, port), scheme)),
+						maxRouteConnections);
+			}
+		}
 
 		// CredentialsProvider credentialsProvider = new
 		// BasicCredentialsProvider();
@@ -372,6 +435,11 @@ public class JerseyServices implements RESTServices {
 
         // HttpConnectionParams.setStaleCheckingEnabled(httpParams, false);
 
+		if (policy.getConnectTimeout() > 0)
+			HttpConnectionParams.setConnectionTimeout(httpParams, policy.getConnectTimeout());
+		if (policy.getReadTimeout() > 0)
+			HttpConnectionParams.setSoTimeout(httpParams, policy.getReadTimeout());
+
         // long-term alternative to isFirstRequest alive
 		// HttpProtocolParams.setUseExpectContinue(httpParams, false);
 		// httpParams.setIntParameter(CoreProtocolPNames.WAIT_FOR_CONTINUE, 1000);
@@ -396,6 +464,20 @@ public class JerseyServices implements RESTServices {
 
 		client = ApacheHttpClient4.create(config);
 
+		HttpClient httpClient = client.getClientHandler().getHttpClient();
+		if (httpClient instanceof AbstractHttpClient) {
+			((AbstractHttpClient) httpClient).setKeepAliveStrategy(
+					new KeepAliveStrategy(policy.getKeepAlive()));
+		}
+
+		connMgr.startEvictor(policy.getEvictionInterval(), policy.getIdleTimeout());
+		this.asyncPolicy = new AsyncPolicy();
+		if (asyncPolicy != null) {
+			this.asyncPolicy.setThreads(asyncPolicy.getThreads());
+			this.asyncPolicy.setQueueSize(asyncPolicy.getQueueSize());
+			this.asyncPolicy.setOverflow(asyncPolicy.getOverflow());
+		}
+
 		// System.setProperty("javax.net.debug", "all"); // all or ssl
 
 		if (authenType == null) {
@@ -419,6 +501,33 @@ public class JerseyServices implements RESTServices {
 
 		// client.addFilter(new LoggingFilter(System.err));
 
+		// added last so the host is chosen before authentication
+		if (hosts.length > 1) {
+			// the DIGEST nonce is negotiated per host
+			hostFilter = new HostBalancingFilter(Arrays.asList(hosts), port, balancing, baseUri,
+					checkFirstRequest);
+			if (hostRetry > 0)
+				hostFilter.setRetryInterval(hostRetry);
+			client.addFilter(hostFilter);
+		}
+
+		// compressed around the metrics so the metrics count the bytes on the wire
+		if (compressionPolicy != null && compressionPolicy.isGzipRequests())
+			client.addFilter(new GzipRequestFilter());
+
+		// added after the host and authentication filters so the metrics
+		// include every host and authentication round trip
+		client.addFilter(new MetricsFilter(metrics));
+
+		if (compressionPolicy != null && compressionPolicy.isGzipResponses())
+			client.addFilter(new GzipResponseFilter());
+
+		// the retry controller observes each request to open the circuit
+		if (retryController != null)
+			metrics.removeRequestListener(retryController);
+		retryController = new RetryController(retryPolicy, metrics, hostFilter == null);
+		metrics.addRequestListener(retryController);
+
 		connection = client.resource(baseUri);
 	}
 
@@ -452,15 +561,27 @@ public class JerseyServices implements RESTServices {
 			logger.debug("Releasing connection");
 
 		connection = null;
+		hostFilter = null;
+		connMgr = null;
+		metrics.unregisterMBeans();
+		shutdownAsyncExecutor();
 		client.destroy();
 		client = null;
 	}
 
 	private boolean isFirstRequest() {
-		return threadState.get().isFirstRequest;
+		ThreadState state = threadState.get();
+		// a request to a different cluster host needs a new DIGEST nonce
+		if (!state.isFirstRequest && checkFirstRequest && hostFilter != null &&
+				state.host != hostFilter.getThreadHost())
+			state.isFirstRequest = true;
+		return state.isFirstRequest;
 	}
 	private void setFirstRequest(boolean value) {
-		threadState.get().isFirstRequest = value;
+		ThreadState state = threadState.get();
+		state.isFirstRequest = value;
+		if (!value && hostFilter != null)
+			state.host = hostFilter.getThreadHost();
 	}
 	private void checkFirstRequest() {
 		if (checkFirstRequest)
@@ -469,45 +590,57 @@ public class JerseyServices implements RESTServices {
 
 	private int makeFirstRequest(int retry) {
 		ClientResponse response = getConnection().path("ping").head();
-		int statusCode = response.getClientResponseStatus().getStatusCode();
-		if (statusCode != ClientResponse.Status.SERVICE_UNAVAILABLE.getStatusCode()) {
+		if (!retryController.isRetryStatus(response.getStatus())) {
 			response.close();
 			return 0;
 		}
 
-		MultivaluedMap<String, String> responseHeaders = response.getHeaders();
+		int retryAfter = RetryController.parseRetryAfter(
+				response.getHeaders().getFirst("Retry-After"));
 		response.close();
 
-		String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-		int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-		return Math.max(retryAfter, calculateDelay(randRetry, retry));
+		return retryController.getDelay(retry, retryAfter);
 	}
 
-	@Override
-	public void deleteDocument(RequestLogger reqlog, DocumentDescriptor desc,
-			String transactionId, Set<Metadata> categories, RequestParameters extraParams)
-			throws ResourceNotFoundException, ForbiddenUserException,
-			FailedRequestException {
-		String uri = desc.getUri();
-		if (uri == null)
-			throw new IllegalArgumentException(
-					"Document delete for document identifier without uri");
-
-		if (logger.isDebugEnabled())
-			logger.debug("Deleting {} in transaction {}", uri, transactionId);
-
-		WebResource webResource = makeDocumentResource(makeDocumentParams(uri,
-				categories, transactionId, extraParams));
-
-		WebResource.Builder builder = addVersionHeader(desc,
-				webResource.getRequestBuilder(), "If-Match");
+	/**
+	 * One attempt of a request that sendWithRetry() repeats while the
+	 * server responds with a retry status.
+	 */
+	abstract class RetryableRequest {
+		/**
+		 * Prepares the content for an attempt and returns whether the content
+		 * streams and can't be sent again, in which case the server is pinged
+		 * first so the content isn't consumed by a request that fails.
+		 */
+		boolean prepare(int retry) {
+			return false;
+		}
+		/**
+		 * Sends the attempt.
+		 */
+		abstract ClientResponse send();
+		/**
+		 * Returns whether the content of the last attempt can be sent again.
+		 */
+		boolean isResendable() {
+			return true;
+		}
+		/**
+		 * Names the target of the request in the error for content
+		 * that can't be sent again.
+		 */
+		String getTarget() {
+			return null;
+		}
+	}
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
+	// sends the request, waiting and sending it again while the server responds
+	// with a retry status and the retry policy permits, and returns the response
+	private ClientResponse sendWithRetry(Operation operation, RetryableRequest request) {
 		long startTime = System.currentTimeMillis();
 		int nextDelay = 0;
 		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
+		for (; retryController.canRetry(operation, retry, startTime); retry++) {
 			if (nextDelay > 0) {
 				try {
 					Thread.sleep(nextDelay);
@@ -515,31 +648,65 @@ public class JerseyServices implements RESTServices {
 				}
 			}
 
-			response = builder.delete(ClientResponse.class);
-			status = response.getClientResponseStatus();
+			if (request.prepare(retry) && isFirstRequest()) {
+				nextDelay = makeFirstRequest(retry);
+				if (nextDelay != 0)
+					continue;
+			}
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
+			ClientResponse response = request.send();
+			if (!retryController.isRetryStatus(response.getStatus())) {
 				if (isFirstRequest())
 					setFirstRequest(false);
 
-				break;
+				return response;
 			}
 
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
+			int retryAfter = RetryController.parseRetryAfter(
+					response.getHeaders().getFirst("Retry-After"));
 			response.close();
 
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
+			if (!request.isResendable()) {
+				checkFirstRequest();
+				throw new ResourceNotResendableException(
+						"Cannot retry request for " + request.getTarget());
+			}
+
+			nextDelay = retryController.getDelay(retry, retryAfter);
 		}
+		checkFirstRequest();
+		throw new FailedRequestException(
+				"Service unavailable and maximum retry period elapsed: "+
+					    Math.round((System.currentTimeMillis() - startTime) / 1000)+
+					    " seconds after "+retry+" retries");
+	}
+
+	@Override
+	public void deleteDocument(RequestLogger reqlog, DocumentDescriptor desc,
+			String transactionId, Set<Metadata> categories, RequestParameters extraParams)
+			throws ResourceNotFoundException, ForbiddenUserException,
+			FailedRequestException {
+		String uri = desc.getUri();
+		if (uri == null)
+			throw new IllegalArgumentException(
+					"Document delete for document identifier without uri");
+
+		if (logger.isDebugEnabled())
+			logger.debug("Deleting {} in transaction {}", uri, transactionId);
+
+		WebResource webResource = makeDocumentResource(makeDocumentParams(uri,
+				categories, transactionId, extraParams));
+
+		final WebResource.Builder builder = addVersionHeader(desc,
+				webResource.getRequestBuilder(), "If-Match");
+
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_DELETE, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.delete(ClientResponse.class);
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.NOT_FOUND) {
 			response.close();
 			throw new ResourceNotFoundException(
@@ -572,6 +739,45 @@ public class JerseyServices implements RESTServices {
 		logRequest(reqlog, "deleted %s document", uri);
 	}
 
+	@Override
+	public void deleteDocuments(RequestLogger reqlog, String[] uris,
+			String transactionId, RequestParameters extraParams)
+			throws ForbiddenUserException, FailedRequestException {
+		if (uris == null || uris.length == 0)
+			throw new IllegalArgumentException(
+					"Document delete without uris");
+
+		if (logger.isDebugEnabled())
+			logger.debug("Deleting {} documents in transaction {}", uris.length, transactionId);
+
+		MultivaluedMap<String, String> docParams = makeDocumentParams(uris[0],
+				null, transactionId, extraParams);
+		for (int i=1; i < uris.length; i++) {
+			addEncodedParam(docParams, "uri", uris[i]);
+		}
+
+		final WebResource.Builder builder = makeDocumentResource(docParams).getRequestBuilder();
+
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_DELETE, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.delete(ClientResponse.class);
+			}
+		});
+		// the int status covers codes such as 429 that have no Jersey enum value
+		int status = response.getStatus();
+		if (status == ClientResponse.Status.FORBIDDEN.getStatusCode()) {
+			throw new ForbiddenUserException(
+					"User is not allowed to delete documents", extractErrorFields(response));
+		}
+		if (status != ClientResponse.Status.NO_CONTENT.getStatusCode())
+			throw new FailedRequestException("delete failed with status "
+					+ status, extractErrorFields(response));
+
+		response.close();
+		logRequest(reqlog, "deleted %s documents", uris.length);
+	}
+
 	@Override
 	public boolean getDocument(RequestLogger reqlog, DocumentDescriptor desc,
 			String transactionId, Set<Metadata> categories,
@@ -634,44 +840,14 @@ public class JerseyServices implements RESTServices {
 
 		builder = addVersionHeader(desc, builder, "If-None-Match");
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.get(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		final WebResource.Builder requestBuilder = builder;
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_READ, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return requestBuilder.get(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.NOT_FOUND)
 			throw new ResourceNotFoundException(
 					"Could not read non-existent document",
@@ -723,11 +899,13 @@ public class JerseyServices implements RESTServices {
     @Override
 	public DocumentPage getBulkDocuments(RequestLogger reqlog,
 			String transactionId, Set<Metadata> categories, 
-			Format format, RequestParameters extraParams, boolean withContent, String... uris)
+			Format format, RequestParameters extraParams, boolean withContent, boolean streamPages,
+			String... uris)
 			throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
 		boolean hasMetadata = categories != null && categories.size() > 0;
 		JerseyResultIterator iterator = 
-			getBulkDocumentsImpl(reqlog, transactionId, categories, format, extraParams, withContent, uris);
+			getBulkDocumentsImpl(reqlog, transactionId, categories, format, extraParams, withContent,
+				streamPages, uris);
 		return new JerseyDocumentPage(iterator, withContent, hasMetadata);
 	}
 
@@ -737,17 +915,17 @@ public class JerseyServices implements RESTServices {
 			long start, long pageLength,
 			String transactionId,
 			SearchReadHandle searchHandle, QueryView view,
-			Set<Metadata> categories, Format format, RequestParameters extraParams)
+			Set<Metadata> categories, Format format, RequestParameters extraParams,
+			boolean withContent, boolean streamPages)
 			throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
 		boolean hasMetadata = categories != null && categories.size() > 0;
-		boolean hasContent = true;
 		JerseyResultIterator iterator = 
 			getBulkDocumentsImpl(reqlog, querydef, start, pageLength, transactionId, 
-				searchHandle, view, categories, format, extraParams);
-		return new JerseyDocumentPage(iterator, hasContent, hasMetadata);
+				searchHandle, view, categories, format, extraParams, withContent, streamPages);
+		return new JerseyDocumentPage(iterator, withContent, hasMetadata);
 	}
 
-	private class JerseyDocumentPage extends BasicPage<DocumentRecord> implements DocumentPage, Iterator<DocumentRecord> {
+	class JerseyDocumentPage extends BasicPage<DocumentRecord> implements DocumentPage, Iterator<DocumentRecord> {
 		private JerseyResultIterator iterator;
 		private Iterator<DocumentRecord> docRecordIterator;
 		private boolean hasMetadata;
@@ -765,7 +943,7 @@ public class JerseyServices implements RESTServices {
 			this.hasMetadata = hasMetadata;
 			if ( iterator == null ) {
 				setSize(0);
-			} else {
+			} else if ( iterator.getSize() != -1 ) {
 				setSize(iterator.getSize());
 			}
 		}
@@ -792,6 +970,8 @@ public class JerseyServices implements RESTServices {
 			DocumentRecord record;
 			if ( hasContent && hasMetadata ) {
 				JerseyResult metadata = result;
+				// keep streamed metadata readable after advancing to the content
+				metadata.buffer();
 				JerseyResult content = iterator.next();
 				record = new JerseyDocumentRecord(content, metadata);
 			} else if ( hasContent ) {
@@ -813,11 +993,22 @@ public class JerseyServices implements RESTServices {
 		public void close() {
 			if ( iterator != null ) iterator.close();
 		}
+
+		long getServerTimestamp() {
+			return (iterator != null) ? iterator.getServerTimestamp() : -1;
+		}
+
+		// unlike size(), which counts parts, counts a metadata and content pair as one document
+		long getDocumentCount() {
+			if ( iterator == null || iterator.getSize() == -1 ) return size();
+			return (hasContent && hasMetadata) ? iterator.getSize() / 2 : iterator.getSize();
+		}
 	}
 
 	private JerseyResultIterator getBulkDocumentsImpl(RequestLogger reqlog,
 			String transactionId, Set<Metadata> categories, 
-			Format format, RequestParameters extraParams, boolean withContent, String... uris)
+			Format format, RequestParameters extraParams, boolean withContent, boolean streamPages,
+			String... uris)
 			throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
 
 		String path = "documents";
@@ -829,14 +1020,14 @@ public class JerseyServices implements RESTServices {
 		for (String uri: uris) {
 			params.add("uri", uri);
 		}
-		JerseyResultIterator iterator = getIteratedResourceImpl(DefaultJerseyResultIterator.class,
-			reqlog, path, params, MultiPartMediaTypes.MULTIPART_MIXED);
+		JerseyResultIterator iterator = getIteratedResourceImpl(defaultIteratorFactory,
+			reqlog, path, params, streamPages, MultiPartMediaTypes.MULTIPART_MIXED);
 		if ( iterator != null ) {
 			if ( iterator.getStart() == -1 ) iterator.setStart(1);
-			if ( iterator.getSize() != -1 ) {
-				if ( iterator.getPageSize() == -1 ) iterator.setPageSize(iterator.getSize());
-				if ( iterator.getTotalSize() == -1 )  iterator.setTotalSize(iterator.getSize());
-			}
+			// a streamed page can only report the number of requested documents
+			long size = (iterator.getSize() != -1) ? iterator.getSize() : uris.length;
+			if ( iterator.getPageSize() == -1 ) iterator.setPageSize(size);
+			if ( iterator.getTotalSize() == -1 )  iterator.setTotalSize(size);
 		}
 		return iterator;
 	}
@@ -844,11 +1035,11 @@ public class JerseyServices implements RESTServices {
 	private JerseyResultIterator getBulkDocumentsImpl(RequestLogger reqlog,
 			QueryDefinition querydef, long start, long pageLength,
 			String transactionId, SearchReadHandle searchHandle, QueryView view,
-            Set<Metadata> categories, Format format, RequestParameters extraParams)
+            Set<Metadata> categories, Format format, RequestParameters extraParams,
+            boolean withContent, boolean streamPages)
 			throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
 		MultivaluedMap<String, String> params = new MultivaluedMapImpl();
 		if ( extraParams != null ) params.putAll(extraParams);
-		boolean withContent = true;
 		addCategoryParams(categories, params, withContent);
 		if (searchHandle != null && view != null) params.add("view", view.toString().toLowerCase());
 		if (start > 1)             params.add("start",      Long.toString(start));
@@ -868,6 +1059,20 @@ public class JerseyServices implements RESTServices {
 			generateSearchRequest(reqlog, querydef, MultiPartMediaTypes.MULTIPART_MIXED, params);
         ClientResponse response = request.getResponse();
         if ( response == null ) return null;
+        if ( streamPages ) {
+            StreamingMultiPartReader reader = makeStreamingReader(response);
+            if ( searchHandle != null && reader != null && reader.hasNext() ) {
+                StreamingMultiPartReader.StreamedBodyPart searchResponsePart =
+                    (StreamingMultiPartReader.StreamedBodyPart) reader.next();
+                searchResponsePart.buffer();
+                HandleImplementation handleBase = HandleAccessor.as(searchHandle);
+                handleBase.receiveContent(
+                    searchResponsePart.getEntityAs(handleBase.receiveAs())
+                );
+            }
+            return makeResults(serviceIteratorFactory, reqlog, "read", "resource",
+                reader, response);
+        }
         MultiPart entity = null;
         if ( searchHandle != null ) {
             if ( response.hasEntity() ) {
@@ -883,12 +1088,12 @@ public class JerseyServices implements RESTServices {
                         partList = partList.subList(1, partList.size());
                     }
                     Closeable closeable = new MultipartCloseable(response, entity);
-                    return makeResults(JerseyServiceResultIterator.class, reqlog, "read", "resource",
+                    return makeResults(serviceIteratorFactory, reqlog, "read", "resource",
                         partList, response, closeable);
                 }
             }
         }
-        return makeResults(JerseyServiceResultIterator.class, reqlog, "read", "resource", response);
+        return makeResults(serviceIteratorFactory, reqlog, "read", "resource", response);
 	}
 
 	private boolean getDocumentImpl(RequestLogger reqlog,
@@ -913,49 +1118,18 @@ public class JerseyServices implements RESTServices {
 				categories, transactionId, extraParams, true);
 		docParams.add("format", metadataFormat);
 
-		WebResource.Builder builder = makeDocumentResource(docParams).getRequestBuilder();
-		builder = addVersionHeader(desc, builder, "If-None-Match");
-
-		MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.accept(multipartType).get(ClientResponse.class);
-			status = response.getClientResponseStatus();
+		final WebResource.Builder builder = addVersionHeader(desc,
+				makeDocumentResource(docParams).getRequestBuilder(), "If-None-Match");
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+		final MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
 
-				break;
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_READ, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.accept(multipartType).get(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.NOT_FOUND)
 			throw new ResourceNotFoundException(
 					"Could not read non-existent document",
@@ -1067,46 +1241,15 @@ public class JerseyServices implements RESTServices {
 			logger.debug("Requesting head for {} in transaction {}", uri,
 					transactionId);
 
-		WebResource.Builder builder = webResource.getRequestBuilder();
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.head();
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+		final WebResource.Builder builder = webResource.getRequestBuilder();
 
-				break;
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_READ, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.head();
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status != ClientResponse.Status.OK) {
 			if (status == ClientResponse.Status.NOT_FOUND) {
 				response.close();
@@ -1225,14 +1368,14 @@ public class JerseyServices implements RESTServices {
 		return desc;
 	}
 
-	private void putPostDocumentImpl(RequestLogger reqlog, String method, DocumentDescriptor desc,
+	private void putPostDocumentImpl(final RequestLogger reqlog, String method, DocumentDescriptor desc,
 			String transactionId, Set<Metadata> categories, boolean isOnContent, RequestParameters extraParams,
 			String mimetype, AbstractWriteHandle handle)
 	throws ResourceNotFoundException, ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException {
 		String uri = desc.getUri();
 
-		HandleImplementation handleBase = HandleAccessor.as(handle);
+		final HandleImplementation handleBase = HandleAccessor.as(handle);
 
 		if (logger.isDebugEnabled())
 			logger.debug("Sending {} document in transaction {}",
@@ -1261,80 +1404,47 @@ public class JerseyServices implements RESTServices {
 			builder = builder.header("X-HTTP-Method-Override", "PATCH");
 			method  = "post";
 		}
-		boolean isResendable = handleBase.isResendable();
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		MultivaluedMap<String, String> responseHeaders = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
+		final boolean isResendable = handleBase.isResendable();
+
+		final String target = (uri != null) ? uri : "new document";
+		final String requestMethod = method;
+		final WebResource.Builder requestBuilder = builder;
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_WRITE, new RetryableRequest() {
+			Object value;
+			@Override
+			boolean prepare(int retry) {
+				value = handleBase.sendContent();
+				if (value == null)
+					throw new IllegalArgumentException(
+							"Document write with null value for " + target);
+				return !isResendable && isStreaming(value);
+			}
+			@Override
+			ClientResponse send() {
+				if (value instanceof OutputStreamSender) {
+					StreamingOutput sentStream =
+						new StreamingOutputImpl((OutputStreamSender) value, reqlog);
+					return ("put".equals(requestMethod)) ?
+						requestBuilder.put(ClientResponse.class,  sentStream) :
+						requestBuilder.post(ClientResponse.class, sentStream);
 				}
-			}
-
-			Object value = handleBase.sendContent();
-			if (value == null)
-				throw new IllegalArgumentException(
-						"Document write with null value for " +
-						((uri != null) ? uri : "new document"));
-
-			if (isFirstRequest() && !isResendable && isStreaming(value)) {
-				nextDelay = makeFirstRequest(retry);
-				if (nextDelay != 0)
-					continue;
-			}
-
-			if (value instanceof OutputStreamSender) {
-				StreamingOutput sentStream =
-					new StreamingOutputImpl((OutputStreamSender) value, reqlog);
-				response =
-					("put".equals(method)) ?
-					builder.put(ClientResponse.class,  sentStream) :
-					builder.post(ClientResponse.class, sentStream);
-			} else {
 				Object sentObj = (reqlog != null) ?
 						reqlog.copyContent(value) : value;
-				response =
-					("put".equals(method)) ?
-					builder.put(ClientResponse.class,  sentObj) :
-					builder.post(ClientResponse.class, sentObj);
+				return ("put".equals(requestMethod)) ?
+					requestBuilder.put(ClientResponse.class,  sentObj) :
+					requestBuilder.post(ClientResponse.class, sentObj);
 			}
-
-			status = response.getClientResponseStatus();
-
-			responseHeaders = response.getHeaders();
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
- 				break;
+			@Override
+			boolean isResendable() {
+				return isResendable;
 			}
-
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (!isResendable) {
-				checkFirstRequest();
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " +
-						 ((uri != null) ? uri : "new document"));
+			@Override
+			String getTarget() {
+				return target;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
+		MultivaluedMap<String, String> responseHeaders = response.getHeaders();
 		if (status == ClientResponse.Status.NOT_FOUND)
 			throw new ResourceNotFoundException(
 					"Could not write non-existent document",
@@ -1386,10 +1496,10 @@ public class JerseyServices implements RESTServices {
 		response.close();
 	}
 
-	private void putPostDocumentImpl(RequestLogger reqlog, String method, DocumentDescriptor desc,
+	private void putPostDocumentImpl(final RequestLogger reqlog, final String method, DocumentDescriptor desc,
 			String transactionId, Set<Metadata> categories, RequestParameters extraParams,
-			String metadataMimetype, DocumentMetadataWriteHandle metadataHandle, String contentMimetype,
-			AbstractWriteHandle contentHandle)
+			final String metadataMimetype, final DocumentMetadataWriteHandle metadataHandle, final String contentMimetype,
+			final AbstractWriteHandle contentHandle)
 	throws ResourceNotFoundException, ResourceNotResendableException,
 			ForbiddenUserException, FailedRequestException {
 		String uri = desc.getUri();
@@ -1413,69 +1523,42 @@ public class JerseyServices implements RESTServices {
 			builder = addVersionHeader(desc, builder, "If-Match");
 		}
 
-		MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		MultivaluedMap<String, String> responseHeaders = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			MultiPart multiPart = new MultiPart();
-			boolean hasStreamingPart = addParts(multiPart, reqlog,
-					new String[] { metadataMimetype, contentMimetype },
-					new AbstractWriteHandle[] { metadataHandle, contentHandle });
-
-			if (isFirstRequest() && hasStreamingPart) {
-				nextDelay = makeFirstRequest(retry);
-				if (nextDelay != 0)
-					continue;
-			}
-
-			// Must set multipart/mixed mime type explicitly on each request
-			// because Jersey client 1.17 adapter for HttpClient switches
-			// to application/octet-stream on retry
-			WebResource.Builder requestBlder = builder.type(multipartType);
-			response =
-				("put".equals(method)) ?
-				requestBlder.put(ClientResponse.class,  multiPart) :
-				requestBlder.post(ClientResponse.class, multiPart);
-			status = response.getClientResponseStatus();
-
-			responseHeaders = response.getHeaders();
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (hasStreamingPart) {
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " +
-						((uri != null) ? uri : "new document"));
-			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		final MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
+
+		final String target = (uri != null) ? uri : "new document";
+		final WebResource.Builder requestBuilder = builder;
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_WRITE, new RetryableRequest() {
+			MultiPart multiPart;
+			boolean hasStreamingPart;
+			@Override
+			boolean prepare(int retry) {
+				multiPart = new MultiPart();
+				hasStreamingPart = addParts(multiPart, reqlog,
+						new String[] { metadataMimetype, contentMimetype },
+						new AbstractWriteHandle[] { metadataHandle, contentHandle });
+				return hasStreamingPart;
+			}
+			@Override
+			ClientResponse send() {
+				// Must set multipart/mixed mime type explicitly on each request
+				// because Jersey client 1.17 adapter for HttpClient switches
+				// to application/octet-stream on retry
+				WebResource.Builder requestBlder = requestBuilder.type(multipartType);
+				return ("put".equals(method)) ?
+					requestBlder.put(ClientResponse.class,  multiPart) :
+					requestBlder.post(ClientResponse.class, multiPart);
+			}
+			@Override
+			boolean isResendable() {
+				return !hasStreamingPart;
+			}
+			@Override
+			String getTarget() {
+				return target;
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
+		MultivaluedMap<String, String> responseHeaders = response.getHeaders();
 		if (status == ClientResponse.Status.NOT_FOUND) {
 			response.close();
 			throw new ResourceNotFoundException(
@@ -1554,48 +1637,17 @@ public class JerseyServices implements RESTServices {
 			addEncodedParam(transParams, "database", database);
 		}
 
-		WebResource resource = (transParams != null) ? getConnection().path(
+		final WebResource resource = (transParams != null) ? getConnection().path(
 				"transactions").queryParams(transParams) : getConnection()
 				.path("transactions");
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(Operation.TRANSACTION, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return resource.post(ClientResponse.class);
 			}
-
-			response = resource.post(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN)
 			throw new ForbiddenUserException(
 					"User is not allowed to open transactions",
@@ -1647,46 +1699,15 @@ public class JerseyServices implements RESTServices {
 		WebResource webResource = getConnection().path("transactions/" + transactionId)
 				.queryParams(transParams);
 
-		WebResource.Builder builder = webResource.getRequestBuilder();
+		final WebResource.Builder builder = webResource.getRequestBuilder();
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.post(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.TRANSACTION, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.post(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN)
 			throw new ForbiddenUserException(
 					"User is not allowed to complete transaction with "
@@ -2140,60 +2161,28 @@ public class JerseyServices implements RESTServices {
         }
 
         ClientResponse getResponse() {
-            ClientResponse response = null;
-            ClientResponse.Status status = null;
-            long startTime = System.currentTimeMillis();
-            int nextDelay = 0;
-            int retry = 0;
-            for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-                if (nextDelay > 0) {
-                    try {
-                        Thread.sleep(nextDelay);
-                    } catch (InterruptedException e) {
+            ClientResponse response = sendWithRetry(Operation.SEARCH, new RetryableRequest() {
+                @Override
+                ClientResponse send() {
+                    if (queryDef instanceof StringQueryDefinition) {
+                        return doGet(builder);
+                    } else if (queryDef instanceof KeyValueQueryDefinition) {
+                        return doGet(builder);
+                    } else if (queryDef instanceof StructuredQueryDefinition) {
+                        return doPost(reqlog, builder, structure, true);
+                    } else if (queryDef instanceof CombinedQueryDefinition) {
+                        return doPost(reqlog, builder, structure, true);
+                    } else if (queryDef instanceof DeleteQueryDefinition) {
+                        return doGet(builder);
+                    } else if (queryDef instanceof RawQueryDefinition) {
+                        return doPost(reqlog, builder, baseHandle.sendContent(), true);
+                    } else {
+                        throw new UnsupportedOperationException("Cannot search with "
+                                + queryDef.getClass().getName());
                     }
                 }
-
-                if (queryDef instanceof StringQueryDefinition) {
-                    response = doGet(builder);
-                } else if (queryDef instanceof KeyValueQueryDefinition) {
-                    response = doGet(builder);
-                } else if (queryDef instanceof StructuredQueryDefinition) {
-                    response = doPost(reqlog, builder, structure, true);
-                } else if (queryDef instanceof CombinedQueryDefinition) {
-                    response = doPost(reqlog, builder, structure, true);
-                } else if (queryDef instanceof DeleteQueryDefinition) {
-                    response = doGet(builder);
-                } else if (queryDef instanceof RawQueryDefinition) {
-                    response = doPost(reqlog, builder, baseHandle.sendContent(), true);
-                } else {
-                    throw new UnsupportedOperationException("Cannot search with "
-                            + queryDef.getClass().getName());
-                }
-
-                status = response.getClientResponseStatus();
-
-                if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-                    if (isFirstRequest())
-                        setFirstRequest(false);
-
-                    break;
-                }
-
-                MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-                String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-                int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-                response.close();
-
-                nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-            }
-            if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-                checkFirstRequest();
-                throw new FailedRequestException(
-                        "Service unavailable and maximum retry period elapsed: "+
-                                Math.round((System.currentTimeMillis() - startTime) / 1000)+
-                                " seconds after "+retry+" retries");
-            }
+            });
+            ClientResponse.Status status = response.getClientResponseStatus();
             if (status == ClientResponse.Status.NOT_FOUND) {
 				response.close();
 				return null;
@@ -2231,46 +2220,15 @@ public class JerseyServices implements RESTServices {
 
 		WebResource webResource = getConnection().path("search").queryParams(params);
 
-		WebResource.Builder builder = webResource.getRequestBuilder();
+		final WebResource.Builder builder = webResource.getRequestBuilder();
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(Operation.DOCUMENT_DELETE, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.delete(ClientResponse.class);
 			}
-
-			response = builder.delete(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to delete",
 					extractErrorFields(response));
@@ -2394,50 +2352,18 @@ public class JerseyServices implements RESTServices {
 			uri += "/" + valDef.getName();
 		}
 
-		WebResource.Builder builder = getConnection().path(uri).queryParams(docParams).accept(mimetype);
-
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-            response = baseHandle == null ?
-                doGet(builder) :
-                doPost(null, builder.type(baseHandle.getMimetype()), baseHandle.sendContent(), baseHandle.isResendable());
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+		final WebResource.Builder builder = getConnection().path(uri).queryParams(docParams).accept(mimetype);
 
-				break;
+		final HandleImplementation queryHandle = baseHandle;
+		ClientResponse response = sendWithRetry(Operation.VALUES, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return queryHandle == null ?
+					doGet(builder) :
+					doPost(null, builder.type(queryHandle.getMimetype()), queryHandle.sendContent(), queryHandle.isResendable());
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to search",
 					extractErrorFields(response));
@@ -2472,47 +2398,16 @@ public class JerseyServices implements RESTServices {
 
 		String uri = "values";
 
-		WebResource.Builder builder = getConnection().path(uri)
+		final WebResource.Builder builder = getConnection().path(uri)
 				.queryParams(docParams).accept(mimetype);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.get(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.VALUES, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.get(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to search",
 					extractErrorFields(response));
@@ -2540,47 +2435,16 @@ public class JerseyServices implements RESTServices {
 
 		String uri = "config/query";
 
-		WebResource.Builder builder = getConnection().path(uri)
+		final WebResource.Builder builder = getConnection().path(uri)
 				.queryParams(docParams).accept(mimetype);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.get(ClientResponse.class);
 			}
-
-			response = builder.get(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to search",
 					extractErrorFields(response));
@@ -2606,47 +2470,16 @@ public class JerseyServices implements RESTServices {
 		if (logger.isDebugEnabled())
 			logger.debug("Getting {}/{}", type, key);
 
-		WebResource.Builder builder = getConnection().path(type + "/" + key).accept(
+		final WebResource.Builder builder = getConnection().path(type + "/" + key).accept(
 				mimetype);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.get(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.get(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status != ClientResponse.Status.OK) {
 			if (status == ClientResponse.Status.NOT_FOUND) {
 				response.close();
@@ -2687,48 +2520,17 @@ public class JerseyServices implements RESTServices {
 
 		MultivaluedMap<String, String> requestParams = convertParams(extraParams);
 
-		WebResource.Builder builder = (requestParams == null) ?
+		final WebResource.Builder builder = (requestParams == null) ?
 				getConnection().path(type).accept(mimetype) :
 				getConnection().path(type).queryParams(requestParams).accept(mimetype);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.get(ClientResponse.class);
 			}
-
-			response = builder.get(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to read "
 					+ type, extractErrorFields(response));
@@ -2796,9 +2598,9 @@ public class JerseyServices implements RESTServices {
 				value, ClientResponse.Status.NO_CONTENT);
 	}
 
-	private void putPostValueImpl(RequestLogger reqlog, String method,
+	private void putPostValueImpl(final RequestLogger reqlog, final String method,
 			String type, String key, RequestParameters extraParams,
-			String mimetype, Object value,
+			String mimetype, final Object value,
 			ClientResponse.Status... expectedStatuses) {
 		if (key != null) {
 			logRequest(reqlog, "writing %s value with %s key and %s mime type",
@@ -2808,112 +2610,72 @@ public class JerseyServices implements RESTServices {
 					(mimetype != null) ? mimetype : null);
 		}
 
-		HandleImplementation handle = (value instanceof HandleImplementation) ?
+		final HandleImplementation handle = (value instanceof HandleImplementation) ?
 				(HandleImplementation) value : null;
 
 		MultivaluedMap<String, String> requestParams = convertParams(extraParams);
 
-		String connectPath = null;
-		WebResource.Builder builder = null;
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
+		final String connectPath;
+		if ("put".equals(method)) {
+			connectPath = (key != null) ? type + "/" + key : type;
+		} else if ("post".equals(method)) {
+			connectPath = type;
+		} else {
+			throw new MarkLogicInternalException("unknown method type "
+					+ method);
+		}
+		WebResource resource = (requestParams == null) ?
+			getConnection().path(connectPath) :
+			getConnection().path(connectPath).queryParams(requestParams);
+		final WebResource.Builder builder = (mimetype == null) ?
+			resource.getRequestBuilder() : resource.type(mimetype);
+
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			Object sentValue;
+			boolean isResendable;
+			@Override
+			boolean prepare(int retry) {
+				Object nextValue = (handle != null) ? handle.sendContent() : value;
+
+				if (nextValue instanceof OutputStreamSender) {
+					sentValue = new StreamingOutputImpl(
+							(OutputStreamSender) nextValue, reqlog);
+				} else {
+					if (reqlog != null && retry == 0)
+						sentValue = reqlog.copyContent(nextValue);
+					else
+						sentValue = nextValue;
 				}
-			}
-
-			Object nextValue = (handle != null) ? handle.sendContent() : value;
-
-			Object sentValue = null;
-			if (nextValue instanceof OutputStreamSender) {
-				sentValue = new StreamingOutputImpl(
-						(OutputStreamSender) nextValue, reqlog);
-			} else {
-				if (reqlog != null && retry == 0)
-					sentValue = reqlog.copyContent(nextValue);
-				else
-					sentValue = nextValue;
-			}
 
-			boolean isStreaming = (isFirstRequest() || handle == null) ? isStreaming(sentValue)
-					: false;
+				boolean isStreaming = (isFirstRequest() || handle == null) ? isStreaming(sentValue)
+						: false;
 
-			boolean isResendable = (handle == null) ? !isStreaming :
-				handle.isResendable();
+				isResendable = (handle == null) ? !isStreaming :
+					handle.isResendable();
 
-			if (isFirstRequest() && !isResendable && isStreaming) {
-				nextDelay = makeFirstRequest(retry);
-				if (nextDelay != 0)
-					continue;
+				return !isResendable && isStreaming;
 			}
-
-			if ("put".equals(method)) {
-				if (builder == null) {
-					connectPath = (key != null) ? type + "/" + key : type;
-					WebResource resource = (requestParams == null) ?
-						getConnection().path(connectPath) :
-						getConnection().path(connectPath).queryParams(requestParams);
-					builder = (mimetype == null) ?
-						resource.getRequestBuilder() : resource.type(mimetype);
+			@Override
+			ClientResponse send() {
+				if ("put".equals(method)) {
+					return (sentValue == null) ?
+							builder.put(ClientResponse.class) :
+							builder.put(ClientResponse.class, sentValue);
 				}
-
-				response = (sentValue == null) ?
-						builder.put(ClientResponse.class) :
-						builder.put(ClientResponse.class, sentValue);
-			} else if ("post".equals(method)) {
-				if (builder == null) {
-					connectPath = type;
-					WebResource resource = (requestParams == null) ?
-						getConnection().path(connectPath) :
-						getConnection().path(connectPath).queryParams(requestParams);
-					builder = (mimetype == null) ?
-						resource.getRequestBuilder() : resource.type(mimetype);
-				}
-
-				response = (sentValue == null) ?
+				return (sentValue == null) ?
 					builder.post(ClientResponse.class) :
 					builder.post(ClientResponse.class, sentValue);
-			} else {
-				throw new MarkLogicInternalException("unknown method type "
-						+ method);
 			}
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+			@Override
+			boolean isResendable() {
+				return isResendable;
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (!isResendable) {
-				checkFirstRequest();
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + connectPath);
+			@Override
+			String getTarget() {
+				return connectPath;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN)
 			throw new ForbiddenUserException("User is not allowed to write "
 					+ type, extractErrorFields(response));
@@ -2943,46 +2705,15 @@ public class JerseyServices implements RESTServices {
 		if (logger.isDebugEnabled())
 			logger.debug("Deleting {}/{}", type, key);
 
-		WebResource builder = getConnection().path(type + "/" + key);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.delete(ClientResponse.class);
-			status = response.getClientResponseStatus();
+		final WebResource builder = getConnection().path(type + "/" + key);
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.delete(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN)
 			throw new ForbiddenUserException("User is not allowed to delete "
 					+ type, extractErrorFields(response));
@@ -3004,46 +2735,15 @@ public class JerseyServices implements RESTServices {
 		if (logger.isDebugEnabled())
 			logger.debug("Deleting {}", type);
 
-		WebResource builder = getConnection().path(type);
+		final WebResource builder = getConnection().path(type);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.delete(ClientResponse.class);
 			}
-
-			response = builder.delete(ClientResponse.class);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN)
 			throw new ForbiddenUserException("User is not allowed to delete "
 					+ type, extractErrorFields(response));
@@ -3066,46 +2766,15 @@ public class JerseyServices implements RESTServices {
 		String mimetype = outputBase.getMimetype();
 		Class as = outputBase.receiveAs();
 
-		WebResource.Builder builder = makeGetBuilder(path, params, mimetype);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = doGet(builder);
-			status = response.getClientResponseStatus();
+		final WebResource.Builder builder = makeGetBuilder(path, params, mimetype);
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doGet(builder);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		checkStatus(response, status, "read", "resource", path,
 				ResponseStatus.OK_OR_NO_CONTENT);
 
@@ -3124,76 +2793,49 @@ public class JerseyServices implements RESTServices {
 			String path, RequestParameters params, String... mimetypes)
 			throws ResourceNotFoundException, ForbiddenUserException,
 			FailedRequestException {
-		return getIteratedResourceImpl(JerseyServiceResultIterator.class, reqlog, path, params, mimetypes);
+		return getIteratedResourceImpl(serviceIteratorFactory, reqlog, path, params, false, mimetypes);
 	}
 
-	private <U extends JerseyResultIterator> U getIteratedResourceImpl(Class<U> clazz, RequestLogger reqlog,
-			String path, RequestParameters params, String... mimetypes)
+	private <U extends JerseyResultIterator> U getIteratedResourceImpl(ResultIteratorFactory<U> factory, RequestLogger reqlog,
+			String path, RequestParameters params, boolean streamParts, String... mimetypes)
 			throws ResourceNotFoundException, ForbiddenUserException,
 			FailedRequestException {
 
-		WebResource.Builder builder = makeGetBuilder(path, params, null);
-
-		MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = doGet(builder.accept(multipartType));
-			status = response.getClientResponseStatus();
+		final WebResource.Builder builder = makeGetBuilder(path, params, null);
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+		final MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
 
-				break;
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doGet(builder.accept(multipartType));
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "read", "resource", path,
 				ResponseStatus.OK_OR_NO_CONTENT);
 
-		return makeResults(clazz, reqlog, "read", "resource", response);
+		if (streamParts) {
+			return makeResults(factory, reqlog, "read", "resource",
+					makeStreamingReader(response), response);
+		}
+		return makeResults(factory, reqlog, "read", "resource", response);
 	}
 
 	@Override
-	public <R extends AbstractReadHandle> R putResource(RequestLogger reqlog,
-			String path, RequestParameters params, AbstractWriteHandle input,
+	public <R extends AbstractReadHandle> R putResource(final RequestLogger reqlog,
+			final String path, RequestParameters params, AbstractWriteHandle input,
 			R output) throws ResourceNotFoundException,
 			ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException {
-		HandleImplementation inputBase = HandleAccessor.checkHandle(input,
+		final HandleImplementation inputBase = HandleAccessor.checkHandle(input,
 				"write");
 		HandleImplementation outputBase = HandleAccessor.checkHandle(output,
 				"read");
 
 		String inputMimetype = inputBase.getMimetype();
-		boolean isResendable = inputBase.isResendable();
+		final boolean isResendable = inputBase.isResendable();
 		String outputMimeType = null;
 		Class as = null;
 		if (outputBase != null) {
@@ -3201,53 +2843,25 @@ public class JerseyServices implements RESTServices {
 		
 			as = outputBase.receiveAs();
 		}
-		WebResource.Builder builder = makePutBuilder(path, params,
+		final WebResource.Builder builder = makePutBuilder(path, params,
 				inputMimetype, outputMimeType);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doPut(reqlog, builder, inputBase.sendContent(),
+						!isResendable);
 			}
-
-			response = doPut(reqlog, builder, inputBase.sendContent(),
-					!isResendable);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+			@Override
+			boolean isResendable() {
+				return isResendable;
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (!isResendable) {
-				checkFirstRequest();
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+			@Override
+			String getTarget() {
+				return path;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "write", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
@@ -3264,8 +2878,8 @@ public class JerseyServices implements RESTServices {
 
 	@Override
 	public <R extends AbstractReadHandle, W extends AbstractWriteHandle> R putResource(
-			RequestLogger reqlog, String path, RequestParameters params,
-			W[] input, R output) throws ResourceNotFoundException,
+			final RequestLogger reqlog, final String path, final RequestParameters params,
+			final W[] input, R output) throws ResourceNotFoundException,
 			ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException {
 		if (input == null || input.length == 0)
@@ -3275,57 +2889,31 @@ public class JerseyServices implements RESTServices {
 		HandleImplementation outputBase = HandleAccessor.checkHandle(output,
 				"read");
 
-		String outputMimetype = outputBase.getMimetype();
+		final String outputMimetype = outputBase.getMimetype();
 		Class as = outputBase.receiveAs();
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			MultiPart multiPart = new MultiPart();
-			boolean hasStreamingPart = addParts(multiPart, reqlog, input);
-
-			WebResource.Builder builder = makePutBuilder(path, params,
-					multiPart, outputMimetype);
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			boolean hasStreamingPart;
+			@Override
+			ClientResponse send() {
+				MultiPart multiPart = new MultiPart();
+				hasStreamingPart = addParts(multiPart, reqlog, input);
 
-			response = doPut(builder, multiPart, hasStreamingPart);
-			status = response.getClientResponseStatus();
+				WebResource.Builder builder = makePutBuilder(path, params,
+						multiPart, outputMimetype);
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+				return doPut(builder, multiPart, hasStreamingPart);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (hasStreamingPart) {
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+			@Override
+			boolean isResendable() {
+				return !hasStreamingPart;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+			@Override
+			String getTarget() {
+				return path;
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "write", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
@@ -3341,68 +2929,40 @@ public class JerseyServices implements RESTServices {
 	}
 
 	@Override
-	public <R extends AbstractReadHandle> R postResource(RequestLogger reqlog,
-			String path, RequestParameters params, AbstractWriteHandle input,
+	public <R extends AbstractReadHandle> R postResource(final RequestLogger reqlog,
+			final String path, RequestParameters params, AbstractWriteHandle input,
 			R output) throws ResourceNotFoundException,
 			ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException {
-		HandleImplementation inputBase = HandleAccessor.checkHandle(input,
+		final HandleImplementation inputBase = HandleAccessor.checkHandle(input,
 				"write");
 		HandleImplementation outputBase = HandleAccessor.checkHandle(output,
 				"read");
 
 		String inputMimetype = inputBase.getMimetype();
 		String outputMimetype = outputBase.getMimetype();
-		boolean isResendable = inputBase.isResendable();
+		final boolean isResendable = inputBase.isResendable();
 		Class as = outputBase.receiveAs();
 
-		WebResource.Builder builder = makePostBuilder(path, params,
+		final WebResource.Builder builder = makePostBuilder(path, params,
 				inputMimetype, outputMimetype);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doPost(reqlog, builder, inputBase.sendContent(),
+						!isResendable);
 			}
-
-			response = doPost(reqlog, builder, inputBase.sendContent(),
-					!isResendable);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+			@Override
+			boolean isResendable() {
+				return isResendable;
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (!isResendable) {
-				checkFirstRequest();
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+			@Override
+			String getTarget() {
+				return path;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "apply", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
@@ -3428,63 +2988,37 @@ public class JerseyServices implements RESTServices {
 
 	@Override
 	public <R extends AbstractReadHandle, W extends AbstractWriteHandle> R postResource(
-			RequestLogger reqlog, String path, RequestParameters params,
-			W[] input, Map<String, List<String>>[] headers, R output) throws ResourceNotFoundException,
+			final RequestLogger reqlog, final String path, final RequestParameters params,
+			final W[] input, final Map<String, List<String>>[] headers, R output) throws ResourceNotFoundException,
 			ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException {
 		HandleImplementation outputBase = HandleAccessor.checkHandle(output, "read");
 
-		String outputMimetype = outputBase != null ? outputBase.getMimetype() : null;
+		final String outputMimetype = outputBase != null ? outputBase.getMimetype() : null;
 		Class as = outputBase != null ? outputBase.receiveAs() : null;
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			boolean hasStreamingPart;
+			@Override
+			ClientResponse send() {
+				MultiPart multiPart = new MultiPart();
+				hasStreamingPart = addParts(multiPart, reqlog, null, input, headers);
 
-			MultiPart multiPart = new MultiPart();
-			boolean hasStreamingPart = addParts(multiPart, reqlog, null, input, headers);
+				WebResource.Builder builder = makePostBuilder(path, params,
+						multiPart, outputMimetype);
 
-			WebResource.Builder builder = makePostBuilder(path, params,
-					multiPart, outputMimetype);
-
-			response = doPost(builder, multiPart, hasStreamingPart);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+				return doPost(builder, multiPart, hasStreamingPart);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (hasStreamingPart) {
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+			@Override
+			boolean isResendable() {
+				return !hasStreamingPart;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+			@Override
+			String getTarget() {
+				return path;
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "apply", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
@@ -3611,8 +3145,42 @@ public class JerseyServices implements RESTServices {
 			if ( iterator != null ) iterator.close();
 		}
 	}
+	// resolves the X-Primitive header of an eval result with one lookup
+	static final private Map<String, EvalResult.Type> evalPrimitiveTypes =
+		new HashMap<String, EvalResult.Type>();
+	static {
+		evalPrimitiveTypes.put("string",                   EvalResult.Type.STRING);
+		evalPrimitiveTypes.put("untypedAtomic",            EvalResult.Type.STRING);
+		evalPrimitiveTypes.put("boolean",                  EvalResult.Type.BOOLEAN);
+		evalPrimitiveTypes.put("attribute()",              EvalResult.Type.ATTRIBUTE);
+		evalPrimitiveTypes.put("comment()",                EvalResult.Type.COMMENT);
+		evalPrimitiveTypes.put("processing-instruction()", EvalResult.Type.PROCESSINGINSTRUCTION);
+		evalPrimitiveTypes.put("text()",                   EvalResult.Type.TEXTNODE);
+		evalPrimitiveTypes.put("binary()",                 EvalResult.Type.BINARY);
+		evalPrimitiveTypes.put("duration",                 EvalResult.Type.DURATION);
+		evalPrimitiveTypes.put("date",                     EvalResult.Type.DATE);
+		evalPrimitiveTypes.put("anyURI",                   EvalResult.Type.ANYURI);
+		evalPrimitiveTypes.put("hexBinary",                EvalResult.Type.HEXBINARY);
+		evalPrimitiveTypes.put("base64Binary",             EvalResult.Type.BASE64BINARY);
+		evalPrimitiveTypes.put("dateTime",                 EvalResult.Type.DATETIME);
+		evalPrimitiveTypes.put("decimal",                  EvalResult.Type.DECIMAL);
+		evalPrimitiveTypes.put("double",                   EvalResult.Type.DOUBLE);
+		evalPrimitiveTypes.put("float",                    EvalResult.Type.FLOAT);
+		evalPrimitiveTypes.put("gDay",                     EvalResult.Type.GDAY);
+		evalPrimitiveTypes.put("gMonth",                   EvalResult.Type.GMONTH);
+		evalPrimitiveTypes.put("gMonthDay",                EvalResult.Type.GMONTHDAY);
+		evalPrimitiveTypes.put("gYear",                    EvalResult.Type.GYEAR);
+		evalPrimitiveTypes.put("gYearMonth",               EvalResult.Type.GYEARMONTH);
+		evalPrimitiveTypes.put("integer",                  EvalResult.Type.INTEGER);
+		evalPrimitiveTypes.put("QName",                    EvalResult.Type.QNAME);
+		evalPrimitiveTypes.put("time",                     EvalResult.Type.TIME);
+		evalPrimitiveTypes.put("null",                     EvalResult.Type.NULL);
+	}
+
 	public class JerseyEvalResult implements EvalResult {
-		private JerseyResult content;
+		private JerseyResult    content;
+		private EvalResult.Type type;
+		private String          string;
 
 		public JerseyEvalResult(JerseyResult content) {
 			this.content = content;
@@ -3625,6 +3193,10 @@ public class JerseyServices implements RESTServices {
 
 		@Override
 		public EvalResult.Type getType() {
+			if ( type == null ) type = resolveType();
+			return type;
+		}
+		private EvalResult.Type resolveType() {
 			String contentType = content.getHeader("Content-Type");
 			if ( contentType != null ) {
 				if ( "application/json".equals(contentType) ) {
@@ -3648,58 +3220,9 @@ public class JerseyServices implements RESTServices {
 			String xPrimitive = content.getHeader("X-Primitive");
 			if ( xPrimitive == null ) {
 				return EvalResult.Type.OTHER;
-			} else if ( "string".equals(xPrimitive) || "untypedAtomic".equals(xPrimitive) ) {
-				return EvalResult.Type.STRING;
-			} else if ( "boolean".equals(xPrimitive) ) {
-				return EvalResult.Type.BOOLEAN;
-			} else if ( "attribute()".equals(xPrimitive) ) {
-				return EvalResult.Type.ATTRIBUTE;
-			} else if ( "comment()".equals(xPrimitive) ) {
-				return EvalResult.Type.COMMENT;
-			} else if ( "processing-instruction()".equals(xPrimitive) ) {
-				return EvalResult.Type.PROCESSINGINSTRUCTION;
-			} else if ( "text()".equals(xPrimitive) ) {
-				return EvalResult.Type.TEXTNODE;
-			} else if ( "binary()".equals(xPrimitive) ) {
-				return EvalResult.Type.BINARY;
-			} else if ( "duration".equals(xPrimitive) ) {
-				return EvalResult.Type.DURATION;
-			} else if ( "date".equals(xPrimitive) ) {
-				return EvalResult.Type.DATE;
-			} else if ( "anyURI".equals(xPrimitive) ) {
-				return EvalResult.Type.ANYURI;
-			} else if ( "hexBinary".equals(xPrimitive) ) {
-				return EvalResult.Type.HEXBINARY;
-			} else if ( "base64Binary".equals(xPrimitive) ) {
-				return EvalResult.Type.BASE64BINARY;
-			} else if ( "dateTime".equals(xPrimitive) ) {
-				return EvalResult.Type.DATETIME;
-			} else if ( "decimal".equals(xPrimitive) ) {
-				return EvalResult.Type.DECIMAL;
-			} else if ( "double".equals(xPrimitive) ) {
-				return EvalResult.Type.DOUBLE;
-			} else if ( "float".equals(xPrimitive) ) {
-				return EvalResult.Type.FLOAT;
-			} else if ( "gDay".equals(xPrimitive) ) {
-				return EvalResult.Type.GDAY;
-			} else if ( "gMonth".equals(xPrimitive) ) {
-				return EvalResult.Type.GMONTH;
-			} else if ( "gMonthDay".equals(xPrimitive) ) {
-				return EvalResult.Type.GMONTHDAY;
-			} else if ( "gYear".equals(xPrimitive) ) {
-				return EvalResult.Type.GYEAR;
-			} else if ( "gYearMonth".equals(xPrimitive) ) {
-				return EvalResult.Type.GYEARMONTH;
-			} else if ( "integer".equals(xPrimitive) ) {
-				return EvalResult.Type.INTEGER;
-			} else if ( "QName".equals(xPrimitive) ) {
-				return EvalResult.Type.QNAME;
-			} else if ( "time".equals(xPrimitive) ) {
-				return EvalResult.Type.TIME;
-			} else if ( "null".equals(xPrimitive) ) {
-				return EvalResult.Type.NULL;
 			}
-			return EvalResult.Type.OTHER;
+			EvalResult.Type primitiveType = evalPrimitiveTypes.get(xPrimitive);
+			return ( primitiveType != null ) ? primitiveType : EvalResult.Type.OTHER;
 		}
 
 		@Override
@@ -3720,57 +3243,53 @@ public class JerseyServices implements RESTServices {
 
 		@Override
 		public String getString() {
-			return content.getEntityAs(String.class);
+			// a streamed part can be read only once
+			if ( string == null ) string = content.getEntityAs(String.class);
+			return string;
 		}
 
 		@Override
 		public Number getNumber() {
-			if      ( getType() == EvalResult.Type.DECIMAL ) return new BigDecimal(getString());
-			else if ( getType() == EvalResult.Type.DOUBLE )  return new Double(getString());
-			else if ( getType() == EvalResult.Type.FLOAT )   return new Float(getString());
+			EvalResult.Type numberType = getType();
+			if      ( numberType == EvalResult.Type.DECIMAL ) return new BigDecimal(getString());
+			else if ( numberType == EvalResult.Type.DOUBLE )  return Double.valueOf(getString());
+			else if ( numberType == EvalResult.Type.FLOAT )   return Float.valueOf(getString());
 			// MarkLogic integers can be much larger than Java integers, so we'll use Long instead
-			else if ( getType() == EvalResult.Type.INTEGER ) return new Long(getString());
+			else if ( numberType == EvalResult.Type.INTEGER ) return Long.valueOf(getString());
 			else return new BigDecimal(getString());
 		}
 
+		@Override
+		public long getLong() {
+			return Long.parseLong(getString());
+		}
+
+		@Override
+		public double getDouble() {
+			return Double.parseDouble(getString());
+		}
+
 		@Override
 		public Boolean getBoolean() {
-			return new Boolean(getString());
+			return Boolean.valueOf(getString());
 		}
 
 	}
 
 	@Override
 	public EvalResultIterator postEvalInvoke(
-			RequestLogger reqlog, String code, String modulePath, 
-			ServerEvaluationCallImpl.Context context,
+			RequestLogger reqlog, String path, String encodedCode,
 			Map<String, Object> variables, EditableNamespaceContext namespaces,
-			String transactionId)
+			String transactionId, boolean streaming)
 			throws ResourceNotFoundException, ResourceNotResendableException,
 			ForbiddenUserException, FailedRequestException {
 		String formUrlEncodedPayload;
-		String path;
 		RequestParameters params = new RequestParameters();
 		try {
-			StringBuffer sb = new StringBuffer();
-			if ( context == ServerEvaluationCallImpl.Context.ADHOC_XQUERY ) {
-				path = "eval";
-				sb.append("xquery=");
-				sb.append(URLEncoder.encode(code, "UTF-8"));
-			} else if ( context == ServerEvaluationCallImpl.Context.ADHOC_JAVASCRIPT ) {
-				path = "eval";
-				sb.append("javascript=");
-				sb.append(URLEncoder.encode(code, "UTF-8"));
-			} else if ( context == ServerEvaluationCallImpl.Context.INVOKE ) {
-				path = "invoke";
-				sb.append("module=");
-				sb.append(URLEncoder.encode(modulePath, "UTF-8"));
-			} else {
-				throw new IllegalStateException("Invalid eval context: " + context);
-			}
+			StringBuilder sb = new StringBuilder(encodedCode);
 			if ( variables != null && variables.size() > 0 ) {
 				sb.append("&vars=");
-				ObjectNode vars = new ObjectMapper().createObjectNode();
+				ObjectNode vars = JsonNodeFactory.instance.objectNode();
 				for ( String name : variables.keySet() ) {
 					Object valueObject = variables.get(name);
 					// replace any name starting with a namespace prefix with a Clark Notation QName
@@ -3813,86 +3332,62 @@ public class JerseyServices implements RESTServices {
 		if ( transactionId != null ) params.add("txid", transactionId);
 		StringHandle input = new StringHandle(formUrlEncodedPayload)
 			.withMimetype("application/x-www-form-urlencoded");
-		return new JerseyEvalResultIterator( postIteratedResourceImpl(DefaultJerseyResultIterator.class,
-			reqlog, path, params, input) );
-	}
-
-	@Override
-	public ServiceResultIterator postIteratedResource(RequestLogger reqlog,
-			String path, RequestParameters params, AbstractWriteHandle input,
-			String... outputMimetypes) throws ResourceNotFoundException,
-			ResourceNotResendableException, ForbiddenUserException,
-			FailedRequestException {
-		return postIteratedResourceImpl(JerseyServiceResultIterator.class,
-			reqlog, path, params, input, outputMimetypes);
+		return new JerseyEvalResultIterator( postIteratedResourceImpl(defaultIteratorFactory,
+			reqlog, path, params, input, streaming) );
 	}
 
-	private <U extends JerseyResultIterator> U postIteratedResourceImpl(
-			Class<U> clazz, RequestLogger reqlog,
-			String path, RequestParameters params, AbstractWriteHandle input,
-			String... outputMimetypes) throws ResourceNotFoundException,
-			ResourceNotResendableException, ForbiddenUserException,
-			FailedRequestException {
-		HandleImplementation inputBase = HandleAccessor.checkHandle(input,
-				"write");
-
-		String inputMimetype = inputBase.getMimetype();
-		boolean isResendable = inputBase.isResendable();
-
-		WebResource.Builder builder = makePostBuilder(path, params, inputMimetype, null);
-
-		MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
-
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
+	@Override
+	public ServiceResultIterator postIteratedResource(RequestLogger reqlog,
+			String path, RequestParameters params, AbstractWriteHandle input,
+			String... outputMimetypes) throws ResourceNotFoundException,
+			ResourceNotResendableException, ForbiddenUserException,
+			FailedRequestException {
+		return postIteratedResourceImpl(serviceIteratorFactory,
+			reqlog, path, params, input, false, outputMimetypes);
+	}
 
-			Object value = inputBase.sendContent();
+	private <U extends JerseyResultIterator> U postIteratedResourceImpl(
+			ResultIteratorFactory<U> factory, final RequestLogger reqlog,
+			final String path, RequestParameters params, AbstractWriteHandle input,
+			boolean streamParts, String... outputMimetypes) throws ResourceNotFoundException,
+			ResourceNotResendableException, ForbiddenUserException,
+			FailedRequestException {
+		final HandleImplementation inputBase = HandleAccessor.checkHandle(input,
+				"write");
 
-			response = doPost(reqlog, builder.accept(multipartType), value, !isResendable);
-			status = response.getClientResponseStatus();
+		String inputMimetype = inputBase.getMimetype();
+		final boolean isResendable = inputBase.isResendable();
 
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+		final WebResource.Builder builder = makePostBuilder(path, params, inputMimetype, null);
 
-				break;
-			}
+		final MediaType multipartType = Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE);
 
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				Object value = inputBase.sendContent();
 
-			if (!isResendable) {
-				checkFirstRequest();
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+				return doPost(reqlog, builder.accept(multipartType), value, !isResendable);
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+			@Override
+			boolean isResendable() {
+				return isResendable;
+			}
+			@Override
+			String getTarget() {
+				return path;
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "apply", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
 
-		return makeResults(clazz, reqlog, "apply", "resource", response);
+		if (streamParts) {
+			return makeResults(factory, reqlog, "apply", "resource",
+					makeStreamingReader(response), response);
+		}
+		return makeResults(factory, reqlog, "apply", "resource", response);
 	}
 
 	@Override
@@ -3901,71 +3396,45 @@ public class JerseyServices implements RESTServices {
 			W[] input, String... outputMimetypes)
 			throws ResourceNotFoundException, ResourceNotResendableException,
 			ForbiddenUserException, FailedRequestException {
-		return postIteratedResourceImpl(JerseyServiceResultIterator.class,
+		return postIteratedResourceImpl(serviceIteratorFactory,
 			reqlog, path, params, input, outputMimetypes);
 	}
 
 	private <W extends AbstractWriteHandle, U extends JerseyResultIterator> U postIteratedResourceImpl(
-			Class<U> clazz, RequestLogger reqlog, String path, RequestParameters params,
-			W[] input, String... outputMimetypes)
+			ResultIteratorFactory<U> factory, final RequestLogger reqlog, final String path, final RequestParameters params,
+			final W[] input, String... outputMimetypes)
 			throws ResourceNotFoundException, ResourceNotResendableException,
 			ForbiddenUserException, FailedRequestException {
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			boolean hasStreamingPart;
+			@Override
+			ClientResponse send() {
+				MultiPart multiPart = new MultiPart();
+				hasStreamingPart = addParts(multiPart, reqlog, input);
 
-			MultiPart multiPart = new MultiPart();
-			boolean hasStreamingPart = addParts(multiPart, reqlog, input);
-
-			WebResource.Builder builder = makePostBuilder(
-					path,
-					params,
-					multiPart,
-					Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE));
-
-			response = doPost(builder, multiPart, hasStreamingPart);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
+				WebResource.Builder builder = makePostBuilder(
+						path,
+						params,
+						multiPart,
+						Boundary.addBoundary(MultiPartMediaTypes.MULTIPART_MIXED_TYPE));
 
-				break;
+				return doPost(builder, multiPart, hasStreamingPart);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			response.close();
-
-			if (hasStreamingPart) {
-				throw new ResourceNotResendableException(
-						"Cannot retry request for " + path);
+			@Override
+			boolean isResendable() {
+				return !hasStreamingPart;
 			}
-
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+			@Override
+			String getTarget() {
+				return path;
+			}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "apply", "resource", path,
 				ResponseStatus.OK_OR_CREATED_OR_NO_CONTENT);
 
-		return makeResults(clazz, reqlog, "apply", "resource", response);
+		return makeResults(factory, reqlog, "apply", "resource", response);
 	}
 
 	@Override
@@ -3982,47 +3451,16 @@ public class JerseyServices implements RESTServices {
 			outputMimeType = outputBase.getMimetype();
 			as = outputBase.receiveAs();
 		}
-		WebResource.Builder builder = makeDeleteBuilder(reqlog, path, params,
+		final WebResource.Builder builder = makeDeleteBuilder(reqlog, path, params,
 				outputMimeType);
 
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = doDelete(builder);
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(MetricsFilter.classifyPath(path), new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doDelete(builder);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 
 		checkStatus(response, status, "delete", "resource", path,
 				ResponseStatus.OK_OR_NO_CONTENT);
@@ -4442,7 +3880,7 @@ public class JerseyServices implements RESTServices {
 	}
 
 	private <U extends JerseyResultIterator> U makeResults(
-			Class<U> clazz, RequestLogger reqlog,
+			ResultIteratorFactory<U> factory, RequestLogger reqlog,
 			String operation, String entityType, ClientResponse response) {
         if ( response == null ) return null;
 		MultiPart entity = response.hasEntity() ?
@@ -4450,35 +3888,62 @@ public class JerseyServices implements RESTServices {
 
 		List<BodyPart> partList = (entity == null) ? null : entity.getBodyParts();
 		Closeable closeable = new MultipartCloseable(response, entity);
-		return makeResults(clazz, reqlog, operation, entityType, partList, response, closeable);
+		return makeResults(factory, reqlog, operation, entityType, partList, response, closeable);
 	}
 
 	private <U extends JerseyResultIterator> U makeResults(
-			Class<U> clazz, RequestLogger reqlog,
+			ResultIteratorFactory<U> factory, RequestLogger reqlog,
 			String operation, String entityType, List<BodyPart> partList, ClientResponse response,
 			Closeable closeable) {
 		logRequest(reqlog, "%s for %s", operation, entityType);
 
         if ( response == null ) return null;
 
-		try {
-			java.lang.reflect.Constructor<U> constructor = 
-				clazz.getConstructor(JerseyServices.class, RequestLogger.class, List.class, Closeable.class);
-			JerseyResultIterator result = constructor.newInstance(this, reqlog, partList, closeable);
-			MultivaluedMap<String, String> headers = response.getHeaders();
-            if (headers.containsKey("vnd.marklogic.start")) {
-                result.setStart(Long.parseLong(headers.get("vnd.marklogic.start").get(0)));
-            }
-            if (headers.containsKey("vnd.marklogic.pageLength")) {
-                result.setPageSize(Long.parseLong(headers.get("vnd.marklogic.pageLength").get(0)));
-            }
-            if (headers.containsKey("vnd.marklogic.result-estimate")) {
-                result.setTotalSize(Long.parseLong(headers.get("vnd.marklogic.result-estimate").get(0)));
-            }
-            return (U) result;
-		} catch (Throwable t) {
-			throw new MarkLogicInternalException("Error instantiating " + clazz.getName(), t);
-		}
+		U result = factory.newIterator(reqlog, partList, closeable);
+		updatePageHeaders(result, response);
+		return result;
+	}
+
+	private <U extends JerseyResultIterator> U makeResults(
+			ResultIteratorFactory<U> factory, RequestLogger reqlog,
+			String operation, String entityType, StreamingMultiPartReader reader,
+			ClientResponse response) {
+		logRequest(reqlog, "%s for %s", operation, entityType);
+
+        if ( response == null ) return null;
+
+		Closeable closeable = new MultipartCloseable(response, null);
+		U result = factory.newIterator(reqlog, reader, closeable);
+		updatePageHeaders(result, response);
+		return result;
+	}
+
+	private void updatePageHeaders(JerseyResultIterator result, ClientResponse response) {
+		MultivaluedMap<String, String> headers = response.getHeaders();
+        if (headers.containsKey("vnd.marklogic.start")) {
+            result.setStart(Long.parseLong(headers.get("vnd.marklogic.start").get(0)));
+        }
+        if (headers.containsKey("vnd.marklogic.pageLength")) {
+            result.setPageSize(Long.parseLong(headers.get("vnd.marklogic.pageLength").get(0)));
+        }
+        if (headers.containsKey("vnd.marklogic.result-estimate")) {
+            result.setTotalSize(Long.parseLong(headers.get("vnd.marklogic.result-estimate").get(0)));
+        }
+        if (headers.containsKey("ML-Effective-Timestamp")) {
+            result.setServerTimestamp(Long.parseLong(headers.get("ML-Effective-Timestamp").get(0)));
+        }
+	}
+
+	private StreamingMultiPartReader makeStreamingReader(ClientResponse response) {
+		if (!response.hasEntity())
+			return null;
+		MediaType responseType = response.getType();
+		String boundary = (responseType == null) ? null :
+			responseType.getParameters().get("boundary");
+		if (boundary == null)
+			throw new FailedRequestException("multipart response without boundary: "+responseType);
+		return new StreamingMultiPartReader(
+				response.getEntityInputStream(), boundary, client.getProviders());
 	}
 
 	private boolean isStreaming(Object value) {
@@ -4490,6 +3955,11 @@ public class JerseyServices implements RESTServices {
 		if (reqlog == null)
 			return;
 
+		if (reqlog instanceof AsyncRequestLoggerImpl) {
+			((AsyncRequestLoggerImpl) reqlog).logMessage(message, params);
+			return;
+		}
+
 		PrintStream out = reqlog.getPrintStream();
 		if (out == null)
 			return;
@@ -4520,19 +3990,6 @@ public class JerseyServices implements RESTServices {
 		return (builder != null) ? builder.toString() : null;
 	}
 
-	private int calculateDelay(Random rand, int i) {
-		int min   =
-			(i  > 6) ? DELAY_CEILING :
-			(i == 0) ? DELAY_FLOOR   :
-			           DELAY_FLOOR + (1 << i) * DELAY_MULTIPLIER;
-		int range =
-			(i >  6) ? DELAY_FLOOR          :
-			(i == 0) ? 2 * DELAY_MULTIPLIER :
-			(i == 6) ? DELAY_CEILING - min  :
-				       (1 << i) * DELAY_MULTIPLIER;
-		return min + randRetry.nextInt(range);
-	}
-
 	public class MultipartCloseable implements Closeable {
 		private ClientResponse response;
 		private MultiPart multiPart;
@@ -4587,6 +4044,12 @@ public class JerseyServices implements RESTServices {
 			return handle;
 		}
 
+		private void buffer() {
+			if (part instanceof StreamingMultiPartReader.StreamedBodyPart) {
+				((StreamingMultiPartReader.StreamedBodyPart) part).buffer();
+			}
+		}
+
 		public <T> T getContentAs(Class<T> clazz) {
 			ContentHandle<T> readHandle = DatabaseClientFactory.getHandleRegistry().makeHandle(clazz);
 			readHandle = getContent(readHandle);
@@ -4636,19 +4099,18 @@ public class JerseyServices implements RESTServices {
 		}
 	}
 
-	public class JerseyResultIterator<T extends JerseyResult> {
+	public abstract class JerseyResultIterator<T extends JerseyResult> {
 		private RequestLogger reqlog;
 		private Iterator<BodyPart> partQueue;
-        private Class<T> clazz;
         private long start = -1;
         private long size = -1;
         private long pageSize = -1;
         private long totalSize = -1;
+        private long serverTimestamp = -1;
         private Closeable closeable;
 
 		public JerseyResultIterator(RequestLogger reqlog,
-				List<BodyPart> partList, Class<T> clazz, Closeable closeable) {
-            this.clazz = clazz;
+				List<BodyPart> partList, Closeable closeable) {
             this.reqlog = reqlog;
             if (partList != null && partList.size() > 0) {
                 this.size = partList.size();
@@ -4659,6 +4121,17 @@ public class JerseyServices implements RESTServices {
             }
 			this.closeable = closeable;
 		}
+		public JerseyResultIterator(RequestLogger reqlog,
+				Iterator<BodyPart> partIterator, Closeable closeable) {
+            this.reqlog = reqlog;
+            // the size of a streamed response is unknown until the parts are read
+            if (partIterator == null) {
+                this.size = 0;
+            } else {
+                this.partQueue = partIterator;
+            }
+			this.closeable = closeable;
+		}
 
         public long getStart() {
             return start;
@@ -4696,6 +4169,15 @@ public class JerseyServices implements RESTServices {
             return this;
         }
 
+        public long getServerTimestamp() {
+            return serverTimestamp;
+        }
+
+        public JerseyResultIterator<T> setServerTimestamp(long serverTimestamp) {
+            this.serverTimestamp = serverTimestamp;
+            return this;
+        }
+
 
 		public boolean hasNext() {
 			if (partQueue == null)
@@ -4708,15 +4190,11 @@ public class JerseyServices implements RESTServices {
 			if (partQueue == null)
 				return null;
 
-			try {
-				java.lang.reflect.Constructor<T> constructor = 
-					clazz.getConstructor(JerseyServices.class, RequestLogger.class, BodyPart.class);
-				return constructor.newInstance(new JerseyServices(), reqlog, partQueue.next());
-			} catch (Throwable t) {
-				throw new IllegalStateException("Error instantiating " + clazz.getName());
-			}
+			return makeResult(reqlog, partQueue.next());
 		}
 
+		abstract protected T makeResult(RequestLogger reqlog, BodyPart part);
+
 		public void remove() {
 			if (partQueue == null)
 				return;
@@ -4725,6 +4203,9 @@ public class JerseyServices implements RESTServices {
 		}
 
 		public void close() {
+			if ( partQueue instanceof Closeable ) {
+				try { ((Closeable) partQueue).close(); } catch (IOException e) {}
+			}
 			partQueue = null;
 			reqlog = null;
 			if ( closeable != null ) {
@@ -4744,7 +4225,15 @@ public class JerseyServices implements RESTServices {
 	{
 		public JerseyServiceResultIterator(RequestLogger reqlog,
 				List<BodyPart> partList, Closeable closeable) {
-			super(reqlog, partList, JerseyServiceResult.class, closeable);
+			super(reqlog, partList, closeable);
+		}
+		public JerseyServiceResultIterator(RequestLogger reqlog,
+				Iterator<BodyPart> partIterator, Closeable closeable) {
+			super(reqlog, partIterator, closeable);
+		}
+		@Override
+		protected JerseyServiceResult makeResult(RequestLogger reqlog, BodyPart part) {
+			return new JerseyServiceResult(reqlog, part);
 		}
 	}
 
@@ -4754,10 +4243,51 @@ public class JerseyServices implements RESTServices {
 	{
 		public DefaultJerseyResultIterator(RequestLogger reqlog,
 				List<BodyPart> partList, Closeable closeable) {
-			super(reqlog, partList, JerseyResult.class, closeable);
+			super(reqlog, partList, closeable);
+		}
+		public DefaultJerseyResultIterator(RequestLogger reqlog,
+				Iterator<BodyPart> partIterator, Closeable closeable) {
+			super(reqlog, partIterator, closeable);
+		}
+		@Override
+		protected JerseyResult makeResult(RequestLogger reqlog, BodyPart part) {
+			return new JerseyResult(reqlog, part);
 		}
 	}
 
+	private interface ResultIteratorFactory<U extends JerseyResultIterator> {
+		U newIterator(RequestLogger reqlog, List<BodyPart> partList, Closeable closeable);
+		U newIterator(RequestLogger reqlog, Iterator<BodyPart> partIterator, Closeable closeable);
+	}
+
+	private final ResultIteratorFactory<JerseyServiceResultIterator> serviceIteratorFactory =
+		new ResultIteratorFactory<JerseyServiceResultIterator>() {
+			@Override
+			public JerseyServiceResultIterator newIterator(RequestLogger reqlog,
+					List<BodyPart> partList, Closeable closeable) {
+				return new JerseyServiceResultIterator(reqlog, partList, closeable);
+			}
+			@Override
+			public JerseyServiceResultIterator newIterator(RequestLogger reqlog,
+					Iterator<BodyPart> partIterator, Closeable closeable) {
+				return new JerseyServiceResultIterator(reqlog, partIterator, closeable);
+			}
+		};
+
+	private final ResultIteratorFactory<DefaultJerseyResultIterator> defaultIteratorFactory =
+		new ResultIteratorFactory<DefaultJerseyResultIterator>() {
+			@Override
+			public DefaultJerseyResultIterator newIterator(RequestLogger reqlog,
+					List<BodyPart> partList, Closeable closeable) {
+				return new DefaultJerseyResultIterator(reqlog, partList, closeable);
+			}
+			@Override
+			public DefaultJerseyResultIterator newIterator(RequestLogger reqlog,
+					Iterator<BodyPart> partIterator, Closeable closeable) {
+				return new DefaultJerseyResultIterator(reqlog, partIterator, closeable);
+			}
+		};
+
 	public class JerseyDocumentRecord implements DocumentRecord {
 		private JerseyResult content;
 		private JerseyResult metadata;
@@ -4802,6 +4332,79 @@ public class JerseyServices implements RESTServices {
 		}
 	}
 
+	@Override
+	public ConnectionPoolStats getConnectionPoolStats() {
+		if (connMgr == null)
+			return null;
+		return connMgr.getStats();
+	}
+
+	@Override
+	public RequestMetrics getRequestMetrics() {
+		if (client == null)
+			return null;
+		return metrics;
+	}
+
+	@Override
+	public synchronized ExecutorService getAsyncExecutor() {
+		if (asyncExecutor != null)
+			return asyncExecutor;
+		if (released)
+			throw new IllegalStateException(
+					"You cannot use this connected object anymore--connection has already been released");
+
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final boolean callerRuns = (asyncPolicy.getOverflow() == AsyncPolicy.Overflow.CALLER_RUNS);
+		int threads = asyncPolicy.getThreads();
+		asyncExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<Runnable>(asyncPolicy.getQueueSize()),
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "marklogic-async-"+threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			},
+			new RejectedExecutionHandler() {
+				// unlike CallerRunsPolicy, never drops a request silently after release
+				@Override
+				public void rejectedExecution(Runnable runnable, ThreadPoolExecutor pool) {
+					if (pool.isShutdown())
+						throw new RejectedExecutionException("Database client has been released");
+					if (!callerRuns)
+						throw new RejectedExecutionException("Asynchronous request queue is full");
+					runnable.run();
+				}
+			});
+		return asyncExecutor;
+	}
+
+	// queued requests still run and fail because the connection is released
+	private synchronized void shutdownAsyncExecutor() {
+		if (asyncExecutor == null)
+			return;
+		asyncExecutor.shutdown();
+		asyncExecutor = null;
+	}
+
+	// keeps connections no longer than the policy allows unless the server asks for less
+	static class KeepAliveStrategy extends DefaultConnectionKeepAliveStrategy {
+		private long keepAlive;
+		KeepAliveStrategy(long keepAlive) {
+			super();
+			this.keepAlive = keepAlive;
+		}
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long duration = super.getKeepAliveDuration(response, context);
+			if (keepAlive < 0)
+				return duration;
+			return (duration < 0) ? keepAlive : Math.min(duration, keepAlive);
+		}
+	}
+
 	@Override
 	public HttpClient getClientImplementation() {
 		if (client == null)
@@ -4836,48 +4439,15 @@ public class JerseyServices implements RESTServices {
 				params.add("q", stringQuery);
 			}
 		}
-		WebResource.Builder builder = null;
-		builder = getConnection().path("suggest").queryParams(params)
+		final WebResource.Builder builder = getConnection().path("suggest").queryParams(params)
 				.accept("application/xml");
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = builder.get(ClientResponse.class);
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.SEARCH, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return builder.get(ClientResponse.class);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException(
 					"User is not allowed to get suggestions",
@@ -4900,7 +4470,7 @@ public class JerseyServices implements RESTServices {
 			String[] candidateRules, String mimeType, ServerTransform transform) {
 		MultivaluedMap<String, String> params = new MultivaluedMapImpl();
 
-		HandleImplementation baseHandle = HandleAccessor.checkHandle(document, "match");
+		final HandleImplementation baseHandle = HandleAccessor.checkHandle(document, "match");
 		if (candidateRules.length > 0) {
 			for (String candidateRule : candidateRules) {
 				params.add("rule", candidateRule);
@@ -4909,49 +4479,16 @@ public class JerseyServices implements RESTServices {
 		if (transform != null) {
 			transform.merge(params);
 		}
-		WebResource.Builder builder = null;
-		builder = getConnection().path("alert/match").queryParams(params)
+		final WebResource.Builder builder = getConnection().path("alert/match").queryParams(params)
 				.accept("application/xml").type(mimeType);
 		
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = doPost(null, builder, baseHandle.sendContent(), false);
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doPost(null, builder, baseHandle.sendContent(), false);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to match",
 					extractErrorFields(response));
@@ -4970,7 +4507,7 @@ public class JerseyServices implements RESTServices {
 	}
 
 	@Override
-	public InputStream match(QueryDefinition queryDef,
+	public InputStream match(final QueryDefinition queryDef,
 			long start, long pageLength, String[] candidateRules, ServerTransform transform) {
 		if (queryDef == null) {
 			throw new IllegalArgumentException("Cannot match null query");
@@ -5034,54 +4571,25 @@ public class JerseyServices implements RESTServices {
 			throw new UnsupportedOperationException("Cannot match with "
 					+ queryDef.getClass().getName());
 		}
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
+		final WebResource.Builder requestBuilder = builder;
+		final String requestStructure = structure;
+		final HandleImplementation queryHandle = baseHandle;
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				if (queryDef instanceof StringQueryDefinition) {
+					return requestBuilder.get(ClientResponse.class);
+				} else if (queryDef instanceof StructuredQueryDefinition) {
+					return requestBuilder.post(ClientResponse.class, requestStructure);
+				} else if (queryDef instanceof RawQueryDefinition) {
+					return doPost(null, requestBuilder, queryHandle.sendContent(), false);
+				} else {
+					throw new UnsupportedOperationException("Cannot match with "
+							+ queryDef.getClass().getName());
 				}
 			}
-
-			if (queryDef instanceof StringQueryDefinition) {
-				response = builder.get(ClientResponse.class);
-			} else if (queryDef instanceof StructuredQueryDefinition) {
-				response = builder.post(ClientResponse.class, structure);
-			} else if (queryDef instanceof RawQueryDefinition) {
-				response = doPost(null, builder, baseHandle.sendContent(), false);
-			} else {
-				throw new UnsupportedOperationException("Cannot match with "
-						+ queryDef.getClass().getName());
-			}
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
-			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to match",
 					extractErrorFields(response));
@@ -5116,48 +4624,16 @@ public class JerseyServices implements RESTServices {
 		if (transform != null) {
 			transform.merge(params);
 		}
-		WebResource.Builder builder = getConnection().path("alert/match").queryParams(params)
+		final WebResource.Builder builder = getConnection().path("alert/match").queryParams(params)
 				.accept("application/xml");
 		
-		ClientResponse response = null;
-		ClientResponse.Status status = null;
-		long startTime = System.currentTimeMillis();
-		int nextDelay = 0;
-		int retry = 0;
-		for (; retry < minRetry || (System.currentTimeMillis() - startTime) < maxDelay; retry++) {
-			if (nextDelay > 0) {
-				try {
-					Thread.sleep(nextDelay);
-				} catch (InterruptedException e) {
-				}
-			}
-
-			response = doGet(builder);
-
-			status = response.getClientResponseStatus();
-
-			if (status != ClientResponse.Status.SERVICE_UNAVAILABLE) {
-				if (isFirstRequest())
-					setFirstRequest(false);
-
-				break;
+		ClientResponse response = sendWithRetry(Operation.OTHER, new RetryableRequest() {
+			@Override
+			ClientResponse send() {
+				return doGet(builder);
 			}
-
-			MultivaluedMap<String, String> responseHeaders = response.getHeaders();
-			String retryAfterRaw = responseHeaders.getFirst("Retry-After");
-			int retryAfter = (retryAfterRaw != null) ? Integer.valueOf(retryAfterRaw) : -1;
-
-			response.close();
-
-			nextDelay = Math.max(retryAfter, calculateDelay(randRetry, retry));
-		}
-		if (status == ClientResponse.Status.SERVICE_UNAVAILABLE) {
-			checkFirstRequest();
-			throw new FailedRequestException(
-					"Service unavailable and maximum retry period elapsed: "+
-						    Math.round((System.currentTimeMillis() - startTime) / 1000)+
-						    " seconds after "+retry+" retries");
-		}
+		});
+		ClientResponse.Status status = response.getClientResponseStatus();
 		if (status == ClientResponse.Status.FORBIDDEN) {
 			throw new ForbiddenUserException("User is not allowed to match",
 					extractErrorFields(response));
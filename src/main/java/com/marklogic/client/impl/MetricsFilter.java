@@ -0,0 +1,204 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+import com.marklogic.client.RequestMetrics.Operation;
+import com.marklogic.client.impl.RequestMetricsImpl.OperationMetricsImpl;
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * MetricsFilter records the latency and size of each request by
+ * the kind of operation identified from the method and path.
+ */
+class MetricsFilter extends ClientFilter {
+	private RequestMetricsImpl metrics;
+
+	MetricsFilter(RequestMetricsImpl metrics) {
+		super();
+		this.metrics = metrics;
+	}
+
+	@Override
+	public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+		Operation operation = classify(request);
+		OperationMetricsImpl operationMetrics = metrics.getMetricsImpl(operation);
+
+		CountingAdapter adapter = null;
+		if (request.getEntity() != null) {
+			adapter = new CountingAdapter(request.getAdapter(), operationMetrics);
+			request.setAdapter(adapter);
+		}
+
+		operationMetrics.started();
+		long startTime = System.nanoTime();
+		ClientResponse response = null;
+		try {
+			response = getNext().handle(request);
+		} finally {
+			long latency = System.nanoTime() - startTime;
+			int status = (response != null) ? response.getStatus() : -1;
+			operationMetrics.completed(status, latency);
+			metrics.notifyListeners(operation, status, latency,
+				(adapter != null) ? adapter.getCount() : 0,
+				(response != null) ? response.getLength() : -1);
+		}
+
+		InputStream entity = response.getEntityInputStream();
+		if (entity != null)
+			response.setEntityInputStream(new CountingInputStream(entity, operationMetrics));
+
+		return response;
+	}
+
+	static Operation classify(ClientRequest request) {
+		String method   = request.getMethod();
+		String resource = getResource(request.getURI());
+		if ("documents".equals(resource)) {
+			if ("DELETE".equals(method))
+				return Operation.DOCUMENT_DELETE;
+			if ("GET".equals(method) || "HEAD".equals(method))
+				return isMultipart(request.getHeaders().getFirst("Accept")) ?
+					Operation.BULK_READ : Operation.DOCUMENT_READ;
+			if ("POST".equals(method) && isMultipart(request.getHeaders().getFirst("Content-Type")))
+				return Operation.BULK_WRITE;
+			return Operation.DOCUMENT_WRITE;
+		}
+		if ("search".equals(resource) || "qbe".equals(resource) ||
+				"keyvalue".equals(resource) || "suggest".equals(resource)) {
+			if ("DELETE".equals(method))
+				return Operation.DOCUMENT_DELETE;
+			return isMultipart(request.getHeaders().getFirst("Accept")) ?
+				Operation.BULK_READ : Operation.SEARCH;
+		}
+		return classifyResource(resource);
+	}
+	// classifies a path relative to the REST API version such as resources/name
+	static Operation classifyPath(String path) {
+		if (path == null)
+			return Operation.OTHER;
+		int end = path.indexOf('/');
+		return classifyResource((end == -1) ? path : path.substring(0, end));
+	}
+	private static Operation classifyResource(String resource) {
+		if ("values".equals(resource))
+			return Operation.VALUES;
+		if ("eval".equals(resource) || "invoke".equals(resource))
+			return Operation.EVAL;
+		if ("resources".equals(resource))
+			return Operation.RESOURCE;
+		if ("transactions".equals(resource))
+			return Operation.TRANSACTION;
+		return Operation.OTHER;
+	}
+	// the first path step after the version of the REST API
+	static String getResource(URI uri) {
+		String path = uri.getPath();
+		if (path == null)
+			return null;
+		int start = path.indexOf("/v1/");
+		if (start == -1)
+			return null;
+		start += 4;
+		int end = path.indexOf('/', start);
+		return (end == -1) ? path.substring(start) : path.substring(start, end);
+	}
+	static boolean isMultipart(Object mediaType) {
+		return mediaType != null && mediaType.toString().startsWith("multipart/");
+	}
+
+	// counts the bytes of the request body as they are written
+	static class CountingAdapter extends AbstractClientRequestAdapter {
+		private OperationMetricsImpl operationMetrics;
+		private long count = 0;
+
+		CountingAdapter(ClientRequestAdapter adapter, OperationMetricsImpl operationMetrics) {
+			super(adapter);
+			this.operationMetrics = operationMetrics;
+		}
+
+		long getCount() {
+			return count;
+		}
+
+		@Override
+		public OutputStream adapt(ClientRequest request, OutputStream stream) throws IOException {
+			return new FilterOutputStream(getAdapter().adapt(request, stream)) {
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					counted(1);
+				}
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+					counted(len);
+				}
+			};
+		}
+		private void counted(long bytes) {
+			count += bytes;
+			operationMetrics.sent(bytes);
+		}
+	}
+
+	// counts the bytes of the response body as they are read
+	static class CountingInputStream extends FilterInputStream {
+		private OperationMetricsImpl operationMetrics;
+
+		CountingInputStream(InputStream in, OperationMetricsImpl operationMetrics) {
+			super(in);
+			this.operationMetrics = operationMetrics;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1)
+				operationMetrics.received(1);
+			return b;
+		}
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = super.read(b, off, len);
+			if (count > 0)
+				operationMetrics.received(count);
+			return count;
+		}
+		@Override
+		public long skip(long n) throws IOException {
+			long count = super.skip(n);
+			if (count > 0)
+				operationMetrics.received(count);
+			return count;
+		}
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.params.ConnPerRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.tsccm.ConnPoolByRoute;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.ConnectionPoolStats;
+
+/**
+ * MonitoredConnManager reports the state of the connection pool
+ * and can close idle and expired connections in the background.
+ */
+class MonitoredConnManager extends ThreadSafeClientConnManager {
+	static final private Logger logger = LoggerFactory.getLogger(MonitoredConnManager.class);
+
+	private ScheduledExecutorService evictor;
+
+	MonitoredConnManager(SchemeRegistry schemeRegistry) {
+		super(schemeRegistry);
+	}
+
+	@Override
+	protected ConnPoolByRoute createConnectionPool(long connTTL, TimeUnit connTTLTimeUnit) {
+		return new MonitoredConnPool(connOperator, connPerRoute, 20, connTTL, connTTLTimeUnit);
+	}
+
+	ConnectionPoolStats getStats() {
+		return ((MonitoredConnPool) pool).getStats();
+	}
+
+	synchronized void startEvictor(final long interval, final long idleTimeout) {
+		if (evictor != null || interval <= 0)
+			return;
+		evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "marklogic-connection-evictor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		evictor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					closeExpiredConnections();
+					if (idleTimeout > 0)
+						closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+				} catch (RuntimeException e) {
+					logger.warn("Could not evict idle connections", e);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void shutdown() {
+		synchronized(this) {
+			if (evictor != null) {
+				evictor.shutdownNow();
+				evictor = null;
+			}
+		}
+		super.shutdown();
+	}
+
+	static class MonitoredConnPool extends ConnPoolByRoute {
+		MonitoredConnPool(ClientConnectionOperator operator,
+				ConnPerRoute connPerRoute, int maxTotalConnections,
+				long connTTL, TimeUnit connTTLTimeUnit) {
+			super(operator, connPerRoute, maxTotalConnections, connTTL, connTTLTimeUnit);
+		}
+
+		ConnectionPoolStats getStats() {
+			Lock lock = getLock();
+			lock.lock();
+			try {
+				return new PoolStats(leasedConnections.size(), freeConnections.size(),
+						waitingThreads.size(), getMaxTotalConnections());
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	static class PoolStats implements ConnectionPoolStats {
+		private int leased;
+		private int available;
+		private int pending;
+		private int max;
+		PoolStats(int leased, int available, int pending, int max) {
+			this.leased    = leased;
+			this.available = available;
+			this.pending   = pending;
+			this.max       = max;
+		}
+		@Override
+		public int getLeased() {
+			return leased;
+		}
+		@Override
+		public int getAvailable() {
+			return available;
+		}
+		@Override
+		public int getPending() {
+			return pending;
+		}
+		@Override
+		public int getMax() {
+			return max;
+		}
+		@Override
+		public String toString() {
+			return "leased: "+leased+", available: "+available+", pending: "+pending+", max: "+max;
+		}
+	}
+}
@@ -64,7 +64,7 @@ class NamespacesManagerImpl
 			throw new IllegalArgumentException("Server does not maintain a default namespace");
 
 		String binding = services.getValue(
-				requestLogger, "config/namespaces", prefix, true, "application/xml", String.class);
+				requestLog(), "config/namespaces", prefix, true, "application/xml", String.class);
 		if (binding == null)
 			return null;
 
@@ -82,7 +82,7 @@ class NamespacesManagerImpl
 		EditableNamespaceContext context = new EditableNamespaceContext();
 
 		try {
-			InputStream stream = services.getValues(requestLogger, "config/namespaces", "application/xml", InputStream.class);
+			InputStream stream = services.getValues(requestLog(), "config/namespaces", "application/xml", InputStream.class);
 			if (stream == null)
 				return null;
 
@@ -156,7 +156,7 @@ class NamespacesManagerImpl
 			"</namespace>\n"+
 			"</namespace-bindings>";
 
-		services.postValue(requestLogger, "config/namespaces", prefix, "application/xml", structure);
+		services.postValue(requestLog(), "config/namespaces", prefix, "application/xml", structure);
 	}
 	@Override
 	public void updatePrefix(String prefix, String namespaceUri) throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
@@ -174,7 +174,7 @@ class NamespacesManagerImpl
 			"    <uri>"+namespaceUri+"</uri>\n"+
 			"</namespace>\n";
 
-		services.putValue(requestLogger, "config/namespaces", prefix, "application/xml", structure);
+		services.putValue(requestLog(), "config/namespaces", prefix, "application/xml", structure);
 	}
 	@Override
 	public void deletePrefix(String prefix) throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
@@ -183,10 +183,10 @@ class NamespacesManagerImpl
 		if (prefix.length() == 0)
 			throw new IllegalArgumentException("Server does not maintain a default namespace");
 
-		services.deleteValue(requestLogger, "config/namespaces", prefix);
+		services.deleteValue(requestLog(), "config/namespaces", prefix);
 	}
 	@Override
 	public void deleteAll() throws ForbiddenUserException, FailedRequestException {
-		services.deleteValues(requestLogger, "config/namespaces");
+		services.deleteValues(requestLog(), "config/namespaces");
 	}
 }
@@ -15,21 +15,37 @@
  */
 package com.marklogic.client.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.Iterator;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.marklogic.client.MarkLogicIOException;
 import com.marklogic.client.Page;
 import com.marklogic.client.impl.BasicPage;
-import com.marklogic.client.io.JacksonDatabindHandle;
+import com.marklogic.client.io.InputStreamHandle;
 import com.marklogic.client.document.DocumentPage;
 import com.marklogic.client.pojo.PojoPage;
 
 public class PojoPageImpl<T> extends BasicPage<T> implements PojoPage<T>, Iterator<T> {
     private Class<T> entityClass;
     private DocumentPage docPage;
+    private ObjectReader reader;
 
     public PojoPageImpl(DocumentPage docPage, Class<T> entityClass) {
+        this(docPage, entityClass,
+            new ObjectMapper()
+                .enableDefaultTyping(
+                    ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.WRAPPER_OBJECT)
+                .reader(entityClass));
+    }
+
+    // the reader is shared by every page of a repository so Jackson
+    // builds the deserializers for the entity class only once
+    public PojoPageImpl(DocumentPage docPage, Class<T> entityClass, ObjectReader reader) {
         super(entityClass);
         setStart( docPage.getStart() );
         setSize( docPage.size() );
@@ -38,6 +54,7 @@ public class PojoPageImpl<T> extends BasicPage<T> implements PojoPage<T>, Iterat
 
         this.docPage = docPage;
         this.entityClass = entityClass;
+        this.reader = reader;
     }
 
     @Override
@@ -52,10 +69,19 @@ public class PojoPageImpl<T> extends BasicPage<T> implements PojoPage<T>, Iterat
 
     @Override
     public T next() {
-        JacksonDatabindHandle<T> handle = new JacksonDatabindHandle<T>(entityClass);
-        handle.getMapper().enableDefaultTyping(
-            ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.WRAPPER_OBJECT);
-        return docPage.nextContent(handle).get();
+        InputStream content = docPage.nextContent(new InputStreamHandle()).get();
+        if ( content == null ) return null;
+        try {
+            return reader.readValue(new InputStreamReader(content, "UTF-8"));
+        } catch (IOException e) {
+            throw new MarkLogicIOException(e);
+        } finally {
+            try {
+                content.close();
+            } catch (IOException e) {
+                // ignore.
+            }
+        }
     }
 
     @Override
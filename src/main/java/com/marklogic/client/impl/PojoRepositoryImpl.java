@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,17 +38,22 @@ import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import com.marklogic.client.DatabaseClient;
 import com.marklogic.client.MarkLogicBindingException;
+import com.marklogic.client.MarkLogicIOException;
 import com.marklogic.client.MarkLogicInternalException;
 import com.marklogic.client.ResourceNotFoundException;
 import com.marklogic.client.Transaction;
 import com.marklogic.client.document.DocumentPage;
 import com.marklogic.client.document.DocumentWriteSet;
 import com.marklogic.client.document.JSONDocumentManager;
+import com.marklogic.client.document.WriteBatcher;
+import com.marklogic.client.document.WriteBatcher.BatchFailureListener;
+import com.marklogic.client.document.WriteBatcher.WriteBatch;
 import com.marklogic.client.io.DocumentMetadataHandle;
 import com.marklogic.client.io.JacksonDatabindHandle;
 import com.marklogic.client.io.SearchHandle;
@@ -67,9 +73,13 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
 {
     private static final Pattern getterPattern = Pattern.compile("^(get|is)(.)(.*)");
     private final String EXTENSION = ".json";
+    private static final int WRITE_BATCH_SIZE  = 100;
+    private static final int DELETE_BATCH_SIZE = 100;
 
     private DatabaseClient client;
     private Class<T> entityClass;
+    // every document uri starts with the class name
+    private final String uriPrefix;
     @SuppressWarnings("unused")
     private Class<ID> idClass;
     private JSONDocumentManager docMgr;
@@ -91,7 +101,7 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
         }
     }
     static { simpleDateFormat8601.setTimeZone(TimeZone.getTimeZone("UTC")); }
-    private ObjectMapper objectMapper = new ObjectMapper()
+    private volatile ObjectMapper objectMapper = new ObjectMapper()
         // if we don't do the next two lines Jackson will automatically close our streams which is undesirable
         .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
         .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
@@ -109,18 +119,23 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
             // JsonTypeInfo.As.WRAPPER_OBJECT means add a type wrapper around the data so then
             // our strongly-typed queries can use parent-child scoped queries or path index queries
             JsonTypeInfo.As.WRAPPER_OBJECT);
+    // reads entities for every page; replaced with the mapper
+    private volatile ObjectReader objectReader;
+
     PojoRepositoryImpl(DatabaseClient client, Class<T> entityClass) {
         this.client = client;
         this.entityClass = entityClass;
+        this.uriPrefix = entityClass.getName() + "/";
         this.idClass = null;
         this.docMgr = client.newJSONDocumentManager();
         this.qb = new PojoQueryBuilderImpl<T>(entityClass);
+        this.objectReader = objectMapper.reader(entityClass);
     }
 
     PojoRepositoryImpl(DatabaseClient client, Class<T> entityClass, Class<ID> idClass) {
         this(client, entityClass);
         this.idClass = idClass;
-        findId();
+        resolveId();
         if ( idMethod == null && idProperty == null ) {
             throw new IllegalArgumentException("Your class " + entityClass.getName() +
                 " does not have a method or field annotated with com.marklogic.client.pojo.annotation.Id");
@@ -142,15 +157,66 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
     @Override
     public void write(T entity, Transaction transaction, String... collections) {
         if ( entity == null ) return;
-        JacksonDatabindHandle<T> contentHandle = new JacksonDatabindHandle<T>(entity);
-        contentHandle.setMapper(objectMapper); 
-        DocumentMetadataHandle metadataHandle = new DocumentMetadataHandle();
-        metadataHandle = metadataHandle.withCollections(entityClass.getName());
-        if ( collections != null && collections.length > 0 ) {
-            metadataHandle = metadataHandle.withCollections(collections);
+        DocumentWriteSet writeSet = docMgr.newWriteSet();
+        writeSet.add(getDocumentUri(entity), newMetadataHandle(collections), newContentHandle(entity));
+        write(writeSet, transaction);
+    }
+
+    @Override
+    public void write(Iterable<T> entities, String... collections) {
+        write(entities, WRITE_BATCH_SIZE, collections);
+    }
+    @Override
+    public void write(Iterable<T> entities, int batchSize, String... collections) {
+        if ( entities == null ) return;
+        if ( batchSize <= 0 ) {
+            throw new IllegalArgumentException("Batch size must be positive");
         }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        WriteBatcher batcher = docMgr.newWriteBatcher();
+        batcher.setBatchSize(batchSize);
+        batcher.setBatchFailureListener(new BatchFailureListener() {
+            @Override
+            public void batchFailed(WriteBatch batch, Throwable error) {
+                failure.compareAndSet(null, error);
+            }
+        });
+        try {
+            for ( T entity : entities ) {
+                // stop queueing batches once one has failed
+                if ( failure.get() != null ) break;
+                if ( entity == null ) continue;
+                batcher.add(getDocumentUri(entity), newMetadataHandle(collections), newContentHandle(entity));
+            }
+        } finally {
+            batcher.release();
+        }
+        Throwable error = failure.get();
+        if ( error != null ) {
+            checkForEmptyBeans(error);
+            if ( error instanceof RuntimeException ) throw (RuntimeException) error;
+            if ( error instanceof Error ) throw (Error) error;
+            throw new MarkLogicIOException("Could not write " + entityClass.getName() + " instances", error);
+        }
+    }
+    @Override
+    public void write(Iterable<T> entities, Transaction transaction, String... collections) {
+        if ( entities == null ) return;
         DocumentWriteSet writeSet = docMgr.newWriteSet();
-        writeSet.add(getDocumentUri(entity), metadataHandle, contentHandle);
+        for ( T entity : entities ) {
+            if ( entity == null ) continue;
+            writeSet.add(getDocumentUri(entity), newMetadataHandle(collections), newContentHandle(entity));
+            if ( writeSet.size() >= WRITE_BATCH_SIZE ) {
+                write(writeSet, transaction);
+                writeSet = docMgr.newWriteSet();
+            }
+        }
+        if ( writeSet.size() > 0 ) {
+            write(writeSet, transaction);
+        }
+    }
+
+    private void write(DocumentWriteSet writeSet, Transaction transaction) {
         try {
             docMgr.write(writeSet, transaction);
         } catch(ClientHandlerException e) {
@@ -159,6 +225,21 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
         }
     }
 
+    private JacksonDatabindHandle<T> newContentHandle(T entity) {
+        JacksonDatabindHandle<T> contentHandle = new JacksonDatabindHandle<T>(entity);
+        contentHandle.setMapper(objectMapper);
+        return contentHandle;
+    }
+
+    private DocumentMetadataHandle newMetadataHandle(String... collections) {
+        DocumentMetadataHandle metadataHandle = new DocumentMetadataHandle();
+        metadataHandle = metadataHandle.withCollections(entityClass.getName());
+        if ( collections != null && collections.length > 0 ) {
+            metadataHandle = metadataHandle.withCollections(collections);
+        }
+        return metadataHandle;
+    }
+
     private void checkForEmptyBeans(Throwable e) {
         Throwable cause = e.getCause();
         if ( cause != null ) {
@@ -198,7 +279,7 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
 
     @Override
     public long count(PojoQueryDefinition query) {
-        return count((PojoQueryDefinition) null, null);
+        return count(query, null);
     }
   
     @Override
@@ -218,11 +299,9 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
 
     @Override
     public long count(PojoQueryDefinition query, Transaction transaction) {
-        long pageLength = getPageLength();
-        setPageLength(0);
-        PojoPage<T> page = search(query, 1, transaction);
-        setPageLength(pageLength);
-        return page.getTotalSize();
+        // request an empty page without changing the page length shared
+        // with concurrent searches on this repository
+        return ((DocumentManagerImpl<?, ?>) docMgr).count(wrapQuery(query), transaction);
     }
 
     @Override
@@ -232,8 +311,13 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
 
     @Override
     public void delete(ID[] ids, Transaction transaction) {
-        for ( ID id : ids ) {
-            docMgr.delete(createUri(id), transaction);
+        if ( ids == null || ids.length == 0 ) return;
+        for ( int start = 0; start < ids.length; start += DELETE_BATCH_SIZE ) {
+            String[] uris = new String[Math.min(DELETE_BATCH_SIZE, ids.length - start)];
+            for ( int i = 0; i < uris.length; i++ ) {
+                uris[i] = createUri(ids[start + i]);
+            }
+            docMgr.delete(transaction, uris);
         }
     }
 
@@ -291,7 +375,7 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
             uris.add(createUri(id));
         }
         DocumentPage docPage = (DocumentPage) docMgr.read(transaction, uris.toArray(new String[0]));
-        PojoPage<T> pojoPage = new PojoPageImpl<T>(docPage, entityClass);
+        PojoPage<T> pojoPage = new PojoPageImpl<T>(docPage, entityClass, getObjectReader());
         return pojoPage;
     }
     @Override
@@ -338,7 +422,7 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
         }
 
         DocumentPage docPage = docMgr.search(wrapQuery(query), start, searchHandle, transaction);
-        PojoPage<T> pojoPage = new PojoPageImpl<T>(docPage, entityClass);
+        PojoPage<T> pojoPage = new PojoPageImpl<T>(docPage, entityClass, getObjectReader());
         return pojoPage;
     }
  
@@ -369,9 +453,15 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
     }
 
     public void setObjectMapper(ObjectMapper objectMapper) {
+        // built before publishing so no reader from an earlier mapper is cached
+        this.objectReader = objectMapper.reader(entityClass);
         this.objectMapper = objectMapper;
     }
 
+    ObjectReader getObjectReader() {
+        return objectReader;
+    }
+
     private PojoQueryDefinition wrapQuery(PojoQueryDefinition query) {
         if ( query == null ) {
             return qb.collection(entityClass.getName());
@@ -393,10 +483,41 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
         if ( id == null ) {
             throw new IllegalStateException("id cannot be null");
         }
+        String idString = id.toString();
+        if ( needsEncoding(idString) ) {
+            try {
+                idString = URLEncoder.encode(idString, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new MarkLogicInternalException(e);
+            }
+        }
+        return uriPrefix + idString + EXTENSION;
+    }
+
+    // URLEncoder leaves letters, digits, and ".-*_" unchanged, so ids such as
+    // numbers don't need encoding
+    private static boolean needsEncoding(String idString) {
+        for ( int i = 0; i < idString.length(); i++ ) {
+            char c = idString.charAt(i);
+            if ( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ) continue;
+            if ( c == '.' || c == '-' || c == '*' || c == '_' ) continue;
+            return true;
+        }
+        return false;
+    }
+
+    // resolves the @Id accessor once and skips the access check on later calls
+    private void resolveId() {
+        if ( idMethod != null || idProperty != null ) return;
+        findId();
         try {
-            return entityClass.getName() + "/" + URLEncoder.encode(id.toString(), "UTF-8") + EXTENSION;
-        } catch (UnsupportedEncodingException e) {
-            throw new MarkLogicInternalException(e);
+            if ( idMethod != null ) {
+                idMethod.setAccessible(true);
+            } else if ( idProperty != null ) {
+                idProperty.setAccessible(true);
+            }
+        } catch (SecurityException e) {
+            // keep the checked access
         }
     }
 
@@ -501,7 +622,7 @@ public class PojoRepositoryImpl<T, ID extends Serializable>
 
     @SuppressWarnings("unchecked")
     private ID getId(T entity) {
-        findId();
+        resolveId();
         if ( idMethod != null ) {
             try {
                 return (ID) idMethod.invoke(entity);
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import com.marklogic.client.DatabaseClientFactory.HandleFactoryRegistry;
+import com.marklogic.client.eval.PreparedServerEvaluation;
+import com.marklogic.client.eval.ServerEvaluationCall;
+import com.marklogic.client.impl.ServerEvaluationCallImpl.Context;
+import com.marklogic.client.util.EditableNamespaceContext;
+import com.marklogic.client.util.RequestLogger;
+
+class PreparedServerEvaluationImpl implements PreparedServerEvaluation {
+	final private RESTServices             services;
+	final private HandleFactoryRegistry    handleRegistry;
+	final private RequestLogger            requestLogger;
+	final private Context                  evalContext;
+	final private String                   path;
+	final private String                   encodedCode;
+	final private EditableNamespaceContext namespaceContext;
+	final private boolean                  streaming;
+
+	PreparedServerEvaluationImpl(RESTServices services, HandleFactoryRegistry handleRegistry,
+			RequestLogger requestLogger, Context evalContext, String code, String modulePath,
+			EditableNamespaceContext namespaces, boolean streaming) {
+		super();
+		this.services       = services;
+		this.handleRegistry = handleRegistry;
+		this.requestLogger  = requestLogger;
+		this.evalContext    = evalContext;
+		this.path           = getPath(evalContext);
+		this.encodedCode    = encodeCode(evalContext, code, modulePath);
+		this.streaming      = streaming;
+
+		// copy the namespaces so later changes to the original don't leak into shared calls
+		if (namespaces != null) {
+			this.namespaceContext = new EditableNamespaceContext();
+			this.namespaceContext.putAll(namespaces);
+		} else {
+			this.namespaceContext = null;
+		}
+	}
+
+	@Override
+	public ServerEvaluationCall newCall() {
+		return new ServerEvaluationCallImpl(services, handleRegistry, this);
+	}
+
+	RequestLogger getRequestLogger() {
+		return requestLogger;
+	}
+	Context getEvalContext() {
+		return evalContext;
+	}
+	String getPath() {
+		return path;
+	}
+	String getEncodedCode() {
+		return encodedCode;
+	}
+	EditableNamespaceContext getNamespaceContext() {
+		return namespaceContext;
+	}
+	boolean isStreaming() {
+		return streaming;
+	}
+
+	static String getPath(Context context) {
+		if ( context == Context.INVOKE ) return "invoke";
+		if ( context == Context.ADHOC_XQUERY || context == Context.ADHOC_JAVASCRIPT ) return "eval";
+		throw new IllegalStateException("Invalid eval context: " + context);
+	}
+	// encodes the code or module as the start of the form-urlencoded payload
+	static String encodeCode(Context context, String code, String modulePath) {
+		String name = null;
+		String value = null;
+		if ( context == Context.ADHOC_XQUERY ) {
+			name  = "xquery=";
+			value = code;
+		} else if ( context == Context.ADHOC_JAVASCRIPT ) {
+			name  = "javascript=";
+			value = code;
+		} else if ( context == Context.INVOKE ) {
+			name  = "module=";
+			value = modulePath;
+		} else {
+			throw new IllegalStateException("Invalid eval context: " + context);
+		}
+		if ( value == null ) {
+			throw new IllegalStateException("No code or module path to evaluate");
+		}
+		try {
+			return name + URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 is unsupported", e);
+		}
+	}
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.document.DocumentPage;
+import com.marklogic.client.document.QueryBatcher;
+import com.marklogic.client.query.QueryDefinition;
+import com.marklogic.client.util.RequestParameters;
+
+public class QueryBatcherImpl implements QueryBatcher {
+	static final private Logger logger = LoggerFactory.getLogger(QueryBatcherImpl.class);
+
+	static final private AtomicInteger batcherCount = new AtomicInteger();
+
+	private DocumentManagerImpl<?, ?> docMgr;
+	private QueryDefinition           query;
+	private int                       batchSize          = 100;
+	private int                       threadCount        = 4;
+	private boolean                   consistentSnapshot = true;
+	private int                       maxFailures        = 3;
+
+	private volatile UriBatchListener      uriListener;
+	private volatile DocumentBatchListener documentListener;
+	private volatile QueryFailureListener  failureListener;
+
+	private ExecutorService  executor;
+	private volatile boolean stopped = false;
+
+	private final Object completionLock = new Object();
+	private int          activeWorkers  = 0;
+	private boolean      finished       = false;
+
+	private AtomicLong    nextBatch          = new AtomicLong();
+	private AtomicLong    lastBatch          = new AtomicLong(Long.MAX_VALUE);
+	private AtomicLong    batchesProcessed   = new AtomicLong();
+	private AtomicLong    documentsProcessed = new AtomicLong();
+	private AtomicLong    batchesFailed      = new AtomicLong();
+	private AtomicInteger failureRun         = new AtomicInteger();
+	private volatile long serverTimestamp    = -1;
+	private volatile long estimatedTotal     = -1;
+	private volatile long startTime          = -1;
+	private volatile long lastCompletion     = -1;
+
+	QueryBatcherImpl(DocumentManagerImpl<?, ?> docMgr, QueryDefinition query) {
+		super();
+		this.docMgr = docMgr;
+		this.query  = query;
+	}
+
+	@Override
+	public QueryDefinition getQuery() {
+		return query;
+	}
+
+	@Override
+	public synchronized int getBatchSize() {
+		return batchSize;
+	}
+	@Override
+	public synchronized void setBatchSize(int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive");
+		checkNotStarted("batch size");
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public synchronized int getThreadCount() {
+		return threadCount;
+	}
+	@Override
+	public synchronized void setThreadCount(int threadCount) {
+		if (threadCount <= 0)
+			throw new IllegalArgumentException("Thread count must be positive");
+		checkNotStarted("thread count");
+		this.threadCount = threadCount;
+	}
+
+	@Override
+	public synchronized boolean isConsistentSnapshot() {
+		return consistentSnapshot;
+	}
+	@Override
+	public synchronized void setConsistentSnapshot(boolean consistentSnapshot) {
+		checkNotStarted("consistent snapshot");
+		this.consistentSnapshot = consistentSnapshot;
+	}
+
+	@Override
+	public synchronized int getMaxConsecutiveFailures() {
+		return maxFailures;
+	}
+	@Override
+	public synchronized void setMaxConsecutiveFailures(int maxConsecutiveFailures) {
+		if (maxConsecutiveFailures <= 0)
+			throw new IllegalArgumentException("Maximum consecutive failures must be positive");
+		checkNotStarted("maximum consecutive failures");
+		this.maxFailures = maxConsecutiveFailures;
+	}
+
+	@Override
+	public void setUriBatchListener(UriBatchListener listener) {
+		this.uriListener = listener;
+	}
+	@Override
+	public void setDocumentBatchListener(DocumentBatchListener listener) {
+		this.documentListener = listener;
+	}
+	@Override
+	public void setQueryFailureListener(QueryFailureListener listener) {
+		this.failureListener = listener;
+	}
+
+	@Override
+	public synchronized void start() {
+		checkNotStarted("listeners");
+		if (uriListener == null && documentListener == null)
+			throw new IllegalStateException("Cannot start query batcher without a uri or document listener");
+		if (uriListener != null && documentListener != null)
+			throw new IllegalStateException("Cannot start query batcher with both a uri and a document listener");
+
+		final String threadPrefix = "marklogic-query-batcher-"+batcherCount.incrementAndGet()+"-";
+		executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private AtomicInteger threadNumber = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, threadPrefix+threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		startTime = System.currentTimeMillis();
+
+		synchronized(completionLock) {
+			activeWorkers = 1;
+		}
+		// the first page establishes the timestamp for the other workers
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (!stopped)
+						readBatch(nextBatch.incrementAndGet());
+					for (int i=1; i < threadCount && !stopped && nextBatch.get() < lastBatch.get(); i++) {
+						startWorker();
+					}
+					readBatches();
+				} finally {
+					completeWorker();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void stop() {
+		synchronized(completionLock) {
+			if (finished)
+				return;
+			stopped = true;
+		}
+	}
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	@Override
+	public boolean awaitCompletion() {
+		return awaitCompletion(-1, TimeUnit.MILLISECONDS);
+	}
+	@Override
+	public boolean awaitCompletion(long timeout, TimeUnit unit) {
+		long deadline = (timeout < 0) ? -1 :
+			System.currentTimeMillis() + unit.toMillis(timeout);
+		synchronized(completionLock) {
+			while (activeWorkers > 0) {
+				long wait = 0;
+				if (deadline != -1) {
+					wait = deadline - System.currentTimeMillis();
+					if (wait <= 0)
+						return false;
+				}
+				try {
+					completionLock.wait(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public long getServerTimestamp() {
+		return serverTimestamp;
+	}
+	@Override
+	public long getEstimatedTotal() {
+		return estimatedTotal;
+	}
+	@Override
+	public long getBatchesProcessed() {
+		return batchesProcessed.get();
+	}
+	@Override
+	public long getDocumentsProcessed() {
+		return documentsProcessed.get();
+	}
+	@Override
+	public long getBatchesFailed() {
+		return batchesFailed.get();
+	}
+	@Override
+	public double getDocumentsPerSecond() {
+		long start = startTime;
+		long end   = lastCompletion;
+		if (start == -1 || end <= start)
+			return 0;
+		return documentsProcessed.get() * 1000.0 / (end - start);
+	}
+
+	// must be called while synchronized on the batcher
+	private void checkNotStarted(String setting) {
+		if (executor != null)
+			throw new IllegalStateException("Cannot change "+setting+" after starting query batcher");
+	}
+
+	private void startWorker() {
+		synchronized(completionLock) {
+			activeWorkers++;
+		}
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					readBatches();
+				} finally {
+					completeWorker();
+				}
+			}
+		});
+	}
+
+	private void completeWorker() {
+		synchronized(completionLock) {
+			activeWorkers--;
+			if (activeWorkers == 0) {
+				finished = true;
+				executor.shutdown();
+				completionLock.notifyAll();
+			}
+		}
+	}
+
+	private void readBatches() {
+		while (!stopped) {
+			long batchNumber = nextBatch.incrementAndGet();
+			if (batchNumber > lastBatch.get())
+				break;
+			readBatch(batchNumber);
+		}
+	}
+
+	private void readBatch(long batchNumber) {
+		long start     = (batchNumber - 1) * batchSize + 1;
+		long timestamp = serverTimestamp;
+
+		RequestParameters params = null;
+		if (consistentSnapshot && timestamp != -1) {
+			params = new RequestParameters();
+			params.add("timestamp", String.valueOf(timestamp));
+		}
+
+		boolean withContent = (documentListener != null);
+
+		DocumentPage page = null;
+		try {
+			page = docMgr.searchBatch(query, start, batchSize, withContent, params);
+		} catch (RuntimeException e) {
+			batchFailed(new QueryBatchImpl(batchNumber, start, timestamp), e);
+			// without a stop, every worker would keep claiming batches that fail the same way
+			int failures = failureRun.incrementAndGet();
+			if (batchNumber == 1 || failures >= maxFailures) {
+				logger.warn("Stopping query batcher after "+failures+" consecutive failed batches");
+				stop();
+			}
+			return;
+		}
+		failureRun.set(0);
+
+		try {
+			if (page instanceof JerseyServices.JerseyDocumentPage) {
+				long pageTimestamp = ((JerseyServices.JerseyDocumentPage) page).getServerTimestamp();
+				if (pageTimestamp != -1) {
+					timestamp = pageTimestamp;
+					if (serverTimestamp == -1)
+						serverTimestamp = pageTimestamp;
+				}
+			}
+			long total = page.getTotalSize();
+			estimatedTotal = total;
+
+			QueryBatchImpl batch = new QueryBatchImpl(batchNumber, start, timestamp);
+
+			long count = 0;
+			if (withContent) {
+				count = (page instanceof JerseyServices.JerseyDocumentPage) ?
+					((JerseyServices.JerseyDocumentPage) page).getDocumentCount() : page.size();
+				if (count > 0)
+					processDocuments(batch, page);
+			} else {
+				List<String> uris = new ArrayList<String>();
+				while (page.hasNext()) {
+					uris.add(page.next().getUri());
+				}
+				count = uris.size();
+				if (count > 0)
+					processUris(batch, uris.toArray(new String[uris.size()]));
+			}
+
+			// an empty or short final page ends the results
+			if (count == 0 || (count < batchSize && start - 1 + count >= total))
+				endAt(batchNumber);
+
+			if (count > 0) {
+				batchesProcessed.incrementAndGet();
+				documentsProcessed.addAndGet(count);
+				lastCompletion = System.currentTimeMillis();
+			}
+		} finally {
+			page.close();
+		}
+	}
+
+	private void endAt(long batchNumber) {
+		long last = lastBatch.get();
+		while (batchNumber < last && !lastBatch.compareAndSet(last, batchNumber)) {
+			last = lastBatch.get();
+		}
+	}
+
+	private void processUris(QueryBatchImpl batch, String[] uris) {
+		try {
+			uriListener.processUris(batch, uris);
+		} catch (RuntimeException e) {
+			logger.error("Listener for batch "+batch.getBatchNumber()+" failed", e);
+		}
+	}
+
+	private void processDocuments(QueryBatchImpl batch, DocumentPage page) {
+		try {
+			documentListener.processDocuments(batch, page);
+		} catch (RuntimeException e) {
+			logger.error("Listener for batch "+batch.getBatchNumber()+" failed", e);
+		}
+	}
+
+	private void batchFailed(QueryBatchImpl batch, RuntimeException failure) {
+		batchesFailed.incrementAndGet();
+
+		QueryFailureListener listener = failureListener;
+		if (listener == null) {
+			logger.error("Could not read batch "+batch.getBatchNumber(), failure);
+			return;
+		}
+		try {
+			listener.batchFailed(batch, failure);
+		} catch (RuntimeException e) {
+			logger.error("Failure listener for batch "+batch.getBatchNumber()+" failed", e);
+		}
+	}
+
+	static class QueryBatchImpl implements QueryBatch {
+		private long batchNumber;
+		private long start;
+		private long serverTimestamp;
+		QueryBatchImpl(long batchNumber, long start, long serverTimestamp) {
+			this.batchNumber     = batchNumber;
+			this.start           = start;
+			this.serverTimestamp = serverTimestamp;
+		}
+		@Override
+		public long getBatchNumber() {
+			return batchNumber;
+		}
+		@Override
+		public long getStart() {
+			return start;
+		}
+		@Override
+		public long getServerTimestamp() {
+			return serverTimestamp;
+		}
+	}
+}
@@ -17,6 +17,7 @@ package com.marklogic.client.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.namespace.QName;
 
@@ -38,6 +39,7 @@ import com.marklogic.client.io.marker.StructureWriteHandle;
 import com.marklogic.client.io.marker.TuplesReadHandle;
 import com.marklogic.client.io.marker.ValuesListReadHandle;
 import com.marklogic.client.io.marker.ValuesReadHandle;
+import com.marklogic.client.query.AsyncQueryManager;
 import com.marklogic.client.query.DeleteQueryDefinition;
 import com.marklogic.client.query.ElementLocator;
 import com.marklogic.client.query.KeyLocator;
@@ -48,6 +50,7 @@ import com.marklogic.client.query.QueryManager;
 import com.marklogic.client.query.RawCombinedQueryDefinition;
 import com.marklogic.client.query.RawQueryByExampleDefinition;
 import com.marklogic.client.query.RawStructuredQueryDefinition;
+import com.marklogic.client.query.SearchCache;
 import com.marklogic.client.query.StringQueryDefinition;
 import com.marklogic.client.query.StructuredQueryBuilder;
 import com.marklogic.client.query.SuggestDefinition;
@@ -62,6 +65,7 @@ public class QueryManagerImpl
 	private HandleFactoryRegistry handleRegistry;
     private long pageLen = -1;
     private QueryView view = QueryView.DEFAULT;
+    private volatile SearchCacheImpl searchCache;
 
     public QueryManagerImpl(RESTServices services) {
         super();
@@ -157,6 +161,11 @@ public class QueryManagerImpl
         return new ValuesListDefinitionImpl(optionsName);
     }
 
+    @Override
+    public AsyncQueryManager newAsyncManager() {
+        return new AsyncQueryManagerImpl(this, services.getAsyncExecutor());
+    }
+
     @Override
     public <T extends SearchReadHandle> T search(QueryDefinition querydef, T searchHandle) {
         return search(querydef, searchHandle, 1, null);
@@ -195,11 +204,42 @@ public class QueryManagerImpl
 
         String mimetype = searchFormat.getDefaultMimetype();
 
+        SearchCacheImpl cache = searchCache;
+        if (cache != null && transaction == null && DocumentCacheImpl.canReceive(searchBase.receiveAs())) {
+            String key = SearchCacheImpl.makeKey(querydef, mimetype, start, pageLen, view);
+            if (key != null) {
+                byte[] response = cache.get(key);
+                if (response == null) {
+                    response = services.search(requestLog(), byte[].class, querydef, mimetype, start, pageLen, view, null);
+                    cache.put(key, querydef, response);
+                }
+                // receives a copy so changes to the handle can't reach the cached response
+                searchBase.receiveContent(
+                    (response == null) ? null : DocumentCacheImpl.asReceived(searchBase.receiveAs(), response));
+                return searchHandle;
+            }
+        }
+
         String tid = transaction == null ? null : transaction.getTransactionId();
-        searchBase.receiveContent(services.search(requestLogger, searchBase.receiveAs(), querydef, mimetype, start, pageLen, view, tid));
+        searchBase.receiveContent(services.search(requestLog(), searchBase.receiveAs(), querydef, mimetype, start, pageLen, view, tid));
         return searchHandle;
     }
 
+    @Override
+    public SearchCache newSearchCache(long maxBytes, long maxAge, TimeUnit unit) {
+        return new SearchCacheImpl(maxBytes, maxAge, unit);
+    }
+    @Override
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+    @Override
+    public void setSearchCache(SearchCache cache) {
+        if (cache != null && !(cache instanceof SearchCacheImpl))
+            throw new IllegalArgumentException("Search cache must be created by a query manager");
+        this.searchCache = (SearchCacheImpl) cache;
+    }
+
     @Override
     public void delete(DeleteQueryDefinition querydef) {
         delete(querydef, null);
@@ -207,7 +247,12 @@ public class QueryManagerImpl
     @Override
     public void delete(DeleteQueryDefinition querydef, Transaction transaction) {
         String tid = transaction == null ? null : transaction.getTransactionId();
-        services.deleteSearch(requestLogger, querydef, tid);
+        services.deleteSearch(requestLog(), querydef, tid);
+
+        // the deleted documents could match any cached search
+        SearchCacheImpl cache = searchCache;
+        if (cache != null)
+            cache.clear();
     }
 
     @Override
@@ -426,7 +471,7 @@ public class QueryManagerImpl
         String mimetype = convertedFormat.getDefaultMimetype();
 
         convertedBase.receiveContent(
-        		services.search(requestLogger, convertedBase.receiveAs(), query, mimetype, "structured")
+        		services.search(requestLog(), convertedBase.receiveAs(), query, mimetype, "structured")
         		);
 
         return convertedHandle;
@@ -458,7 +503,7 @@ public class QueryManagerImpl
         String mimetype = reportFormat.getDefaultMimetype();
 
         reportBase.receiveContent(
-        		services.search(requestLogger, reportBase.receiveAs(), query, mimetype, "validate")
+        		services.search(requestLog(), reportBase.receiveAs(), query, mimetype, "validate")
         		);
 
         return reportHandle;
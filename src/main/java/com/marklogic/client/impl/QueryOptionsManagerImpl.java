@@ -96,7 +96,7 @@ public class QueryOptionsManagerImpl
 
 		String mimetype = queryOptionsFormat.getDefaultMimetype();
 		queryOptionsBase.receiveContent(services.getValue(
-				requestLogger, QUERY_OPTIONS_BASE, name, false, mimetype,
+				requestLog(), QUERY_OPTIONS_BASE, name, false, mimetype,
 				queryOptionsBase.receiveAs()));
 
 		return queryOptionsHandle;
@@ -155,7 +155,7 @@ public class QueryOptionsManagerImpl
 
 		String mimetype = queryOptionsFormat.getDefaultMimetype();
 
-		services.putValue(requestLogger, QUERY_OPTIONS_BASE, name, mimetype, queryOptionsBase);
+		services.putValue(requestLog(), QUERY_OPTIONS_BASE, name, mimetype, queryOptionsBase);
 	}
 
 	@Override
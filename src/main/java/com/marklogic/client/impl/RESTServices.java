@@ -19,11 +19,19 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.net.ssl.SSLContext;
 
+import com.marklogic.client.ConnectionPoolStats;
+import com.marklogic.client.RequestMetrics;
 import com.marklogic.client.DatabaseClient;
 import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.AsyncPolicy;
+import com.marklogic.client.DatabaseClientFactory.CompressionPolicy;
+import com.marklogic.client.DatabaseClientFactory.ConnectionPolicy;
+import com.marklogic.client.DatabaseClientFactory.RetryPolicy;
+import com.marklogic.client.DatabaseClientFactory.LoadBalancing;
 import com.marklogic.client.DatabaseClientFactory.SSLHostnameVerifier;
 import com.marklogic.client.FailedRequestException;
 import com.marklogic.client.ForbiddenUserException;
@@ -61,6 +69,9 @@ import com.sun.jersey.api.client.ClientResponse;
 public interface RESTServices {
 	public void connect(String host, int port, String database, String user, String password, Authentication type,
 			SSLContext context, SSLHostnameVerifier verifier);
+	public void connect(String[] hosts, int port, String database, String user, String password, Authentication type,
+			SSLContext context, SSLHostnameVerifier verifier, LoadBalancing balancing, ConnectionPolicy policy,
+			RetryPolicy retryPolicy, AsyncPolicy asyncPolicy, CompressionPolicy compressionPolicy);
 	public DatabaseClient getDatabaseClient();
 	public void setDatabaseClient(DatabaseClient client);
 	public void release();
@@ -68,6 +79,9 @@ public interface RESTServices {
 	public void deleteDocument(RequestLogger logger, DocumentDescriptor desc, String transactionId,
 			Set<Metadata> categories, RequestParameters extraParams)
 		throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
+	public void deleteDocuments(RequestLogger logger, String[] uris, String transactionId,
+			RequestParameters extraParams)
+		throws ForbiddenUserException, FailedRequestException;
 
 	public boolean getDocument(RequestLogger logger, DocumentDescriptor desc, String transactionId,
 			Set<Metadata> categories, RequestParameters extraParams,
@@ -79,11 +93,12 @@ public interface RESTServices {
 
 	public DocumentPage getBulkDocuments(RequestLogger logger, String transactionId,
 			Set<Metadata> categories, Format format, RequestParameters extraParams,
-			boolean withContent, String... uris)
+			boolean withContent, boolean streamPages, String... uris)
 		throws ResourceNotFoundException, ForbiddenUserException,  FailedRequestException;
 	public DocumentPage getBulkDocuments(RequestLogger logger, QueryDefinition querydef,
 			long start, long pageLength, String transactionId, SearchReadHandle searchHandle, 
-            QueryView view, Set<Metadata> categories, Format format, RequestParameters extraParams)
+            QueryView view, Set<Metadata> categories, Format format, RequestParameters extraParams,
+            boolean withContent, boolean streamPages)
 		throws ResourceNotFoundException, ForbiddenUserException,  FailedRequestException;
 
 	public void postBulkDocuments(RequestLogger logger, DocumentWriteSet writeSet,
@@ -204,9 +219,9 @@ public interface RESTServices {
 			W[] input, String... outputMimetypes)
 		throws ResourceNotFoundException, ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException;
-	public EvalResultIterator postEvalInvoke(RequestLogger reqlog, String code, String modulePath,
-			ServerEvaluationCallImpl.Context evalContext, Map<String, Object> variables,
-			EditableNamespaceContext namespaces, String transactionId) 
+	public EvalResultIterator postEvalInvoke(RequestLogger reqlog, String path, String encodedCode,
+			Map<String, Object> variables,
+			EditableNamespaceContext namespaces, String transactionId, boolean streaming)
 			throws ResourceNotFoundException, ResourceNotResendableException, ForbiddenUserException,
 			FailedRequestException;
 	public <R extends AbstractReadHandle> R deleteResource(
@@ -215,6 +230,9 @@ public interface RESTServices {
 
 	// backdoor
 	public Object getClientImplementation();
+	public ConnectionPoolStats getConnectionPoolStats();
+	public RequestMetrics getRequestMetrics();
+	public ExecutorService getAsyncExecutor();
 
 	public enum ResponseStatus {
 		OK() {
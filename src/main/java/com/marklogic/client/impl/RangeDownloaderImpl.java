@@ -0,0 +1,304 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.ForbiddenUserException;
+import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.ResourceNotFoundException;
+import com.marklogic.client.document.BinaryDocumentManager;
+import com.marklogic.client.document.ContentDescriptor;
+import com.marklogic.client.document.DocumentDescriptor;
+import com.marklogic.client.document.RangeDownloader;
+import com.marklogic.client.io.InputStreamHandle;
+
+class RangeDownloaderImpl implements RangeDownloader {
+	static final private Logger logger = LoggerFactory.getLogger(RangeDownloaderImpl.class);
+
+	static final private AtomicInteger downloaderCount = new AtomicInteger();
+
+	private BinaryDocumentManager docMgr;
+	private int                   threadCount = 4;
+	private long                  rangeSize   = 8 * 1024 * 1024;
+
+	private AtomicInteger rangesDownloaded = new AtomicInteger();
+	private AtomicInteger rangesResumed    = new AtomicInteger();
+	private AtomicLong    bytesDownloaded  = new AtomicLong();
+
+	RangeDownloaderImpl(BinaryDocumentManager docMgr) {
+		super();
+		this.docMgr = docMgr;
+	}
+
+	@Override
+	public synchronized int getThreadCount() {
+		return threadCount;
+	}
+	@Override
+	public synchronized void setThreadCount(int threadCount) {
+		if (threadCount <= 0)
+			throw new IllegalArgumentException("Thread count must be positive");
+		this.threadCount = threadCount;
+	}
+
+	@Override
+	public synchronized long getRangeSize() {
+		return rangeSize;
+	}
+	@Override
+	public synchronized void setRangeSize(long rangeSize) {
+		if (rangeSize <= 0)
+			throw new IllegalArgumentException("Range size must be positive");
+		this.rangeSize = rangeSize;
+	}
+
+	@Override
+	public int getRangesDownloaded() {
+		return rangesDownloaded.get();
+	}
+	@Override
+	public int getRangesResumed() {
+		return rangesResumed.get();
+	}
+	@Override
+	public long getBytesDownloaded() {
+		return bytesDownloaded.get();
+	}
+
+	@Override
+	public synchronized DocumentDescriptor download(String uri, File target)
+	throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException {
+		if (uri == null)
+			throw new IllegalArgumentException("Cannot download document without uri");
+		if (target == null)
+			throw new IllegalArgumentException("Cannot download document without target file: "+uri);
+
+		rangesDownloaded.set(0);
+		rangesResumed.set(0);
+		bytesDownloaded.set(0);
+
+		DocumentDescriptor desc = docMgr.exists(uri);
+		if (desc == null)
+			throw new ResourceNotFoundException("Could not download non-existent document: "+uri);
+		long length = desc.getByteLength();
+		if (length == ContentDescriptor.UNKNOWN_LENGTH)
+			throw new FailedRequestException("Could not get length to download document in ranges: "+uri);
+
+		int rangeCount = (int) ((length + rangeSize - 1) / rangeSize);
+		File progressFile = new File(target.getPath()+PROGRESS_SUFFIX);
+		String header = length+" "+desc.getVersion()+" "+rangeSize;
+
+		try {
+			BitSet completed = readProgress(progressFile, header, target);
+			if (completed == null) {
+				completed = new BitSet(rangeCount);
+				writeProgress(progressFile, header);
+			}
+			rangesResumed.set(completed.cardinality());
+
+			RandomAccessFile file = new RandomAccessFile(target, "rw");
+			try {
+				file.setLength(length);
+				downloadRanges(desc, file.getChannel(), progressFile, completed, rangeCount, length);
+			} finally {
+				file.close();
+			}
+
+			if (!progressFile.delete() && progressFile.exists())
+				logger.warn("Could not delete download progress file {}", progressFile.getPath());
+		} catch (IOException e) {
+			throw new MarkLogicIOException(e);
+		}
+
+		if (logger.isInfoEnabled())
+			logger.info("Downloaded {} ranges and resumed {} ranges of {}",
+					new Object[]{rangesDownloaded.get(), rangesResumed.get(), uri});
+
+		return desc;
+	}
+
+	private void downloadRanges(final DocumentDescriptor desc, final FileChannel channel,
+			final File progressFile, BitSet completed, int rangeCount, final long length)
+	throws IOException {
+		int pending = rangeCount - completed.cardinality();
+		if (pending == 0)
+			return;
+
+		final String threadPrefix = "marklogic-range-downloader-"+downloaderCount.incrementAndGet()+"-";
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, pending),
+			new ThreadFactory() {
+				private AtomicInteger threadNumber = new AtomicInteger();
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, threadPrefix+threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+		final OutputStream progress = new FileOutputStream(progressFile, true);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(pending);
+			for (int i=completed.nextClearBit(0); i < rangeCount; i=completed.nextClearBit(i + 1)) {
+				final int  range = i;
+				final long start = i * rangeSize;
+				final long size  = Math.min(rangeSize, length - start);
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						downloadRange(desc, channel, range, start, size, progress);
+					}
+				}));
+			}
+			executor.shutdown();
+
+			// wait for every range so the progress includes all completed ranges
+			RuntimeException failure = null;
+			for (Future<?> future: futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					executor.shutdownNow();
+					Thread.currentThread().interrupt();
+					throw new FailedRequestException("Download interrupted: "+desc.getUri());
+				} catch (ExecutionException e) {
+					if (failure != null)
+						continue;
+					Throwable cause = e.getCause();
+					failure = (cause instanceof RuntimeException) ? (RuntimeException) cause :
+						new MarkLogicIOException(cause);
+				}
+			}
+			if (failure != null)
+				throw failure;
+		} finally {
+			executor.shutdownNow();
+			progress.close();
+		}
+	}
+
+	private void downloadRange(DocumentDescriptor desc, FileChannel channel, int range,
+			long start, long size, OutputStream progress) {
+		DocumentDescriptor rangeDesc = docMgr.newDescriptor(desc.getUri());
+		InputStreamHandle handle = docMgr.read(rangeDesc, new InputStreamHandle(), start, size);
+		InputStream content = handle.get();
+		try {
+			long version = rangeDesc.getVersion();
+			if (version != DocumentDescriptor.UNKNOWN_VERSION
+					&& desc.getVersion() != DocumentDescriptor.UNKNOWN_VERSION
+					&& version != desc.getVersion())
+				throw new FailedRequestException("Document changed during download: "+desc.getUri());
+
+			// positional transfers leave the position of the shared channel unchanged
+			ReadableByteChannel source = Channels.newChannel(content);
+			long received = 0;
+			while (received < size) {
+				long count = channel.transferFrom(source, start + received, size - received);
+				if (count <= 0)
+					break;
+				received += count;
+			}
+			if (received != size || source.read(ByteBuffer.allocate(1)) != -1)
+				throw new FailedRequestException("Range "+start+"-"+(start + size - 1)+
+						" of "+desc.getUri()+" had wrong length");
+
+			channel.force(false);
+			synchronized(progress) {
+				progress.write((range+"\n").getBytes("UTF-8"));
+				progress.flush();
+			}
+		} catch (IOException e) {
+			throw new MarkLogicIOException(e);
+		} finally {
+			try {
+				content.close();
+			} catch (IOException e) {
+			}
+		}
+
+		rangesDownloaded.incrementAndGet();
+		bytesDownloaded.addAndGet(size);
+	}
+
+	// returns the completed ranges of an interrupted download of the same
+	// document version with the same range size or null to start over
+	private BitSet readProgress(File progressFile, String header, File target)
+	throws IOException {
+		if (!progressFile.exists() || !target.exists())
+			return null;
+
+		byte[] bytes = new byte[(int) progressFile.length()];
+		InputStream in = new FileInputStream(progressFile);
+		try {
+			int offset = 0;
+			int len = 0;
+			while (offset < bytes.length && (len = in.read(bytes, offset, bytes.length - offset)) != -1) {
+				offset += len;
+			}
+		} finally {
+			in.close();
+		}
+
+		// the last line is incomplete unless the file ends with a newline
+		String[] lines = new String(bytes, "UTF-8").split("\n", -1);
+		if (lines.length < 2 || !header.equals(lines[0]))
+			return null;
+
+		BitSet completed = new BitSet();
+		for (int i=1; i < lines.length - 1; i++) {
+			try {
+				completed.set(Integer.parseInt(lines[i]));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		return completed;
+	}
+	private void writeProgress(File progressFile, String header)
+	throws IOException {
+		OutputStream out = new FileOutputStream(progressFile);
+		try {
+			out.write((header+"\n").getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -81,24 +81,30 @@ class RequestLoggerImpl implements RequestLogger {
 		if (out == null)
 			return content;
 
+		if (content instanceof InputStream) {
+			return (T) new InputStreamTee((InputStream) content, out, max);
+		}
+
+		if (content instanceof Reader) {
+			return (T) new ReaderTee((Reader) content, out, max);
+		}
+
+		writeContent(out, content, max);
+		return content;
+	}
+
+	// writes content that is fully available without consuming it
+	static void writeContent(PrintStream out, Object content, long max) {
 		if (content instanceof byte[]) {
 			byte[] b = (byte[]) content;
 			out.write(b, 0, (int) Math.min(b.length, max));
-			return content;
+			return;
 		}
 
 		if (content instanceof File) {
 			out.println("info: cannot copy content from "+
 					((File) content).getAbsolutePath());
-			return content;
-		}
-
-		if (content instanceof InputStream) {
-			return (T) new InputStreamTee((InputStream) content, out, max);
-		}
-
-		if (content instanceof Reader) {
-			return (T) new ReaderTee((Reader) content, out, max);
+			return;
 		}
 
 		if (content instanceof String) {
@@ -108,12 +114,11 @@ class RequestLoggerImpl implements RequestLogger {
 				out.print(s);
 			else
 				out.print(s.substring(0, (int) Math.min(len, max)));
-			return content;
+			return;
 		}
 
 		if (logger.isWarnEnabled())
 			logger.warn("Unknown {} class for content", content.getClass().getName());
-		return content;
 	}
 
 	@Override
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.RequestMetrics;
+
+public class RequestMetricsImpl implements RequestMetrics {
+	static final private Logger logger = LoggerFactory.getLogger(RequestMetricsImpl.class);
+
+	static final private int BUCKETS = 32;
+
+	static class OperationMetricsImpl implements OperationMetrics {
+		private final AtomicLong      requests      = new AtomicLong();
+		private final AtomicLong      failures      = new AtomicLong();
+		private final AtomicLong      retries       = new AtomicLong();
+		private final AtomicLong      rejections    = new AtomicLong();
+		private final AtomicLong      inFlight      = new AtomicLong();
+		private final AtomicLong      bytesSent     = new AtomicLong();
+		private final AtomicLong      bytesReceived = new AtomicLong();
+		private final AtomicLong      totalMicros   = new AtomicLong();
+		private final AtomicLong      maxMicros     = new AtomicLong();
+		private final AtomicLongArray histogram     = new AtomicLongArray(BUCKETS);
+
+		void started() {
+			inFlight.incrementAndGet();
+		}
+		void completed(int status, long latencyNanos) {
+			inFlight.decrementAndGet();
+			requests.incrementAndGet();
+			if (status < 0 || status >= 400)
+				failures.incrementAndGet();
+
+			long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+			totalMicros.addAndGet(micros);
+			histogram.incrementAndGet(bucketFor(micros));
+			long max = maxMicros.get();
+			while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+				max = maxMicros.get();
+			}
+		}
+		void retried() {
+			retries.incrementAndGet();
+		}
+		void rejected() {
+			rejections.incrementAndGet();
+		}
+		void sent(long bytes) {
+			bytesSent.addAndGet(bytes);
+		}
+		void received(long bytes) {
+			bytesReceived.addAndGet(bytes);
+		}
+		void reset() {
+			requests.set(0);
+			failures.set(0);
+			retries.set(0);
+			rejections.set(0);
+			bytesSent.set(0);
+			bytesReceived.set(0);
+			totalMicros.set(0);
+			maxMicros.set(0);
+			for (int i=0; i < BUCKETS; i++) {
+				histogram.set(i, 0);
+			}
+		}
+
+		// bucket i holds latencies below 2^i microseconds
+		static int bucketFor(long micros) {
+			int bucket = 64 - Long.numberOfLeadingZeros(micros);
+			return Math.min(bucket, BUCKETS - 1);
+		}
+
+		@Override
+		public long getRequestCount() {
+			return requests.get();
+		}
+		@Override
+		public long getFailureCount() {
+			return failures.get();
+		}
+		@Override
+		public long getRetryCount() {
+			return retries.get();
+		}
+		@Override
+		public long getRejectedCount() {
+			return rejections.get();
+		}
+		@Override
+		public long getInFlightCount() {
+			return inFlight.get();
+		}
+		@Override
+		public long getBytesSent() {
+			return bytesSent.get();
+		}
+		@Override
+		public long getBytesReceived() {
+			return bytesReceived.get();
+		}
+		@Override
+		public long getMeanLatencyMicros() {
+			long count = requests.get();
+			return (count == 0) ? 0 : totalMicros.get() / count;
+		}
+		@Override
+		public long getMaxLatencyMicros() {
+			return maxMicros.get();
+		}
+		@Override
+		public long getLatencyPercentileMicros(double percentile) {
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("Percentile must be between 0 and 100: "+percentile);
+			long[] counts = getLatencyHistogram();
+			long total = 0;
+			for (long count: counts) {
+				total += count;
+			}
+			if (total == 0)
+				return 0;
+
+			long rank = (long) Math.ceil(total * percentile / 100);
+			long seen = 0;
+			for (int i=0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0)
+					return 1L << i;
+			}
+			return 1L << (counts.length - 1);
+		}
+		@Override
+		public long[] getLatencyHistogram() {
+			long[] counts = new long[BUCKETS];
+			for (int i=0; i < BUCKETS; i++) {
+				counts[i] = histogram.get(i);
+			}
+			return counts;
+		}
+	}
+
+	private final EnumMap<Operation, OperationMetricsImpl> operations =
+		new EnumMap<Operation, OperationMetricsImpl>(Operation.class);
+	private final List<RequestListener> listeners = new CopyOnWriteArrayList<RequestListener>();
+	private List<ObjectName> mbeanNames = null;
+
+	public RequestMetricsImpl() {
+		for (Operation operation: Operation.values()) {
+			operations.put(operation, new OperationMetricsImpl());
+		}
+	}
+
+	OperationMetricsImpl getMetricsImpl(Operation operation) {
+		return operations.get(operation);
+	}
+
+	void notifyListeners(Operation operation, int status, long latencyNanos,
+			long bytesSent, long bytesReceived) {
+		for (RequestListener listener: listeners) {
+			try {
+				listener.requestCompleted(operation, status, latencyNanos, bytesSent, bytesReceived);
+			} catch (Throwable e) {
+				logger.error("Request listener failed", e);
+			}
+		}
+	}
+
+	@Override
+	public OperationMetrics getOperationMetrics(Operation operation) {
+		if (operation == null)
+			throw new IllegalArgumentException("Cannot get metrics for null operation");
+		return operations.get(operation);
+	}
+
+	@Override
+	public void addRequestListener(RequestListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("Cannot add null request listener");
+		listeners.add(listener);
+	}
+	@Override
+	public void removeRequestListener(RequestListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void reset() {
+		for (OperationMetricsImpl metrics: operations.values()) {
+			metrics.reset();
+		}
+	}
+
+	@Override
+	public synchronized void registerMBeans(String clientName) {
+		if (clientName == null)
+			throw new IllegalArgumentException("Cannot register metrics without client name");
+		if (mbeanNames != null)
+			throw new IllegalStateException("Metrics already registered");
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		List<ObjectName> names = new ArrayList<ObjectName>();
+		try {
+			for (Operation operation: Operation.values()) {
+				ObjectName name = new ObjectName("com.marklogic.client:type=RequestMetrics,client="+
+						ObjectName.quote(clientName)+",operation="+operation.name());
+				server.registerMBean(
+					new StandardMBean(operations.get(operation), OperationMetrics.class), name
+					);
+				names.add(name);
+			}
+		} catch (JMException e) {
+			unregister(server, names);
+			throw new IllegalStateException("Could not register metrics for "+clientName, e);
+		}
+		mbeanNames = names;
+	}
+	@Override
+	public synchronized void unregisterMBeans() {
+		if (mbeanNames == null)
+			return;
+		unregister(ManagementFactory.getPlatformMBeanServer(), mbeanNames);
+		mbeanNames = null;
+	}
+	private void unregister(MBeanServer server, List<ObjectName> names) {
+		for (ObjectName name: names) {
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				logger.warn("Could not unregister {}", name);
+			}
+		}
+	}
+}
@@ -101,7 +101,7 @@ class ResourceExtensionsImpl
 		}
 
 		listBase.receiveContent(
-				services.getValues(requestLogger, "config/resources", extraParams,
+				services.getValues(requestLog(), "config/resources", extraParams,
 						listFormat.getDefaultMimetype(), listBase.receiveAs())
 				);
 
@@ -134,7 +134,7 @@ class ResourceExtensionsImpl
 			HandleAccessor.checkHandle(sourceHandle, "resource");
 
 		sourceBase.receiveContent(
-				services.getValue(requestLogger, "config/resources", resourceName, true,
+				services.getValue(requestLog(), "config/resources", resourceName, true,
 				sourceBase.getMimetype(), sourceBase.receiveAs())
 				);
 
@@ -203,7 +203,7 @@ class ResourceExtensionsImpl
 			contentType = "application/xquery";
 		} 
 
-		services.putValue(requestLogger, "config/resources", resourceName, extraParams,
+		services.putValue(requestLog(), "config/resources", resourceName, extraParams,
 				contentType, sourceBase);
 	}
 
@@ -215,6 +215,6 @@ class ResourceExtensionsImpl
 		if (logger.isInfoEnabled())
 			logger.info("Deleting resource services for {}", resourceName);
 
-		services.deleteValue(requestLogger, "config/resources", resourceName);
+		services.deleteValue(requestLog(), "config/resources", resourceName);
 	}
 }
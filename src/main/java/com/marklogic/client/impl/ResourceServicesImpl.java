@@ -50,7 +50,7 @@ class ResourceServicesImpl
 	}
 	@Override
 	public <R extends AbstractReadHandle> R get(RequestParameters params, Transaction transaction, R output) {
-		return services.getResource(requestLogger, getResourcePath(), 
+		return services.getResource(requestLog(), getResourcePath(), 
 				prepareParams(params, transaction), output);
 	}
 	@Override
@@ -59,7 +59,7 @@ class ResourceServicesImpl
 	}
 	@Override
 	public ServiceResultIterator get(RequestParameters params, Transaction transaction, String... outputMimetypes) {
-		return services.getIteratedResource(requestLogger, getResourcePath(), 
+		return services.getIteratedResource(requestLog(), getResourcePath(), 
 				prepareParams(params, transaction), outputMimetypes);
 	}
 
@@ -69,7 +69,7 @@ class ResourceServicesImpl
 	}
 	@Override
 	public <R extends AbstractReadHandle> R put(RequestParameters params, AbstractWriteHandle input, Transaction transaction, R output) {
-		return services.putResource(requestLogger, getResourcePath(), 
+		return services.putResource(requestLog(), getResourcePath(), 
 				prepareParams(params, transaction), input, output);
 	}
 	@Override
@@ -78,7 +78,7 @@ class ResourceServicesImpl
 	}
 	@Override
 	public <R extends AbstractReadHandle, W extends AbstractWriteHandle> R put(RequestParameters params, W[] input, Transaction transaction, R output) {
-		return services.putResource(requestLogger, getResourcePath(),
+		return services.putResource(requestLog(), getResourcePath(),
 				prepareParams(params, transaction), input, output);
 	}
 
@@ -89,7 +89,7 @@ class ResourceServicesImpl
 	@Override
 	public <R extends AbstractReadHandle> R post(RequestParameters params, AbstractWriteHandle input, Transaction transaction, R output) {
 		return services.postResource(
-				requestLogger, getResourcePath(), prepareParams(params, transaction), input, output);
+				requestLog(), getResourcePath(), prepareParams(params, transaction), input, output);
 	}
 	@Override
 	public ServiceResultIterator post(RequestParameters params, AbstractWriteHandle input, String... outputMimetypes) {
@@ -98,7 +98,7 @@ class ResourceServicesImpl
 	@Override
 	public ServiceResultIterator post(RequestParameters params, AbstractWriteHandle input, Transaction transaction, String... outputMimetypes) {
 		return services.postIteratedResource(
-				requestLogger, getResourcePath(), prepareParams(params, transaction), input, outputMimetypes);
+				requestLog(), getResourcePath(), prepareParams(params, transaction), input, outputMimetypes);
 	}
 	@Override
 	public <R extends AbstractReadHandle, W extends AbstractWriteHandle> R post(RequestParameters params, W[] input, R output) {
@@ -107,7 +107,7 @@ class ResourceServicesImpl
 	@Override
 	public <R extends AbstractReadHandle, W extends AbstractWriteHandle> R post(RequestParameters params, W[] input, Transaction transaction, R output) {
 		return services.postResource(
-				requestLogger, getResourcePath(), prepareParams(params, transaction), input, output);
+				requestLog(), getResourcePath(), prepareParams(params, transaction), input, output);
 	}
 	@Override
 	public <W extends AbstractWriteHandle> ServiceResultIterator post(RequestParameters params, W[] input, String... outputMimetypes) {
@@ -116,7 +116,7 @@ class ResourceServicesImpl
 	@Override
 	public <W extends AbstractWriteHandle> ServiceResultIterator post(RequestParameters params, W[] input, Transaction transaction, String... outputMimetypes) {
 		return services.postIteratedResource(
-				requestLogger, getResourcePath(), prepareParams(params, transaction), input, outputMimetypes);
+				requestLog(), getResourcePath(), prepareParams(params, transaction), input, outputMimetypes);
 	}
 
 	@Override
@@ -125,7 +125,7 @@ class ResourceServicesImpl
 	}
 	@Override
 	public <R extends AbstractReadHandle> R delete(RequestParameters params, Transaction transaction, R output) {
-		return services.deleteResource(requestLogger,
+		return services.deleteResource(requestLog(),
 				getResourcePath(), prepareParams(params, transaction), output);
 	}
 
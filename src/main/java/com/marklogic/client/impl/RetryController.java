@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.DatabaseClientFactory.RetryPolicy;
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.RequestMetrics.Operation;
+import com.marklogic.client.RequestMetrics.RequestListener;
+
+/**
+ * RetryController applies a retry policy to the requests of a client,
+ * deciding whether to retry and how long to wait, and opens the circuit
+ * after consecutive failures observed through the request metrics.
+ * The circuit covers every request of the client, so a cluster client
+ * never opens it; otherwise one failing host would stop requests
+ * to the healthy hosts.
+ */
+class RetryController implements RequestListener {
+	static final private Logger logger = LoggerFactory.getLogger(RetryController.class);
+
+	private final RequestMetricsImpl metrics;
+
+	// copied from the policy so later changes to the policy have no effect
+	private final EnumMap<Operation, Integer> minRetries =
+		new EnumMap<Operation, Integer>(Operation.class);
+	private final EnumMap<Operation, Long>    maxRetryTimes =
+		new EnumMap<Operation, Long>(Operation.class);
+	private final int   minDelay;
+	private final int   maxDelay;
+	private final int[] retryStatuses;
+	private final int   failureThreshold;
+	private final long  openInterval;
+
+	private final Random        random         = new Random();
+	private final AtomicInteger failures       = new AtomicInteger();
+	// the time when the trial request started or -1 if no trial is pending
+	private final AtomicLong    trialStartedAt = new AtomicLong(-1);
+	// the time when the circuit opened or -1 while the circuit is closed
+	private volatile long       openedAt       = -1;
+
+	RetryController(RetryPolicy policy, RequestMetricsImpl metrics, boolean isSingleHost) {
+		super();
+		this.metrics = metrics;
+		for (Operation operation: Operation.values()) {
+			minRetries.put(operation,    policy.getMinRetries(operation));
+			maxRetryTimes.put(operation, policy.getMaxRetryTime(operation));
+		}
+		this.minDelay         = policy.getMinDelay();
+		this.maxDelay         = Math.max(policy.getMinDelay(), policy.getMaxDelay());
+		this.retryStatuses    = policy.getRetryStatuses();
+		this.failureThreshold = isSingleHost ? policy.getFailureThreshold() : 0;
+		if (!isSingleHost && policy.getFailureThreshold() > 0 && logger.isWarnEnabled())
+			logger.warn("Ignoring failure threshold of retry policy for cluster client");
+		this.openInterval     = policy.getOpenInterval();
+	}
+
+	// called before each attempt, failing fast before the first attempt
+	// while the circuit is open
+	boolean canRetry(Operation operation, int retry, long startTime) {
+		if (retry == 0) {
+			checkCircuit(operation);
+			return true;
+		}
+		if (openedAt != -1)
+			return false;
+		if (retry <= minRetries.get(operation) ||
+				(System.currentTimeMillis() - startTime) < maxRetryTimes.get(operation)) {
+			metrics.getMetricsImpl(operation).retried();
+			return true;
+		}
+		return false;
+	}
+	private void checkCircuit(Operation operation) {
+		long opened = openedAt;
+		if (opened == -1)
+			return;
+		// after the open interval, one request tries the server; a trial
+		// that failed without completing a request expires after the interval
+		long now = System.currentTimeMillis();
+		if (now - opened >= openInterval) {
+			long trialStart = trialStartedAt.get();
+			if ((trialStart == -1 || now - trialStart >= openInterval) &&
+					trialStartedAt.compareAndSet(trialStart, now))
+				return;
+		}
+
+		metrics.getMetricsImpl(operation).rejected();
+		throw new FailedRequestException(
+				"Service unavailable after "+failureThreshold+
+				" consecutive failed requests; retrying in "+
+				Math.max(0, opened + openInterval - System.currentTimeMillis())/1000+" seconds");
+	}
+
+	boolean isRetryStatus(int status) {
+		for (int retryStatus: retryStatuses) {
+			if (status == retryStatus)
+				return true;
+		}
+		return false;
+	}
+
+	// the Retry-After header gives either seconds or an HTTP date; returns
+	// the seconds to wait or -1 if the header is missing or can't be parsed
+	static int parseRetryAfter(String retryAfter) {
+		if (retryAfter == null)
+			return -1;
+		String value = retryAfter.trim();
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+		}
+		try {
+			Date date = DateUtils.parseDate(value);
+			long wait = date.getTime() - System.currentTimeMillis();
+			return (wait <= 0) ? 0 : (int) Math.min(Integer.MAX_VALUE, (wait + 999) / 1000);
+		} catch (DateParseException e) {
+			logger.debug("Ignoring invalid Retry-After header: {}", value);
+			return -1;
+		}
+	}
+
+	// a random delay with a ceiling that doubles with each retry so
+	// threads refused together spread out their retries
+	int getDelay(int retry, int retryAfter) {
+		int ceiling = (retry >= 30) ? maxDelay :
+			(int) Math.min(maxDelay, (long) minDelay << (retry + 1));
+		int delay = minDelay + random.nextInt(ceiling - minDelay + 1);
+		if (retryAfter > 0)
+			delay = Math.max(delay, (int) Math.min(maxDelay, retryAfter * 1000L));
+		return delay;
+	}
+
+	@Override
+	public void requestCompleted(Operation operation, int status, long latencyNanos,
+			long bytesSent, long bytesReceived) {
+		if (failureThreshold == 0)
+			return;
+
+		if (status < 0 || isRetryStatus(status)) {
+			int count = failures.incrementAndGet();
+			boolean isTrial = trialStartedAt.get() != -1;
+			if (count >= failureThreshold || isTrial) {
+				if (openedAt == -1 && logger.isWarnEnabled())
+					logger.warn("Opening circuit after {} consecutive failed requests", count);
+				openedAt = System.currentTimeMillis();
+				trialStartedAt.set(-1);
+			}
+		} else {
+			failures.set(0);
+			if (openedAt != -1) {
+				logger.info("Closing circuit after successful request");
+				openedAt = -1;
+				trialStartedAt.set(-1);
+			}
+		}
+	}
+}
@@ -97,7 +97,7 @@ public class RuleManagerImpl
 		}
 
 		String mimetype = ruleFormat.getDefaultMimetype();
-		ruleBase.receiveContent(services.getValue(requestLogger, RULES_BASE,
+		ruleBase.receiveContent(services.getValue(requestLog(), RULES_BASE,
 				ruleName, false, mimetype, ruleBase.receiveAs()));
 
 		return ruleHandle;
@@ -165,7 +165,7 @@ public class RuleManagerImpl
 
 		String mimetype = ruleFormat.getDefaultMimetype();
 
-		services.putValue(requestLogger, RULES_BASE, ruleName, mimetype, ruleBase);
+		services.putValue(requestLog(), RULES_BASE, ruleName, mimetype, ruleBase);
 	}
 
 	@Override
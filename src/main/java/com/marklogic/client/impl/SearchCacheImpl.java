@@ -0,0 +1,251 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.marklogic.client.query.QueryDefinition;
+import com.marklogic.client.query.QueryManager.QueryView;
+import com.marklogic.client.query.RawQueryDefinition;
+import com.marklogic.client.query.SearchCache;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.query.StructuredQueryDefinition;
+
+public class SearchCacheImpl implements SearchCache {
+	// one search response with the scope of the search
+	static class Entry {
+		final byte[]   response;
+		final String[] collections;
+		final String   directory;
+		final long     createdAt;
+
+		Entry(QueryDefinition querydef, byte[] response) {
+			this.response    = response;
+			this.collections = querydef.getCollections();
+			this.directory   = querydef.getDirectory();
+			this.createdAt   = System.currentTimeMillis();
+		}
+
+		boolean inCollection(String collection) {
+			if (collections == null || collections.length == 0)
+				return true;
+			for (String candidate: collections) {
+				if (collection.equals(candidate))
+					return true;
+			}
+			return false;
+		}
+		boolean inDirectory(String changed) {
+			return directory == null || directory.startsWith(changed) ||
+				changed.startsWith(directory);
+		}
+	}
+
+	private final long    maxBytes;
+	private volatile long maxAge;
+
+	// in access order so the least recently used response is first
+	private final LinkedHashMap<String, Entry> entries =
+		new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long currentBytes = 0;
+
+	private final AtomicLong hits      = new AtomicLong();
+	private final AtomicLong misses    = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public SearchCacheImpl(long maxBytes, long maxAge, TimeUnit unit) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Search cache must hold at least one byte");
+		this.maxBytes = maxBytes;
+		setMaxAge(maxAge, unit);
+	}
+
+	// identifies a search by everything sent in the request or null
+	// if the search can't be identified from the query definition
+	static String makeKey(QueryDefinition querydef, String mimetype,
+			long start, long pageLength, QueryView view) {
+		if (querydef.getResponseTransform() != null)
+			return null;
+
+		StringBuilder key = new StringBuilder();
+		appendField(key, mimetype);
+		key.append(start).append('\n');
+		key.append(pageLength).append('\n');
+		key.append(view).append('\n');
+		appendField(key, querydef.getOptionsName());
+		appendField(key, querydef.getDirectory());
+		String[] collections = querydef.getCollections();
+		if (collections == null) {
+			key.append("-\n");
+		} else {
+			key.append(collections.length).append('\n');
+			for (String collection: collections) {
+				appendField(key, collection);
+			}
+		}
+
+		if (querydef instanceof RawQueryDefinition) {
+			return null;
+		} else if (querydef instanceof StringQueryDefinition) {
+			key.append("string\n").append(((StringQueryDefinition) querydef).getCriteria());
+		} else if (querydef instanceof StructuredQueryDefinition) {
+			key.append("structured\n").append(((StructuredQueryDefinition) querydef).serialize());
+		} else if (querydef instanceof CombinedQueryDefinition) {
+			key.append("combined\n").append(((CombinedQueryDefinition) querydef).serialize());
+		} else {
+			return null;
+		}
+		return key.toString();
+	}
+	// prefixes the value with its length so no two sequences of values,
+	// such as the collections "a b" and "a","b" or null and "null", share a key
+	private static void appendField(StringBuilder key, String value) {
+		if (value == null) {
+			key.append("-\n");
+			return;
+		}
+		key.append(value.length()).append(':').append(value).append('\n');
+	}
+
+	// returns the response if it is younger than the maximum age
+	byte[] get(String key) {
+		synchronized(entries) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				if (System.currentTimeMillis() - entry.createdAt < maxAge) {
+					hits.incrementAndGet();
+					return entry.response;
+				}
+				remove(key);
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+	void put(String key, QueryDefinition querydef, byte[] response) {
+		if (response == null || response.length > maxBytes)
+			return;
+
+		synchronized(entries) {
+			remove(key);
+			entries.put(key, new Entry(querydef, response));
+			currentBytes += response.length;
+
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (currentBytes > maxBytes && eldest.hasNext()) {
+				Entry evicted = eldest.next();
+				eldest.remove();
+				currentBytes -= evicted.response.length;
+				evictions.incrementAndGet();
+			}
+		}
+	}
+	// must be called while synchronized on the entries
+	private void remove(String key) {
+		Entry previous = entries.remove(key);
+		if (previous != null)
+			currentBytes -= previous.response.length;
+	}
+
+	@Override
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+	@Override
+	public long getCurrentBytes() {
+		synchronized(entries) {
+			return currentBytes;
+		}
+	}
+	@Override
+	public int getResponseCount() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	@Override
+	public long getMaxAge(TimeUnit unit) {
+		return unit.convert(maxAge, TimeUnit.MILLISECONDS);
+	}
+	@Override
+	public void setMaxAge(long age, TimeUnit unit) {
+		if (age < 0)
+			throw new IllegalArgumentException("Maximum age cannot be negative: "+age);
+		this.maxAge = TimeUnit.MILLISECONDS.convert(age, unit);
+	}
+
+	@Override
+	public long getHitCount() {
+		return hits.get();
+	}
+	@Override
+	public long getMissCount() {
+		return misses.get();
+	}
+	@Override
+	public double getHitRate() {
+		long hitCount   = hits.get();
+		long totalCount = hitCount + misses.get();
+		return (totalCount == 0) ? 0 : (double) hitCount / totalCount;
+	}
+	@Override
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public void invalidateCollection(String collection) {
+		if (collection == null)
+			throw new IllegalArgumentException("Cannot invalidate null collection");
+		synchronized(entries) {
+			Iterator<Map.Entry<String, Entry>> itr = entries.entrySet().iterator();
+			while (itr.hasNext()) {
+				Entry entry = itr.next().getValue();
+				if (entry.inCollection(collection)) {
+					itr.remove();
+					currentBytes -= entry.response.length;
+				}
+			}
+		}
+	}
+	@Override
+	public void invalidateDirectory(String directory) {
+		if (directory == null)
+			throw new IllegalArgumentException("Cannot invalidate null directory");
+		synchronized(entries) {
+			Iterator<Map.Entry<String, Entry>> itr = entries.entrySet().iterator();
+			while (itr.hasNext()) {
+				Entry entry = itr.next().getValue();
+				if (entry.inDirectory(directory)) {
+					itr.remove();
+					currentBytes -= entry.response.length;
+				}
+			}
+		}
+	}
+	@Override
+	public void clear() {
+		synchronized(entries) {
+			entries.clear();
+			currentBytes = 0;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import com.marklogic.client.FailedRequestException;
 import com.marklogic.client.ForbiddenUserException;
 import com.marklogic.client.Transaction;
 import com.marklogic.client.eval.EvalResultIterator;
+import com.marklogic.client.eval.PreparedServerEvaluation;
 import com.marklogic.client.eval.ServerEvaluationCall;
 import com.marklogic.client.io.marker.AbstractReadHandle;
 import com.marklogic.client.io.marker.AbstractWriteHandle;
@@ -43,11 +44,23 @@ public class ServerEvaluationCallImpl
     private String                   transactionId;
     private HashMap<String, Object>  vars = new HashMap<String, Object>();
     private EditableNamespaceContext namespaceContext;
+    private boolean                  streaming = false;
+    private PreparedServerEvaluationImpl prepared;
 
     public ServerEvaluationCallImpl(RESTServices services, HandleFactoryRegistry handleRegistry) {
         this.services = services;
         this.handleRegistry = handleRegistry;
     }
+    ServerEvaluationCallImpl(RESTServices services, HandleFactoryRegistry handleRegistry,
+        PreparedServerEvaluationImpl prepared)
+    {
+        this(services, handleRegistry);
+        this.prepared         = prepared;
+        this.evalContext      = prepared.getEvalContext();
+        this.namespaceContext = prepared.getNamespaceContext();
+        this.streaming        = prepared.isStreaming();
+        this.requestLogger    = prepared.getRequestLogger();
+    }
 
     @Override
     public ServerEvaluationCall xquery(String xquery) {
@@ -160,12 +173,25 @@ public class ServerEvaluationCallImpl
     public EvalResultIterator eval() 
         throws ForbiddenUserException, FailedRequestException
     {
-        return services.postEvalInvoke(requestLogger, code, modulePath, evalContext,
-            vars, namespaceContext, transactionId);
+        if ( prepared != null ) {
+            return services.postEvalInvoke(requestLog(), prepared.getPath(),
+                prepared.getEncodedCode(), vars, namespaceContext, transactionId, streaming);
+        }
+        return services.postEvalInvoke(requestLog(), PreparedServerEvaluationImpl.getPath(evalContext),
+            PreparedServerEvaluationImpl.encodeCode(evalContext, code, modulePath),
+            vars, namespaceContext, transactionId, streaming);
+    }
+
+    @Override
+    public PreparedServerEvaluation prepare() {
+        if ( prepared != null ) return prepared;
+        return new PreparedServerEvaluationImpl(services, handleRegistry, requestLogger,
+            evalContext, code, modulePath, namespaceContext, streaming);
     }
 
     @Override
     public ServerEvaluationCall addNamespace(String prefix, String namespaceURI) {
+        checkNotPrepared();
         if ( namespaceContext == null ) namespaceContext = new EditableNamespaceContext();
         namespaceContext.put(prefix, namespaceURI);
         return this;
@@ -173,10 +199,25 @@ public class ServerEvaluationCallImpl
 
     @Override
     public ServerEvaluationCall namespaceContext(EditableNamespaceContext namespaces) {
+        checkNotPrepared();
         this.namespaceContext = namespaces;
         return this;
     }
 
+    @Override
+    public ServerEvaluationCall streaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    // the namespaces of a prepared call are shared with the other calls
+    private void checkNotPrepared() {
+        if ( prepared != null ) {
+            throw new IllegalStateException("You cannot change the namespaces of a prepared " +
+                    "ServerEvaluationCall.  Add the namespaces before calling prepare.");
+        }
+    }
+
     private void setContext(Context context) {
         if ( evalContext == null ) {
             evalContext = context;
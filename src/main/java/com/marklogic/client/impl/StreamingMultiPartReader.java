@@ -0,0 +1,406 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.annotation.Annotation;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Providers;
+
+import com.marklogic.client.MarkLogicIOException;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.multipart.BodyPart;
+
+/**
+ * Parses a multipart body on demand, returning each part as the caller
+ * iterates instead of reading every part before the first is available.
+ * The content of a part is only readable until the next part is requested
+ * by hasNext() or next() (unless the part was buffered), so the memory held
+ * by the reader is
+ * bounded by its buffer regardless of the number or size of the parts.
+ */
+public class StreamingMultiPartReader implements Iterator<BodyPart>, Closeable {
+	static final private int BUFFER_SIZE = 8 * 1024;
+
+	static final private Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+	private InputStream in;
+	private Providers   providers;
+	private byte[]      delimiter;
+	private byte[]      buffer;
+	private int         pos      = 0;
+	private int         limit    = 0;
+	private boolean     eof      = false;
+	private boolean     finished = false;
+	// whether the last part ended at a delimiter instead of the end of input
+	private boolean     foundDelimiter = false;
+
+	private PartInputStream  currentStream;
+	private StreamedBodyPart pendingPart;
+
+	public StreamingMultiPartReader(InputStream in, String boundary, Providers providers) {
+		super();
+		if (in == null)
+			throw new IllegalArgumentException("Cannot read multipart from null input stream");
+		if (boundary == null || boundary.length() == 0)
+			throw new IllegalArgumentException("Cannot read multipart without boundary");
+		this.in        = in;
+		this.providers = providers;
+		this.delimiter = toBytes("\r\n--"+boundary);
+		this.buffer    = new byte[Math.max(BUFFER_SIZE, 4 * delimiter.length)];
+
+		// the first delimiter can start the body without a preceding line break
+		buffer[limit++] = '\r';
+		buffer[limit++] = '\n';
+
+		// treat any preamble as a part that is skipped
+		currentStream = new PartInputStream();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (pendingPart != null)
+			return true;
+		if (finished)
+			return false;
+
+		try {
+			if (currentStream != null) {
+				currentStream.skipRemaining();
+				currentStream = null;
+			}
+			if (!foundDelimiter) {
+				finished = true;
+				return false;
+			}
+
+			// a close delimiter ends the multipart body
+			if (ensure(2) && buffer[pos] == '-' && buffer[pos + 1] == '-') {
+				pos += 2;
+				finished = true;
+				return false;
+			}
+			// discard transport padding after the delimiter
+			readLine();
+
+			InBoundHeaders headers = new InBoundHeaders();
+			String lastName = null;
+			for (String line = readLine(); line != null && line.length() > 0; line = readLine()) {
+				char first = line.charAt(0);
+				if ((first == ' ' || first == '\t') && lastName != null) {
+					List<String> values = headers.get(lastName);
+					int last = values.size() - 1;
+					values.set(last, values.get(last) + " " + line.trim());
+					continue;
+				}
+				int colon = line.indexOf(':');
+				if (colon <= 0)
+					continue;
+				lastName = line.substring(0, colon).trim();
+				headers.add(lastName, line.substring(colon + 1).trim());
+			}
+
+			pendingPart = new StreamedBodyPart(headers, new PartInputStream());
+			return true;
+		} catch (IOException e) {
+			throw new MarkLogicIOException("Could not read next part of multipart response", e);
+		}
+	}
+
+	@Override
+	public BodyPart next() {
+		if (!hasNext())
+			throw new NoSuchElementException("No more parts in multipart response");
+
+		StreamedBodyPart part = pendingPart;
+		pendingPart   = null;
+		currentStream = part.stream;
+		return part;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Cannot remove a part from a streamed multipart response");
+	}
+
+	@Override
+	public void close() throws IOException {
+		finished      = true;
+		pendingPart   = null;
+		currentStream = null;
+		if (in != null) {
+			in.close();
+			in = null;
+		}
+	}
+
+	private boolean ensure(int count) throws IOException {
+		while (limit - pos < count) {
+			if (eof || !fill())
+				return false;
+		}
+		return true;
+	}
+	private boolean fill() throws IOException {
+		if (eof || in == null)
+			return false;
+		if (pos > 0) {
+			int remaining = limit - pos;
+			if (remaining > 0)
+				System.arraycopy(buffer, pos, buffer, 0, remaining);
+			pos   = 0;
+			limit = remaining;
+		}
+		int count = in.read(buffer, limit, buffer.length - limit);
+		if (count < 0) {
+			eof = true;
+			return false;
+		}
+		limit += count;
+		return true;
+	}
+	private String readLine() throws IOException {
+		ByteArrayOutputStream line = null;
+		while (true) {
+			if (pos == limit && !fill()) {
+				return (line == null) ? null : toLine(line.toByteArray());
+			}
+			int start = pos;
+			while (pos < limit && buffer[pos] != '\n')
+				pos++;
+			if (pos < limit) {
+				int end = pos++;
+				if (line == null) {
+					return toLine(buffer, start, end);
+				}
+				line.write(buffer, start, end - start);
+				return toLine(line.toByteArray());
+			}
+			if (line == null)
+				line = new ByteArrayOutputStream();
+			line.write(buffer, start, pos - start);
+		}
+	}
+	private String toLine(byte[] bytes) {
+		return toLine(bytes, 0, bytes.length);
+	}
+	private String toLine(byte[] bytes, int start, int end) {
+		if (end > start && bytes[end - 1] == '\r')
+			end--;
+		try {
+			return new String(bytes, start, end - start, "ISO-8859-1");
+		} catch (UnsupportedEncodingException e) {
+			throw new MarkLogicIOException(e);
+		}
+	}
+	private int indexOfDelimiter() {
+		int last = limit - delimiter.length;
+		byte first = delimiter[0];
+		search: for (int i = pos; i <= last; i++) {
+			if (buffer[i] != first)
+				continue;
+			for (int j = 1; j < delimiter.length; j++) {
+				if (buffer[i + j] != delimiter[j])
+					continue search;
+			}
+			return i;
+		}
+		return -1;
+	}
+	static private byte[] toBytes(String value) {
+		try {
+			return value.getBytes("ISO-8859-1");
+		} catch (UnsupportedEncodingException e) {
+			throw new MarkLogicIOException(e);
+		}
+	}
+	static private MediaType parseMediaType(MultivaluedMap<String, String> headers) {
+		String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+		if (contentType == null)
+			return MediaType.TEXT_PLAIN_TYPE;
+		return MediaType.valueOf(contentType);
+	}
+
+	/**
+	 * Reads the content of the current part, ending at the next delimiter.
+	 */
+	private class PartInputStream extends InputStream {
+		private boolean ended     = false;
+		private int     available = 0;
+
+		private int scan() throws IOException {
+			if (ended)
+				return -1;
+			if (available > 0)
+				return available;
+			while (true) {
+				int found = indexOfDelimiter();
+				if (found > pos) {
+					available = found - pos;
+					return available;
+				} else if (found == pos) {
+					pos += delimiter.length;
+					ended = true;
+					foundDelimiter = true;
+					return -1;
+				}
+				// bytes that cannot be the start of a delimiter are content
+				int safe = limit - pos - (delimiter.length - 1);
+				if (safe > 0) {
+					available = safe;
+					return available;
+				}
+				if (!fill()) {
+					if (limit > pos) {
+						available = limit - pos;
+						return available;
+					}
+					ended = true;
+					foundDelimiter = false;
+					return -1;
+				}
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (scan() < 0)
+				return -1;
+			available--;
+			return buffer[pos++] & 0xff;
+		}
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			int count = scan();
+			if (count < 0)
+				return -1;
+			count = Math.min(count, len);
+			System.arraycopy(buffer, pos, b, off, count);
+			pos       += count;
+			available -= count;
+			return count;
+		}
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = 0;
+			while (skipped < n) {
+				int count = scan();
+				if (count < 0)
+					break;
+				count = (int) Math.min(count, n - skipped);
+				pos       += count;
+				available -= count;
+				skipped   += count;
+			}
+			return skipped;
+		}
+		@Override
+		public int available() throws IOException {
+			return ended ? 0 : available;
+		}
+		void skipRemaining() throws IOException {
+			while (scan() >= 0) {
+				pos       += available;
+				available  = 0;
+			}
+		}
+	}
+
+	/**
+	 * A body part whose content is read from the multipart body
+	 * when the entity is requested.
+	 */
+	public class StreamedBodyPart extends BodyPart {
+		private PartInputStream stream;
+		private byte[]          content;
+
+		StreamedBodyPart(InBoundHeaders headers, PartInputStream stream) {
+			super(parseMediaType(headers));
+			this.stream = stream;
+			MultivaluedMap<String, String> partHeaders = getHeaders();
+			for (Map.Entry<String, List<String>> entry: headers.entrySet()) {
+				partHeaders.put(entry.getKey(), entry.getValue());
+			}
+			setProviders(providers);
+		}
+
+		/**
+		 * Reads the remaining content of the part into memory so
+		 * the content stays available after the next part is requested.
+		 */
+		public void buffer() {
+			if (content != null)
+				return;
+			if (stream != currentStream)
+				throw new IllegalStateException("Cannot buffer part after reading subsequent parts");
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] bytes = new byte[BUFFER_SIZE];
+				int count = 0;
+				while ((count = stream.read(bytes, 0, bytes.length)) != -1) {
+					out.write(bytes, 0, count);
+				}
+				content = out.toByteArray();
+			} catch (IOException e) {
+				throw new MarkLogicIOException("Could not buffer part of multipart response", e);
+			}
+		}
+
+		@Override
+		public <T> T getEntityAs(Class<T> clazz) {
+			InputStream entityStream = null;
+			if (content != null) {
+				entityStream = new ByteArrayInputStream(content);
+			} else if (stream == currentStream) {
+				entityStream = stream;
+			} else {
+				throw new IllegalStateException(
+						"Part content is no longer available after reading subsequent parts");
+			}
+
+			if (getProviders() == null)
+				throw new IllegalStateException("No providers for reading streamed part");
+
+			MediaType mediaType = getMediaType();
+			MessageBodyReader<T> reader = getProviders().getMessageBodyReader(
+					clazz, clazz, NO_ANNOTATIONS, mediaType);
+			if (reader == null)
+				throw new IllegalArgumentException("No available MessageBodyReader for class " +
+					clazz.getName() + " and media type " + mediaType);
+
+			try {
+				return reader.readFrom(clazz, clazz, NO_ANNOTATIONS, mediaType, getHeaders(), entityStream);
+			} catch (IOException e) {
+				throw new MarkLogicIOException("Could not read part of multipart response", e);
+			}
+		}
+	}
+}
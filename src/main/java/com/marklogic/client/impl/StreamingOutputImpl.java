@@ -35,10 +35,15 @@ class StreamingOutputImpl implements StreamingOutput {
 
 	public void write(OutputStream out) throws IOException {
 		if (logger != null) {
-			OutputStream tee = logger.getPrintStream();
-			long         max = logger.getContentMax();
+			boolean      isAsync = logger instanceof AsyncRequestLoggerImpl;
+			OutputStream tee = isAsync ?
+					((AsyncRequestLoggerImpl) logger).newContentTee() : logger.getPrintStream();
+			long         max = isAsync ?
+					Math.min(logger.getContentMax(), AsyncRequestLoggerImpl.RECORD_MAX) :
+					logger.getContentMax();
 			if (tee != null && max > 0) {
 				handle.write(new OutputStreamTee(out, tee, max));
+				tee.flush();
 
 				return;
 			}
@@ -111,7 +111,7 @@ class TransformExtensionsImpl
 		}
 
 		listBase.receiveContent(
-				services.getValues(requestLogger, "config/transforms", extraParams,
+				services.getValues(requestLog(), "config/transforms", extraParams,
 						listFormat.getDefaultMimetype(), listBase.receiveAs())
 				);
 
@@ -194,7 +194,7 @@ class TransformExtensionsImpl
 			HandleAccessor.checkHandle(sourceHandle, "transform");
 
 		sourceBase.receiveContent(
-				services.getValue(requestLogger, "config/transforms", transformName,
+				services.getValue(requestLog(), "config/transforms", transformName,
 						true, sourceMimetype, sourceBase.receiveAs())
 				);
 
@@ -372,7 +372,7 @@ class TransformExtensionsImpl
 			}
 		}
 
-		services.putValue(requestLogger, "config/transforms", transformName, extraParams,
+		services.putValue(requestLog(), "config/transforms", transformName, extraParams,
 				sourceMimetype, sourceBase);
 	}
 
@@ -385,6 +385,6 @@ class TransformExtensionsImpl
 		if (logger.isInfoEnabled())
 			logger.info("Deleting transform for {}", transformName);
 
-		services.deleteValue(requestLogger, "config/transforms", transformName);
+		services.deleteValue(requestLog(), "config/transforms", transformName);
 	}
 }
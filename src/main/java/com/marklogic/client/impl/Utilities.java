@@ -55,6 +55,7 @@ import com.marklogic.client.io.marker.XMLWriteHandle;
 
 public final class Utilities {
 	private static DocumentBuilderFactory factory;
+	private static volatile XMLOutputFactory repairingOutputFactory;
 
 	private static DocumentBuilderFactory getFactory()
 			throws ParserConfigurationException {
@@ -63,6 +64,22 @@ public final class Utilities {
 		return factory;
 	}
 
+	/**
+	 * Returns a shared output factory that repairs namespaces.  Looking up
+	 * the StAX implementation is expensive, and a configured factory can
+	 * create writers on any thread, so callers must not change the properties
+	 * of the shared factory.
+	 * @return	the output factory
+	 */
+	public static XMLOutputFactory getRepairingOutputFactory() {
+		if (repairingOutputFactory == null) {
+			XMLOutputFactory factory = XMLOutputFactory.newInstance();
+			factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+			repairingOutputFactory = factory;
+		}
+		return repairingOutputFactory;
+	}
+
 	private static DocumentBuilderFactory makeDocumentBuilderFactory()
 			throws ParserConfigurationException {
 		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -334,10 +351,7 @@ public final class Utilities {
 		}
 
 		try {
-			XMLOutputFactory factory = XMLOutputFactory.newInstance();
-			factory.setProperty("javax.xml.stream.isRepairingNamespaces", true);
-
-			XMLEventWriter eventWriter = factory.createXMLEventWriter(out, "UTF-8");
+			XMLEventWriter eventWriter = getRepairingOutputFactory().createXMLEventWriter(out, "UTF-8");
 
 			for (XMLEvent event: events) {
 				eventWriter.add(event);
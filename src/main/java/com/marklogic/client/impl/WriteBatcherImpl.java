@@ -0,0 +1,379 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.marklogic.client.document.DocumentWriteSet;
+import com.marklogic.client.document.ServerTransform;
+import com.marklogic.client.document.WriteBatcher;
+import com.marklogic.client.io.marker.AbstractWriteHandle;
+import com.marklogic.client.io.marker.ContentHandle;
+import com.marklogic.client.io.marker.DocumentMetadataWriteHandle;
+
+public class WriteBatcherImpl implements WriteBatcher {
+	static final private Logger logger = LoggerFactory.getLogger(WriteBatcherImpl.class);
+
+	static final private AtomicInteger batcherCount = new AtomicInteger();
+
+	private DocumentManagerImpl<?, ?> docMgr;
+	private int                       batchSize   = 100;
+	private int                       threadCount = 4;
+	private volatile ServerTransform  transform;
+
+	private volatile BatchListener        batchListener;
+	private volatile BatchFailureListener failureListener;
+
+	private ThreadPoolExecutor executor;
+	private DocumentWriteSet   currentSet;
+	private long               batchCount = 0;
+	private boolean            released   = false;
+
+	private final Object completionLock = new Object();
+	private int          activeBatches  = 0;
+
+	private AtomicLong    batchesWritten   = new AtomicLong();
+	private AtomicLong    documentsWritten = new AtomicLong();
+	private AtomicLong    batchesFailed    = new AtomicLong();
+	private AtomicLong    documentsFailed  = new AtomicLong();
+	private volatile long startTime        = -1;
+	private volatile long lastCompletion   = -1;
+
+	WriteBatcherImpl(DocumentManagerImpl<?, ?> docMgr) {
+		super();
+		this.docMgr = docMgr;
+	}
+
+	@Override
+	public synchronized int getBatchSize() {
+		return batchSize;
+	}
+	@Override
+	public synchronized void setBatchSize(int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive");
+		if (executor != null)
+			throw new IllegalStateException("Cannot change batch size after adding documents");
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public synchronized int getThreadCount() {
+		return threadCount;
+	}
+	@Override
+	public synchronized void setThreadCount(int threadCount) {
+		if (threadCount <= 0)
+			throw new IllegalArgumentException("Thread count must be positive");
+		if (executor != null)
+			throw new IllegalStateException("Cannot change thread count after adding documents");
+		this.threadCount = threadCount;
+	}
+
+	@Override
+	public ServerTransform getTransform() {
+		return transform;
+	}
+	@Override
+	public void setTransform(ServerTransform transform) {
+		this.transform = transform;
+	}
+
+	@Override
+	public void setBatchListener(BatchListener listener) {
+		this.batchListener = listener;
+	}
+	@Override
+	public void setBatchFailureListener(BatchFailureListener listener) {
+		this.failureListener = listener;
+	}
+
+	@Override
+	public WriteBatcher add(String uri, AbstractWriteHandle contentHandle) {
+		return add(uri, null, contentHandle);
+	}
+	@Override
+	public WriteBatcher add(String uri, DocumentMetadataWriteHandle metadataHandle,
+			AbstractWriteHandle contentHandle) {
+		if (uri == null)
+			throw new IllegalArgumentException("Cannot add document without uri");
+		if (contentHandle == null)
+			throw new IllegalArgumentException("Cannot add document without content: "+uri);
+
+		WriteBatchImpl batch = null;
+		synchronized(this) {
+			if (released)
+				throw new IllegalStateException("Cannot add documents after release");
+			if (executor == null)
+				start();
+			if (currentSet == null)
+				currentSet = docMgr.newWriteSet();
+			currentSet.add(uri, metadataHandle, contentHandle);
+			if (currentSet.size() >= batchSize)
+				batch = takeBatch();
+		}
+		if (batch != null)
+			submit(batch);
+
+		return this;
+	}
+	@Override
+	public WriteBatcher addAs(String uri, Object content) {
+		return addAs(uri, null, content);
+	}
+	@Override
+	public WriteBatcher addAs(String uri, DocumentMetadataWriteHandle metadataHandle, Object content) {
+		if (content == null)
+			throw new IllegalArgumentException("Cannot add document without content: "+uri);
+
+		AbstractWriteHandle handle = null;
+		Class<?> as = content.getClass();
+		if (AbstractWriteHandle.class.isAssignableFrom(as)) {
+			handle = (AbstractWriteHandle) content;
+		} else {
+			ContentHandle<?> contentHandle = docMgr.getHandleRegistry().makeHandle(as);
+			Utilities.setHandleContent(contentHandle, content);
+			handle = contentHandle;
+		}
+
+		return add(uri, metadataHandle, handle);
+	}
+
+	@Override
+	public void flush() {
+		WriteBatchImpl batch = null;
+		synchronized(this) {
+			if (currentSet == null || currentSet.size() == 0)
+				return;
+			batch = takeBatch();
+		}
+		submit(batch);
+	}
+
+	@Override
+	public boolean awaitCompletion() {
+		return awaitCompletion(-1, TimeUnit.MILLISECONDS);
+	}
+	@Override
+	public boolean awaitCompletion(long timeout, TimeUnit unit) {
+		long deadline = (timeout < 0) ? -1 :
+			System.currentTimeMillis() + unit.toMillis(timeout);
+		synchronized(completionLock) {
+			while (activeBatches > 0) {
+				long wait = 0;
+				if (deadline != -1) {
+					wait = deadline - System.currentTimeMillis();
+					if (wait <= 0)
+						return false;
+				}
+				try {
+					completionLock.wait(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void retry(WriteBatch batch) {
+		if (batch == null)
+			throw new IllegalArgumentException("Cannot retry null batch");
+		write(batch.getWriteSet());
+	}
+
+	@Override
+	public void release() {
+		WriteBatchImpl batch = null;
+		synchronized(this) {
+			if (released)
+				return;
+			// refuse new documents before taking the last batch so none are stranded
+			released = true;
+			if (currentSet != null && currentSet.size() > 0)
+				batch = takeBatch();
+		}
+		if (batch != null)
+			submit(batch);
+		awaitCompletion();
+		synchronized(this) {
+			if (executor != null)
+				executor.shutdown();
+		}
+	}
+
+	@Override
+	public long getBatchesWritten() {
+		return batchesWritten.get();
+	}
+	@Override
+	public long getDocumentsWritten() {
+		return documentsWritten.get();
+	}
+	@Override
+	public long getBatchesFailed() {
+		return batchesFailed.get();
+	}
+	@Override
+	public long getDocumentsFailed() {
+		return documentsFailed.get();
+	}
+	@Override
+	public double getDocumentsPerSecond() {
+		long start = startTime;
+		long end   = lastCompletion;
+		if (start == -1 || end <= start)
+			return 0;
+		return documentsWritten.get() * 1000.0 / (end - start);
+	}
+
+	// must be called while synchronized on the batcher
+	private void start() {
+		final String threadPrefix = "marklogic-write-batcher-"+batcherCount.incrementAndGet()+"-";
+		executor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<Runnable>(2 * threadCount),
+			new ThreadFactory() {
+				private AtomicInteger threadNumber = new AtomicInteger();
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, threadPrefix+threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			},
+			// waits for space in the queue instead of rejecting the batch
+			new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable runnable, ThreadPoolExecutor pool) {
+					if (pool.isShutdown())
+						throw new RejectedExecutionException("Write batcher has been released");
+					try {
+						pool.getQueue().put(runnable);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("Interrupted while waiting to write batch", e);
+					}
+				}
+			});
+		startTime = System.currentTimeMillis();
+	}
+
+	// must be called while synchronized on the batcher
+	// counts the batch as active before the batcher lock is released so
+	// release() cannot shut down the executor with a batch still in hand
+	private WriteBatchImpl takeBatch() {
+		WriteBatchImpl batch = new WriteBatchImpl(++batchCount, currentSet);
+		currentSet = null;
+		synchronized(completionLock) {
+			activeBatches++;
+		}
+		return batch;
+	}
+
+	// the batch must already be counted as active by takeBatch()
+	private void submit(final WriteBatchImpl batch) {
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						writeBatch(batch);
+					} finally {
+						completeBatch();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			completeBatch();
+			throw e;
+		}
+	}
+
+	private void writeBatch(WriteBatchImpl batch) {
+		int size = batch.getWriteSet().size();
+		try {
+			write(batch.getWriteSet());
+		} catch (RuntimeException e) {
+			batchesFailed.incrementAndGet();
+			documentsFailed.addAndGet(size);
+
+			BatchFailureListener listener = failureListener;
+			if (listener == null) {
+				logger.error("Could not write batch "+batch.getBatchNumber(), e);
+				return;
+			}
+			try {
+				listener.batchFailed(batch, e);
+			} catch (RuntimeException listenerError) {
+				logger.error("Failure listener for batch "+batch.getBatchNumber()+" failed", listenerError);
+			}
+			return;
+		}
+
+		BatchListener listener = batchListener;
+		if (listener == null)
+			return;
+		try {
+			listener.batchWritten(batch);
+		} catch (RuntimeException e) {
+			logger.error("Listener for batch "+batch.getBatchNumber()+" failed", e);
+		}
+	}
+
+	private void write(DocumentWriteSet writeSet) {
+		docMgr.write(writeSet, transform, null);
+		batchesWritten.incrementAndGet();
+		documentsWritten.addAndGet(writeSet.size());
+		lastCompletion = System.currentTimeMillis();
+	}
+
+	private void completeBatch() {
+		synchronized(completionLock) {
+			activeBatches--;
+			if (activeBatches == 0)
+				completionLock.notifyAll();
+		}
+	}
+
+	static class WriteBatchImpl implements WriteBatch {
+		private long             batchNumber;
+		private DocumentWriteSet writeSet;
+		WriteBatchImpl(long batchNumber, DocumentWriteSet writeSet) {
+			this.batchNumber = batchNumber;
+			this.writeSet    = writeSet;
+		}
+		@Override
+		public long getBatchNumber() {
+			return batchNumber;
+		}
+		@Override
+		public DocumentWriteSet getWriteSet() {
+			return writeSet;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.io.marker.BinaryReadHandle;
+import com.marklogic.client.io.marker.BinaryWriteHandle;
+import com.marklogic.client.io.marker.ContentHandle;
+import com.marklogic.client.io.marker.ContentHandleFactory;
+import com.marklogic.client.io.marker.GenericReadHandle;
+import com.marklogic.client.io.marker.GenericWriteHandle;
+import com.marklogic.client.io.marker.JSONReadHandle;
+import com.marklogic.client.io.marker.JSONWriteHandle;
+import com.marklogic.client.io.marker.StructureReadHandle;
+import com.marklogic.client.io.marker.StructureWriteHandle;
+import com.marklogic.client.io.marker.TextReadHandle;
+import com.marklogic.client.io.marker.TextWriteHandle;
+import com.marklogic.client.io.marker.XMLReadHandle;
+import com.marklogic.client.io.marker.XMLWriteHandle;
+
+/**
+ * A File Channel Handle transfers document content between the database
+ * and a file channel without holding the content in memory, which suits
+ * large binary documents such as video.
+ *
+ * When writing, the handle sends the content of the channel from the position
+ * of the channel when the channel was assigned to the end of the file.  Because
+ * the handle can send the content again from that position, a write can be
+ * retried.  When reading, the handle transfers the content into the channel
+ * at the current position of the channel and leaves the position after
+ * the content.  Either way, the transfer passes through a small fixed buffer
+ * regardless of the size of the content.
+ *
+ * The application opens the channel, for instance, with the getChannel()
+ * method of a FileInputStream, FileOutputStream, or RandomAccessFile,
+ * and closes the channel when finished with the handle.
+ */
+public class FileChannelHandle
+	extends BaseHandle<InputStream, OutputStreamSender>
+	implements ContentHandle<FileChannel>,
+		BinaryReadHandle, BinaryWriteHandle,
+		GenericReadHandle, GenericWriteHandle,
+		JSONReadHandle, JSONWriteHandle,
+		TextReadHandle, TextWriteHandle,
+		XMLReadHandle, XMLWriteHandle,
+		StructureReadHandle, StructureWriteHandle
+{
+	// the maximum bytes per transfer call, which doesn't size any buffer
+	final static private long TRANSFER_SIZE = 8 * 1024 * 1024;
+
+	private FileChannel content;
+	private long        startPosition = 0;
+
+	/**
+	 * Creates a factory to create a FileChannelHandle instance for a file channel.
+	 * @return	the factory
+	 */
+	static public ContentHandleFactory newFactory() {
+		return new ContentHandleFactory() {
+			@Override
+			public Class<?>[] getHandledClasses() {
+				return new Class<?>[]{ FileChannel.class };
+			}
+			@Override
+			public boolean isHandled(Class<?> type) {
+				return FileChannel.class.isAssignableFrom(type);
+			}
+			@Override
+			public <C> ContentHandle<C> newHandle(Class<C> type) {
+				@SuppressWarnings("unchecked")
+				ContentHandle<C> handle = isHandled(type) ?
+						(ContentHandle<C>) new FileChannelHandle() : null;
+				return handle;
+			}
+		};
+	}
+
+	/**
+	 * Zero-argument constructor.
+	 */
+	public FileChannelHandle() {
+		super();
+		setResendable(true);
+	}
+	/**
+	 * Initializes the handle with a file channel for the content.
+	 * @param content	the file channel
+	 */
+	public FileChannelHandle(FileChannel content) {
+		this();
+		set(content);
+	}
+
+	/**
+	 * Returns the file channel for the content.
+	 * @return	the file channel
+	 */
+	@Override
+	public FileChannel get() {
+		return content;
+	}
+	/**
+	 * Assigns a file channel for the content.  A write sends the content
+	 * from the current position of the channel.
+	 * @param content	the file channel
+	 */
+	@Override
+	public void set(FileChannel content) {
+		try {
+			this.startPosition = (content == null) ? 0 : content.position();
+		} catch (IOException e) {
+			throw new MarkLogicIOException(e);
+		}
+		this.content = content;
+	}
+	/**
+	 * Assigns a file channel for the content and returns the handle
+	 * as a fluent convenience.
+	 * @param content	the file channel
+	 * @return	this handle
+	 */
+	public FileChannelHandle with(FileChannel content) {
+		set(content);
+		return this;
+	}
+
+	/**
+	 * Specifies the format of the content and returns the handle
+	 * as a fluent convenience.
+	 * @param format	the format of the content
+	 * @return	this handle
+	 */
+	public FileChannelHandle withFormat(Format format) {
+		setFormat(format);
+		return this;
+	}
+	/**
+	 * Specifies the mime type of the content and returns the handle
+	 * as a fluent convenience.
+	 * @param mimetype	the mime type of the content
+	 * @return	this handle
+	 */
+	public FileChannelHandle withMimetype(String mimetype) {
+		setMimetype(mimetype);
+		return this;
+	}
+
+	@Override
+	protected Class<InputStream> receiveAs() {
+		return InputStream.class;
+	}
+	@Override
+	protected void receiveContent(InputStream stream) {
+		if (content == null) {
+			throw new IllegalStateException("No file channel to read into");
+		}
+
+		try {
+			ReadableByteChannel source = Channels.newChannel(stream);
+			long position = content.position();
+			long total    = 0;
+			while (true) {
+				long received = content.transferFrom(source, position + total, TRANSFER_SIZE);
+				// a blocking source transfers nothing only at the end of the stream
+				if (received <= 0)
+					break;
+				total += received;
+			}
+			content.position(position + total);
+			setByteLength(total);
+		} catch (IOException e) {
+			throw new MarkLogicIOException(e);
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+	@Override
+	protected OutputStreamSender sendContent() {
+		if (content == null) {
+			throw new IllegalStateException("No file channel to write");
+		}
+
+		final FileChannel channel = content;
+		final long        start   = startPosition;
+		return new OutputStreamSender() {
+			@Override
+			public void write(OutputStream out) throws IOException {
+				WritableByteChannel target = Channels.newChannel(out);
+				long position = start;
+				long end      = channel.size();
+				while (position < end) {
+					long sent = channel.transferTo(position, Math.min(TRANSFER_SIZE, end - position), target);
+					if (sent <= 0)
+						throw new IOException("Could not send file channel at "+position+" of "+end);
+					position += sent;
+				}
+			}
+		};
+	}
+}
@@ -168,7 +168,31 @@ public class InputStreamHandle
 			if (content == null)
 				return null;
 
-			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			// when the length is known, read directly into a buffer of that size
+			// instead of copying from a growing buffer
+			ByteArrayOutputStream buffer = null;
+			long length = getByteLength();
+			if (length >= 0 && length < Integer.MAX_VALUE) {
+				byte[] b = new byte[(int) length];
+				int offset = 0;
+				int len = 0;
+				while (offset < b.length && (len = content.read(b, offset, b.length - offset)) != -1) {
+					offset += len;
+				}
+				int next = (offset < b.length) ? -1 : content.read();
+				if (offset == b.length && next == -1) {
+					content.close();
+					fromBuffer(b);
+					return b;
+				}
+				// the length was wrong, so finish with a growing buffer
+				buffer = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, offset + BUFFER_SIZE));
+				buffer.write(b, 0, offset);
+				if (next != -1)
+					buffer.write(next);
+			} else {
+				buffer = new ByteArrayOutputStream();
+			}
 
 			byte[] b = new byte[BUFFER_SIZE];
 			int len = 0;
@@ -25,7 +25,6 @@ import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -73,6 +72,7 @@ import com.marklogic.client.admin.config.QueryOptions.QueryTuples;
 import com.marklogic.client.admin.config.QueryOptions.QueryValues;
 import com.marklogic.client.admin.config.support.Annotatable;
 import com.marklogic.client.admin.config.support.QueryOptionsConfiguration;
+import com.marklogic.client.impl.JAXBPool;
 import com.marklogic.client.impl.QueryOptionsTransformExtractNS;
 import com.marklogic.client.impl.QueryOptionsTransformInjectNS;
 import com.marklogic.client.io.marker.BufferableHandle;
@@ -118,10 +118,7 @@ public final class QueryOptionsHandle
         pfactory.setNamespaceAware(true);
     }
 
-    private JAXBContext jc;
-	private Marshaller marshaller;
 	private QueryOptions optionsHolder;
-	private Unmarshaller unmarshaller;
 
 	/**
 	 * Construct a new empty QueryOptionsHandle object.
@@ -130,25 +127,6 @@ public final class QueryOptionsHandle
 		super.setFormat(Format.XML);
    		setResendable(true);
 		optionsHolder = new QueryOptions();
-
-        try {
-            SAXParser parser = pfactory.newSAXParser();
-            XMLReader reader = parser.getXMLReader();
-
-            QueryOptionsTransformExtractNS transform = new QueryOptionsTransformExtractNS();
-            transform.setParent(reader);
-
-            jc = JAXBContext.newInstance(QueryOptions.class);
-            marshaller = jc.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            unmarshaller = jc.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new MarkLogicBindingException(e);
-        } catch (SAXException e) {
-            throw new MarkLogicBindingException(e);
-        } catch (ParserConfigurationException e) {
-            throw new MarkLogicBindingException(e);
-        }
     }
 
 	@Override
@@ -916,7 +894,12 @@ public final class QueryOptionsHandle
 			logger.debug("Begin write of QueryOptionsHandle");
             optionsHolder.patchBindings();
 
-			marshaller.marshal(jaxbElement, baos);
+			Marshaller marshaller = JAXBPool.borrowMarshaller(QueryOptions.class);
+			try {
+				marshaller.marshal(jaxbElement, baos);
+			} finally {
+				JAXBPool.returnMarshaller(QueryOptions.class, marshaller);
+			}
 
             QueryOptionsTransformInjectNS itransform = new QueryOptionsTransformInjectNS();
 
@@ -1024,7 +1007,12 @@ public final class QueryOptionsHandle
             transformer.transform(saxSource, result);
             String xmlResult = sw.toString();
             InputStream in = new ByteArrayInputStream(xmlResult.getBytes("UTF-8"));
-            optionsHolder = (QueryOptions) unmarshaller.unmarshal(in);
+            Unmarshaller unmarshaller = JAXBPool.borrowUnmarshaller(QueryOptions.class);
+            try {
+                optionsHolder = (QueryOptions) unmarshaller.unmarshal(in);
+            } finally {
+                JAXBPool.returnUnmarshaller(QueryOptions.class, unmarshaller);
+            }
         } catch (JAXBException e) {
             throw new MarkLogicBindingException(e);
         } catch (ParserConfigurationException e) {
@@ -20,16 +20,14 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.marklogic.client.MarkLogicBindingException;
 import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.impl.JAXBPool;
 import com.marklogic.client.io.marker.OperationNotSupported;
 import com.marklogic.client.io.marker.QueryOptionsListReadHandle;
 import com.marklogic.client.query.QueryOptionsListBuilder;
@@ -45,9 +43,6 @@ public class QueryOptionsListHandle
     static final private Logger logger = LoggerFactory.getLogger(QueryOptionsListHandle.class);
 
     private QueryOptionsListBuilder.OptionsList optionsHolder;
-    private JAXBContext jc;
-    private Marshaller marshaller;
-    private Unmarshaller unmarshaller;
 
     /**
      * The constructor.
@@ -55,14 +50,6 @@ public class QueryOptionsListHandle
     public QueryOptionsListHandle() {
     	super();
     	super.setFormat(Format.XML);
-        try {
-            jc = JAXBContext.newInstance(QueryOptionsListBuilder.OptionsList.class);
-            marshaller = jc.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            unmarshaller = jc.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new MarkLogicBindingException(e);
-        }
     }
 
     /**
@@ -98,6 +85,7 @@ public class QueryOptionsListHandle
 
     @Override
     protected void receiveContent(InputStream content) {
+        Unmarshaller unmarshaller = JAXBPool.borrowUnmarshaller(QueryOptionsListBuilder.OptionsList.class);
         try {
             optionsHolder = (QueryOptionsListBuilder.OptionsList) unmarshaller.unmarshal(
             		new InputStreamReader(content, "UTF-8")
@@ -108,6 +96,8 @@ public class QueryOptionsListHandle
         } catch (JAXBException e) {
 			logger.error("Failed to unmarshall query options list",e);
 			throw new MarkLogicIOException(e);
+        } finally {
+            JAXBPool.returnUnmarshaller(QueryOptionsListBuilder.OptionsList.class, unmarshaller);
         }
     }
 
@@ -17,9 +17,11 @@ package com.marklogic.client.io;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -28,12 +30,15 @@ import java.util.Set;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 
@@ -93,6 +98,8 @@ public class SearchHandle
     private EventRange     planEvents;
     private List<XMLEvent> events;
 
+    private Set<Section>   retainedSections;
+
     private long       totalResults = -1;
     private long       start        = -1;
     private int        pageLength   = 0;
@@ -141,6 +148,45 @@ public class SearchHandle
     public void setForceDOM(boolean forceDOM) {
     }
 
+    /**
+     * Returns the sections of the response retained as XML when the response
+     * is parsed with a cursor.
+     * @return	the retained sections or null if the whole response is parsed as events
+     */
+    public Set<Section> getRetainedSections() {
+        return retainedSections;
+    }
+    /**
+     * Specifies parsing the response with a cursor that builds the match summaries,
+     * snippets, facets, and metrics directly and keeps the XML of only the listed
+     * sections.  Accessors for XML sections that are not retained return null.
+     * Parsing with a cursor allocates far less for large pages with snippets.
+     * @param sections	the sections to retain, an empty set to retain no XML, or null to parse the whole response as events (the default)
+     */
+    public void setRetainedSections(Set<Section> sections) {
+        if (sections == null) {
+            this.retainedSections = null;
+        } else if (sections.isEmpty()) {
+            this.retainedSections = EnumSet.noneOf(Section.class);
+        } else {
+            this.retainedSections = EnumSet.copyOf(sections);
+        }
+    }
+    /**
+     * Fluent setter for parsing the response with a cursor that keeps
+     * the XML of only the listed sections.
+     * @param sections	the sections to retain, if any
+     * @return The SearchHandle instance on which this method was called.
+     */
+    public SearchHandle withRetainedSections(Section... sections) {
+        EnumSet<Section> sectionSet = EnumSet.noneOf(Section.class);
+        if (sections != null) {
+            sectionSet.addAll(Arrays.asList(sections));
+        }
+        setRetainedSections(sectionSet);
+        return this;
+    }
+
 	@Override
 	protected Class<InputStream> receiveAs() {
         return InputStream.class;
@@ -153,10 +199,19 @@ public class SearchHandle
 			factory.setProperty("javax.xml.stream.isNamespaceAware", true);
 			factory.setProperty("javax.xml.stream.isValidating",     false);
 
-			XMLEventReader reader = factory.createXMLEventReader(content, "UTF-8");
-			SearchResponseImpl response = new SearchResponseImpl();
-			response.parse(reader);
-			reader.close();
+			SearchResponseImpl response = null;
+			if (retainedSections == null) {
+				XMLEventReader reader = factory.createXMLEventReader(content, "UTF-8");
+				response = new SearchResponseImpl();
+				response.parse(reader);
+				reader.close();
+			} else {
+				XMLStreamReader reader = factory.createXMLStreamReader(content, "UTF-8");
+				CursorResponseImpl cursorResponse = new CursorResponseImpl(retainedSections);
+				cursorResponse.parse(reader);
+				reader.close();
+				response = cursorResponse;
+			}
 
 			summary          =
 				(response.tempSummary == null || response.tempSummary.size() < 1) ?
@@ -483,6 +538,25 @@ public class SearchHandle
         }
     }
 
+    /**
+     * Identifies the parts of a search response that can be retained as XML
+     * when the response is parsed with a cursor.
+     */
+    public enum Section {
+        /** The snippets of each match, including raw and custom snippets. */
+        SNIPPETS,
+        /** The metadata extracted for each match. */
+        METADATA,
+        /** The relevance information for each match. */
+        RELEVANCE_INFO,
+        /** The query echoed in the response. */
+        QUERY,
+        /** The constraints echoed in the response. */
+        CONSTRAINTS,
+        /** The query plan. */
+        PLAN;
+    }
+
     static private class EventRange {
     	private int first = -1;
     	private int next  = -1; // 1 after the last item in the range
@@ -949,27 +1023,27 @@ public class SearchHandle
     }
 
 	private class SearchResponseImpl {
-	    private ArrayList<MatchDocumentSummary> tempSummary;
-	    private MatchDocumentSummaryImpl currSummary;
+	    ArrayList<MatchDocumentSummary> tempSummary;
+	    MatchDocumentSummaryImpl currSummary;
 
-	    private ArrayList<Warning> tempWarnings;
-	    private ArrayList<Report>  tempReports;
+	    ArrayList<Warning> tempWarnings;
+	    ArrayList<Report>  tempReports;
 
-	    private SearchMetrics          tempMetrics;
-	    private EventRange             tempPlanEvents;
-	    private List<XMLEvent>         tempEvents;
+	    SearchMetrics          tempMetrics;
+	    EventRange             tempPlanEvents;
+	    List<XMLEvent>         tempEvents;
 
-	    private long tempTotalResults = -1;
-	    private long tempStart        = -1;
-	    private int  tempPageLength   = 0;
+	    long tempTotalResults = -1;
+	    long tempStart        = -1;
+	    int  tempPageLength   = 0;
 
-	    private LinkedHashMap<String, FacetResult> tempFacets;
-	    private LinkedHashMap<String, EventRange>  tempConstraints;
+	    LinkedHashMap<String, FacetResult> tempFacets;
+	    LinkedHashMap<String, EventRange>  tempConstraints;
 
-	    private String tempSnippetType;
-	    private ArrayList<String>      qtextList;
+	    String tempSnippetType;
+	    ArrayList<String>      qtextList;
 
-	    private EventRange tempQueryEvents;
+	    EventRange tempQueryEvents;
 
 	    private SearchResponseImpl() {
 			super();
@@ -1201,7 +1275,7 @@ public class SearchHandle
 				}
 			}
 	    }
-	    private void addSnippet(EventRange snippetRange) {
+	    void addSnippet(EventRange snippetRange) {
 	    	if (currSummary.snippetEvents == null) {
 	    		currSummary.snippetEvents = new ArrayList<EventRange>();
 	    	}
@@ -1461,7 +1535,7 @@ public class SearchHandle
 	    	Attribute att = element.getAttributeByName(new QName(name));
 	    	return (att != null) ? att.getValue() : null;
 	    }
-        private long parseTime(DatatypeFactory dtFactory, Calendar now, String time) {
+        long parseTime(DatatypeFactory dtFactory, Calendar now, String time) {
             return dtFactory.newDurationDayTime(time).getTimeInMillis(now);
         }
 	    private EventRange consumeEvents(XMLEventReader reader, StartElement element)
@@ -1486,4 +1560,494 @@ public class SearchHandle
 	    	return new EventRange(first, tempEvents.size());
 	    }
 	}
+
+	// reads the response with a cursor, materializing results directly and
+	// converting events only for the sections retained by the caller
+	private class CursorResponseImpl extends SearchResponseImpl {
+		private Set<Section>    sections;
+		private XMLEventFactory eventFactory;
+
+		private CursorResponseImpl(Set<Section> sections) {
+			super();
+			this.sections = sections;
+		}
+
+		private void parse(XMLStreamReader reader) throws XMLStreamException {
+			tempEvents = new ArrayList<XMLEvent>();
+
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					handleTop(reader);
+				}
+			}
+		}
+
+		private void handleTop(XMLStreamReader reader) throws XMLStreamException {
+			if (!SEARCH_NS.equals(reader.getNamespaceURI())) {
+				logger.warn("unexpected top element "+reader.getName().toString());
+				return;
+			}
+
+			String localName = reader.getLocalName();
+
+			// the children of the response are handled as top elements
+			if ("response".equals(localName))           { handleResponse(reader);
+			} else if ("result".equals(localName))      { handleResult(reader);
+			} else if ("facet".equals(localName))       { handleFacet(reader);
+			} else if ("boxes".equals(localName))       { handleGeoFacet(reader);
+			} else if ("qtext".equals(localName))       { handleQText(reader);
+			} else if ("query".equals(localName))       { tempQueryEvents = consumeEvents(reader, Section.QUERY);
+			} else if ("constraint".equals(localName))  { handleConstraint(reader);
+			} else if ("warning".equals(localName))     { handleWarning(reader);
+			} else if ("report".equals(localName))      { handleReport(reader);
+			} else if ("plan".equals(localName))        { tempPlanEvents = consumeEvents(reader, Section.PLAN);
+			} else if ("metrics".equals(localName))     { handleMetrics(reader);
+			} else {
+				logger.warn("Unexpected top search element "+reader.getName().toString());
+			}
+		}
+
+		private void handleResponse(XMLStreamReader reader) {
+			tempSnippetType  = reader.getAttributeValue(null, "snippet-format");
+			String total     = reader.getAttributeValue(null, "total");
+			if (total != null) {
+				tempTotalResults = Long.parseLong(total);
+			}
+			tempPageLength   = Integer.parseInt(reader.getAttributeValue(null, "page-length"));
+			tempStart        = Long.parseLong(reader.getAttributeValue(null, "start"));
+		}
+		private void handleResult(XMLStreamReader reader) throws XMLStreamException {
+			String ruri     = reader.getAttributeValue(null, "uri");
+			String path     = reader.getAttributeValue(null, "path");
+			String mimeType = reader.getAttributeValue(null, "mimetype");
+
+			String formatString = reader.getAttributeValue(null, "format");
+			Format format = Format.UNKNOWN;
+			if (formatString != null && !formatString.equals("")) {
+				format = Format.valueOf(formatString.toUpperCase());
+			}
+
+			int    score      = Integer.parseInt(reader.getAttributeValue(null, "score"));
+			double confidence = Double.parseDouble(reader.getAttributeValue(null, "confidence"));
+			double fitness    = Double.parseDouble(reader.getAttributeValue(null, "fitness"));
+
+			currSummary = new MatchDocumentSummaryImpl(
+					ruri, score, confidence, fitness, path, mimeType, format);
+
+			if (tempSummary == null) {
+				tempSummary = new ArrayList<MatchDocumentSummary>();
+			}
+			tempSummary.add(currSummary);
+
+			collectResult(reader);
+		}
+		private void collectResult(XMLStreamReader reader) throws XMLStreamException {
+			// buffer candidates for a raw snippet only if snippets are retained
+			ArrayList<XMLEvent> eventBuf = sections.contains(Section.SNIPPETS) ?
+					new ArrayList<XMLEvent>() : null;
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				int eventType = reader.next();
+				switch (eventType) {
+				case XMLStreamConstants.START_ELEMENT:
+					String namespace = reader.getNamespaceURI();
+					String localName = reader.getLocalName();
+					if (SEARCH_NS.equals(namespace) && "snippet".equals(localName)) {
+						handleSnippet(reader);
+					} else if (SEARCH_NS.equals(namespace) && "metadata".equals(localName)) {
+						currSummary.metadataEvents = consumeEvents(reader, Section.METADATA);
+					} else if (SEARCH_NS.equals(namespace) && "similar".equals(localName)) {
+						if (currSummary.similarUris == null) {
+							currSummary.similarUris = new ArrayList<String>();
+						}
+						currSummary.similarUris.add(reader.getElementText());
+					} else if (QUERY_NS.equals(namespace) && "relevance-info".equals(localName)) {
+						currSummary.relevanceEvents = consumeEvents(reader, Section.RELEVANCE_INFO);
+					} else {
+						depth++;
+						if (eventBuf != null) {
+							eventBuf.add(makeEvent(reader));
+						}
+						break;
+					}
+
+					// found result substructure, so cannot be a raw snippet
+					eventBuf = null;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					if (eventBuf != null) {
+						eventBuf.add(makeEvent(reader));
+					}
+					break;
+				default:
+					if (eventBuf != null) {
+						XMLEvent event = makeEvent(reader);
+						if (event != null) {
+							eventBuf.add(event);
+						}
+					}
+					break;
+				}
+			}
+
+			// capture raw snippet
+			if (eventBuf != null) {
+				int first = tempEvents.size();
+				tempEvents.addAll(eventBuf);
+				addSnippet(new EventRange(first, tempEvents.size()));
+			}
+		}
+		private void handleSnippet(XMLStreamReader reader) throws XMLStreamException {
+			boolean retain = sections.contains(Section.SNIPPETS);
+
+			int first = tempEvents.size();
+			if (retain) {
+				tempEvents.add(makeEvent(reader));
+			}
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				int eventType = reader.next();
+				if (retain) {
+					addEvent(reader);
+				}
+
+				switch (eventType) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (SEARCH_NS.equals(reader.getNamespaceURI()) && "match".equals(reader.getLocalName())) {
+						handleMatch(reader, retain);
+					} else {
+						depth++;
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					break;
+				}
+			}
+
+			if (retain) {
+				addSnippet(new EventRange(first, tempEvents.size()));
+			}
+		}
+		private void handleMatch(XMLStreamReader reader, boolean retain) throws XMLStreamException {
+			MatchLocationImpl location = new MatchLocationImpl(reader.getAttributeValue(null, "path"));
+
+			StringBuilder buf = new StringBuilder();
+
+			// assumes that highlight elements do not nest
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				int eventType = reader.next();
+				if (retain) {
+					addEvent(reader);
+				}
+
+				switch (eventType) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					if (isHighlight(reader)) {
+						// add any text preceding a highlight
+						if (buf.length() > 0) {
+							location.addMatchSnippet(new MatchSnippetImpl(false, buf.toString()));
+							buf.setLength(0);
+						}
+					}
+					break;
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.CHARACTERS:
+					buf.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						// add any text following the last highlight
+						if (buf.length() > 0) {
+							location.addMatchSnippet(new MatchSnippetImpl(false, buf.toString()));
+						}
+						break events;
+					}
+					depth--;
+					if (isHighlight(reader)) {
+						// add any text contained by a highlight
+						location.addMatchSnippet(new MatchSnippetImpl(true, buf.toString()));
+						buf.setLength(0);
+					}
+					break;
+				}
+			}
+
+			currSummary.addLocation(location);
+		}
+		private boolean isHighlight(XMLStreamReader reader) {
+			return SEARCH_NS.equals(reader.getNamespaceURI()) && "highlight".equals(reader.getLocalName());
+		}
+		private void handleFacet(XMLStreamReader reader) throws XMLStreamException {
+			if (tempFacets == null) {
+				tempFacets = new LinkedHashMap<String, FacetResult>();
+			}
+
+			String facetName = reader.getAttributeValue(null, "name");
+
+			List<FacetValue> values = new ArrayList<FacetValue>();
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (SEARCH_NS.equals(reader.getNamespaceURI()) && "facet-value".equals(reader.getLocalName())) {
+						FacetValueImpl facetValue = new FacetValueImpl(
+								reader.getAttributeValue(null, "name"),
+								Long.parseLong(reader.getAttributeValue(null, "count")));
+						facetValue.setLabel(reader.getElementText());
+						values.add(facetValue);
+					} else {
+						logger.warn("Unexpected facet element "+reader.getName().toString());
+						depth++;
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					break;
+				}
+			}
+
+			tempFacets.put(
+				facetName,
+				new FacetResultImpl(facetName,
+					values.toArray(new FacetValue[values.size()])));
+		}
+		private void handleGeoFacet(XMLStreamReader reader) throws XMLStreamException {
+			if (tempFacets == null) {
+				tempFacets = new LinkedHashMap<String, FacetResult>();
+			}
+
+			String facetName = reader.getAttributeValue(null, "name");
+
+			List<FacetValue> values = new ArrayList<FacetValue>();
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					if (SEARCH_NS.equals(reader.getNamespaceURI()) && "box".equals(reader.getLocalName())) {
+						values.add(new FacetHeatmapValueImpl(
+								reader.getAttributeValue(null, "name"),
+								Long.parseLong(reader.getAttributeValue(null, "count")),
+								Double.parseDouble(reader.getAttributeValue(null, "s")),
+								Double.parseDouble(reader.getAttributeValue(null, "w")),
+								Double.parseDouble(reader.getAttributeValue(null, "n")),
+								Double.parseDouble(reader.getAttributeValue(null, "e"))));
+					} else {
+						logger.warn("Unexpected boxes element "+reader.getName().toString());
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					break;
+				}
+			}
+
+			tempFacets.put(
+				facetName,
+				new FacetResultImpl(facetName,
+					values.toArray(new FacetValue[values.size()])));
+		}
+		private void handleQText(XMLStreamReader reader) throws XMLStreamException {
+			if (qtextList == null) {
+				qtextList = new ArrayList<String>();
+			}
+			qtextList.add(reader.getElementText());
+		}
+		private void handleConstraint(XMLStreamReader reader) throws XMLStreamException {
+			if (tempConstraints == null) {
+				tempConstraints = new LinkedHashMap<String, EventRange>();
+			}
+
+			String constraintName = reader.getAttributeValue(null, "name");
+
+			EventRange constraintEvents = consumeEvents(reader, Section.CONSTRAINTS);
+			if (constraintEvents != null) {
+				tempConstraints.put(constraintName, constraintEvents);
+			}
+		}
+		private void handleWarning(XMLStreamReader reader) throws XMLStreamException {
+			if (tempWarnings == null) {
+				tempWarnings = new ArrayList<Warning>();
+			}
+
+			Warning warning = new Warning();
+			warning.setId(reader.getAttributeValue(null, "id"));
+			warning.setMessage(reader.getElementText());
+			tempWarnings.add(warning);
+		}
+		private void handleReport(XMLStreamReader reader) throws XMLStreamException {
+			if (tempReports == null) {
+				tempReports = new ArrayList<Report>();
+			}
+
+			Report report = new Report();
+			report.setId(reader.getAttributeValue(null, "id"));
+			report.setName(reader.getAttributeValue(null, "name"));
+			report.setType(reader.getAttributeValue(null, "type"));
+			report.setMessage(reader.getElementText());
+			tempReports.add(report);
+		}
+		private void handleMetrics(XMLStreamReader reader) throws XMLStreamException {
+			DatatypeFactory dtFactory;
+			try {
+				dtFactory = DatatypeFactory.newInstance();
+			} catch (DatatypeConfigurationException dce) {
+				throw new MarkLogicIOException("Cannot instantiate datatypeFactory", dce);
+			}
+
+			Calendar now = Calendar.getInstance();
+
+			long qrTime = -1;
+			long frTime = -1;
+			long srTime = -1;
+			long tTime  = -1;
+			long mrTime = -1;
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					String localName = SEARCH_NS.equals(reader.getNamespaceURI()) ?
+							reader.getLocalName() : null;
+					if ("query-resolution-time".equals(localName)) {
+						qrTime = parseTime(dtFactory, now, reader.getElementText());
+					} else if ("facet-resolution-time".equals(localName)) {
+						frTime = parseTime(dtFactory, now, reader.getElementText());
+					} else if ("snippet-resolution-time".equals(localName)) {
+						srTime = parseTime(dtFactory, now, reader.getElementText());
+					} else if ("metadata-resolution-time".equals(localName)) {
+						mrTime = parseTime(dtFactory, now, reader.getElementText());
+					} else if ("total-time".equals(localName)) {
+						tTime = parseTime(dtFactory, now, reader.getElementText());
+					} else {
+						logger.warn("Unexpected metrics element "+reader.getName().toString());
+						depth++;
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					break;
+				}
+			}
+
+			tempMetrics = new SearchMetricsImpl(qrTime, frTime, srTime, mrTime, tTime);
+		}
+
+		// skips the current element or retains its events if the section is retained
+		private EventRange consumeEvents(XMLStreamReader reader, Section section)
+		throws XMLStreamException {
+			boolean retain = sections.contains(section);
+
+			int first = tempEvents.size();
+			if (retain) {
+				tempEvents.add(makeEvent(reader));
+			}
+
+			int depth = 0;
+			events: while (reader.hasNext()) {
+				int eventType = reader.next();
+				if (retain) {
+					addEvent(reader);
+				}
+
+				switch (eventType) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						break events;
+					}
+					depth--;
+					break;
+				}
+			}
+
+			return retain ? new EventRange(first, tempEvents.size()) : null;
+		}
+		private void addEvent(XMLStreamReader reader) {
+			XMLEvent event = makeEvent(reader);
+			if (event != null) {
+				tempEvents.add(event);
+			}
+		}
+		private XMLEvent makeEvent(XMLStreamReader reader) {
+			if (eventFactory == null) {
+				eventFactory = XMLEventFactory.newInstance();
+			}
+
+			switch (reader.getEventType()) {
+			case XMLStreamConstants.START_ELEMENT:
+				List<Attribute> attributes = new ArrayList<Attribute>();
+				for (int i=0; i < reader.getAttributeCount(); i++) {
+					attributes.add(eventFactory.createAttribute(
+							emptyIfNull(reader.getAttributePrefix(i)),
+							emptyIfNull(reader.getAttributeNamespace(i)),
+							reader.getAttributeLocalName(i),
+							reader.getAttributeValue(i)));
+				}
+				return eventFactory.createStartElement(
+						emptyIfNull(reader.getPrefix()), emptyIfNull(reader.getNamespaceURI()),
+						reader.getLocalName(), attributes.iterator(), makeNamespaces(reader).iterator());
+			case XMLStreamConstants.END_ELEMENT:
+				return eventFactory.createEndElement(
+						emptyIfNull(reader.getPrefix()), emptyIfNull(reader.getNamespaceURI()),
+						reader.getLocalName(), makeNamespaces(reader).iterator());
+			case XMLStreamConstants.CHARACTERS:
+				return eventFactory.createCharacters(reader.getText());
+			case XMLStreamConstants.CDATA:
+				return eventFactory.createCData(reader.getText());
+			case XMLStreamConstants.SPACE:
+				return eventFactory.createSpace(reader.getText());
+			case XMLStreamConstants.COMMENT:
+				return eventFactory.createComment(reader.getText());
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				return eventFactory.createProcessingInstruction(reader.getPITarget(), reader.getPIData());
+			default:
+				return null;
+			}
+		}
+		private List<Namespace> makeNamespaces(XMLStreamReader reader) {
+			int count = reader.getNamespaceCount();
+			if (count == 0) {
+				return Collections.emptyList();
+			}
+
+			List<Namespace> namespaces = new ArrayList<Namespace>(count);
+			for (int i=0; i < count; i++) {
+				String prefix = reader.getNamespacePrefix(i);
+				String uri    = emptyIfNull(reader.getNamespaceURI(i));
+				namespaces.add((prefix == null || prefix.length() == 0) ?
+						eventFactory.createNamespace(uri) :
+						eventFactory.createNamespace(prefix, uri));
+			}
+			return namespaces;
+		}
+		private String emptyIfNull(String value) {
+			return (value == null) ? "" : value;
+		}
+	}
 }
@@ -21,15 +21,14 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.marklogic.client.MarkLogicBindingException;
 import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.impl.JAXBPool;
 import com.marklogic.client.impl.TuplesBuilder;
 import com.marklogic.client.io.marker.OperationNotSupported;
 import com.marklogic.client.io.marker.TuplesReadHandle;
@@ -49,8 +48,6 @@ public class TuplesHandle
     static final private Logger logger = LoggerFactory.getLogger(DOMHandle.class);
 
     private TuplesBuilder.Tuples tuplesHolder;
-    private JAXBContext jc;
-    private Unmarshaller unmarshaller;
 
     private ValuesDefinition valdef = null;
     private HashMap<String, AggregateResult> hashedAggregates = null;
@@ -58,13 +55,6 @@ public class TuplesHandle
     public TuplesHandle() {
     	super();
     	super.setFormat(Format.XML);
-
-        try {
-            jc = JAXBContext.newInstance(TuplesBuilder.Tuples.class);
-            unmarshaller = jc.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new MarkLogicBindingException(e);
-        }
     }
 
     /**
@@ -100,6 +90,7 @@ public class TuplesHandle
 
     @Override
     protected void receiveContent(InputStream content) {
+        Unmarshaller unmarshaller = JAXBPool.borrowUnmarshaller(TuplesBuilder.Tuples.class);
         try {
             tuplesHolder = (TuplesBuilder.Tuples) unmarshaller.unmarshal(
             		new InputStreamReader(content, "UTF-8")
@@ -111,6 +102,7 @@ public class TuplesHandle
 			logger.error("Failed to unmarshall tuples",e);
 			throw new MarkLogicIOException(e);
         } finally {
+            JAXBPool.returnUnmarshaller(TuplesBuilder.Tuples.class, unmarshaller);
 			try {
 				content.close();
 			} catch (IOException e) {
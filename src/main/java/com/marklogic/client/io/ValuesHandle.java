@@ -21,15 +21,14 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.marklogic.client.MarkLogicBindingException;
 import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.impl.JAXBPool;
 import com.marklogic.client.impl.ValuesBuilder;
 import com.marklogic.client.io.marker.OperationNotSupported;
 import com.marklogic.client.io.marker.ValuesReadHandle;
@@ -51,8 +50,6 @@ public class ValuesHandle
     static final private Logger logger = LoggerFactory.getLogger(DOMHandle.class);
 
     private ValuesBuilder.Values valuesHolder;
-    private JAXBContext jc;
-    private Unmarshaller unmarshaller;
     private HashMap<String, AggregateResult> hashedAggregates = null;
 
     private ValuesDefinition valuesdef = null;
@@ -63,13 +60,6 @@ public class ValuesHandle
     public ValuesHandle() {
     	super();
     	super.setFormat(Format.XML);
-
-        try {
-            jc = JAXBContext.newInstance(ValuesBuilder.Values.class);
-            unmarshaller = jc.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new MarkLogicBindingException(e);
-        }
     }
 
     /**
@@ -105,6 +95,7 @@ public class ValuesHandle
 
     @Override
     protected void receiveContent(InputStream content) {
+        Unmarshaller unmarshaller = JAXBPool.borrowUnmarshaller(ValuesBuilder.Values.class);
         try {
             valuesHolder = (ValuesBuilder.Values) unmarshaller.unmarshal(
             		new InputStreamReader(content, "UTF-8")
@@ -116,6 +107,7 @@ public class ValuesHandle
 			logger.error("Failed to unmarshall values",e);
 			throw new MarkLogicIOException(e);
         } finally {
+            JAXBPool.returnUnmarshaller(ValuesBuilder.Values.class, unmarshaller);
 			try {
 				content.close();
 			} catch (IOException e) {
@@ -21,15 +21,14 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.marklogic.client.MarkLogicBindingException;
 import com.marklogic.client.MarkLogicIOException;
+import com.marklogic.client.impl.JAXBPool;
 import com.marklogic.client.impl.ValuesListBuilder;
 import com.marklogic.client.io.marker.OperationNotSupported;
 import com.marklogic.client.io.marker.ValuesListReadHandle;
@@ -46,8 +45,6 @@ public class ValuesListHandle
     static final private Logger logger = LoggerFactory.getLogger(ValuesListHandle.class);
 
     private ValuesListBuilder.ValuesList valuesHolder;
-    private JAXBContext jc;
-    private Unmarshaller unmarshaller;
 
     String optionsName = null;
 
@@ -57,13 +54,6 @@ public class ValuesListHandle
     public ValuesListHandle() {
     	super();
     	super.setFormat(Format.XML);
-
-        try {
-            jc = JAXBContext.newInstance(ValuesListBuilder.ValuesList.class);
-            unmarshaller = jc.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new MarkLogicBindingException(e);
-        }
     }
 
     /**
@@ -118,6 +108,7 @@ public class ValuesListHandle
 
     @Override
     protected void receiveContent(InputStream content) {
+        Unmarshaller unmarshaller = JAXBPool.borrowUnmarshaller(ValuesListBuilder.ValuesList.class);
         try {
             valuesHolder = (ValuesListBuilder.ValuesList) unmarshaller.unmarshal(
             		new InputStreamReader(content, "UTF-8")
@@ -129,6 +120,7 @@ public class ValuesListHandle
 			logger.error("Failed to unmarshall values list",e);
 			throw new MarkLogicIOException(e);
         } finally {
+            JAXBPool.returnUnmarshaller(ValuesListBuilder.ValuesList.class, unmarshaller);
 			try {
 				content.close();
 			} catch (IOException e) {
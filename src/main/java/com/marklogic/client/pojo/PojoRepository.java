@@ -80,6 +80,9 @@ import java.io.Serializable;
  * significant digits (IEEE754 double precision), you will lose precision on numbers
  * longer than 15 significant digits.  If you desire larger numbers with no loss of
  * precision, use Strings to persist those numbers.
+ *
+ * A PojoRepository may be shared by many threads.  Counting does not change the page
+ * length, so concurrent counts and searches return independent results.
  */
 public interface PojoRepository<T, ID extends Serializable> {
     /** Write this instance to the database.  Uses the field marked with {@literal @}Id 
@@ -117,6 +120,34 @@ public interface PojoRepository<T, ID extends Serializable> {
      */
     public void write(T entity, Transaction transaction, String... collections)
         throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
+    /** Does everything in {@link #write(Object) write(T)} for each of the instances
+     * but sends many instances in each request and sends several requests in parallel.
+     * Also adds your collections to each persisted instance.  Because each batch is
+     * written independently, some instances may be persisted even if the write fails.
+     * @param entities your pojo instances of the type managed by this PojoRepository
+     * @param collections the collections to add to each instance in the database
+     */
+    public void write(Iterable<T> entities, String... collections)
+        throws ForbiddenUserException, FailedRequestException;
+    /** Does everything in {@link #write(Iterable, String...) write(Iterable&lt;T&gt;)}
+     * but with the specified number of instances in each request.
+     * @param entities your pojo instances of the type managed by this PojoRepository
+     * @param batchSize the number of instances written in each request (Default: 100)
+     * @param collections the collections to add to each instance in the database
+     */
+    public void write(Iterable<T> entities, int batchSize, String... collections)
+        throws ForbiddenUserException, FailedRequestException;
+    /** Does everything in {@link #write(Iterable, String...) write(Iterable&lt;T&gt;)}
+     * but in your
+     * <a href="http://docs.marklogic.com/guide/app-dev/transactions">
+     * multi-statement transaction</a> context.  The requests are sent one after another
+     * because they participate in the same transaction.
+     * @param entities your pojo instances of the type managed by this PojoRepository
+     * @param transaction the open transaction in which to write these instances
+     * @param collections the collections to add to each instance in the database
+     */
+    public void write(Iterable<T> entities, Transaction transaction, String... collections)
+        throws ForbiddenUserException, FailedRequestException;
 
     /** True if a document exists in the database with the specified id
      * @param id the unique identifier of the pojo (the value of the field annotated with
@@ -199,11 +230,16 @@ public interface PojoRepository<T, ID extends Serializable> {
     public long count(PojoQueryDefinition query, Transaction transaction)
         throws ForbiddenUserException, FailedRequestException;
   
-    /** Deletes from the database the documents with the corresponding ids */
+    /** Deletes from the database the documents with the corresponding ids,
+     * sending many ids in each request.  Ids that do not identify a persisted
+     * object are silently ignored; unlike earlier releases, which deleted
+     * each id in a separate request, no ResourceNotFoundException is thrown
+     * for a missing id. */
     public void delete(ID... ids)
         throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
 
-    /** As part of transaction, deletes from the database the documents with the corresponding ids */
+    /** As part of transaction, deletes from the database the documents with the corresponding ids.
+     * As with {@link #delete(Object...)}, missing ids are silently ignored. */
     public void delete(ID[] ids, Transaction transaction)
         throws ResourceNotFoundException, ForbiddenUserException, FailedRequestException;
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.query;
+
+import java.util.concurrent.Future;
+
+import com.marklogic.client.ResultCallback;
+import com.marklogic.client.io.marker.SearchReadHandle;
+import com.marklogic.client.io.marker.TuplesReadHandle;
+import com.marklogic.client.io.marker.ValuesReadHandle;
+
+/**
+ * An AsyncQueryManager sends search, values, and tuples requests without
+ * blocking the calling thread.  Each method returns a Future for the
+ * populated handle and, optionally, passes the handle or error to a callback.
+ *
+ * The requests use the configuration of the query manager that
+ * created the AsyncQueryManager at the time the request executes.
+ * The requests run on a pool of threads shared by the database client
+ * and configured by {@link com.marklogic.client.DatabaseClientFactory.AsyncPolicy}.
+ * The manager is a thread-offload wrapper around the synchronous manager,
+ * not non-blocking I/O: each request in progress occupies a pool thread
+ * until the server responds.
+ *
+ * When every thread is busy and the queue is full, a method throws a
+ * java.util.concurrent.RejectedExecutionException by default.  With the
+ * {@link com.marklogic.client.DatabaseClientFactory.AsyncPolicy.Overflow#CALLER_RUNS}
+ * overflow policy, the method instead executes the request and calls the
+ * callback on the calling thread, blocking that thread until the request
+ * completes.
+ */
+public interface AsyncQueryManager {
+	/**
+	 * Returns the synchronous query manager that executes the requests.
+	 * @return	the query manager
+	 */
+	public QueryManager getQueryManager();
+
+	/**
+	 * Searches documents based on query criteria.
+	 * @param querydef	the definition of query criteria and query options
+	 * @param searchHandle	a handle for reading the results from the search
+	 * @return	a future for the handle populated with the results
+	 */
+	public <T extends SearchReadHandle> Future<T> search(QueryDefinition querydef, T searchHandle);
+	/**
+	 * Searches documents based on query criteria starting with the specified
+	 * result and passes the populated handle to the callback.
+	 * @param querydef	the definition of query criteria and query options
+	 * @param searchHandle	a handle for reading the results from the search
+	 * @param start	the offset of the first document in the page (where 1 is the first result)
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the handle populated with the results
+	 */
+	public <T extends SearchReadHandle> Future<T> search(QueryDefinition querydef, T searchHandle,
+			long start, ResultCallback<T> callback);
+
+	/**
+	 * Retrieves lexicon values based on the values definition.
+	 * @param valdef	the definition of the values to retrieve
+	 * @param valueHandle	a handle for reading the values
+	 * @return	a future for the handle populated with the values
+	 */
+	public <T extends ValuesReadHandle> Future<T> values(ValuesDefinition valdef, T valueHandle);
+	/**
+	 * Retrieves lexicon values based on the values definition and passes
+	 * the populated handle to the callback.
+	 * @param valdef	the definition of the values to retrieve
+	 * @param valueHandle	a handle for reading the values
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the handle populated with the values
+	 */
+	public <T extends ValuesReadHandle> Future<T> values(ValuesDefinition valdef, T valueHandle,
+			ResultCallback<T> callback);
+
+	/**
+	 * Retrieves lexicon tuples based on the values definition.
+	 * @param valdef	the definition of the tuples to retrieve
+	 * @param tupleHandle	a handle for reading the tuples
+	 * @return	a future for the handle populated with the tuples
+	 */
+	public <T extends TuplesReadHandle> Future<T> tuples(ValuesDefinition valdef, T tupleHandle);
+	/**
+	 * Retrieves lexicon tuples based on the values definition and passes
+	 * the populated handle to the callback.
+	 * @param valdef	the definition of the tuples to retrieve
+	 * @param tupleHandle	a handle for reading the tuples
+	 * @param callback	the callback for the outcome or null
+	 * @return	a future for the handle populated with the tuples
+	 */
+	public <T extends TuplesReadHandle> Future<T> tuples(ValuesDefinition valdef, T tupleHandle,
+			ResultCallback<T> callback);
+}
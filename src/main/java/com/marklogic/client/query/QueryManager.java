@@ -15,6 +15,8 @@
  */
 package com.marklogic.client.query;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.xml.namespace.QName;
 
 import com.marklogic.client.Transaction;
@@ -251,6 +253,35 @@ public interface QueryManager {
     @Deprecated
     public KeyLocator newKeyLocator(String key);
 
+    /**
+     * Creates a cache that keeps up to the specified bytes of search
+     * responses for the specified time.
+     * @param maxBytes	the maximum bytes of responses in the cache
+     * @param maxAge	the time for which a response is reused
+     * @param unit	the unit for the maximum age
+     * @return	the new search cache
+     */
+    public SearchCache newSearchCache(long maxBytes, long maxAge, TimeUnit unit);
+    /**
+     * Returns the cache for search responses received by this query manager.
+     * @return	the search cache or null if responses aren't cached
+     */
+    public SearchCache getSearchCache();
+    /**
+     * Specifies a cache for search responses received by this query manager.
+     * By default, search responses aren't cached.
+     * @param cache	the search cache or null to stop caching responses
+     */
+    public void setSearchCache(SearchCache cache);
+
+    /**
+     * Creates a manager that sends search, values, and tuples requests
+     * without blocking the calling thread, using the configuration of
+     * this query manager.
+     * @return	the new asynchronous query manager
+     */
+    public AsyncQueryManager newAsyncManager();
+
     /**
      * Searches documents based on query criteria and, potentially, previously
      * saved query options.
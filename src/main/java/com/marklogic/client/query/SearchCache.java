@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.query;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A SearchCache keeps recent search responses on the client so repeating
+ * an identical search within the maximum age doesn't send a request.
+ * A search is identical if it has the same criteria, query options,
+ * collections, directory, start, page length, view, and response format.
+ * The cache holds at most a maximum number of bytes of responses and evicts
+ * the least recently used responses first.
+ *
+ * Create a cache with {@link QueryManager#newSearchCache(long, long, TimeUnit)}
+ * and enable it with {@link QueryManager#setSearchCache(SearchCache)}.
+ * A cache may be shared by the query managers of one database client.
+ *
+ * Cached responses can be parsed by any search handle that reads bytes,
+ * streams, strings, or readers.  Searches with raw or key-value queries,
+ * a response transform, or a transaction aren't cached.  Because the cache
+ * can't observe changes made by other clients, invalidate the responses
+ * for a collection or directory after changing documents in it.
+ */
+public interface SearchCache {
+	/**
+	 * Returns the maximum number of bytes of responses kept by the cache.
+	 * @return	the maximum bytes
+	 */
+	public long getMaxBytes();
+	/**
+	 * Returns the number of bytes of responses currently kept by the cache.
+	 * @return	the current bytes
+	 */
+	public long getCurrentBytes();
+	/**
+	 * Returns the number of responses currently kept by the cache.
+	 * @return	the number of responses
+	 */
+	public int getResponseCount();
+
+	/**
+	 * Returns the time for which a response is reused.
+	 * @param unit	the unit for the returned age
+	 * @return	the maximum age
+	 */
+	public long getMaxAge(TimeUnit unit);
+	/**
+	 * Specifies the time for which a response is reused.
+	 * @param age	the maximum age
+	 * @param unit	the unit for the age
+	 */
+	public void setMaxAge(long age, TimeUnit unit);
+
+	/**
+	 * Returns the number of searches answered from the cache.
+	 * @return	the number of hits
+	 */
+	public long getHitCount();
+	/**
+	 * Returns the number of cacheable searches sent to the server.
+	 * @return	the number of misses
+	 */
+	public long getMissCount();
+	/**
+	 * Returns the proportion of cacheable searches answered from the cache.
+	 * @return	the hit rate between 0 and 1
+	 */
+	public double getHitRate();
+	/**
+	 * Returns the number of responses removed to keep the cache within
+	 * the maximum bytes.
+	 * @return	the number of evictions
+	 */
+	public long getEvictionCount();
+
+	/**
+	 * Removes the responses for searches that could match documents
+	 * in a collection, which are the searches constrained to the collection
+	 * and the searches without a collection constraint.
+	 * @param collection	the changed collection
+	 */
+	public void invalidateCollection(String collection);
+	/**
+	 * Removes the responses for searches that could match documents
+	 * in a directory, which are the searches constrained to the directory,
+	 * to an enclosing directory, or to a directory within it and the searches
+	 * without a directory constraint.
+	 * @param directory	the changed directory
+	 */
+	public void invalidateDirectory(String directory);
+	/**
+	 * Removes every response from the cache.
+	 */
+	public void clear();
+}
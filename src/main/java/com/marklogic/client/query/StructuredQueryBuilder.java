@@ -27,7 +27,6 @@ import java.util.Map;
 import javax.xml.XMLConstants;
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.namespace.QName;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
@@ -40,6 +39,7 @@ import javax.xml.transform.stream.StreamSource;
 import com.marklogic.client.MarkLogicIOException;
 import com.marklogic.client.impl.AbstractQueryDefinition;
 import com.marklogic.client.impl.RawQueryDefinitionImpl;
+import com.marklogic.client.impl.Utilities;
 import com.marklogic.client.io.BaseHandle;
 import com.marklogic.client.io.Format;
 import com.marklogic.client.io.OutputStreamSender;
@@ -79,6 +79,10 @@ public class StructuredQueryBuilder {
 	 * Used only for serializing StructuredQueryDefinitions.
 	 */
 	private IterableNamespaceContext namespaces;
+	/**
+	 * The types of the placeholders for compiling queries.
+	 */
+	private Map<String, Class<?>> placeholders;
 
     /**
      * Control over ordering for use in near queries.
@@ -951,6 +955,55 @@ public class StructuredQueryBuilder {
         return new CustomConstraintQuery(constraintName, text);
     }
 
+    /**
+     * Returns a placeholder to pass to a builder method in place of a value
+     * when building a query for {@link #compile(StructuredQueryDefinition)}.
+     * The placeholder accepts values of any type.
+     * @param name	the name for binding a value to the placeholder
+     * @return	the placeholder
+     */
+    public String placeholder(String name) {
+        return placeholder(name, Object.class);
+    }
+    /**
+     * Returns a placeholder to pass to a builder method in place of a value
+     * when building a query for {@link #compile(StructuredQueryDefinition)}.
+     * A placeholder can appear more than once in a query.
+     * @param name	the name for binding a value to the placeholder
+     * @param type	the class of the values for the placeholder
+     * @return	the placeholder
+     */
+    public String placeholder(String name, Class<?> type) {
+        if (name == null || name.length() == 0)
+            throw new IllegalArgumentException("Placeholder requires a name");
+        if (name.indexOf(StructuredQueryTemplate.PLACEHOLDER_START) != -1 ||
+                name.indexOf(StructuredQueryTemplate.PLACEHOLDER_END) != -1)
+            throw new IllegalArgumentException("Invalid placeholder name: "+name);
+        if (type == null)
+            throw new IllegalArgumentException("Placeholder requires a type: "+name);
+
+        if (placeholders == null)
+            placeholders = new HashMap<String, Class<?>>();
+        Class<?> previousType = placeholders.get(name);
+        if (previousType != null && previousType != type)
+            throw new IllegalArgumentException("Placeholder "+name+" already has type "+previousType.getName());
+        placeholders.put(name, type);
+
+        return StructuredQueryTemplate.PLACEHOLDER_START+name+StructuredQueryTemplate.PLACEHOLDER_END;
+    }
+    /**
+     * Serializes a query built with placeholders from this builder into
+     * a template that binds values to the placeholders for each request.
+     * @param query	the query with placeholders
+     * @return	the template for the query
+     */
+    public StructuredQueryTemplate compile(StructuredQueryDefinition query) {
+        if (query == null)
+            throw new IllegalArgumentException("Cannot compile null query");
+        return new StructuredQueryTemplate(query,
+                (placeholders == null) ? new HashMap<String, Class<?>>() : placeholders);
+    }
+
     /* ************************************************************************************* */
 
     // TODO IN A FUTURE RELEASE:  remove the deprecated innerSerialize() method
@@ -2374,11 +2427,8 @@ public class StructuredQueryBuilder {
     }
 
     static private XMLStreamWriter makeSerializer(OutputStream out) {
-		XMLOutputFactory factory = XMLOutputFactory.newInstance();
-		factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
-
 		try {
-			XMLStreamWriter serializer = factory.createXMLStreamWriter(out, "UTF-8");
+			XMLStreamWriter serializer = Utilities.getRepairingOutputFactory().createXMLStreamWriter(out, "UTF-8");
 
 			serializer.setDefaultNamespace("http://marklogic.com/appservices/search");
 			serializer.setPrefix("xs",  XMLConstants.W3C_XML_SCHEMA_NS_URI);
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.query;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.DatatypeConverter;
+
+import com.marklogic.client.document.ServerTransform;
+import com.marklogic.client.impl.AbstractQueryDefinition;
+
+/**
+ * A StructuredQueryTemplate is a structured query serialized once with
+ * named placeholders for values.  Binding values to the placeholders produces
+ * a query definition without building or serializing the query again, which
+ * suits applications that run the same shape of query with different values
+ * many times.
+ *
+ * Create a template by passing a query with placeholders from
+ * {@link StructuredQueryBuilder#placeholder(String)} in place of values to
+ * {@link StructuredQueryBuilder#compile(StructuredQueryDefinition)}:
+ * <pre>StructuredQueryTemplate template = qb.compile(
+ *     qb.and(qb.value(qb.element("status"), qb.placeholder("status")),
+ *            qb.range(qb.element("total"), "xs:decimal", Operator.GE,
+ *                qb.placeholder("minTotal", Number.class))));
+ *StructuredQueryDefinition query = template.bind()
+ *     .with("status", "shipped").with("minTotal", 100);</pre>
+ *
+ * A template is immutable and can be shared by threads.  Each binding
+ * belongs to one request.  Because a binding is already serialized, a binding
+ * cannot be combined with other queries by the builder; instead, compile
+ * the complete query with placeholders.
+ */
+public class StructuredQueryTemplate {
+	final static char PLACEHOLDER_START = '\uE000';
+	final static char PLACEHOLDER_END   = '\uE001';
+
+	private String[]              segments;
+	private String[]              slots;
+	private Map<String, Class<?>> parameters;
+	private int                   fixedLength;
+
+	private String          optionsName;
+	private String[]        collections;
+	private String          directory;
+	private ServerTransform responseTransform;
+
+	StructuredQueryTemplate(StructuredQueryDefinition query, Map<String, Class<?>> placeholders) {
+		super();
+
+		String serialized = query.serialize();
+
+		List<String> segmentList = new ArrayList<String>();
+		List<String> slotList    = new ArrayList<String>();
+		Map<String, Class<?>> parameterMap = new LinkedHashMap<String, Class<?>>();
+
+		int next = 0;
+		int start = 0;
+		while ((start = serialized.indexOf(PLACEHOLDER_START, next)) != -1) {
+			int end = serialized.indexOf(PLACEHOLDER_END, start);
+			if (end == -1)
+				throw new IllegalArgumentException("Malformed placeholder in query: "+serialized);
+
+			String name = serialized.substring(start + 1, end);
+			Class<?> parameterType = placeholders.get(name);
+			if (parameterType == null)
+				throw new IllegalArgumentException(
+						"Placeholder "+name+" was not created by the builder compiling the query");
+			parameterMap.put(name, parameterType);
+
+			segmentList.add(serialized.substring(next, start));
+			slotList.add(name);
+			next = end + 1;
+		}
+		segmentList.add(serialized.substring(next));
+
+		this.segments   = segmentList.toArray(new String[segmentList.size()]);
+		this.slots      = slotList.toArray(new String[slotList.size()]);
+		this.parameters = Collections.unmodifiableMap(parameterMap);
+		for (String segment: segments) {
+			fixedLength += segment.length();
+		}
+
+		this.optionsName = query.getOptionsName();
+		this.collections = query.getCollections();
+		this.directory   = query.getDirectory();
+		this.responseTransform = query.getResponseTransform();
+	}
+
+	/**
+	 * Returns the names of the placeholders in the query.
+	 * @return	the placeholder names
+	 */
+	public Set<String> getParameterNames() {
+		return parameters.keySet();
+	}
+	/**
+	 * Returns the type of the values for a placeholder.
+	 * @param name	the name of the placeholder
+	 * @return	the type or null if the query has no placeholder with the name
+	 */
+	public Class<?> getParameterType(String name) {
+		return parameters.get(name);
+	}
+
+	/**
+	 * Starts binding values to the placeholders for a request.  The binding
+	 * has the options name, collections, directory, and response transform
+	 * of the compiled query.
+	 * @return	the binding
+	 */
+	public Binding bind() {
+		return new Binding();
+	}
+
+	static String escape(String value) {
+		StringBuilder builder = null;
+		int length = value.length();
+		for (int i=0; i < length; i++) {
+			char c = value.charAt(i);
+			String entity = null;
+			switch (c) {
+			case '&':  entity = "&amp;";  break;
+			case '<':  entity = "&lt;";   break;
+			case '>':  entity = "&gt;";   break;
+			case '"':  entity = "&quot;"; break;
+			case '\'': entity = "&apos;"; break;
+			}
+			if (entity == null) {
+				if (builder != null)
+					builder.append(c);
+				continue;
+			}
+			if (builder == null) {
+				builder = new StringBuilder(length + 16);
+				builder.append(value, 0, i);
+			}
+			builder.append(entity);
+		}
+		return (builder == null) ? value : builder.toString();
+	}
+	static String format(Object value) {
+		if (value instanceof String)
+			return (String) value;
+		if (value instanceof Calendar)
+			return DatatypeConverter.printDateTime((Calendar) value);
+		if (value instanceof Date) {
+			Calendar calendar = new GregorianCalendar();
+			calendar.setTime((Date) value);
+			return DatatypeConverter.printDateTime(calendar);
+		}
+		return value.toString();
+	}
+
+	/**
+	 * A Binding supplies the values for the placeholders of a template and
+	 * serves as the query definition for one request.
+	 */
+	public class Binding
+	extends AbstractQueryDefinition
+	implements StructuredQueryDefinition {
+		private Map<String, String> values = new LinkedHashMap<String, String>();
+
+		Binding() {
+			super();
+			setOptionsName(optionsName);
+			setCollections(collections);
+			setDirectory(directory);
+			setResponseTransform(responseTransform);
+		}
+
+		/**
+		 * Assigns the value of a placeholder and returns the binding
+		 * as a fluent convenience.
+		 * @param name	the name of the placeholder
+		 * @param value	the value, which must have the type of the placeholder
+		 * @return	this binding
+		 */
+		public Binding with(String name, Object value) {
+			Class<?> type = parameters.get(name);
+			if (type == null)
+				throw new IllegalArgumentException("Template has no placeholder "+name);
+			if (value == null)
+				throw new IllegalArgumentException("Cannot bind null value to placeholder "+name);
+			if (!type.isInstance(value))
+				throw new IllegalArgumentException("Placeholder "+name+" requires "+
+						type.getName()+" instead of "+value.getClass().getName());
+			values.put(name, escape(format(value)));
+			return this;
+		}
+
+		/**
+		 * Returns the query with the bound values.
+		 * @return	the serialized query
+		 */
+		@Override
+		public String serialize() {
+			int length = fixedLength;
+			for (int i=0; i < slots.length; i++) {
+				String value = values.get(slots[i]);
+				if (value == null)
+					throw new IllegalStateException("No value bound to placeholder "+slots[i]);
+				length += value.length();
+			}
+
+			StringBuilder builder = new StringBuilder(length);
+			for (int i=0; i < slots.length; i++) {
+				builder.append(segments[i]).append(values.get(slots[i]));
+			}
+			builder.append(segments[slots.length]);
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.util;
+
+import java.io.PrintStream;
+
+/**
+ * An Async Request Logger records requests without writing to the log
+ * on the thread that makes the request.  Requests put log records into
+ * a bounded buffer, and a background thread writes the records to the log.
+ * When the buffer is full, new records are dropped and counted instead
+ * of slowing the request, so logging can stay on under load.
+ *
+ * Content copied to the log is captured up to the content maximum and
+ * written as a separate record.  Content streamed to or from the server
+ * is captured up to 64 KB per record even if the content maximum is
+ * larger, so logging never copies a large stream onto the heap.
+ * To log a fraction of the requests,
+ * set a sample interval.  The content of a request is logged only if
+ * the request is sampled.
+ *
+ * Records are written in the order that the requests put them into the
+ * buffer, so the records of concurrent requests can be interleaved.
+ */
+public interface AsyncRequestLogger extends RequestLogger {
+	/**
+	 * Returns the maximum number of records that can wait in the buffer
+	 * for the background writer.
+	 * @return	the capacity of the buffer
+	 */
+	public int getCapacity();
+
+	/**
+	 * Returns the number of records dropped because the buffer was full.
+	 * @return	the count of dropped records
+	 */
+	public long getDroppedCount();
+
+	/**
+	 * Returns the interval between logged requests.
+	 * @return	the sample interval
+	 */
+	public int getSampleInterval();
+	/**
+	 * Logs one of every interval requests (defaulting to 1, which logs
+	 * every request).
+	 * @param interval	the sample interval
+	 */
+	public void setSampleInterval(int interval);
+
+	/**
+	 * Returns null because only the background writer writes to the log.
+	 * @return	null
+	 */
+	@Override
+	public PrintStream getPrintStream();
+
+	/**
+	 * Waits until the background writer has written the records in the
+	 * buffer and then flushes the log.
+	 */
+	@Override
+	public void flush();
+	/**
+	 * Writes the records in the buffer, stops the background writer,
+	 * and closes the log.
+	 */
+	@Override
+	public void close();
+}
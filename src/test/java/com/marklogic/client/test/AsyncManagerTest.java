@@ -0,0 +1,251 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.AsyncPolicy;
+import com.marklogic.client.ResourceNotFoundException;
+import com.marklogic.client.ResultCallback;
+import com.marklogic.client.document.AsyncDocumentManager;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.io.marker.TextReadHandle;
+import com.marklogic.client.io.marker.TextWriteHandle;
+import com.marklogic.client.query.AsyncQueryManager;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class AsyncManagerTest {
+	private StubServer     server;
+	private DatabaseClient client;
+	private AtomicInteger  writes  = new AtomicInteger();
+	private AtomicInteger  deletes = new AtomicInteger();
+	private CountDownLatch slowRequests = new CountDownLatch(1);
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// echoes the uri as the content of the document unless the uri is missing
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String method = exchange.getRequestMethod();
+				String query  = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), "UTF-8");
+				String uri    = query.substring(query.indexOf("uri=") + 4).split("&")[0];
+				if ("PUT".equals(method)) {
+					// an unread request body can reset the connection
+					StubServer.readBody(exchange);
+					writes.incrementAndGet();
+					exchange.sendResponseHeaders(201, -1);
+				} else if ("DELETE".equals(method)) {
+					deletes.incrementAndGet();
+					exchange.sendResponseHeaders(204, -1);
+				} else if (uri.contains("slow")) {
+					try {
+						slowRequests.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+					sendText(exchange, 200, "text/plain", "content of "+uri);
+				} else if (uri.contains("missing")) {
+					sendText(exchange, 404, "text/plain", "not found");
+				} else {
+					sendText(exchange, 200, "text/plain", "content of "+uri);
+				}
+				exchange.close();
+			}
+		});
+		server.handle("/v1/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				sendText(exchange, 200, "application/xml",
+						"<search:response xmlns:search=\"http://marklogic.com/appservices/search\" total=\"0\"/>");
+				exchange.close();
+			}
+		});
+		server.start();
+
+		AsyncPolicy policy = new AsyncPolicy();
+		policy.setThreads(2);
+		client = newClient(policy);
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+		slowRequests.countDown();
+	}
+
+	private DatabaseClient newClient(AsyncPolicy policy) {
+		DatabaseClientFactory.Bean bean = new DatabaseClientFactory.Bean();
+		bean.setHost(server.getHost());
+		bean.setPort(server.getPort());
+		bean.setUser("rest-writer");
+		bean.setPassword("x");
+		bean.setAuthentication(Authentication.BASIC);
+		bean.setAsyncPolicy(policy);
+		return bean.newClient();
+	}
+
+	private void sendText(HttpExchange exchange, int status, String mimetype, String text)
+	throws IOException {
+		byte[] bytes = text.getBytes("UTF-8");
+		exchange.getResponseHeaders().add("Content-Type", mimetype);
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	@Test
+	public void testReadFutures() throws InterruptedException, ExecutionException {
+		AsyncDocumentManager<TextReadHandle, TextWriteHandle> docMgr =
+			client.newTextDocumentManager().newAsyncManager();
+
+		List<Future<StringHandle>> futures = new ArrayList<Future<StringHandle>>();
+		for (int i=0; i < 20; i++) {
+			futures.add(docMgr.read("/async/doc"+i+".txt", new StringHandle()));
+		}
+		for (int i=0; i < futures.size(); i++) {
+			assertEquals("Wrong content", "content of /async/doc"+i+".txt", futures.get(i).get().get());
+		}
+
+		try {
+			docMgr.read("/async/missing.txt", new StringHandle()).get();
+			fail("Read of missing document succeeded");
+		} catch (ExecutionException e) {
+			assertTrue("Unexpected failure: "+e.getCause(),
+					e.getCause() instanceof ResourceNotFoundException);
+		}
+	}
+
+	@Test
+	public void testCallbacks() throws InterruptedException {
+		AsyncDocumentManager<TextReadHandle, TextWriteHandle> docMgr =
+			client.newTextDocumentManager().newAsyncManager();
+
+		final CountDownLatch           latch     = new CountDownLatch(12);
+		final AtomicInteger            successes = new AtomicInteger();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		ResultCallback<Void> callback = new ResultCallback<Void>() {
+			@Override
+			public void onSuccess(Void result) {
+				successes.incrementAndGet();
+				latch.countDown();
+			}
+			@Override
+			public void onFailure(Throwable error) {
+				failure.set(error);
+				latch.countDown();
+			}
+		};
+		for (int i=0; i < 10; i++) {
+			docMgr.write("/async/doc"+i+".txt", null, new StringHandle("document "+i), callback);
+		}
+		docMgr.delete("/async/doc0.txt", callback);
+		docMgr.read("/async/missing.txt", new StringHandle(), new ResultCallback<StringHandle>() {
+			@Override
+			public void onSuccess(StringHandle result) {
+				latch.countDown();
+			}
+			@Override
+			public void onFailure(Throwable error) {
+				failure.set(error);
+				latch.countDown();
+			}
+		});
+
+		assertTrue("Callbacks not called", latch.await(10, TimeUnit.SECONDS));
+		assertEquals("Wrong successes", 11, successes.get());
+		assertEquals("Wrong writes",    10, writes.get());
+		assertEquals("Wrong deletes",    1, deletes.get());
+		assertTrue("Missing failure", failure.get() instanceof ResourceNotFoundException);
+	}
+
+	@Test
+	public void testSearch() throws InterruptedException, ExecutionException {
+		AsyncQueryManager queryMgr = client.newQueryManager().newAsyncManager();
+		StringQueryDefinition query = queryMgr.getQueryManager().newStringDefinition();
+		query.setCriteria("async");
+
+		StringHandle results = queryMgr.search(query, new StringHandle()).get();
+		assertTrue("Wrong results: "+results.get(), results.get().contains("search:response"));
+	}
+
+	@Test
+	public void testQueueOverflow() throws InterruptedException, ExecutionException {
+		AsyncPolicy policy = new AsyncPolicy();
+		policy.setThreads(1);
+		policy.setQueueSize(1);
+		// refusing the request is the default so asynchronous calls never block
+		assertEquals("Wrong default overflow", AsyncPolicy.Overflow.REJECT, policy.getOverflow());
+		DatabaseClient rejectingClient = newClient(policy);
+		policy.setOverflow(AsyncPolicy.Overflow.CALLER_RUNS);
+		DatabaseClient callerClient = newClient(policy);
+		try {
+			AsyncDocumentManager<TextReadHandle, TextWriteHandle> docMgr =
+				rejectingClient.newTextDocumentManager().newAsyncManager();
+			// one request occupies the thread and one waits in the queue
+			Future<StringHandle> running = docMgr.read("/async/slow1.txt", new StringHandle());
+			Future<StringHandle> queued  = docMgr.read("/async/slow2.txt", new StringHandle());
+			try {
+				docMgr.read("/async/doc.txt", new StringHandle());
+				fail("Request beyond the queue accepted");
+			} catch (RejectedExecutionException e) {
+			}
+
+			AsyncDocumentManager<TextReadHandle, TextWriteHandle> callerMgr =
+				callerClient.newTextDocumentManager().newAsyncManager();
+			callerMgr.read("/async/slow3.txt", new StringHandle());
+			callerMgr.read("/async/slow4.txt", new StringHandle());
+			slowRequests.countDown();
+			// with the queue full, the submitting thread executes the request
+			Future<StringHandle> ranHere = callerMgr.read("/async/doc.txt", new StringHandle());
+			assertTrue("Request not run by caller", ranHere.isDone());
+			assertEquals("Wrong content", "content of /async/doc.txt", ranHere.get().get());
+
+			assertEquals("Wrong running content", "content of /async/slow1.txt", running.get().get());
+			assertEquals("Wrong queued content",  "content of /async/slow2.txt", queued.get().get());
+		} finally {
+			slowRequests.countDown();
+			rejectingClient.release();
+			callerClient.release();
+		}
+	}
+}
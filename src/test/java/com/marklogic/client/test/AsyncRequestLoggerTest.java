@@ -0,0 +1,283 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.extensions.ResourceManager;
+import com.marklogic.client.io.InputStreamHandle;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.marklogic.client.util.AsyncRequestLogger;
+import com.marklogic.client.util.RequestLogger;
+import com.marklogic.client.util.RequestParameters;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Logs requests to a stub server through a background writer. */
+public class AsyncRequestLoggerTest {
+	static final String CONTENT = "the content of the planet document";
+
+	private StubServer     server;
+	private DatabaseClient client;
+
+	static class EchoManager extends ResourceManager {
+		String post(String content) {
+			return getServices().post(new RequestParameters(), new StringHandle(content), new StringHandle()).get();
+		}
+	}
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// reads return the same text document and writes succeed
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				InputStream in = exchange.getRequestBody();
+				byte[] buffer = new byte[8192];
+				while (in.read(buffer) != -1);
+
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					exchange.sendResponseHeaders(201, -1);
+					exchange.close();
+					return;
+				}
+
+				byte[] content = CONTENT.getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "text/plain");
+				exchange.sendResponseHeaders(200, content.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(content);
+				out.close();
+			}
+		});
+		// replies to a resource request with a fixed text
+		server.handle("/v1/resources/echo", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				StubServer.readBody(exchange);
+				byte[] content = "echoed".getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "text/plain");
+				exchange.sendResponseHeaders(200, content.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(content);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	static int countOccurrences(String text, String part) {
+		int count = 0;
+		for (int i=text.indexOf(part); i != -1; i=text.indexOf(part, i + part.length())) {
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	public void testRequestLog() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncRequestLogger logger = client.newAsyncLogger(out, 100);
+		logger.setContentMax(RequestLogger.ALL_CONTENT);
+		assertEquals("Wrong capacity", 128, logger.getCapacity());
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		docMgr.startLogging(logger);
+		docMgr.write("/async/written.txt", new StringHandle("the written document"));
+		assertEquals("Wrong content read", CONTENT,
+				docMgr.read("/async/read.txt", new StringHandle()).get());
+
+		// streamed content is logged when the stream ends
+		InputStream content = docMgr.read("/async/streamed.txt", new InputStreamHandle()).get();
+		assertEquals("Wrong streamed content", CONTENT, new String(Common.streamToBytes(content), "UTF-8"));
+
+		logger.flush();
+		String log = out.toString("UTF-8");
+		assertTrue("Write not logged", log.contains("writing /async/written.txt document"));
+		assertTrue("Written content not logged", log.contains("the written document"));
+		assertTrue("Read not logged", log.contains("read /async/read.txt document"));
+		assertTrue("Read content not logged", log.indexOf(CONTENT) < log.indexOf("/async/streamed.txt"));
+		assertEquals("Streamed content not logged", 2, countOccurrences(log, CONTENT));
+
+		// content is capped at the content maximum
+		logger.setContentMax(10);
+		docMgr.read("/async/capped.txt", new StringHandle());
+		logger.flush();
+		log = out.toString("UTF-8");
+		assertTrue("Capped content not logged", log.endsWith(CONTENT.substring(0, 10)));
+		assertEquals("Dropped records", 0, logger.getDroppedCount());
+
+		docMgr.stopLogging();
+		logger.close();
+		assertFalse("Enabled after close", logger.isEnabled());
+	}
+
+	@Test
+	public void testSampling() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncRequestLogger logger = client.newAsyncLogger(out, 100);
+		logger.setContentMax(RequestLogger.ALL_CONTENT);
+		logger.setSampleInterval(4);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		docMgr.startLogging(logger);
+		for (int i=0; i < 20; i++) {
+			docMgr.read("/async/sampled"+i+".txt", new StringHandle());
+		}
+		logger.close();
+
+		String log = out.toString("UTF-8");
+		assertEquals("Wrong sampled requests", 5, countOccurrences(log, "read /async/sampled"));
+		assertEquals("Wrong sampled content", 5, countOccurrences(log, CONTENT));
+		assertTrue("First request not sampled", log.contains("/async/sampled0.txt"));
+		assertFalse("Unsampled request logged", log.contains("/async/sampled1.txt"));
+	}
+
+	@Test
+	public void testSampledRequestContent() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncRequestLogger logger = client.newAsyncLogger(out, 100);
+		logger.setContentMax(RequestLogger.ALL_CONTENT);
+		logger.setSampleInterval(2);
+
+		// a resource request sends its content before logging the request
+		EchoManager echo = client.init("echo", new EchoManager());
+		echo.startLogging(logger);
+		for (int i=0; i < 6; i++) {
+			assertEquals("Wrong response", "echoed", echo.post("posted content "+i));
+		}
+		logger.close();
+
+		String log = out.toString("UTF-8");
+		assertEquals("Wrong sampled requests", 3, countOccurrences(log, "echoed"));
+		for (int i=0; i < 6; i++) {
+			assertEquals("Wrong sampling of content "+i, i % 2 == 0, log.contains("posted content "+i));
+		}
+	}
+
+	@Test
+	public void testStreamedContentCap() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncRequestLogger logger = client.newAsyncLogger(out, 100);
+		logger.setContentMax(RequestLogger.ALL_CONTENT);
+
+		// a stream is captured only up to the size of one record
+		byte[] large = new byte[1024 * 1024];
+		InputStream content = logger.copyContent(new ByteArrayInputStream(large));
+		assertEquals("Wrong streamed length", large.length, Common.streamToBytes(content).length);
+		logger.close();
+		assertEquals("Wrong captured length", 64 * 1024, out.size());
+	}
+
+	@Test
+	public void testDropWhenFull() throws IOException {
+		// a log destination that is much slower than the requests
+		OutputStream slow = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+			}
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		AsyncRequestLogger logger = client.newAsyncLogger(slow, 8);
+		logger.setContentMax(RequestLogger.ALL_CONTENT);
+
+		int records = 1000;
+		long start = System.nanoTime();
+		for (int i=0; i < records; i++) {
+			logger.copyContent(CONTENT);
+		}
+		long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+		assertTrue("Logging waited for writer: "+elapsedMillis+" ms", elapsedMillis < 1000);
+		assertTrue("No records dropped", logger.getDroppedCount() > 0);
+		assertTrue("Too many records dropped", logger.getDroppedCount() < records);
+		logger.close();
+	}
+
+	private long timeCopies(RequestLogger logger, int copies) {
+		long start = System.nanoTime();
+		for (int i=0; i < copies; i++) {
+			logger.copyContent(CONTENT);
+		}
+		return (System.nanoTime() - start) / copies;
+	}
+
+	@Test
+	public void testLoggingCost() throws IOException {
+		Benchmarks.assumeEnabled();
+
+		int copies = 20000;
+
+		// a log destination like a network appender where each write takes 100 microseconds
+		OutputStream remote = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+			}
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				LockSupport.parkNanos(100000);
+			}
+		};
+
+		// logging content directly isolates the cost on the requesting thread
+		// from the round trip to the server
+		RequestLogger syncLogger = client.newLogger(remote);
+		syncLogger.setContentMax(RequestLogger.ALL_CONTENT);
+		timeCopies(syncLogger, 2000);
+		long syncNanos = timeCopies(syncLogger, copies);
+
+		AsyncRequestLogger asyncLogger = client.newAsyncLogger(remote, 4096);
+		asyncLogger.setContentMax(RequestLogger.ALL_CONTENT);
+		timeCopies(asyncLogger, 2000);
+		long asyncNanos = timeCopies(asyncLogger, copies);
+		asyncLogger.close();
+
+		System.out.println("request log content per request on the requesting thread: synchronous "+
+				syncNanos+" ns, asynchronous "+asyncNanos+" ns ("+asyncLogger.getDroppedCount()+
+				" of "+(copies + 2000)+" records dropped)");
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.LoadBalancing;
+import com.marklogic.client.Transaction;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class ClusterClientTest {
+	final static String HOST_RETRY_PROP = "com.marklogic.client.hostRetrySeconds";
+
+	private StubHost[]     stubs;
+	private DatabaseClient client;
+
+	@After
+	public void after() {
+		if (client != null) {
+			client.release();
+			client = null;
+		}
+		if (stubs != null) {
+			for (StubHost stub: stubs) {
+				if (stub != null)
+					stub.stop();
+			}
+			stubs = null;
+		}
+	}
+
+	@Test
+	public void testRoundRobin() throws IOException {
+		stubs = new StubHost[] {new StubHost(0), new StubHost(0), new StubHost(0)};
+		client = newClient(LoadBalancing.ROUND_ROBIN);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		for (int i=0; i < 9; i++) {
+			assertNull("Unexpected document", docMgr.exists("/cluster/doc"+i+".txt"));
+		}
+		for (StubHost stub: stubs) {
+			assertEquals("Unbalanced requests", 3, stub.requests.get());
+		}
+	}
+
+	@Test
+	public void testFailover() throws IOException {
+		int deadPort = getFreePort();
+		stubs = new StubHost[] {new StubHost(0), null, new StubHost(0)};
+		client = DatabaseClientFactory.newClusterClient(
+				new String[] {stubs[0].getHost(), "localhost:"+deadPort, stubs[2].getHost()},
+				8000, null, "rest-reader", "x", Authentication.BASIC, LoadBalancing.LEAST_OUTSTANDING);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		for (int i=0; i < 6; i++) {
+			assertNull("Unexpected document", docMgr.exists("/cluster/doc"+i+".txt"));
+		}
+		assertEquals("Lost requests", 6, stubs[0].requests.get() + stubs[2].requests.get());
+		assertTrue("Unused host", stubs[0].requests.get() > 0 && stubs[2].requests.get() > 0);
+	}
+
+	@Test
+	public void testRecovery() throws Exception {
+		int revivedPort = getFreePort();
+		System.setProperty(HOST_RETRY_PROP, "1");
+		try {
+			stubs = new StubHost[] {new StubHost(0), null};
+			client = DatabaseClientFactory.newClusterClient(
+					new String[] {stubs[0].getHost(), "localhost:"+revivedPort},
+					8000, "rest-reader", "x", Authentication.BASIC);
+		} finally {
+			System.clearProperty(HOST_RETRY_PROP);
+		}
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		for (int i=0; i < 4; i++) {
+			docMgr.exists("/cluster/doc"+i+".txt");
+		}
+		assertEquals("Lost requests", 4, stubs[0].requests.get());
+
+		stubs[1] = new StubHost(revivedPort);
+		Thread.sleep(1100);
+		for (int i=0; i < 4; i++) {
+			docMgr.exists("/cluster/doc"+i+".txt");
+		}
+		assertTrue("Revived host not pinged", stubs[1].pings.get() > 0);
+		assertTrue("Revived host not used",   stubs[1].requests.get() > 0);
+		assertEquals("Lost requests", 8, stubs[0].requests.get() + stubs[1].requests.get());
+	}
+
+	@Test
+	public void testTransactionHost() throws IOException {
+		stubs = new StubHost[] {new StubHost(0), new StubHost(0), new StubHost(0)};
+		client = newClient(LoadBalancing.ROUND_ROBIN);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		Transaction transaction = client.openTransaction();
+		for (int i=0; i < 6; i++) {
+			docMgr.exists("/cluster/doc"+i+".txt", transaction);
+		}
+		transaction.commit();
+
+		int transactionHosts = 0;
+		for (StubHost stub: stubs) {
+			if (stub.requests.get() == 0)
+				continue;
+			transactionHosts++;
+			assertEquals("Transaction requests on other host", 8, stub.requests.get());
+			assertEquals("Requests outside transaction", 7, stub.transactionRequests.get());
+		}
+		assertEquals("Transaction spread across hosts", 1, transactionHosts);
+	}
+
+	@Test
+	public void testAbandonedTransaction() throws Exception {
+		stubs = new StubHost[] {new StubHost(0), new StubHost(0), new StubHost(0)};
+		client = newClient(LoadBalancing.ROUND_ROBIN);
+
+		// opening a transaction forgets the host of a transaction past its time limit
+		Transaction abandoned = client.openTransaction(null, 1);
+		Thread.sleep(1100);
+		client.openTransaction().rollback();
+		for (StubHost stub: stubs) {
+			stub.transactionRequests.set(0);
+		}
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		for (int i=0; i < 3; i++) {
+			docMgr.exists("/cluster/doc"+i+".txt", abandoned);
+		}
+		for (StubHost stub: stubs) {
+			assertEquals("Abandoned transaction still pinned to host", 1, stub.transactionRequests.get());
+		}
+	}
+
+	private DatabaseClient newClient(LoadBalancing balancing) {
+		String[] hosts = new String[stubs.length];
+		for (int i=0; i < stubs.length; i++) {
+			hosts[i] = stubs[i].getHost();
+		}
+		return DatabaseClientFactory.newClusterClient(
+				hosts, 8000, null, "rest-reader", "x", Authentication.BASIC, balancing);
+	}
+
+	static int getFreePort() throws IOException {
+		ServerSocket socket = new ServerSocket(0);
+		int port = socket.getLocalPort();
+		socket.close();
+		return port;
+	}
+
+	// a minimal REST server that reports every document as missing
+	static class StubHost implements HttpHandler {
+		final AtomicInteger requests            = new AtomicInteger();
+		final AtomicInteger transactionRequests = new AtomicInteger();
+		final AtomicInteger pings               = new AtomicInteger();
+		StubServer server;
+
+		StubHost(int port) throws IOException {
+			server = new StubServer(port).handle("/", this).start();
+		}
+		String getHost() {
+			return server.getHost()+":"+server.getPort();
+		}
+		void stop() {
+			server.stop();
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			String method = exchange.getRequestMethod();
+			String path   = exchange.getRequestURI().getPath();
+			String query  = exchange.getRequestURI().getRawQuery();
+			if (path.equals("/v1/ping")) {
+				pings.incrementAndGet();
+				exchange.sendResponseHeaders(204, -1);
+			} else if (method.equals("POST") && path.equals("/v1/transactions")) {
+				requests.incrementAndGet();
+				exchange.getResponseHeaders().add("Location",
+						"/v1/transactions/"+server.getPort());
+				exchange.sendResponseHeaders(303, -1);
+			} else if (method.equals("POST") && path.startsWith("/v1/transactions/")) {
+				requests.incrementAndGet();
+				transactionRequests.incrementAndGet();
+				exchange.sendResponseHeaders(204, -1);
+			} else {
+				requests.incrementAndGet();
+				if (query != null && query.contains("txid="))
+					transactionRequests.incrementAndGet();
+				exchange.sendResponseHeaders(404, -1);
+			}
+			exchange.close();
+		}
+	}
+}
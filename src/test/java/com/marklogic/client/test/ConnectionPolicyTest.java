@@ -0,0 +1,182 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.ConnectionPoolStats;
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.ConnectionPolicy;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Configures the connection pool of clients for a stub server. */
+public class ConnectionPolicyTest {
+	private StubServer     server;
+	private DatabaseClient client;
+	private volatile long  delay = 0;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// reports every document as missing after the delay
+		server.handle("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				if (delay > 0) {
+					try {
+						Thread.sleep(delay);
+					} catch (InterruptedException e) {
+					}
+				}
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+			}
+		}).start();
+	}
+	@After
+	public void after() {
+		if (client != null) {
+			client.release();
+			client = null;
+		}
+		server.stop();
+	}
+
+	private DatabaseClient newClient(ConnectionPolicy policy) {
+		DatabaseClientFactory.Bean bean = new DatabaseClientFactory.Bean();
+		bean.setHost(server.getHost());
+		bean.setPort(server.getPort());
+		bean.setUser("rest-reader");
+		bean.setPassword("x");
+		bean.setAuthentication(Authentication.BASIC);
+		bean.setConnectionPolicy(policy);
+		return bean.newClient();
+	}
+
+	@Test
+	public void testPoolStats() {
+		ConnectionPolicy policy = new ConnectionPolicy();
+		policy.setMaxPerRoute(10);
+		client = newClient(policy);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		for (int i=0; i < 3; i++) {
+			assertNull("Unexpected document", docMgr.exists("/pool/doc"+i+".txt"));
+		}
+
+		ConnectionPoolStats stats = client.getConnectionPoolStats();
+		assertEquals("Wrong maximum",   20, stats.getMax());
+		assertEquals("Leaked connection", 0, stats.getLeased());
+		assertEquals("Connection not reused", 1, stats.getAvailable());
+		assertEquals("Unexpected pending request", 0, stats.getPending());
+
+		client.release();
+		assertNull("Stats after release", client.getConnectionPoolStats());
+		client = null;
+	}
+
+	@Test
+	public void testEviction() throws InterruptedException {
+		ConnectionPolicy policy = new ConnectionPolicy();
+		policy.setEvictionInterval(100);
+		policy.setIdleTimeout(100);
+		client = newClient(policy);
+
+		client.newTextDocumentManager().exists("/pool/doc.txt");
+		assertEquals("Connection not pooled", 1, client.getConnectionPoolStats().getAvailable());
+
+		long startTime = System.currentTimeMillis();
+		while (client.getConnectionPoolStats().getAvailable() > 0 &&
+				System.currentTimeMillis() - startTime < 5000) {
+			Thread.sleep(50);
+		}
+		assertEquals("Idle connection not evicted", 0, client.getConnectionPoolStats().getAvailable());
+	}
+
+	@Test
+	public void testReadTimeout() {
+		ConnectionPolicy policy = new ConnectionPolicy();
+		policy.setReadTimeout(200);
+		client = newClient(policy);
+
+		delay = 2000;
+		long startTime = System.currentTimeMillis();
+		try {
+			client.newTextDocumentManager().exists("/pool/doc.txt");
+			fail("Request did not time out");
+		} catch (RuntimeException e) {
+			assertTrue("Unexpected failure: "+e, e.getCause() instanceof SocketTimeoutException);
+		}
+		assertTrue("Timeout too late", System.currentTimeMillis() - startTime < 1500);
+	}
+
+	@Test
+	public void testPendingRequests() throws InterruptedException {
+		ConnectionPolicy policy = new ConnectionPolicy();
+		policy.setMaxPerRoute(1);
+		policy.setMaxTotal(1);
+		DatabaseClientFactory.setConnectionPolicy(policy);
+		try {
+			client = server.newClient("rest-reader");
+		} finally {
+			DatabaseClientFactory.setConnectionPolicy(null);
+		}
+
+		delay = 500;
+		Thread[] threads = new Thread[2];
+		for (int i=0; i < threads.length; i++) {
+			final String uri = "/pool/doc"+i+".txt";
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					client.newTextDocumentManager().exists(uri);
+				}
+			};
+			threads[i].start();
+		}
+
+		ConnectionPoolStats stats = client.getConnectionPoolStats();
+		long startTime = System.currentTimeMillis();
+		while (stats.getPending() == 0 && System.currentTimeMillis() - startTime < 400) {
+			Thread.sleep(10);
+			stats = client.getConnectionPoolStats();
+		}
+		assertEquals("Wrong leased connections", 1, stats.getLeased());
+		assertEquals("Wrong pending requests",   1, stats.getPending());
+
+		for (Thread thread: threads) {
+			thread.join();
+		}
+		stats = client.getConnectionPoolStats();
+		assertEquals("Leaked connection", 0, stats.getLeased());
+		assertEquals("Request still pending", 0, stats.getPending());
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.ResourceNotFoundException;
+import com.marklogic.client.document.DocumentCache;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.io.BytesHandle;
+import com.marklogic.client.io.InputStreamHandle;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Reads documents through a document cache against a stub server. */
+public class DocumentCacheTest {
+	private StubServer          server;
+	private DatabaseClient      client;
+	private TextDocumentManager docMgr;
+	private Map<String, String> documents = new ConcurrentHashMap<String, String>();
+	private Map<String, Long>   versions  = new ConcurrentHashMap<String, Long>();
+	private AtomicInteger       reads     = new AtomicInteger();
+	private AtomicInteger       transfers = new AtomicInteger();
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// reads and writes text documents, replying 304 for a current version
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String uri = null;
+				for (String param: exchange.getRequestURI().getRawQuery().split("&")) {
+					if (param.startsWith("uri="))
+						uri = URLDecoder.decode(param.substring(4), "UTF-8");
+				}
+
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					store(uri, readBody(exchange.getRequestBody()));
+					exchange.sendResponseHeaders(201, -1);
+					exchange.close();
+					return;
+				}
+
+				reads.incrementAndGet();
+				String content = documents.get(uri);
+				if (content == null) {
+					byte[] bytes = "document not found".getBytes("UTF-8");
+					exchange.getResponseHeaders().add("Content-Type", "text/plain");
+					exchange.sendResponseHeaders(404, bytes.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(bytes);
+					out.close();
+					return;
+				}
+				String etag = "\""+versions.get(uri)+"\"";
+				exchange.getResponseHeaders().add("ETag", etag);
+				if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+					exchange.sendResponseHeaders(304, -1);
+					exchange.close();
+					return;
+				}
+
+				transfers.incrementAndGet();
+				byte[] bytes = content.getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "text/plain");
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+		docMgr = client.newTextDocumentManager();
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	private void store(String uri, String content) {
+		Long version = versions.get(uri);
+		versions.put(uri, (version == null) ? 1 : version + 1);
+		documents.put(uri, content);
+	}
+	private String readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read = 0;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toString("UTF-8");
+	}
+
+	@Test
+	public void testRevalidation() {
+		store("/reference/codes.txt", "first codes");
+		DocumentCache cache = docMgr.newDocumentCache(1024);
+		docMgr.setDocumentCache(cache);
+
+		for (int i=0; i < 3; i++) {
+			assertEquals("Wrong content", "first codes", docMgr.read("/reference/codes.txt", new StringHandle()).get());
+		}
+		assertEquals("Wrong reads",         3, reads.get());
+		assertEquals("Wrong transfers",     1, transfers.get());
+		assertEquals("Wrong hits",          2, cache.getHitCount());
+		assertEquals("Wrong revalidations", 2, cache.getRevalidationCount());
+		assertEquals("Wrong misses",        1, cache.getMissCount());
+		assertEquals("Wrong bytes", "first codes".length(), cache.getCurrentBytes());
+
+		// a change on the server is transferred on the next read
+		store("/reference/codes.txt", "second codes");
+		assertEquals("Wrong changed content", "second codes",
+				new String(docMgr.read("/reference/codes.txt", new BytesHandle()).get()));
+		assertEquals("Wrong changed transfers", 2, transfers.get());
+		assertEquals("Wrong changed misses",    2, cache.getMissCount());
+		assertEquals("Wrong changed documents", 1, cache.getDocumentCount());
+
+		// uncached reads are unchanged
+		docMgr.setDocumentCache(null);
+		docMgr.read("/reference/codes.txt", new StringHandle());
+		assertEquals("Wrong uncached transfers", 3, transfers.get());
+	}
+
+	@Test
+	public void testChangedBytes() {
+		store("/reference/codes.txt", "first codes");
+		DocumentCache cache = docMgr.newDocumentCache(1024);
+		docMgr.setDocumentCache(cache);
+
+		// changing the bytes of a miss or a hit leaves the cached document intact
+		for (int i=0; i < 2; i++) {
+			byte[] bytes = docMgr.read("/reference/codes.txt", new BytesHandle()).get();
+			assertEquals("Wrong bytes", "first codes", new String(bytes));
+			bytes[0] = 'X';
+		}
+		assertEquals("Wrong content after change", "first codes",
+				new String(docMgr.read("/reference/codes.txt", new BytesHandle()).get()));
+		assertEquals("Wrong transfers", 1, transfers.get());
+	}
+
+	@Test
+	public void testMaxAge() {
+		store("/reference/codes.txt", "first codes");
+		DocumentCache cache = docMgr.newDocumentCache(1024);
+		cache.setMaxAge(1, TimeUnit.MINUTES);
+		docMgr.setDocumentCache(cache);
+
+		for (int i=0; i < 3; i++) {
+			assertEquals("Wrong content", "first codes", docMgr.read("/reference/codes.txt", new StringHandle()).get());
+		}
+		assertEquals("Wrong reads",         1, reads.get());
+		assertEquals("Wrong hits",          2, cache.getHitCount());
+		assertEquals("Wrong revalidations", 0, cache.getRevalidationCount());
+
+		// writing through the manager removes the cached document
+		docMgr.write("/reference/codes.txt", new StringHandle("new codes"));
+		assertEquals("Wrong written content", "new codes", docMgr.read("/reference/codes.txt", new StringHandle()).get());
+		assertEquals("Wrong written reads", 2, reads.get());
+	}
+
+	@Test
+	public void testEviction() {
+		for (String name: new String[]{"a", "b", "c"}) {
+			store("/reference/"+name+".txt", "0123456789012345678901234567890123456789");
+		}
+		DocumentCache cache = docMgr.newDocumentCache(100);
+		cache.setMaxAge(1, TimeUnit.MINUTES);
+		docMgr.setDocumentCache(cache);
+
+		docMgr.read("/reference/a.txt", new StringHandle());
+		docMgr.read("/reference/b.txt", new StringHandle());
+		docMgr.read("/reference/a.txt", new StringHandle());
+		docMgr.read("/reference/c.txt", new StringHandle());
+		assertEquals("Wrong evictions", 1,  cache.getEvictionCount());
+		assertEquals("Wrong documents", 2,  cache.getDocumentCount());
+		assertEquals("Wrong bytes",     80, cache.getCurrentBytes());
+
+		// the least recently read document was evicted
+		docMgr.read("/reference/a.txt", new StringHandle());
+		assertEquals("Evicted recent document", 3, reads.get());
+		docMgr.read("/reference/b.txt", new StringHandle());
+		assertEquals("Kept old document", 4, reads.get());
+	}
+
+	@Test
+	public void testStreamingBypass() throws IOException {
+		store("/reference/codes.txt", "first codes");
+		DocumentCache cache = docMgr.newDocumentCache(1024);
+		cache.setMaxAge(1, TimeUnit.MINUTES);
+		docMgr.setDocumentCache(cache);
+
+		// streamed content is read from the response without caching
+		for (int i=0; i < 2; i++) {
+			InputStreamHandle handle = docMgr.read("/reference/codes.txt", new InputStreamHandle());
+			assertEquals("Wrong streamed content", "first codes", readBody(handle.get()));
+		}
+		assertEquals("Wrong streamed transfers", 2, transfers.get());
+		assertEquals("Wrong streamed documents", 0, cache.getDocumentCount());
+		assertEquals("Wrong streamed misses",    0, cache.getMissCount());
+	}
+
+	@Test
+	public void testDeletedDocument() {
+		store("/reference/codes.txt", "first codes");
+		DocumentCache cache = docMgr.newDocumentCache(1024);
+		docMgr.setDocumentCache(cache);
+
+		docMgr.read("/reference/codes.txt", new StringHandle());
+		assertEquals("Wrong cached documents", 1, cache.getDocumentCount());
+
+		// a document deleted on the server is removed from the cache
+		documents.remove("/reference/codes.txt");
+		try {
+			docMgr.read("/reference/codes.txt", new StringHandle());
+			fail("Read deleted document");
+		} catch (ResourceNotFoundException e) {
+		}
+		assertEquals("Wrong deleted documents", 0, cache.getDocumentCount());
+		assertEquals("Wrong deleted bytes",     0, cache.getCurrentBytes());
+	}
+}
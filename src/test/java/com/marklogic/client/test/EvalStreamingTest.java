@@ -0,0 +1,204 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.eval.EvalResult;
+import com.marklogic.client.eval.EvalResultIterator;
+import com.marklogic.client.io.Format;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Reads eval results from a stub server with and without streaming. */
+public class EvalStreamingTest {
+	static final String BOUNDARY = "EVAL_BOUNDARY";
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private volatile int   itemCount = 0;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// returns mixed atomic values or, when an item count is set, that many integers
+		server.handle("/v1/eval", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				byte[] buffer = new byte[8192];
+				while (exchange.getRequestBody().read(buffer) != -1);
+
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, 0);
+				OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 64 * 1024);
+				if (itemCount > 0) {
+					for (int i=0; i < itemCount; i++) {
+						writePart(out, "text/plain", "integer", String.valueOf(i));
+					}
+				} else {
+					writePart(out, "text/plain",       "integer", "9007199254740993");
+					writePart(out, "text/plain",       "double",  "2.5E3");
+					writePart(out, "text/plain",       "boolean", "true");
+					writePart(out, "text/plain",       "decimal", "12.75");
+					writePart(out, "text/plain",       "string",  "Mars");
+					writePart(out, "text/plain",       "gYear",   "2015");
+					writePart(out, "application/xml",  "element()", "<planet>Mars</planet>");
+					writePart(out, "application/json", null,      "{\"planet\":\"Mars\"}");
+				}
+				out.write(("--"+BOUNDARY+"--\r\n").getBytes("UTF-8"));
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-evaluator");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	static void writePart(OutputStream out, String contentType, String primitive, String value)
+	throws IOException {
+		StringBuilder part = new StringBuilder();
+		part.append("--").append(BOUNDARY).append("\r\n");
+		part.append("Content-Type: ").append(contentType).append("\r\n");
+		if (primitive != null)
+			part.append("X-Primitive: ").append(primitive).append("\r\n");
+		part.append("\r\n").append(value).append("\r\n");
+		out.write(part.toString().getBytes("UTF-8"));
+	}
+
+	private void checkTypes(boolean streaming) {
+		EvalResultIterator results = client.newServerEval()
+				.xquery("(9007199254740993, 2.5e3, fn:true())")
+				.streaming(streaming)
+				.eval();
+
+		EvalResult result = results.next();
+		assertEquals("Wrong integer type", EvalResult.Type.INTEGER, result.getType());
+		assertEquals("Wrong long", 9007199254740993L, result.getLong());
+		assertEquals("Wrong number", Long.valueOf(9007199254740993L), result.getNumber());
+		assertEquals("Wrong repeated string", "9007199254740993", result.getString());
+
+		result = results.next();
+		assertEquals("Wrong double type", EvalResult.Type.DOUBLE, result.getType());
+		assertEquals("Wrong double", 2500.0, result.getDouble(), 0.0);
+		assertEquals("Wrong double number", Double.valueOf(2500.0), result.getNumber());
+
+		result = results.next();
+		assertEquals("Wrong boolean type", EvalResult.Type.BOOLEAN, result.getType());
+		assertTrue("Wrong boolean", result.getBoolean());
+
+		result = results.next();
+		assertEquals("Wrong decimal type", EvalResult.Type.DECIMAL, result.getType());
+		assertEquals("Wrong decimal", new BigDecimal("12.75"), result.getNumber());
+
+		result = results.next();
+		assertEquals("Wrong string type", EvalResult.Type.STRING, result.getType());
+		assertEquals("Wrong string", "Mars", result.getString());
+
+		// advancing without reading the content skips the content
+		assertEquals("Wrong year type", EvalResult.Type.GYEAR, results.next().getType());
+
+		result = results.next();
+		assertEquals("Wrong xml type", EvalResult.Type.XML, result.getType());
+		assertEquals("Wrong format", Format.XML, result.getFormat());
+		assertEquals("Wrong xml", "<planet>Mars</planet>", result.getString());
+
+		result = results.next();
+		assertEquals("Wrong json type", EvalResult.Type.JSON, result.getType());
+
+		assertFalse("Extra result", results.hasNext());
+		results.close();
+	}
+
+	@Test
+	public void testTypes() {
+		checkTypes(false);
+	}
+	@Test
+	public void testStreamingTypes() {
+		checkTypes(true);
+	}
+
+	private long sumItems(boolean streaming) {
+		EvalResultIterator results = client.newServerEval()
+				.xquery("1 to "+itemCount)
+				.streaming(streaming)
+				.eval();
+		long sum = 0;
+		int  count = 0;
+		while (results.hasNext()) {
+			EvalResult result = results.next();
+			if (result.getType() == EvalResult.Type.INTEGER)
+				sum += result.getLong();
+			count++;
+		}
+		results.close();
+		assertEquals("Wrong item count", itemCount, count);
+		return sum;
+	}
+
+	private long timeSum(boolean streaming, int count) {
+		itemCount = count;
+		long expected = (long) count * (count - 1) / 2;
+		System.gc();
+		long start = System.nanoTime();
+		assertEquals("Wrong sum", expected, sumItems(streaming));
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	@Test
+	public void testItems() {
+		itemCount = 1000;
+		assertEquals("Wrong materialized sum", 499500, sumItems(false));
+		assertEquals("Wrong streamed sum",     499500, sumItems(true));
+	}
+
+	@Test
+	public void testMillionItems() {
+		Benchmarks.assumeEnabled();
+
+		// warm up the streaming path
+		timeSum(true, 10000);
+
+		// materializing every part before iterating needs heap for the whole
+		// result, so the comparison uses a smaller result
+		long materializedMillis = timeSum(false, 100000);
+		long streamedMillis     = timeSum(true,  100000);
+		long millionMillis      = timeSum(true,  1000000);
+
+		System.out.println("eval of 100000 integers: materialized "+materializedMillis+
+				" ms, streamed "+streamedMillis+" ms; eval of 1000000 integers streamed "+
+				millionMillis+" ms (max heap "+(Runtime.getRuntime().maxMemory() / (1024 * 1024))+" MB)");
+	}
+}
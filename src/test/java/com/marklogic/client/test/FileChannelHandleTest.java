@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.document.BinaryDocumentManager;
+import com.marklogic.client.io.FileChannelHandle;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Transfers binary documents through file channels against a stub server.
+ * Set the com.marklogic.client.test.transferMegabytes system property
+ * to 1024 for a 1 GB transfer.
+ */
+public class FileChannelHandleTest {
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private File           stored;
+	private AtomicInteger  refusals = new AtomicInteger();
+
+	@Before
+	public void before() throws IOException {
+		stored = File.createTempFile("stored", ".bin");
+		stored.deleteOnExit();
+
+		server = new StubServer();
+		// streams the one stored document to and from a file
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					InputStream in = exchange.getRequestBody();
+					if (refusals.getAndDecrement() > 0) {
+						copy(in, new NullOutputStream());
+						exchange.getResponseHeaders().add("Retry-After", "0");
+						exchange.sendResponseHeaders(503, -1);
+						exchange.close();
+						return;
+					}
+					copy(in, new FileOutputStream(stored));
+					exchange.sendResponseHeaders(201, -1);
+					exchange.close();
+					return;
+				}
+				exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+				exchange.sendResponseHeaders(200, stored.length());
+				copy(new FileInputStream(stored), exchange.getResponseBody());
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+		stored.delete();
+	}
+
+	static void copy(InputStream in, OutputStream out) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read = 0;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		out.close();
+	}
+	static class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+
+	static long makeFile(File file, long size) throws IOException {
+		CRC32  checksum = new CRC32();
+		Random random   = new Random(size);
+		byte[] block    = new byte[BUFFER_SIZE];
+		OutputStream out = new FileOutputStream(file);
+		for (long written=0; written < size; written += block.length) {
+			random.nextBytes(block);
+			int len = (int) Math.min(block.length, size - written);
+			out.write(block, 0, len);
+			checksum.update(block, 0, len);
+		}
+		out.close();
+		return checksum.getValue();
+	}
+	static long checksum(File file) throws IOException {
+		CRC32       checksum = new CRC32();
+		byte[]      block    = new byte[BUFFER_SIZE];
+		InputStream in       = new FileInputStream(file);
+		int read = 0;
+		while ((read = in.read(block)) != -1) {
+			checksum.update(block, 0, read);
+		}
+		in.close();
+		return checksum.getValue();
+	}
+
+	static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+		}
+	}
+	static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	@Test
+	public void testResendFromPosition() throws IOException {
+		File source = File.createTempFile("source", ".bin");
+		source.deleteOnExit();
+		makeFile(source, 100000);
+
+		// the write starts from the position when the channel was assigned
+		RandomAccessFile input = new RandomAccessFile(source, "r");
+		input.seek(1000);
+		FileChannelHandle handle = new FileChannelHandle(input.getChannel());
+		input.seek(5000);
+
+		refusals.set(1);
+		client.newBinaryDocumentManager().write("/channel/part.bin", handle);
+		input.close();
+		assertEquals("Wrong stored length", 99000, stored.length());
+
+		// a read appends at the position of the channel
+		File target = File.createTempFile("target", ".bin");
+		target.deleteOnExit();
+		RandomAccessFile output = new RandomAccessFile(target, "rw");
+		output.write(new byte[10]);
+		FileChannelHandle readHandle = client.newBinaryDocumentManager().read(
+				"/channel/part.bin", new FileChannelHandle(output.getChannel()));
+		assertEquals("Wrong received length", 99000, readHandle.getByteLength());
+		assertEquals("Wrong position", 99010, output.getChannel().position());
+		output.close();
+		assertEquals("Wrong target length", 99010, target.length());
+
+		source.delete();
+		target.delete();
+	}
+
+	@Test
+	public void testLargeTransfer() throws IOException {
+		Benchmarks.assumeEnabled();
+
+		long size = Long.getLong("com.marklogic.client.test.transferMegabytes", 64) * 1024 * 1024;
+
+		File source = File.createTempFile("source", ".bin");
+		source.deleteOnExit();
+		long expected = makeFile(source, size);
+		BinaryDocumentManager docMgr = client.newBinaryDocumentManager();
+
+		System.gc();
+		resetPeakHeap();
+		long start = System.nanoTime();
+		FileInputStream input = new FileInputStream(source);
+		docMgr.write("/channel/large.bin", new FileChannelHandle(input.getChannel()));
+		input.close();
+		long uploadNanos = System.nanoTime() - start;
+		long uploadPeak  = getPeakHeap();
+		assertEquals("Wrong stored length", size, stored.length());
+
+		File target = File.createTempFile("target", ".bin");
+		target.deleteOnExit();
+		System.gc();
+		resetPeakHeap();
+		start = System.nanoTime();
+		FileOutputStream output = new FileOutputStream(target);
+		docMgr.read("/channel/large.bin", new FileChannelHandle(output.getChannel()));
+		output.close();
+		long downloadNanos = System.nanoTime() - start;
+		long downloadPeak  = getPeakHeap();
+
+		assertEquals("Wrong target length", size, target.length());
+		assertEquals("Wrong content", expected, checksum(target));
+
+		System.out.println("file channel transfer of "+(size / (1024 * 1024))+" MB: upload "+
+				(size * 1000 / Math.max(1, uploadNanos))+" MB/s with peak heap "+
+				(uploadPeak / (1024 * 1024))+" MB, download "+
+				(size * 1000 / Math.max(1, downloadNanos))+" MB/s with peak heap "+
+				(downloadPeak / (1024 * 1024))+" MB");
+
+		source.delete();
+		target.delete();
+	}
+}
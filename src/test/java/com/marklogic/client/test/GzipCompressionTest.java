@@ -0,0 +1,207 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.CompressionPolicy;
+import com.marklogic.client.RequestMetrics.Operation;
+import com.marklogic.client.RequestMetrics.OperationMetrics;
+import com.marklogic.client.document.XMLDocumentManager;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Compresses documents and responses against a stub server. */
+public class GzipCompressionTest {
+	private StubServer          server;
+	private DatabaseClient      client;
+	private Map<String, byte[]> documents      = new ConcurrentHashMap<String, byte[]>();
+	private Map<String, String> writeEncodings = new ConcurrentHashMap<String, String>();
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// stores documents and compresses responses when the client accepts gzip
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String uri = null;
+				for (String param: exchange.getRequestURI().getRawQuery().split("&")) {
+					if (param.startsWith("uri="))
+						uri = URLDecoder.decode(param.substring(4), "UTF-8");
+				}
+
+				String method = exchange.getRequestMethod();
+				if ("PUT".equals(method)) {
+					String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+					writeEncodings.put(uri, (encoding == null) ? "identity" : encoding);
+					InputStream in = exchange.getRequestBody();
+					if ("gzip".equals(encoding))
+						in = new GZIPInputStream(in);
+					documents.put(uri, readBytes(in));
+					exchange.sendResponseHeaders(201, -1);
+					exchange.close();
+					return;
+				}
+
+				byte[] content = documents.get(uri);
+				exchange.getResponseHeaders().add("Content-Type", "application/xml");
+				exchange.getResponseHeaders().add("ETag", "\"1\"");
+				String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+				boolean isGzip = accepted != null && accepted.contains("gzip");
+				if (isGzip)
+					exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+				if ("HEAD".equals(method)) {
+					exchange.sendResponseHeaders(200, -1);
+					exchange.close();
+					return;
+				}
+				if (isGzip) {
+					exchange.sendResponseHeaders(200, 0);
+					GZIPOutputStream out = new GZIPOutputStream(exchange.getResponseBody());
+					out.write(content);
+					out.close();
+				} else {
+					exchange.sendResponseHeaders(200, content.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(content);
+					out.close();
+				}
+			}
+		});
+		server.start();
+	}
+	@After
+	public void after() {
+		DatabaseClientFactory.setCompressionPolicy(null);
+		if (client != null)
+			client.release();
+		server.stop();
+	}
+
+	private void connect(boolean gzip) {
+		if (client != null)
+			client.release();
+		CompressionPolicy policy = new CompressionPolicy();
+		policy.setGzipRequests(gzip);
+		policy.setGzipResponses(gzip);
+		DatabaseClientFactory.setCompressionPolicy(policy);
+		client = server.newClient("rest-writer");
+	}
+
+	static byte[] readBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read = 0;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	static String makeDocument(int records) {
+		StringBuilder builder = new StringBuilder("<orders>");
+		for (int i=0; i < records; i++) {
+			builder.append("<order><id>").append(i).append("</id>");
+			builder.append("<status>shipped</status><carrier>ground</carrier>");
+			builder.append("<total currency=\"USD\">").append(i % 500).append(".00</total></order>");
+		}
+		return builder.append("</orders>").toString();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		connect(true);
+		String document = makeDocument(2000);
+		XMLDocumentManager docMgr = client.newXMLDocumentManager();
+		docMgr.write("/gzip/orders.xml", new StringHandle(document));
+		assertEquals("Write not compressed", "gzip", writeEncodings.get("/gzip/orders.xml"));
+
+		StringHandle handle = docMgr.read("/gzip/orders.xml", new StringHandle());
+		assertEquals("Wrong content", document, handle.get());
+		assertEquals("Compressed length reported", -1, handle.getByteLength());
+		assertTrue("Empty compressed HEAD failed", docMgr.exists("/gzip/orders.xml") != null);
+
+		OperationMetrics writes = client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_WRITE);
+		OperationMetrics reads  = client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_READ);
+		assertTrue("Write not smaller on wire: "+writes.getBytesSent(),
+				writes.getBytesSent() * 5 < document.length());
+		assertTrue("Read not smaller on wire: "+reads.getBytesReceived(),
+				reads.getBytesReceived() * 5 < document.length());
+
+		// an uncompressed client is unchanged
+		connect(false);
+		docMgr = client.newXMLDocumentManager();
+		docMgr.write("/gzip/plain.xml", new StringHandle(document));
+		assertEquals("Write compressed", "identity", writeEncodings.get("/gzip/plain.xml"));
+		handle = docMgr.read("/gzip/plain.xml", new StringHandle());
+		assertEquals("Wrong plain content", document, handle.get());
+		assertEquals("Wrong plain length", document.length(), handle.getByteLength());
+	}
+
+	@Test
+	public void testThroughput() {
+		Benchmarks.assumeEnabled();
+
+		String document = makeDocument(20000);
+		int    rounds   = 10;
+		for (boolean gzip: new boolean[]{false, true}) {
+			connect(gzip);
+			XMLDocumentManager docMgr = client.newXMLDocumentManager();
+			// warm up the connection and the codecs
+			docMgr.write("/gzip/bench.xml", new StringHandle(document));
+			docMgr.read("/gzip/bench.xml", new StringHandle());
+			client.getRequestMetrics().reset();
+
+			long start = System.nanoTime();
+			for (int i=0; i < rounds; i++) {
+				docMgr.write("/gzip/bench.xml", new StringHandle(document));
+				assertEquals("Wrong length", document.length(),
+						docMgr.read("/gzip/bench.xml", new StringHandle()).get().length());
+			}
+			long elapsed = Math.max(1, System.nanoTime() - start);
+
+			long wireBytes =
+				client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_WRITE).getBytesSent() +
+				client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_READ).getBytesReceived();
+			long contentBytes = 2L * rounds * document.length();
+			System.out.println((gzip ? "gzip" : "identity")+": "+
+					(contentBytes * 1000 / elapsed)+" MB/s of content, "+
+					wireBytes+" bytes on the wire for "+contentBytes+" bytes of content");
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.marklogic.client.DatabaseClientFactory.HandleFactoryRegistry;
+import com.marklogic.client.impl.HandleFactoryRegistryImpl;
+import com.marklogic.client.io.InputStreamHandle;
+import com.marklogic.client.io.JacksonHandle;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.HandleAsTest.BufferHandleFactory;
+import com.marklogic.client.test.util.Benchmarks;
+
+/** Makes handles from a registry shared by threads. */
+public class HandleFactoryRegistryTest {
+	static final Class<?>[] TYPES = {
+		String.class, byte[].class, ByteArrayInputStream.class, ObjectNode.class, InputStream.class
+		};
+
+	@Test
+	public void testResolution() {
+		HandleFactoryRegistry registry = HandleFactoryRegistryImpl.newDefault();
+
+		// a subclass resolves to the factory of the registered class
+		assertEquals("Wrong subclass handle", InputStreamHandle.class,
+				registry.makeHandle(ByteArrayInputStream.class).getClass());
+		assertEquals("Wrong subclass handle", JacksonHandle.class,
+				registry.makeHandle(ObjectNode.class).getClass());
+		assertFalse("Resolved class listed as registered",
+				registry.listRegistered().contains(ByteArrayInputStream.class));
+
+		// unregistering the class also removes the resolution for the subclass
+		registry.unregister(InputStream.class);
+		assertFalse("Subclass still registered", registry.isRegistered(ByteArrayInputStream.class));
+		try {
+			registry.makeHandle(ByteArrayInputStream.class);
+			fail("Made handle for unregistered class");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// registering a class replaces a cached absence
+		assertFalse("Buffer registered by default", registry.isRegistered(StringBuilder.class));
+		registry.register(new BufferHandleFactory());
+		assertTrue("Buffer not registered", registry.isRegistered(StringBuilder.class));
+		registry.makeHandle(StringBuilder.class);
+
+		HandleFactoryRegistry copy = registry.copy();
+		assertTrue("Copy missing registration", copy.isRegistered(StringBuilder.class));
+		assertFalse("Copy has unregistered class", copy.isRegistered(InputStream.class));
+	}
+
+	private long makeHandles(final HandleFactoryRegistry registry, int threads, final int calls)
+	throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		long start = System.nanoTime();
+		for (int i=0; i < threads; i++) {
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int count = 0;
+					for (int j=0; j < calls; j++) {
+						if (registry.makeHandle(TYPES[j % TYPES.length]) != null)
+							count++;
+					}
+					return count;
+				}
+			}));
+		}
+		for (Future<Integer> future: futures) {
+			assertEquals("Wrong handle count", calls, future.get().intValue());
+		}
+		long nanos = System.nanoTime() - start;
+		executor.shutdown();
+		return (long) threads * calls * 1000000000L / nanos;
+	}
+
+	@Test
+	public void testConcurrentMakeHandle() throws Exception {
+		final HandleFactoryRegistry registry = HandleFactoryRegistryImpl.newDefault();
+
+		// registration changes while other threads make handles
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread registrar = new Thread() {
+			@Override
+			public void run() {
+				while (!done.get()) {
+					registry.register(StringHandle.newFactory(), CharSequence.class);
+					registry.unregister(CharSequence.class);
+				}
+			}
+		};
+		registrar.start();
+		try {
+			makeHandles(registry, 8, 200000);
+		} finally {
+			done.set(true);
+			registrar.join();
+		}
+
+	}
+
+	@Test
+	public void testManyUnregisteredClasses() {
+		HandleFactoryRegistry registry = HandleFactoryRegistryImpl.newDefault();
+
+		// more array classes than the registry caches absences for
+		Class<?>[] components = {int.class, long.class, char.class, double.class, boolean.class};
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		for (Class<?> component: components) {
+			Class<?> type = component;
+			for (int i=0; i < 250; i++) {
+				type = Array.newInstance(type, 0).getClass();
+				types.add(type);
+			}
+		}
+		for (int i=0; i < 2; i++) {
+			for (Class<?> type: types) {
+				assertFalse("Array registered: "+type.getName(), registry.isRegistered(type));
+			}
+		}
+
+		// lookups past the cached absences still see later registrations
+		Class<?> lastType = types.get(types.size() - 1);
+		registry.register(new BufferHandleFactory(), lastType);
+		assertTrue("Array not registered", registry.isRegistered(lastType));
+		assertTrue("String not registered", registry.isRegistered(String.class));
+	}
+
+	@Test
+	public void testManyResolvedClasses() throws Exception {
+		HandleFactoryRegistry registry = HandleFactoryRegistryImpl.newDefault();
+		registry.register(new BufferHandleFactory(), Runnable.class);
+
+		// more generated implementations than the registry caches resolutions for
+		WeakReference<ClassLoader> lastLoader = lookupProxyClasses(registry, 1500);
+
+		// a class loaded after the cache filled isn't kept alive by the registry
+		for (int i=0; i < 20 && lastLoader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull("Class loader kept by registry", lastLoader.get());
+
+		// unregistering the interface still removes the cached resolutions
+		registry.unregister(Runnable.class);
+		assertFalse("Proxy class still registered",
+				registry.isRegistered(Proxy.getProxyClass(getClass().getClassLoader(), Runnable.class)));
+		assertTrue("String not registered", registry.isRegistered(String.class));
+	}
+	// looks up proxy classes defined by separate class loaders and returns the last loader
+	private WeakReference<ClassLoader> lookupProxyClasses(HandleFactoryRegistry registry, int count) {
+		ClassLoader parent = getClass().getClassLoader();
+		WeakReference<ClassLoader> lastLoader = null;
+		for (int i=0; i < count; i++) {
+			ClassLoader loader = new ClassLoader(parent) {};
+			Class<?> type = Proxy.getProxyClass(loader, Runnable.class);
+			assertTrue("Proxy class not registered: "+type.getName(), registry.isRegistered(type));
+			lastLoader = new WeakReference<ClassLoader>(loader);
+		}
+		return lastLoader;
+	}
+
+	@Test
+	public void testMakeHandleRate() throws Exception {
+		Benchmarks.assumeEnabled();
+
+		HandleFactoryRegistry registry = HandleFactoryRegistryImpl.newDefault();
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		makeHandles(registry, threads, 200000);
+		long singleRate = makeHandles(registry, 1, 1000000);
+		long sharedRate = makeHandles(registry, threads, 1000000);
+		System.out.println("makeHandle per second: 1 thread "+singleRate+", "+
+				threads+" threads "+sharedRate);
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.marklogic.client.impl.HandleAccessor;
+import com.marklogic.client.impl.JAXBPool;
+import com.marklogic.client.impl.ValuesBuilder;
+import com.marklogic.client.io.ValuesHandle;
+import com.marklogic.client.query.CountedDistinctValue;
+import com.marklogic.client.test.util.Benchmarks;
+
+/** Builds and parses values handles concurrently without a server. */
+public class JAXBPoolTest {
+	final static int THREADS = 8;
+	final static int PARSES  = 250;
+
+	@Test
+	public void testSharedContext() {
+		assertSame("Context not shared",
+				JAXBPool.getContext(ValuesBuilder.Values.class),
+				JAXBPool.getContext(ValuesBuilder.Values.class));
+	}
+
+	@Test
+	public void testConcurrentParse()
+	throws IOException, InterruptedException, ExecutionException {
+		parseConcurrently(20);
+	}
+
+	@Test
+	public void testParseThroughput()
+	throws IOException, InterruptedException, ExecutionException {
+		Benchmarks.assumeEnabled();
+
+		long elapsed = parseConcurrently(PARSES);
+		System.out.println("Built and parsed "+(THREADS * PARSES)+" values handles on "+
+				THREADS+" threads in "+elapsed+" ms");
+	}
+
+	private long parseConcurrently(final int parses)
+	throws IOException, InterruptedException, ExecutionException {
+		final byte[] values = readFile(new File("src/test/resources/values.xml"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			long startTime = System.currentTimeMillis();
+			for (int i=0; i < THREADS; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int j=0; j < parses; j++) {
+							ValuesHandle handle = new ValuesHandle();
+							HandleAccessor.receiveContent(handle, new ByteArrayInputStream(values));
+
+							CountedDistinctValue[] distinct = handle.getValues();
+							assertEquals("Wrong values", 8, distinct.length);
+							assertEquals("Wrong value", 815L,
+									(long) distinct[0].get(handle.getType(), Long.class));
+							assertEquals("Unexpected aggregates", 0, handle.getAggregates().length);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future: futures) {
+				future.get();
+			}
+			return System.currentTimeMillis() - startTime;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private byte[] readFile(File file) throws IOException {
+		byte[] bytes = new byte[(int) file.length()];
+		InputStream in = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < bytes.length) {
+				int read = in.read(bytes, offset, bytes.length - offset);
+				if (read < 0)
+					break;
+				offset += read;
+			}
+		} finally {
+			in.close();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.pojo.PojoRepository;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Writes and deletes pojos in batches against a stub server. */
+public class PojoBatchTest {
+	final static int CITIES = 1000;
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private AtomicInteger  writeRequests  = new AtomicInteger();
+	private AtomicInteger  deleteRequests = new AtomicInteger();
+	private Set<String>    written        = Collections.synchronizedSet(new HashSet<String>());
+	private Set<String>    deleted        = Collections.synchronizedSet(new HashSet<String>());
+	private volatile int   deleteStatus   = 204;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// records the uris of each document write or delete
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				if ("DELETE".equals(exchange.getRequestMethod())) {
+					deleteRequests.incrementAndGet();
+					if (deleteStatus != 204) {
+						byte[] message = "Too many requests".getBytes("UTF-8");
+						exchange.getResponseHeaders().add("Content-Type", "text/plain");
+						exchange.sendResponseHeaders(deleteStatus, message.length);
+						exchange.getResponseBody().write(message);
+						exchange.close();
+						return;
+					}
+					for (String param: exchange.getRequestURI().getRawQuery().split("&")) {
+						if (param.startsWith("uri="))
+							deleted.add(URLDecoder.decode(param.substring(4), "UTF-8"));
+					}
+				} else {
+					writeRequests.incrementAndGet();
+					BufferedReader reader = new BufferedReader(
+							new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+					String line = null;
+					while ((line = reader.readLine()) != null) {
+						int start = line.indexOf("filename=");
+						if (!line.toLowerCase().startsWith("content-disposition: attachment") || start == -1)
+							continue;
+						// metadata and content parts name the same uri
+						written.add(line.substring(start + 9).split(";")[0].replace("\"", ""));
+					}
+				}
+				exchange.sendResponseHeaders(204, -1);
+				exchange.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	private List<City> makeCities() {
+		List<City> cities = new ArrayList<City>(CITIES);
+		for (int i=0; i < CITIES; i++) {
+			cities.add(new City().setGeoNameId(i).setName("city "+i));
+		}
+		return cities;
+	}
+
+	@Test
+	public void testBatchWrite() {
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+		List<City> entities = makeCities();
+
+		cities.write(entities);
+
+		assertEquals("Wrong batch requests", CITIES / 100, writeRequests.get());
+		assertEquals("Wrong documents", CITIES, written.size());
+		assertTrue("Missing document", written.contains(cities.getDocumentUri(entities.get(CITIES - 1))));
+
+		writeRequests.set(0);
+		cities.write(entities, 300, "batched");
+		assertEquals("Wrong requests for batch size", 4, writeRequests.get());
+	}
+
+	@Test
+	public void testWriteThroughput() {
+		Benchmarks.assumeEnabled();
+
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+		List<City> entities = makeCities();
+
+		long startTime = System.currentTimeMillis();
+		for (City city: entities.subList(0, 100)) {
+			cities.write(city);
+		}
+		long singleTime = System.currentTimeMillis() - startTime;
+		assertEquals("Wrong single requests", 100, writeRequests.get());
+
+		startTime = System.currentTimeMillis();
+		cities.write(entities);
+		long batchTime = System.currentTimeMillis() - startTime;
+
+		System.out.println("Wrote "+(100 * 1000 / Math.max(singleTime, 1))+" pojos per second one at a time and "+
+				(CITIES * 1000 / Math.max(batchTime, 1))+" pojos per second in batches");
+	}
+
+	@Test
+	public void testBatchDelete() {
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+
+		Integer[] ids = new Integer[250];
+		for (int i=0; i < ids.length; i++) {
+			ids[i] = i;
+		}
+		cities.delete(ids);
+
+		assertEquals("Wrong delete requests", 3, deleteRequests.get());
+		assertEquals("Wrong deleted documents", 250, deleted.size());
+		assertTrue("Missing deleted document",
+				deleted.contains(cities.getDocumentUri(new City().setGeoNameId(249))));
+	}
+
+	@Test
+	public void testDeleteFailure() {
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+
+		// a status without a Jersey enum value still produces a failed request
+		deleteStatus = 429;
+		try {
+			cities.delete(1, 2, 3);
+			fail("Delete succeeded despite status "+deleteStatus);
+		} catch (FailedRequestException e) {
+			assertTrue("Missing status: "+e.getMessage(), e.getMessage().contains("429"));
+		}
+		assertEquals("Wrong delete requests", 1, deleteRequests.get());
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.impl.PojoRepositoryImpl;
+import com.marklogic.client.pojo.PojoPage;
+import com.marklogic.client.pojo.PojoRepository;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Counts and searches one shared repository from many threads against a stub server. */
+public class PojoConcurrencyTest {
+	final static String BOUNDARY    = "STUB_BOUNDARY";
+	final static int    TOTAL       = 42;
+	final static int    PAGE_LENGTH = 5;
+	final static int    THREADS     = 8;
+	final static int    CALLS       = 50;
+
+	private StubServer                    server;
+	private DatabaseClient                client;
+	private PojoRepository<City, Integer> cities;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// returns the requested page length of cities with a constant estimate
+		server.handle("/v1/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				InputStream in = exchange.getRequestBody();
+				while (in.read() != -1);
+				in.close();
+
+				long pageLength = 10;
+				for (String param: exchange.getRequestURI().getRawQuery().split("&")) {
+					String[] pair = param.split("=", 2);
+					if ("pageLength".equals(pair[0]))
+						pageLength = Long.parseLong(URLDecoder.decode(pair[1], "UTF-8"));
+				}
+
+				exchange.getResponseHeaders().add("vnd.marklogic.start",           "1");
+				exchange.getResponseHeaders().add("vnd.marklogic.pageLength",      String.valueOf(pageLength));
+				exchange.getResponseHeaders().add("vnd.marklogic.result-estimate", String.valueOf(TOTAL));
+				if (pageLength == 0) {
+					exchange.sendResponseHeaders(200, -1);
+					exchange.close();
+					return;
+				}
+
+				ObjectMapper mapper = ((PojoRepositoryImpl<City, Integer>) cities).getObjectMapper();
+				StringBuilder body = new StringBuilder();
+				for (int i=1; i <= pageLength; i++) {
+					City city = new City().setGeoNameId(i).setName("city "+i);
+					body.append("--").append(BOUNDARY).append("\r\n");
+					body.append("Content-Type: application/json\r\n");
+					body.append("Content-Disposition: attachment; filename=\"")
+						.append(cities.getDocumentUri(city)).append("\"\r\n\r\n");
+					body.append(mapper.writeValueAsString(city)).append("\r\n");
+				}
+				body.append("--").append(BOUNDARY).append("--\r\n");
+
+				byte[] bytes = body.toString().getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-reader");
+		cities = client.newPojoRepository(City.class, Integer.class);
+		cities.setPageLength(PAGE_LENGTH);
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	@Test
+	public void testConcurrentCountAndSearch()
+	throws InterruptedException, ExecutionException {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i=0; i < THREADS; i++) {
+				final boolean counting = (i % 2 == 0);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int j=0; j < CALLS; j++) {
+							if (counting) {
+								assertEquals("Wrong count", TOTAL, cities.count());
+								continue;
+							}
+							PojoPage<City> page = cities.readAll(1);
+							try {
+								assertEquals("Wrong page size", PAGE_LENGTH, page.size());
+								int read = 0;
+								for (City city: page) {
+									assertEquals("Wrong city", "city "+(++read), city.getName());
+								}
+								assertEquals("Wrong cities read", PAGE_LENGTH, read);
+							} finally {
+								page.close();
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future: futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals("Page length changed", PAGE_LENGTH, cities.getPageLength());
+	}
+}
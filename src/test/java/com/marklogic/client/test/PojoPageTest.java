@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.document.DocumentPage;
+import com.marklogic.client.document.DocumentRecord;
+import com.marklogic.client.impl.BasicPage;
+import com.marklogic.client.impl.HandleAccessor;
+import com.marklogic.client.impl.PojoPageImpl;
+import com.marklogic.client.impl.PojoRepositoryImpl;
+import com.marklogic.client.io.JacksonDatabindHandle;
+import com.marklogic.client.io.marker.AbstractReadHandle;
+import com.marklogic.client.test.util.Benchmarks;
+
+/** Reads a large page of POJOs without a server to compare a shared reader
+ *  with a mapper for each record.
+ **/
+public class PojoPageTest {
+    final static int RECORDS = 10000;
+
+    class TestDocumentPage extends BasicPage<DocumentRecord> implements DocumentPage {
+        private Iterator<byte[]> contents;
+        TestDocumentPage(List<byte[]> contents) {
+            super(new ArrayList<DocumentRecord>().iterator(), 1, contents.size(), contents.size());
+            this.contents = contents.iterator();
+        }
+        @Override
+        public boolean hasNext() {
+            return contents.hasNext();
+        }
+        @Override
+        public <T extends AbstractReadHandle> T nextContent(T contentHandle) {
+            HandleAccessor.receiveContent(contentHandle, new ByteArrayInputStream(contents.next()));
+            return contentHandle;
+        }
+        @Override
+        public void close() {
+        }
+    }
+
+    private ObjectMapper getMapper(DatabaseClient client) {
+        return ((PojoRepositoryImpl<City, Integer>)
+            client.newPojoRepository(City.class, Integer.class)).getObjectMapper();
+    }
+
+    private List<byte[]> makeContents(ObjectMapper mapper, int records) throws IOException {
+        List<byte[]> contents = new ArrayList<byte[]>(records);
+        for ( int i=0; i < records; i++ ) {
+            City city = new City().setGeoNameId(i).setName("city "+i).setPopulation(i * 10);
+            contents.add(mapper.writeValueAsBytes(city));
+        }
+        return contents;
+    }
+
+    private int readShared(ObjectMapper mapper, List<byte[]> contents) {
+        PojoPageImpl<City> page =
+            new PojoPageImpl<City>(new TestDocumentPage(contents), City.class, mapper.reader(City.class));
+        int count = 0;
+        for ( City city : page ) {
+            assertEquals("Wrong city", "city "+count, city.getName());
+            assertEquals("Wrong population", count * 10, city.getPopulation());
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testSharedReader() throws IOException {
+        DatabaseClient client = DatabaseClientFactory.newClient(
+            "localhost", 8012, "rest-reader", "x", Authentication.DIGEST);
+        try {
+            ObjectMapper mapper = getMapper(client);
+            assertEquals("Wrong record count", 100, readShared(mapper, makeContents(mapper, 100)));
+        } finally {
+            client.release();
+        }
+    }
+
+    @Test
+    public void testReaderThroughput() throws IOException {
+        Benchmarks.assumeEnabled();
+
+        DatabaseClient client = DatabaseClientFactory.newClient(
+            "localhost", 8012, "rest-reader", "x", Authentication.DIGEST);
+        try {
+            ObjectMapper mapper = getMapper(client);
+            List<byte[]> contents = makeContents(mapper, RECORDS);
+
+            long startTime = System.currentTimeMillis();
+            assertEquals("Wrong record count", RECORDS, readShared(mapper, contents));
+            long sharedTime = System.currentTimeMillis() - startTime;
+
+            // the previous approach configured a new mapper for each record
+            startTime = System.currentTimeMillis();
+            DocumentPage docPage = new TestDocumentPage(contents);
+            int count = 0;
+            while ( docPage.hasNext() ) {
+                JacksonDatabindHandle<City> handle = new JacksonDatabindHandle<City>(City.class);
+                handle.getMapper().enableDefaultTyping(
+                    ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.WRAPPER_OBJECT);
+                assertEquals("Wrong city", "city "+count, docPage.nextContent(handle).get().getName());
+                count++;
+            }
+            long perRecordTime = System.currentTimeMillis() - startTime;
+
+            System.out.println("Read "+RECORDS+" POJOs in "+sharedTime+" ms with a shared reader and "+
+                perRecordTime+" ms with a mapper per record");
+        } finally {
+            client.release();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.pojo.PojoRepository;
+import com.marklogic.client.test.PojoFacadeTest.TimeTest;
+import com.marklogic.client.test.util.Benchmarks;
+
+/** Builds document uris for pojos without a server. */
+public class PojoUriTest {
+	final static int CALLS = 1000000;
+
+	private DatabaseClient client;
+
+	@Before
+	public void before() {
+		client = DatabaseClientFactory.newClient("localhost", 8012, "rest-reader", "x", Authentication.DIGEST);
+	}
+	@After
+	public void after() {
+		client.release();
+	}
+
+	@Test
+	public void testUris() {
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+		assertEquals("Wrong getter uri", "com.marklogic.client.test.City/7.json",
+				cities.getDocumentUri(new City().setGeoNameId(7)));
+
+		PojoRepository<TimeTest, String> times = client.newPojoRepository(TimeTest.class, String.class);
+		assertEquals("Wrong plain uri", TimeTest.class.getName()+"/abc-1.2_x*.json",
+				times.getDocumentUri(new TimeTest("abc-1.2_x*", null)));
+		assertEquals("Wrong encoded uri", TimeTest.class.getName()+"/a+b%2Fc%3F%C3%A9.json",
+				times.getDocumentUri(new TimeTest("a b/c?\u00e9", null)));
+	}
+
+	@Test
+	public void testThroughput() throws Exception {
+		Benchmarks.assumeEnabled();
+
+		PojoRepository<City, Integer> cities = client.newPojoRepository(City.class, Integer.class);
+		City[] entities = new City[1000];
+		for (int i=0; i < entities.length; i++) {
+			entities[i] = new City().setGeoNameId(i);
+		}
+
+		// warm up both approaches before timing them
+		Method getter = City.class.getMethod("getGeoNameId");
+		long length = 0;
+		for (int pass=0; pass < 2; pass++) {
+			long startTime = System.nanoTime();
+			for (int i=0; i < CALLS; i++) {
+				length += cities.getDocumentUri(entities[i % entities.length]).length();
+			}
+			long resolvedTime = System.nanoTime() - startTime;
+
+			// the previous approach invoked the getter reflectively and encoded every id
+			startTime = System.nanoTime();
+			for (int i=0; i < CALLS; i++) {
+				Object id = getter.invoke(entities[i % entities.length]);
+				length += (City.class.getName()+"/"+URLEncoder.encode(id.toString(), "UTF-8")+".json").length();
+			}
+			long reflectiveTime = System.nanoTime() - startTime;
+
+			if (pass == 1)
+				System.out.println("Built "+(CALLS * 1000000000L / Math.max(resolvedTime, 1))+
+						" uris per second with the resolved accessor and "+
+						(CALLS * 1000000000L / Math.max(reflectiveTime, 1))+" per second reflectively");
+		}
+		// using the uris keeps the loops from being optimized away
+		assertTrue("No uris built", length > 0);
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.HandleFactoryRegistry;
+import com.marklogic.client.eval.PreparedServerEvaluation;
+import com.marklogic.client.eval.ServerEvaluationCall;
+import com.marklogic.client.impl.RESTServices;
+import com.marklogic.client.impl.ServerEvaluationCallImpl;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Runs prepared and unprepared eval calls against a stub server that echoes the variables. */
+public class PreparedEvalTest {
+	static final String BOUNDARY = "EVAL_BOUNDARY";
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private volatile String lastCode;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// returns the vars parameter of the form as a string result for eval or invoke
+		server.handle("/v1/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				InputStream in = exchange.getRequestBody();
+				byte[] buffer = new byte[8192];
+				int len = 0;
+				while ((len = in.read(buffer)) != -1) {
+					body.write(buffer, 0, len);
+				}
+
+				String vars = "";
+				for (String param: body.toString("UTF-8").split("&")) {
+					int equals = param.indexOf('=');
+					String name  = param.substring(0, equals);
+					String value = URLDecoder.decode(param.substring(equals + 1), "UTF-8");
+					if ("vars".equals(name))
+						vars = value;
+					else
+						lastCode = name+":"+value;
+				}
+
+				byte[] response = ("--"+BOUNDARY+"\r\n"+
+						"Content-Type: text/plain\r\nX-Primitive: string\r\n\r\n"+
+						vars+"\r\n--"+BOUNDARY+"--\r\n").getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, response.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(response);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-evaluator");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	@Test
+	public void testPreparedCall() {
+		ServerEvaluationCall call = client.newServerEval()
+				.javascript("'planet: ' + planet")
+				.addNamespace("my", "http://example.com/my");
+		PreparedServerEvaluation prepared = call.prepare();
+
+		// later changes to the original call don't change the prepared calls
+		call.addNamespace("other", "http://example.com/other");
+
+		assertEquals("Wrong first result", "{\"{http://example.com/my}planet\":\"Mars\"}",
+				prepared.newCall().addVariable("my:planet", "Mars").evalAs(String.class));
+		assertEquals("Wrong code", "javascript:'planet: ' + planet", lastCode);
+
+		assertEquals("Wrong second result", "{\"other:ring\":false}",
+				prepared.newCall().addVariable("other:ring", false).evalAs(String.class));
+		assertEquals("Wrong variable free result", "",
+				prepared.newCall().evalAs(String.class));
+
+		ServerEvaluationCall preparedCall = prepared.newCall();
+		try {
+			preparedCall.xquery("'planet'");
+			fail("Replaced prepared code");
+		} catch (IllegalStateException e) {
+		}
+		try {
+			preparedCall.addNamespace("x", "http://example.com/x");
+			fail("Changed prepared namespaces");
+		} catch (IllegalStateException e) {
+		}
+		try {
+			client.newServerEval().prepare();
+			fail("Prepared call without code");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	@Test
+	public void testConcurrentCalls() throws Exception {
+		final PreparedServerEvaluation prepared = client.newServerEval()
+				.modulePath("/ext/planet.sjs")
+				.prepare();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i=0; i < 200; i++) {
+			final int moon = i;
+			futures.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return prepared.newCall().addVariable("moon", moon).evalAs(String.class);
+				}
+			}));
+		}
+		for (int i=0; i < futures.size(); i++) {
+			assertEquals("Wrong concurrent result", "{\"moon\":"+i+"}", futures.get(i).get());
+		}
+		executor.shutdown();
+		assertEquals("Wrong module", "module:/ext/planet.sjs", lastCode);
+	}
+
+	@Test
+	public void testEncodingCost() {
+		Benchmarks.assumeEnabled();
+
+		int calls = 20000;
+
+		StringBuilder script = new StringBuilder();
+		for (int i=0; i < 200; i++) {
+			script.append("var total").append(i).append(" = cts.estimate(cts.wordQuery(planet + \"")
+				.append(i).append("\"));\n");
+		}
+		String javascript = script.append("planet").toString();
+
+		// services that discard the request isolate the cost of preparing
+		// each call from the round trip to the server
+		final AtomicLong encodedLength = new AtomicLong();
+		RESTServices services = (RESTServices) Proxy.newProxyInstance(
+				RESTServices.class.getClassLoader(), new Class<?>[]{RESTServices.class},
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ("postEvalInvoke".equals(method.getName()))
+							encodedLength.addAndGet(((String) args[2]).length());
+						return null;
+					}
+				});
+		HandleFactoryRegistry registry = DatabaseClientFactory.getHandleRegistry();
+		PreparedServerEvaluation prepared =
+			new ServerEvaluationCallImpl(services, registry).javascript(javascript).prepare();
+
+		// warm up both paths before timing
+		for (int i=0; i < 5000; i++) {
+			new ServerEvaluationCallImpl(services, registry).javascript(javascript)
+				.addVariable("planet", "Mars").eval();
+			prepared.newCall().addVariable("planet", "Mars").eval();
+		}
+		long callLength = encodedLength.getAndSet(0) / 10000;
+
+		long start = System.nanoTime();
+		for (int i=0; i < calls; i++) {
+			new ServerEvaluationCallImpl(services, registry).javascript(javascript)
+				.addVariable("planet", "Mars").eval();
+		}
+		long builderNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i=0; i < calls; i++) {
+			prepared.newCall().addVariable("planet", "Mars").eval();
+		}
+		long preparedNanos = System.nanoTime() - start;
+
+		assertEquals("Wrong encoded length", 2L * calls * callLength, encodedLength.get());
+		System.out.println("eval of "+javascript.length()+" character script per call before the request: "+
+				"builder "+(builderNanos / calls)+" ns, prepared "+(preparedNanos / calls)+" ns");
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.document.DocumentPage;
+import com.marklogic.client.document.DocumentRecord;
+import com.marklogic.client.document.QueryBatcher;
+import com.marklogic.client.document.QueryBatcher.DocumentBatchListener;
+import com.marklogic.client.document.QueryBatcher.QueryBatch;
+import com.marklogic.client.document.QueryBatcher.QueryFailureListener;
+import com.marklogic.client.document.QueryBatcher.UriBatchListener;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class QueryBatcherTest {
+	final static String BOUNDARY  = "STUB_BOUNDARY";
+	final static String TIMESTAMP = "14400000000000";
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private volatile int   documentCount = 0;
+	private volatile long  failFrom      = Long.MAX_VALUE;
+	private List<String>   requests      = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// returns a page of the matching documents as a multipart response
+		server.handle("/v1/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String query = exchange.getRequestURI().getRawQuery();
+				requests.add(query);
+
+				long    start      = 1;
+				long    pageLength = 10;
+				boolean withContent = false;
+				for (String param: query.split("&")) {
+					String[] pair  = param.split("=", 2);
+					String   value = URLDecoder.decode(pair[1], "UTF-8");
+					if ("start".equals(pair[0])) {
+						start = Long.parseLong(value);
+					} else if ("pageLength".equals(pair[0])) {
+						pageLength = Long.parseLong(value);
+					} else if ("category".equals(pair[0]) && "content".equals(value)) {
+						withContent = true;
+					}
+				}
+
+				if (start >= failFrom) {
+					exchange.sendResponseHeaders(500, -1);
+					exchange.close();
+					return;
+				}
+
+				exchange.getResponseHeaders().add("vnd.marklogic.start",           String.valueOf(start));
+				exchange.getResponseHeaders().add("vnd.marklogic.pageLength",      String.valueOf(pageLength));
+				exchange.getResponseHeaders().add("vnd.marklogic.result-estimate", String.valueOf(documentCount));
+				exchange.getResponseHeaders().add("ML-Effective-Timestamp",         TIMESTAMP);
+
+				long end = Math.min(start + pageLength - 1, documentCount);
+				if (start > end) {
+					exchange.sendResponseHeaders(200, -1);
+					exchange.close();
+					return;
+				}
+
+				StringBuilder body = new StringBuilder();
+				for (long i=start; i <= end; i++) {
+					String uri = "/export/doc"+i+".txt";
+					body.append("--").append(BOUNDARY).append("\r\n");
+					if (withContent) {
+						body.append("Content-Type: text/plain\r\n");
+						body.append("Content-Disposition: attachment; filename=\"").append(uri).append("\"\r\n\r\n");
+						body.append("document ").append(i);
+					} else {
+						body.append("Content-Type: application/xml\r\n");
+						body.append("Content-Disposition: attachment; filename=\"").append(uri)
+							.append("\"; category=metadata\r\n\r\n");
+						body.append("<rapi:metadata xmlns:rapi=\"http://marklogic.com/rest-api\"/>");
+					}
+					body.append("\r\n");
+				}
+				body.append("--").append(BOUNDARY).append("--\r\n");
+
+				byte[] bytes = body.toString().getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-reader");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	private QueryBatcher newBatcher() {
+		StringQueryDefinition query = client.newQueryManager().newStringDefinition();
+		query.setCriteria("export");
+		return client.newTextDocumentManager().newQueryBatcher(query);
+	}
+
+	@Test
+	public void testUris() {
+		documentCount = 250;
+
+		final Set<String> uris = Collections.synchronizedSet(new HashSet<String>());
+		QueryBatcher batcher = newBatcher();
+		batcher.setBatchSize(20);
+		batcher.setThreadCount(3);
+		batcher.setUriBatchListener(new UriBatchListener() {
+			@Override
+			public void processUris(QueryBatch batch, String[] batchUris) {
+				for (String uri: batchUris) {
+					uris.add(uri);
+				}
+			}
+		});
+		batcher.start();
+		assertTrue("Batcher did not complete", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+
+		assertEquals("Wrong uris",      250, uris.size());
+		assertEquals("Wrong batches",    13, batcher.getBatchesProcessed());
+		assertEquals("Wrong documents", 250, batcher.getDocumentsProcessed());
+		assertEquals("Wrong estimate",  250, batcher.getEstimatedTotal());
+		assertEquals("Wrong timestamp", Long.parseLong(TIMESTAMP), batcher.getServerTimestamp());
+		assertFalse("Batcher stopped", batcher.isStopped());
+
+		assertFalse("First page at timestamp", requests.get(0).contains("timestamp="));
+		for (String request: requests) {
+			assertFalse("Content requested for uris", request.contains("category=content"));
+			if (request != requests.get(0))
+				assertTrue("Page not at timestamp: "+request, request.contains("timestamp="+TIMESTAMP));
+		}
+	}
+
+	@Test
+	public void testDocuments() {
+		documentCount = 45;
+
+		final Set<String> contents = Collections.synchronizedSet(new HashSet<String>());
+		QueryBatcher batcher = newBatcher();
+		batcher.setBatchSize(10);
+		batcher.setDocumentBatchListener(new DocumentBatchListener() {
+			@Override
+			public void processDocuments(QueryBatch batch, DocumentPage documents) {
+				for (DocumentRecord record: documents) {
+					contents.add(record.getContent(new StringHandle()).get());
+				}
+			}
+		});
+		batcher.start();
+		assertTrue("Batcher did not complete", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+
+		assertEquals("Wrong contents",   45, contents.size());
+		assertTrue("Missing content", contents.contains("document 45"));
+		assertEquals("Wrong batches",     5, batcher.getBatchesProcessed());
+		assertEquals("Wrong documents",  45, batcher.getDocumentsProcessed());
+		assertTrue("No throughput", batcher.getDocumentsPerSecond() > 0);
+	}
+
+	@Test
+	public void testStop() {
+		documentCount = 10000;
+
+		final QueryBatcher batcher = newBatcher();
+		batcher.setBatchSize(10);
+		batcher.setThreadCount(2);
+		batcher.setUriBatchListener(new UriBatchListener() {
+			@Override
+			public void processUris(QueryBatch batch, String[] uris) {
+				if (batch.getBatchNumber() >= 3)
+					batcher.stop();
+			}
+		});
+		batcher.start();
+		assertTrue("Batcher did not stop", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+
+		assertTrue("Batcher not stopped", batcher.isStopped());
+		assertTrue("Too many batches: "+batcher.getBatchesProcessed(),
+				batcher.getBatchesProcessed() < 10);
+	}
+
+	@Test
+	public void testFirstBatchFailure() {
+		documentCount = 10000;
+		failFrom      = 1;
+
+		final AtomicInteger notified = new AtomicInteger();
+		QueryBatcher batcher = newBatcher();
+		batcher.setBatchSize(10);
+		batcher.setUriBatchListener(new UriBatchListener() {
+			@Override
+			public void processUris(QueryBatch batch, String[] uris) {
+			}
+		});
+		batcher.setQueryFailureListener(new QueryFailureListener() {
+			@Override
+			public void batchFailed(QueryBatch batch, Throwable failure) {
+				notified.incrementAndGet();
+			}
+		});
+		batcher.start();
+		assertTrue("Batcher did not stop", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+
+		assertTrue("Batcher not stopped", batcher.isStopped());
+		assertEquals("Wrong failed batches",  1, batcher.getBatchesFailed());
+		assertEquals("Wrong notifications",   1, notified.get());
+		assertEquals("Unexpected batches",    0, batcher.getBatchesProcessed());
+		assertEquals("Batches after failure", 1, requests.size());
+	}
+
+	@Test
+	public void testConsecutiveFailures() {
+		documentCount = 10000;
+		failFrom      = 31;
+
+		QueryBatcher batcher = newBatcher();
+		batcher.setBatchSize(10);
+		batcher.setThreadCount(2);
+		batcher.setMaxConsecutiveFailures(3);
+		batcher.setUriBatchListener(new UriBatchListener() {
+			@Override
+			public void processUris(QueryBatch batch, String[] uris) {
+			}
+		});
+		batcher.start();
+		assertTrue("Batcher did not stop", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+
+		assertTrue("Batcher not stopped", batcher.isStopped());
+		assertEquals("Wrong batches", 3, batcher.getBatchesProcessed());
+		// a slow success can reset the run, and the other worker may
+		// have claimed one more batch before the stop
+		assertTrue("Wrong failed batches: "+batcher.getBatchesFailed(),
+				batcher.getBatchesFailed() >= 3 && batcher.getBatchesFailed() <= 5);
+	}
+}
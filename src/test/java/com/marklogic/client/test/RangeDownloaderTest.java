@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.document.DocumentDescriptor;
+import com.marklogic.client.document.RangeDownloader;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Downloads a binary document in concurrent ranges from a stub server. */
+public class RangeDownloaderTest {
+	static final int RANGE_SIZE = 256 * 1024;
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private File           target;
+
+	private volatile byte[] content;
+	private volatile long   version     = 1;
+	private volatile long   failedStart = -1;
+	private AtomicInteger   rangeReads  = new AtomicInteger();
+	private AtomicInteger   active      = new AtomicInteger();
+	private AtomicInteger   maxActive   = new AtomicInteger();
+
+	@Before
+	public void before() throws IOException {
+		content = makeContent(10 * RANGE_SIZE + 1000, 1);
+		target  = File.createTempFile("range", ".bin");
+		target.delete();
+
+		server = new StubServer();
+		// serves byte ranges of one document
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				byte[] bytes = content;
+				exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+				exchange.getResponseHeaders().add("ETag", "\""+version+"\"");
+				if ("HEAD".equals(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().add("Content-Length", String.valueOf(bytes.length));
+					exchange.sendResponseHeaders(200, -1);
+					exchange.close();
+					return;
+				}
+
+				String range = exchange.getRequestHeaders().getFirst("Range");
+				String[] bounds = range.substring("bytes=".length()).split("-");
+				int start = Integer.parseInt(bounds[0]);
+				int end   = Integer.parseInt(bounds[1]);
+				if (start == failedStart) {
+					exchange.sendResponseHeaders(500, -1);
+					exchange.close();
+					return;
+				}
+
+				int current = active.incrementAndGet();
+				while (true) {
+					int max = maxActive.get();
+					if (current <= max || maxActive.compareAndSet(max, current))
+						break;
+				}
+				rangeReads.incrementAndGet();
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+				}
+				exchange.sendResponseHeaders(206, end - start + 1);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes, start, end - start + 1);
+				out.close();
+				active.decrementAndGet();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-reader");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+		target.delete();
+		new File(target.getPath()+RangeDownloader.PROGRESS_SUFFIX).delete();
+	}
+
+	static byte[] makeContent(int size, long seed) {
+		byte[] bytes = new byte[size];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+	static byte[] readFile(File file) throws IOException {
+		byte[] bytes = new byte[(int) file.length()];
+		InputStream in = new FileInputStream(file);
+		int offset = 0;
+		int len = 0;
+		while (offset < bytes.length && (len = in.read(bytes, offset, bytes.length - offset)) != -1) {
+			offset += len;
+		}
+		in.close();
+		return bytes;
+	}
+
+	private RangeDownloader newDownloader() {
+		RangeDownloader downloader = client.newBinaryDocumentManager().newRangeDownloader();
+		downloader.setRangeSize(RANGE_SIZE);
+		downloader.setThreadCount(4);
+		return downloader;
+	}
+
+	@Test
+	public void testParallelDownload() throws IOException {
+		RangeDownloader downloader = newDownloader();
+		DocumentDescriptor desc = downloader.download("/range/video.bin", target);
+
+		assertEquals("Wrong version", 1, desc.getVersion());
+		assertEquals("Wrong length", content.length, desc.getByteLength());
+		assertArrayEquals("Wrong content", content, readFile(target));
+		assertEquals("Wrong range count", 11, downloader.getRangesDownloaded());
+		assertEquals("Wrong range reads", 11, rangeReads.get());
+		assertEquals("Wrong byte count", content.length, downloader.getBytesDownloaded());
+		assertTrue("Ranges not concurrent", maxActive.get() > 1);
+		assertFalse("Progress not removed",
+				new File(target.getPath()+RangeDownloader.PROGRESS_SUFFIX).exists());
+	}
+
+	@Test
+	public void testResume() throws IOException {
+		RangeDownloader downloader = newDownloader();
+
+		// one range fails, leaving the other ranges recorded as complete
+		failedStart = 3 * RANGE_SIZE;
+		try {
+			downloader.download("/range/video.bin", target);
+			fail("Download did not fail");
+		} catch (FailedRequestException e) {
+		}
+		assertEquals("Wrong ranges before failure", 10, downloader.getRangesDownloaded());
+		assertTrue("Progress not kept",
+				new File(target.getPath()+RangeDownloader.PROGRESS_SUFFIX).exists());
+
+		// resuming reads only the missing range
+		failedStart = -1;
+		rangeReads.set(0);
+		downloader.download("/range/video.bin", target);
+		assertEquals("Wrong resumed ranges", 10, downloader.getRangesResumed());
+		assertEquals("Wrong downloaded ranges", 1, downloader.getRangesDownloaded());
+		assertEquals("Wrong range reads", 1, rangeReads.get());
+		assertArrayEquals("Wrong resumed content", content, readFile(target));
+
+		// a new version of the document starts over
+		failedStart = 0;
+		try {
+			downloader.download("/range/video.bin", target);
+			fail("Download did not fail");
+		} catch (FailedRequestException e) {
+		}
+		content = makeContent(5 * RANGE_SIZE, 2);
+		version = 2;
+		failedStart = -1;
+		downloader.download("/range/video.bin", target);
+		assertEquals("Resumed changed document", 0, downloader.getRangesResumed());
+		assertEquals("Wrong downloaded ranges", 5, downloader.getRangesDownloaded());
+		assertArrayEquals("Wrong new content", content, readFile(target));
+	}
+}
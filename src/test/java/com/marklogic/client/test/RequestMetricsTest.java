@@ -0,0 +1,205 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.RequestMetrics;
+import com.marklogic.client.RequestMetrics.Operation;
+import com.marklogic.client.RequestMetrics.OperationMetrics;
+import com.marklogic.client.RequestMetrics.RequestListener;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.query.QueryManager;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Records the metrics for requests against a stub server. */
+public class RequestMetricsTest {
+	static final String CONTENT  = "metered content";
+	static final String RESPONSE =
+		"<search:response xmlns:search=\"http://marklogic.com/appservices/search\" "+
+		"total=\"0\" start=\"1\" page-length=\"10\"/>";
+
+	private StubServer     server;
+	private DatabaseClient client;
+	private AtomicInteger  unavailable = new AtomicInteger();
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				if (unavailable.getAndDecrement() > 0) {
+					exchange.getResponseHeaders().add("Retry-After", "0");
+					exchange.sendResponseHeaders(503, -1);
+					exchange.close();
+					return;
+				}
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					InputStream in = exchange.getRequestBody();
+					while (in.read() != -1);
+					in.close();
+					exchange.sendResponseHeaders(201, -1);
+					exchange.close();
+					return;
+				}
+				respond(exchange, "text/plain", CONTENT);
+			}
+		});
+		server.handle("/v1/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				respond(exchange, "application/xml", RESPONSE);
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	private void respond(HttpExchange exchange, String mimetype, String content)
+	throws IOException {
+		byte[] bytes = content.getBytes("UTF-8");
+		exchange.getResponseHeaders().add("Content-Type", mimetype);
+		exchange.sendResponseHeaders(200, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	@Test
+	public void testOperations() {
+		RequestMetrics metrics = client.getRequestMetrics();
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+
+		docMgr.write("/metrics/doc.txt", new StringHandle("written content"));
+		for (int i=0; i < 3; i++) {
+			assertEquals("Wrong content", CONTENT, docMgr.read("/metrics/doc.txt", new StringHandle()).get());
+		}
+		QueryManager queryMgr = client.newQueryManager();
+		StringQueryDefinition querydef = queryMgr.newStringDefinition();
+		querydef.setCriteria("metered");
+		queryMgr.search(querydef, new StringHandle());
+
+		OperationMetrics writes = metrics.getOperationMetrics(Operation.DOCUMENT_WRITE);
+		assertEquals("Wrong write requests", 1, writes.getRequestCount());
+		assertEquals("Wrong write bytes sent", "written content".length(), writes.getBytesSent());
+		assertEquals("Wrong write failures", 0, writes.getFailureCount());
+
+		OperationMetrics reads = metrics.getOperationMetrics(Operation.DOCUMENT_READ);
+		assertEquals("Wrong read requests", 3, reads.getRequestCount());
+		assertEquals("Wrong read bytes received", 3 * CONTENT.length(), reads.getBytesReceived());
+		assertEquals("Wrong read bytes sent", 0, reads.getBytesSent());
+		assertEquals("Wrong reads in flight", 0, reads.getInFlightCount());
+
+		OperationMetrics searches = metrics.getOperationMetrics(Operation.SEARCH);
+		assertEquals("Wrong search requests", 1, searches.getRequestCount());
+		assertEquals("Wrong search bytes received", RESPONSE.length(), searches.getBytesReceived());
+
+		assertEquals("Wrong bulk read requests", 0,
+				metrics.getOperationMetrics(Operation.BULK_READ).getRequestCount());
+
+		// every read lands in one bucket of the histogram
+		long total = 0;
+		for (long count: reads.getLatencyHistogram()) {
+			total += count;
+		}
+		assertEquals("Wrong histogram total", 3, total);
+		assertTrue("Mean above maximum", reads.getMeanLatencyMicros() <= reads.getMaxLatencyMicros());
+		assertTrue("Percentile below maximum",
+				reads.getLatencyPercentileMicros(100) >= reads.getMaxLatencyMicros());
+		assertTrue("Median above slowest",
+				reads.getLatencyPercentileMicros(50) <= reads.getLatencyPercentileMicros(100));
+
+		metrics.reset();
+		assertEquals("Wrong reset requests", 0, reads.getRequestCount());
+		assertEquals("Wrong reset bytes", 0, reads.getBytesReceived());
+	}
+
+	@Test
+	public void testRetryAndListener() {
+		final List<Integer> statuses = new CopyOnWriteArrayList<Integer>();
+		RequestMetrics metrics = client.getRequestMetrics();
+		metrics.addRequestListener(new RequestListener() {
+			@Override
+			public void requestCompleted(Operation operation, int status, long latencyNanos,
+					long bytesSent, long bytesReceived) {
+				assertEquals("Wrong listener operation", Operation.DOCUMENT_READ, operation);
+				statuses.add(status);
+			}
+		});
+
+		unavailable.set(1);
+		client.newTextDocumentManager().read("/metrics/doc.txt", new StringHandle());
+
+		OperationMetrics reads = metrics.getOperationMetrics(Operation.DOCUMENT_READ);
+		assertEquals("Wrong requests", 2, reads.getRequestCount());
+		assertEquals("Wrong retries",  1, reads.getRetryCount());
+		assertEquals("Wrong failures", 1, reads.getFailureCount());
+		assertEquals("Wrong listener statuses", "[503, 200]", statuses.toString());
+	}
+
+	@Test
+	public void testMBeans() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName  name   = new ObjectName(
+				"com.marklogic.client:type=RequestMetrics,client=\"metrics test\",operation=DOCUMENT_READ");
+
+		RequestMetrics metrics = client.getRequestMetrics();
+		metrics.registerMBeans("metrics test");
+		assertTrue("MBean not registered", server.isRegistered(name));
+
+		client.newTextDocumentManager().read("/metrics/doc.txt", new StringHandle());
+		assertEquals("Wrong MBean requests", 1L, server.getAttribute(name, "RequestCount"));
+
+		metrics.unregisterMBeans();
+		assertFalse("MBean still registered", server.isRegistered(name));
+
+		// release also unregisters
+		metrics.registerMBeans("metrics test");
+		client.release();
+		assertFalse("MBean registered after release", server.isRegistered(name));
+		assertNull("Metrics after release", client.getRequestMetrics());
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.marklogic.client.DatabaseClientFactory.RetryPolicy;
+import com.marklogic.client.FailedRequestException;
+import com.marklogic.client.RequestMetrics.Operation;
+import com.marklogic.client.RequestMetrics.OperationMetrics;
+import com.marklogic.client.document.TextDocumentManager;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.query.QueryManager;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Retries requests under a retry policy against a stub server. */
+public class RetryPolicyTest {
+	private StubServer     server;
+	private DatabaseClient client;
+	// the number of requests to refuse with the status or -1 to refuse all
+	private AtomicInteger  refusals = new AtomicInteger();
+	private AtomicInteger  status   = new AtomicInteger(503);
+	private AtomicInteger  requests = new AtomicInteger();
+	// the Retry-After header of a refusal or null for none
+	private AtomicReference<String> retryAfter = new AtomicReference<String>();
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		HttpHandler handler = new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				int remaining = refusals.get();
+				if (remaining != 0) {
+					if (remaining > 0)
+						refusals.decrementAndGet();
+					if (retryAfter.get() != null)
+						exchange.getResponseHeaders().add("Retry-After", retryAfter.get());
+					exchange.sendResponseHeaders(status.get(), -1);
+					exchange.close();
+					return;
+				}
+				byte[] bytes = (exchange.getRequestURI().getPath().endsWith("search") ?
+					"<search:response xmlns:search=\"http://marklogic.com/appservices/search\" total=\"0\"/>" :
+					"available").getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type",
+					exchange.getRequestURI().getPath().endsWith("search") ? "application/xml" : "text/plain");
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		};
+		server.handle("/v1/documents", handler);
+		server.handle("/v1/search",    handler);
+		server.start();
+	}
+	@After
+	public void after() {
+		DatabaseClientFactory.setRetryPolicy(null);
+		if (client != null)
+			client.release();
+		server.stop();
+	}
+
+	private void connect(RetryPolicy retryPolicy) {
+		DatabaseClientFactory.setRetryPolicy(retryPolicy);
+		client = server.newClient("rest-writer");
+	}
+	private RetryPolicy newFastPolicy() {
+		RetryPolicy retryPolicy = new RetryPolicy();
+		retryPolicy.setMinDelay(1);
+		retryPolicy.setMaxDelay(5);
+		retryPolicy.setMaxRetryTime(0);
+		return retryPolicy;
+	}
+
+	@Test
+	public void testRetryStatusesAndBudgets() {
+		RetryPolicy retryPolicy = newFastPolicy();
+		retryPolicy.setMinRetries(3);
+		retryPolicy.setRetryStatuses(502, 503);
+		retryPolicy.setOperationBudget(Operation.SEARCH, 0, 0);
+		connect(retryPolicy);
+
+		// a gateway failure is retried under the default budget
+		status.set(502);
+		refusals.set(2);
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		assertEquals("Wrong content", "available", docMgr.read("/retry/doc.txt", new StringHandle()).get());
+		assertEquals("Wrong read requests", 3, requests.get());
+
+		OperationMetrics reads = client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_READ);
+		assertEquals("Wrong read retries",  2, reads.getRetryCount());
+		assertEquals("Wrong read failures", 2, reads.getFailureCount());
+
+		// the minimum retries bound the attempts
+		requests.set(0);
+		refusals.set(-1);
+		try {
+			docMgr.read("/retry/doc.txt", new StringHandle());
+			fail("Read succeeded while unavailable");
+		} catch (FailedRequestException e) {
+		}
+		assertEquals("Wrong unavailable read requests", 4, requests.get());
+
+		// searches have no retry budget
+		requests.set(0);
+		QueryManager queryMgr = client.newQueryManager();
+		StringQueryDefinition querydef = queryMgr.newStringDefinition();
+		querydef.setCriteria("retry");
+		try {
+			queryMgr.search(querydef, new StringHandle());
+			fail("Search succeeded while unavailable");
+		} catch (FailedRequestException e) {
+		}
+		assertEquals("Wrong search requests", 1, requests.get());
+		assertEquals("Wrong search retries", 0,
+				client.getRequestMetrics().getOperationMetrics(Operation.SEARCH).getRetryCount());
+	}
+
+	@Test
+	public void testTooManyRequests() {
+		RetryPolicy retryPolicy = newFastPolicy();
+		retryPolicy.setMinRetries(3);
+		retryPolicy.setRetryStatuses(429, 503);
+		connect(retryPolicy);
+
+		// a status without a constant in the http client is still retried
+		status.set(429);
+		refusals.set(2);
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		assertEquals("Wrong content", "available", docMgr.read("/retry/doc.txt", new StringHandle()).get());
+		assertEquals("Wrong requests", 3, requests.get());
+		assertEquals("Wrong retries", 2,
+				client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_READ).getRetryCount());
+
+		requests.set(0);
+		refusals.set(-1);
+		try {
+			docMgr.read("/retry/doc.txt", new StringHandle());
+			fail("Read succeeded while refused");
+		} catch (FailedRequestException e) {
+			assertTrue("Wrong message: "+e.getMessage(), e.getMessage().contains("retries"));
+		}
+		assertEquals("Wrong refused requests", 4, requests.get());
+	}
+
+	@Test
+	public void testRetryAfterDate() {
+		RetryPolicy retryPolicy = newFastPolicy();
+		retryPolicy.setMinRetries(3);
+		connect(retryPolicy);
+
+		// a Retry-After header may give an HTTP date instead of seconds
+		retryAfter.set("Wed, 21 Oct 2015 07:28:00 GMT");
+		refusals.set(2);
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		assertEquals("Wrong content", "available", docMgr.read("/retry/doc.txt", new StringHandle()).get());
+		assertEquals("Wrong dated requests", 3, requests.get());
+
+		// an unparseable header is ignored
+		requests.set(0);
+		retryAfter.set("soon");
+		refusals.set(2);
+		assertEquals("Wrong content", "available", docMgr.read("/retry/doc.txt", new StringHandle()).get());
+		assertEquals("Wrong invalid requests", 3, requests.get());
+	}
+
+	@Test
+	public void testClusterIgnoresCircuit() {
+		RetryPolicy retryPolicy = newFastPolicy();
+		retryPolicy.setMinRetries(0);
+		retryPolicy.setFailureThreshold(1);
+		DatabaseClientFactory.setRetryPolicy(retryPolicy);
+		client = DatabaseClientFactory.newClusterClient(
+				new String[] {"localhost:"+server.getPort(), "127.0.0.1:"+server.getPort()},
+				8000, "rest-writer", "x", Authentication.BASIC);
+
+		// one failing host doesn't stop requests to the other hosts
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		refusals.set(-1);
+		for (int i=0; i < 3; i++) {
+			try {
+				docMgr.read("/retry/doc.txt", new StringHandle());
+				fail("Read succeeded while unavailable");
+			} catch (FailedRequestException e) {
+				assertTrue("Wrong message: "+e.getMessage(), e.getMessage().contains("retries"));
+			}
+		}
+		assertEquals("Wrong cluster requests", 3, requests.get());
+	}
+
+	@Test
+	public void testCircuitBreaker() throws InterruptedException {
+		RetryPolicy retryPolicy = newFastPolicy();
+		retryPolicy.setMinRetries(0);
+		retryPolicy.setFailureThreshold(2);
+		retryPolicy.setOpenInterval(200);
+		connect(retryPolicy);
+
+		TextDocumentManager docMgr = client.newTextDocumentManager();
+		refusals.set(-1);
+		for (int i=0; i < 2; i++) {
+			try {
+				docMgr.read("/retry/doc.txt", new StringHandle());
+				fail("Read succeeded while unavailable");
+			} catch (FailedRequestException e) {
+			}
+		}
+		assertEquals("Wrong requests before opening", 2, requests.get());
+
+		// the open circuit fails requests without sending them
+		for (int i=0; i < 3; i++) {
+			try {
+				docMgr.read("/retry/doc.txt", new StringHandle());
+				fail("Read succeeded with open circuit");
+			} catch (FailedRequestException e) {
+				assertTrue("Wrong message: "+e.getMessage(), e.getMessage().contains("consecutive"));
+			}
+		}
+		assertEquals("Wrong requests while open", 2, requests.get());
+		assertEquals("Wrong rejections", 3,
+				client.getRequestMetrics().getOperationMetrics(Operation.DOCUMENT_READ).getRejectedCount());
+
+		// after the open interval, a successful trial closes the circuit
+		Thread.sleep(250);
+		refusals.set(0);
+		for (int i=0; i < 3; i++) {
+			assertEquals("Wrong content", "available", docMgr.read("/retry/doc.txt", new StringHandle()).get());
+		}
+		assertEquals("Wrong requests after closing", 5, requests.get());
+	}
+}
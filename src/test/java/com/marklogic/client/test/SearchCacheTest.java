@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.io.BytesHandle;
+import com.marklogic.client.io.SearchHandle;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.query.QueryManager;
+import com.marklogic.client.query.SearchCache;
+import com.marklogic.client.query.StringQueryDefinition;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Repeats searches through a search cache against a stub server. */
+public class SearchCacheTest {
+	private StubServer     server;
+	private DatabaseClient client;
+	private QueryManager   queryMgr;
+	private AtomicInteger  requests = new AtomicInteger();
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// reports the number of the request as the total
+		server.handle("/v1/search", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				InputStream in = exchange.getRequestBody();
+				while (in.read() != -1);
+				in.close();
+
+				byte[] bytes = ("<search:response xmlns:search='http://marklogic.com/appservices/search'"+
+						" total='"+requests.incrementAndGet()+"' start='1' page-length='10'/>").getBytes("UTF-8");
+				exchange.getResponseHeaders().add("Content-Type", "application/xml");
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-reader");
+		queryMgr = client.newQueryManager();
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	private StringQueryDefinition newQuery(String criteria) {
+		StringQueryDefinition query = queryMgr.newStringDefinition();
+		query.setCriteria(criteria);
+		return query;
+	}
+	private long search(StringQueryDefinition query) {
+		return queryMgr.search(query, new SearchHandle()).getTotalResults();
+	}
+
+	@Test
+	public void testRepeatedSearch() {
+		SearchCache cache = queryMgr.newSearchCache(4096, 1, TimeUnit.MINUTES);
+		queryMgr.setSearchCache(cache);
+
+		for (int i=0; i < 3; i++) {
+			assertEquals("Wrong cached total", 1, search(newQuery("landing")));
+		}
+		String raw = queryMgr.search(newQuery("landing"), new StringHandle()).get();
+		assertTrue("Wrong raw response: "+raw, raw.contains("total='1'"));
+		assertEquals("Wrong requests", 1, requests.get());
+		assertEquals("Wrong hits",     3, cache.getHitCount());
+		assertEquals("Wrong misses",   1, cache.getMissCount());
+		assertEquals("Wrong hit rate", 0.75, cache.getHitRate(), 0.0);
+
+		// a different page or criteria is a different search
+		assertEquals("Wrong page total", 2,
+				queryMgr.search(newQuery("landing"), new SearchHandle(), 11).getTotalResults());
+		assertEquals("Wrong criteria total", 3, search(newQuery("other")));
+		assertEquals("Wrong responses", 3, cache.getResponseCount());
+
+		// without the cache every search is sent
+		queryMgr.setSearchCache(null);
+		assertEquals("Wrong uncached total", 4, search(newQuery("landing")));
+	}
+
+	@Test
+	public void testChangedBytes() {
+		SearchCache cache = queryMgr.newSearchCache(4096, 1, TimeUnit.MINUTES);
+		queryMgr.setSearchCache(cache);
+
+		// changing the bytes of a miss or a hit leaves the cached response intact
+		for (int i=0; i < 2; i++) {
+			byte[] bytes = queryMgr.search(newQuery("landing"), new BytesHandle()).get();
+			assertTrue("Wrong response", new String(bytes).contains("total='1'"));
+			Arrays.fill(bytes, (byte) 'X');
+		}
+		String raw = new String(queryMgr.search(newQuery("landing"), new BytesHandle()).get());
+		assertTrue("Changed cached response: "+raw, raw.contains("total='1'"));
+		assertEquals("Wrong requests", 1, requests.get());
+	}
+
+	@Test
+	public void testDistinctKeys() {
+		SearchCache cache = queryMgr.newSearchCache(4096, 1, TimeUnit.MINUTES);
+		queryMgr.setSearchCache(cache);
+
+		StringQueryDefinition inSpaced = newQuery("landing");
+		inSpaced.setCollections("a b");
+		StringQueryDefinition inBoth = newQuery("landing");
+		inBoth.setCollections("a", "b");
+		assertEquals("Wrong spaced collection total", 1, search(inSpaced));
+		assertEquals("Shared collection key",         2, search(inBoth));
+
+		StringQueryDefinition noDirectory = newQuery("landing");
+		StringQueryDefinition nullDirectory = newQuery("landing");
+		nullDirectory.setDirectory("null");
+		assertEquals("Wrong unconstrained total", 3, search(noDirectory));
+		assertEquals("Shared directory key",      4, search(nullDirectory));
+
+		StringQueryDefinition nullOptions = queryMgr.newStringDefinition("null");
+		nullOptions.setCriteria("landing");
+		assertEquals("Shared options key", 5, search(nullOptions));
+
+		assertEquals("Wrong hits", 0, cache.getHitCount());
+	}
+
+	@Test
+	public void testExpiration() throws InterruptedException {
+		SearchCache cache = queryMgr.newSearchCache(4096, 50, TimeUnit.MILLISECONDS);
+		queryMgr.setSearchCache(cache);
+
+		assertEquals("Wrong first total", 1, search(newQuery("landing")));
+		Thread.sleep(100);
+		assertEquals("Wrong expired total", 2, search(newQuery("landing")));
+		assertEquals("Wrong hits", 0, cache.getHitCount());
+	}
+
+	@Test
+	public void testInvalidation() {
+		SearchCache cache = queryMgr.newSearchCache(4096, 1, TimeUnit.MINUTES);
+		queryMgr.setSearchCache(cache);
+
+		StringQueryDefinition inA = newQuery("landing");
+		inA.setCollections("a");
+		StringQueryDefinition inB = newQuery("landing");
+		inB.setCollections("b");
+		StringQueryDefinition inX = newQuery("landing");
+		inX.setDirectory("/x/");
+		StringQueryDefinition anywhere = newQuery("landing");
+
+		search(inA);
+		search(inB);
+		search(inX);
+		search(anywhere);
+		assertEquals("Wrong responses", 4, cache.getResponseCount());
+
+		// searches in the collection or in any collection are removed
+		cache.invalidateCollection("a");
+		assertEquals("Wrong responses after collection", 1, cache.getResponseCount());
+		assertEquals("Invalidated other collection", 2, search(inB));
+		assertEquals("Kept collection",              5, search(inA));
+		assertEquals("Kept unconstrained search",    6, search(inX));
+
+		cache.invalidateDirectory("/z/");
+		assertEquals("Invalidated other directory", 6, search(inX));
+		cache.invalidateDirectory("/x/y/");
+		assertEquals("Kept enclosing directory",    7, search(inX));
+
+		cache.clear();
+		assertEquals("Wrong bytes after clear", 0, cache.getCurrentBytes());
+	}
+
+	@Test
+	public void testEviction() {
+		SearchCache cache = queryMgr.newSearchCache(200, 1, TimeUnit.MINUTES);
+		queryMgr.setSearchCache(cache);
+
+		search(newQuery("first"));
+		search(newQuery("second"));
+		assertEquals("Wrong evictions", 1, cache.getEvictionCount());
+		assertEquals("Wrong responses", 1, cache.getResponseCount());
+		assertTrue("Too many bytes", cache.getCurrentBytes() <= 200);
+		assertEquals("Kept evicted response", 3, search(newQuery("first")));
+	}
+}
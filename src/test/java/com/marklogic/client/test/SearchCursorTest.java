@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+
+import org.junit.Test;
+
+import com.marklogic.client.impl.HandleAccessor;
+import com.marklogic.client.io.SearchHandle;
+import com.marklogic.client.io.SearchHandle.Section;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.query.FacetHeatmapValue;
+import com.marklogic.client.query.FacetResult;
+import com.marklogic.client.query.MatchDocumentSummary;
+import com.marklogic.client.query.MatchLocation;
+import com.marklogic.client.query.MatchSnippet;
+
+/** Parses a search response without a server in the event and cursor modes. */
+public class SearchCursorTest {
+	final static String RESPONSE =
+		"<search:response xmlns:search='http://marklogic.com/appservices/search'"+
+		"    snippet-format='snippet' total='2' start='1' page-length='10'>"+
+		"  <search:result index='1' uri='/doc1.xml' path='fn:doc(\"/doc1.xml\")'"+
+		"      score='120' confidence='0.5' fitness='0.75' format='xml' mimetype='application/xml'>"+
+		"    <search:snippet>"+
+		"      <search:match path='fn:doc(\"/doc1.xml\")/a'>the <search:highlight>leaf</search:highlight> fell</search:match>"+
+		"      <search:match path='fn:doc(\"/doc1.xml\")/b'><search:highlight>leaf</search:highlight></search:match>"+
+		"    </search:snippet>"+
+		"    <search:metadata><title>first</title></search:metadata>"+
+		"    <search:similar>/doc2.xml</search:similar>"+
+		"  </search:result>"+
+		"  <search:result index='2' uri='/doc2.xml' path='fn:doc(\"/doc2.xml\")'"+
+		"      score='60' confidence='0.25' fitness='0.5' format='xml' mimetype='application/xml'>"+
+		"    <search:snippet>"+
+		"      <search:match path='fn:doc(\"/doc2.xml\")/a'>a <search:highlight>leaf</search:highlight></search:match>"+
+		"    </search:snippet>"+
+		"  </search:result>"+
+		"  <search:facet name='color' type='xs:string'>"+
+		"    <search:facet-value name='green' count='2'>Green</search:facet-value>"+
+		"    <search:facet-value name='red' count='1'>Red</search:facet-value>"+
+		"  </search:facet>"+
+		"  <search:boxes name='geo'>"+
+		"    <search:box count='3' s='1' w='2' n='3' e='4'/>"+
+		"  </search:boxes>"+
+		"  <search:qtext>leaf</search:qtext>"+
+		"  <search:query><cts:word-query xmlns:cts='http://marklogic.com/cts'><cts:text>leaf</cts:text></cts:word-query></search:query>"+
+		"  <search:constraint name='color'><search:range type='xs:string'/></search:constraint>"+
+		"  <search:warning id='W1'>careful</search:warning>"+
+		"  <search:metrics>"+
+		"    <search:query-resolution-time>PT0.001S</search:query-resolution-time>"+
+		"    <search:snippet-resolution-time>PT0.002S</search:snippet-resolution-time>"+
+		"    <search:total-time>PT0.004S</search:total-time>"+
+		"  </search:metrics>"+
+		"</search:response>";
+
+	private SearchHandle parse(SearchHandle handle) throws UnsupportedEncodingException {
+		HandleAccessor.receiveContent(handle, new ByteArrayInputStream(RESPONSE.getBytes("UTF-8")));
+		return handle;
+	}
+
+	@Test
+	public void testCursorResults() throws UnsupportedEncodingException {
+		SearchHandle events = parse(new SearchHandle());
+		SearchHandle cursor = parse(new SearchHandle().withRetainedSections());
+
+		for (SearchHandle results: new SearchHandle[]{events, cursor}) {
+			assertEquals("Wrong total",       2,  results.getTotalResults());
+			assertEquals("Wrong start",       1,  results.getStart());
+			assertEquals("Wrong page length", 10, results.getPageLength());
+			assertEquals("Wrong snippet type", "snippet", results.getSnippetTransformType());
+			assertArrayEquals("Wrong qtext", new String[]{"leaf"}, results.getStringQueries());
+
+			MatchDocumentSummary[] summaries = results.getMatchResults();
+			assertEquals("Wrong summaries", 2, summaries.length);
+			assertEquals("Wrong uri",   "/doc1.xml", summaries[0].getUri());
+			assertEquals("Wrong score", 120, summaries[0].getScore());
+			assertEquals("Wrong fitness", 0.75, summaries[0].getFitness(), 0.0);
+			assertArrayEquals("Wrong similar", new String[]{"/doc2.xml"}, summaries[0].getSimilarDocumentUris());
+
+			MatchLocation[] locations = summaries[0].getMatchLocations();
+			assertEquals("Wrong locations", 2, locations.length);
+			assertEquals("Wrong snippet text", "the leaf fell", locations[0].getAllSnippetText());
+			MatchSnippet[] snippets = locations[0].getSnippets();
+			assertEquals("Wrong snippets", 3, snippets.length);
+			assertTrue("Unhighlighted match", snippets[1].isHighlighted());
+			assertEquals("Wrong highlight", "leaf", snippets[1].getText());
+			assertEquals("Wrong second summary locations", 1, summaries[1].getMatchLocations().length);
+
+			FacetResult color = results.getFacetResult("color");
+			assertEquals("Wrong facet values", 2, color.getFacetValues().length);
+			assertEquals("Wrong facet count", 2, color.getFacetValues()[0].getCount());
+			assertEquals("Wrong facet label", "Red", color.getFacetValues()[1].getLabel());
+			FacetHeatmapValue box = (FacetHeatmapValue) results.getFacetResult("geo").getFacetValues()[0];
+			assertEquals("Wrong box count", 3, box.getCount());
+			assertEquals("Wrong box north", 3.0, box.getBox()[2], 0.0);
+
+			assertEquals("Wrong warning", "careful", results.getWarnings()[0].getMessage());
+			assertEquals("Wrong total time", 4, results.getMetrics().getTotalTime());
+		}
+
+		assertNotNull("Missing event metadata",   events.getMatchResults()[0].getMetadata());
+		assertNotNull("Missing event snippet",    events.getMatchResults()[0].getFirstSnippetText());
+		assertNull("Retained cursor metadata",    cursor.getMatchResults()[0].getMetadata(new StringHandle()).get());
+		assertNull("Retained cursor snippet",     cursor.getMatchResults()[0].getFirstSnippetText());
+		assertNull("Retained cursor query",       cursor.getQuery(new StringHandle()).get());
+		assertEquals("Retained cursor constraint", 0, cursor.getConstraintNames().length);
+	}
+
+	@Test
+	public void testRetainedSections() throws UnsupportedEncodingException {
+		SearchHandle cursor = parse(new SearchHandle().withRetainedSections(
+				Section.SNIPPETS, Section.METADATA, Section.QUERY, Section.CONSTRAINTS));
+
+		MatchDocumentSummary summary = cursor.getMatchResults()[0];
+		String snippetText = summary.getFirstSnippetText();
+		assertTrue("Wrong snippet text: "+snippetText, snippetText.contains("the leaf fell"));
+		assertEquals("Wrong metadata title", "first",
+				summary.getMetadata().getElementsByTagName("title").item(0).getTextContent());
+		assertEquals("Wrong locations", 2, summary.getMatchLocations().length);
+
+		String query = cursor.getQuery(new StringHandle()).get();
+		assertTrue("Wrong query: "+query, query.contains("word-query") && query.contains("leaf"));
+		assertArrayEquals("Wrong constraints", new String[]{"color"}, cursor.getConstraintNames());
+		assertNull("Retained plan", cursor.getPlan(new StringHandle()).get());
+	}
+}
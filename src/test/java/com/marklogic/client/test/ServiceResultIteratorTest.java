@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.extensions.ResourceManager;
+import com.marklogic.client.extensions.ResourceServices.ServiceResult;
+import com.marklogic.client.extensions.ResourceServices.ServiceResultIterator;
+import com.marklogic.client.io.Format;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.marklogic.client.util.RequestParameters;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** Iterates the results of a resource service from a stub server. */
+public class ServiceResultIteratorTest {
+	static final String BOUNDARY = "SERVICE_BOUNDARY";
+
+	private StubServer     server;
+	private DatabaseClient client;
+
+	static class PlanetManager extends ResourceManager {
+		ServiceResultIterator list(int count) {
+			RequestParameters params = new RequestParameters();
+			params.add("count", String.valueOf(count));
+			return getServices().get(params);
+		}
+	}
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// returns the requested number of parts, cycling through text, json, and xml
+		server.handle("/v1/resources/planets", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String query = exchange.getRequestURI().getQuery();
+				int count = Integer.parseInt(query.substring(query.indexOf("rs:count=") + 9));
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, 0);
+				OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 64 * 1024);
+				for (int i=0; i < count; i++) {
+					String type = null;
+					String content = null;
+					switch (i % 3) {
+					case 0:  type = "text/plain";       content = "planet "+i;             break;
+					case 1:  type = "application/json"; content = "{\"planet\":"+i+"}";     break;
+					default: type = "application/xml";  content = "<planet>"+i+"</planet>"; break;
+					}
+					out.write(("--"+BOUNDARY+"\r\nContent-Type: "+type+"\r\n"+
+							"Content-Length: "+content.length()+"\r\n\r\n"+content+"\r\n").getBytes("UTF-8"));
+				}
+				out.write(("--"+BOUNDARY+"--\r\n").getBytes("UTF-8"));
+				out.close();
+			}
+		}).start();
+		client = server.newClient("rest-reader");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	@Test
+	public void testResults() {
+		PlanetManager planets = client.init("planets", new PlanetManager());
+		ServiceResultIterator results = planets.list(3);
+
+		ServiceResult text = results.next();
+		assertEquals("Wrong text mimetype", "text/plain", text.getMimetype());
+		assertEquals("Wrong text format", Format.TEXT, text.getFormat());
+		assertEquals("Wrong text", "planet 0", text.getContent(new StringHandle()).get());
+
+		ServiceResult json = results.next();
+		assertNotSame("Reused result", text, json);
+		assertEquals("Wrong json format", Format.JSON, json.getFormat());
+		assertEquals("Wrong json length", "{\"planet\":1}".length(), json.getLength());
+		assertEquals("Wrong json", "{\"planet\":1}", json.getContent(new StringHandle()).get());
+
+		ServiceResult xml = results.next();
+		assertEquals("Wrong xml format", Format.XML, xml.getFormat());
+		assertEquals("Wrong xml", "<planet>2</planet>", xml.getContent(new StringHandle()).get());
+
+		assertFalse("Extra result", results.hasNext());
+		results.close();
+
+		// a fresh iterator starts at the first part
+		results = planets.list(1);
+		assertTrue("Missing result", results.hasNext());
+		assertEquals("Wrong repeated text", "planet 0", results.next().getContent(new StringHandle()).get());
+		results.close();
+	}
+
+	@Test
+	public void testPerResultCost() {
+		Benchmarks.assumeEnabled();
+
+		int count = 20000;
+		PlanetManager planets = client.init("planets", new PlanetManager());
+		com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		// warm up before measuring
+		iterate(planets.list(2000));
+
+		long startBytes = threads.getThreadAllocatedBytes(threadId);
+		long start      = System.nanoTime();
+		int  results    = iterate(planets.list(count));
+		long nanos      = System.nanoTime() - start;
+		long bytes      = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+		assertEquals("Wrong result count", count, results);
+		System.out.println("service results per result: "+(nanos / count)+" ns, "+
+				(bytes / count)+" bytes allocated, including parsing and reading the content");
+	}
+
+	private int iterate(ServiceResultIterator iterator) {
+		int count = 0;
+		StringHandle handle = new StringHandle();
+		while (iterator.hasNext()) {
+			iterator.next().getContent(handle);
+			count++;
+		}
+		iterator.close();
+		return count;
+	}
+}
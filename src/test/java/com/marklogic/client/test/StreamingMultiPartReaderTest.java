@@ -0,0 +1,324 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ext.Providers;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.document.DocumentPage;
+import com.marklogic.client.document.DocumentRecord;
+import com.marklogic.client.document.XMLDocumentManager;
+import com.marklogic.client.impl.StreamingMultiPartReader;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.Benchmarks;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.multipart.BodyPart;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class StreamingMultiPartReaderTest {
+	final static String BOUNDARY = "ML_BOUNDARY_7a3b";
+
+	static Providers providers;
+
+	@BeforeClass
+	public static void beforeClass() {
+		providers = Client.create().getProviders();
+	}
+
+	static String makePart(String uri, String content) {
+		return "--"+BOUNDARY+"\r\n"+
+			"Content-Type: application/xml\r\n"+
+			"Content-Disposition: attachment; filename=\""+uri+"\"; category=content; format=xml\r\n"+
+			"Content-Length: "+content.length()+"\r\n"+
+			"\r\n"+
+			content+"\r\n";
+	}
+	static InputStream makeBody(String preamble, String... contents)
+	throws UnsupportedEncodingException {
+		StringBuilder body = new StringBuilder();
+		if (preamble != null)
+			body.append(preamble);
+		for (int i=0; i < contents.length; i++) {
+			body.append(makePart("/doc"+i+".xml", contents[i]));
+		}
+		body.append("--"+BOUNDARY+"--\r\n");
+		return new ByteArrayInputStream(body.toString().getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testParts() throws IOException {
+		String[] contents = {"<a>one</a>", "<b>two\r\n--not a boundary</b>", ""};
+		StreamingMultiPartReader reader = new StreamingMultiPartReader(
+				makeBody("preamble to ignore\r\n", contents), BOUNDARY, providers);
+		int i=0;
+		while (reader.hasNext()) {
+			BodyPart part = reader.next();
+			assertEquals("Wrong uri", "/doc"+i+".xml", part.getContentDisposition().getFileName());
+			assertEquals("Wrong mimetype", "application/xml", part.getMediaType().toString());
+			assertEquals("Wrong format", "xml",
+					part.getContentDisposition().getParameters().get("format"));
+			assertEquals("Wrong content", contents[i], part.getEntityAs(String.class));
+			i++;
+		}
+		assertEquals("Wrong part count", contents.length, i);
+		reader.close();
+	}
+
+	@Test
+	public void testUnreadAndBufferedParts() throws IOException {
+		String[] contents = {"<metadata/>", "<skipped/>", "<read/>"};
+		StreamingMultiPartReader reader = new StreamingMultiPartReader(
+				makeBody(null, contents), BOUNDARY, providers);
+
+		StreamingMultiPartReader.StreamedBodyPart buffered =
+				(StreamingMultiPartReader.StreamedBodyPart) reader.next();
+		buffered.buffer();
+		BodyPart skipped = reader.next();
+		BodyPart read    = reader.next();
+		assertEquals("Wrong last content", contents[2], read.getEntityAs(String.class));
+		assertFalse("Unexpected part", reader.hasNext());
+
+		assertEquals("Wrong buffered content", contents[0], buffered.getEntityAs(String.class));
+		try {
+			skipped.getEntityAs(String.class);
+			fail("Content of skipped part was available");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testSingleByteReads() throws IOException {
+		StringBuilder big = new StringBuilder();
+		for (int i=0; i < 5000; i++) {
+			big.append("\r\n-- -").append(i);
+		}
+		String[] contents = {big.toString(), "<small/>", big.reverse().toString()};
+		final InputStream body = makeBody(null, contents);
+		// returns one byte per read to split delimiters across buffer fills
+		InputStream trickle = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				return body.read();
+			}
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return (len == 0) ? 0 : super.read(b, off, 1);
+			}
+		};
+		StreamingMultiPartReader reader = new StreamingMultiPartReader(trickle, BOUNDARY, providers);
+		for (String content: contents) {
+			assertTrue("Missing part", reader.hasNext());
+			assertEquals("Wrong content", content, reader.next().getEntityAs(String.class));
+		}
+		assertFalse("Unexpected part", reader.hasNext());
+		reader.close();
+	}
+
+	@Test
+	public void testBoundedReading() throws IOException {
+		final int partSize = 1024 * 1024;
+		GeneratedBody body = new GeneratedBody(20, partSize);
+		StreamingMultiPartReader reader = new StreamingMultiPartReader(body, BOUNDARY, providers);
+
+		assertTrue("No first part", reader.hasNext());
+		InputStream first = reader.next().getEntityAs(InputStream.class);
+		assertEquals("Wrong first byte", 'x', first.read());
+		assertTrue("Read too much of the body before the first part: "+body.consumed,
+				body.consumed < 2 * partSize);
+
+		assertEquals("Wrong part count", 20, 1 + readParts(reader, partSize));
+		reader.close();
+	}
+
+	@Test
+	public void testStreamingThroughput() throws IOException {
+		Benchmarks.assumeEnabled();
+
+		final int partCount = 200;
+		final int partSize  = 1024 * 1024;
+		StreamingMultiPartReader reader = new StreamingMultiPartReader(
+				new GeneratedBody(partCount, partSize), BOUNDARY, providers);
+
+		long startTime = System.nanoTime();
+		assertTrue("No first part", reader.hasNext());
+		reader.next().getEntityAs(InputStream.class).read();
+		long firstTime = System.nanoTime() - startTime;
+		int count = 1 + readParts(reader, partSize);
+		long totalTime = System.nanoTime() - startTime;
+		reader.close();
+
+		assertEquals("Wrong part count", partCount, count);
+		System.out.println("streamed "+partCount+" parts of "+partSize+" bytes: first part after "+
+				(firstTime / 1000000)+" ms, all parts after "+(totalTime / 1000000)+" ms");
+	}
+
+	static int readParts(StreamingMultiPartReader reader, int partSize) throws IOException {
+		int count = 0;
+		while (reader.hasNext()) {
+			InputStream content = reader.next().getEntityAs(InputStream.class);
+			byte[] bytes = new byte[8192];
+			long size = 0;
+			for (int read=content.read(bytes); read != -1; read=content.read(bytes)) {
+				size += read;
+			}
+			assertEquals("Wrong part size", partSize, size);
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	public void testDocumentManagerPages() throws IOException, InterruptedException {
+		final int documents = 5;
+		final CountDownLatch firstRead = new CountDownLatch(1);
+		StubServer server = new StubServer();
+		// sends two documents and, when requested, waits until the client
+		// has read the first document before sending the rest
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				boolean waitForClient = exchange.getRequestURI().getQuery().contains("uri=/wait");
+				exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary="+BOUNDARY);
+				exchange.sendResponseHeaders(200, 0);
+				OutputStream out = exchange.getResponseBody();
+				for (int i=0; i < documents; i++) {
+					out.write(makePart("/doc"+i+".xml", "<doc>"+i+"</doc>").getBytes("UTF-8"));
+					out.flush();
+					// the next part starts with the delimiter that ends the first part
+					if (i == 1 && waitForClient) {
+						try {
+							firstRead.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+						}
+					}
+				}
+				out.write(("--"+BOUNDARY+"--\r\n").getBytes("UTF-8"));
+				out.close();
+			}
+		}).start();
+
+		DatabaseClient client = server.newClient("rest-reader");
+		try {
+			XMLDocumentManager docMgr = client.newXMLDocumentManager();
+			List<String> materialized = readPage(docMgr.read("/doc0.xml", "/doc1.xml"));
+			assertEquals("Wrong materialized count", documents, materialized.size());
+
+			docMgr.setPageStreaming(true);
+			List<String> streamed = readPage(docMgr.read("/doc0.xml", "/doc1.xml"));
+			assertEquals("Streamed page differs from materialized page", materialized, streamed);
+
+			// the first document is available before the server sends the rest,
+			// where reading the whole response would wait for the server timeout
+			long start = System.nanoTime();
+			DocumentPage page = docMgr.read("/wait0.xml", "/wait1.xml");
+			DocumentRecord first = page.next();
+			assertEquals("Wrong first streamed content", "<doc>0</doc>",
+					first.getContent(new StringHandle()).get());
+			assertTrue("First document waited for the whole response",
+					System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			firstRead.countDown();
+			int count = 1;
+			while (page.hasNext()) {
+				page.next().getContent(new StringHandle());
+				count++;
+			}
+			page.close();
+			assertEquals("Wrong streamed count", documents, count);
+		} finally {
+			firstRead.countDown();
+			client.release();
+			server.stop();
+		}
+	}
+
+	static List<String> readPage(DocumentPage page) {
+		List<String> records = new ArrayList<String>();
+		while (page.hasNext()) {
+			DocumentRecord record = page.next();
+			records.add(record.getUri()+" "+record.getContent(new StringHandle()).get());
+		}
+		page.close();
+		return records;
+	}
+
+	// generates a large multipart body without holding it in memory
+	static class GeneratedBody extends InputStream {
+		int    partCount;
+		int    partSize;
+		int    part     = 0;
+		int    offset   = 0;
+		byte[] header;
+		byte[] trailer;
+		long   consumed = 0;
+		GeneratedBody(int partCount, int partSize) throws UnsupportedEncodingException {
+			this.partCount = partCount;
+			this.partSize  = partSize;
+			header  = ("--"+BOUNDARY+"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes("UTF-8");
+			trailer = ("\r\n--"+BOUNDARY+"--\r\n").getBytes("UTF-8");
+		}
+		@Override
+		public int read() throws IOException {
+			int next = nextByte();
+			if (next != -1)
+				consumed++;
+			return next;
+		}
+		private int nextByte() {
+			if (part >= partCount) {
+				if (offset >= trailer.length)
+					return -1;
+				return trailer[offset++];
+			}
+			if (offset < 2 && part > 0) {
+				return (offset++ == 0) ? '\r' : '\n';
+			}
+			int headerStart = (part > 0) ? 2 : 0;
+			int bodyStart   = headerStart + header.length;
+			if (offset < bodyStart) {
+				return header[offset++ - headerStart];
+			}
+			if (offset < bodyStart + partSize) {
+				offset++;
+				return 'x';
+			}
+			part++;
+			offset = 0;
+			return nextByte();
+		}
+	}
+}
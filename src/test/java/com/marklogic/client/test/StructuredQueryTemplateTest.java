@@ -0,0 +1,157 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.junit.Test;
+
+import com.marklogic.client.query.StructuredQueryBuilder;
+import com.marklogic.client.query.StructuredQueryBuilder.Operator;
+import com.marklogic.client.query.StructuredQueryDefinition;
+import com.marklogic.client.query.StructuredQueryTemplate;
+import com.marklogic.client.test.util.Benchmarks;
+
+public class StructuredQueryTemplateTest {
+	private StructuredQueryDefinition makeQuery(StructuredQueryBuilder qb,
+			String status, String minTotal, String carrier, String shipped) {
+		return qb.and(
+				qb.value(qb.element("status"), status),
+				qb.range(qb.element("total"), "xs:decimal", Operator.GE, minTotal),
+				qb.word(qb.elementAttribute(qb.element("order"), qb.attribute("carrier")), carrier),
+				qb.range(qb.element("shipped"), "xs:dateTime", Operator.LT, shipped),
+				qb.or(qb.directory(true, "/orders/"), qb.value(qb.element("status"), status))
+				);
+	}
+
+	@Test
+	public void testBinding() throws Exception {
+		StructuredQueryBuilder qb = new StructuredQueryBuilder("orders");
+		StructuredQueryDefinition query = makeQuery(qb,
+				qb.placeholder("status"), qb.placeholder("minTotal", Number.class),
+				qb.placeholder("carrier"), qb.placeholder("shipped", Calendar.class));
+		query.setCollections("/orders");
+		StructuredQueryTemplate template = qb.compile(query);
+
+		assertEquals("Wrong placeholders", 4, template.getParameterNames().size());
+		assertEquals("Wrong type", Number.class, template.getParameterType("minTotal"));
+
+		Calendar shipped = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		shipped.setTimeInMillis(1420070400000L);
+		StructuredQueryDefinition bound = template.bind()
+				.with("status", "held & <new>")
+				.with("minTotal", 125.5)
+				.with("carrier", "\"ground\"")
+				.with("shipped", shipped);
+
+		StructuredQueryDefinition expected = makeQuery(new StructuredQueryBuilder("orders"),
+				"held & <new>", "125.5", "\"ground\"", DatatypeConverter.printDateTime(shipped));
+		assertXMLEqual("Wrong bound query", expected.serialize(), bound.serialize());
+		assertEquals("Wrong options", "orders", bound.getOptionsName());
+		assertEquals("Wrong collection", "/orders", bound.getCollections()[0]);
+
+		// bindings are independent of each other
+		StructuredQueryDefinition other = template.bind()
+				.with("status", "open").with("minTotal", 10)
+				.with("carrier", "air").with("shipped", shipped);
+		expected = makeQuery(new StructuredQueryBuilder("orders"),
+				"open", "10", "air", DatatypeConverter.printDateTime(shipped));
+		assertXMLEqual("Wrong other query", expected.serialize(), other.serialize());
+	}
+
+	@Test
+	public void testInvalidBinding() {
+		StructuredQueryBuilder qb = new StructuredQueryBuilder();
+		StructuredQueryTemplate template = qb.compile(qb.and(
+				qb.value(qb.element("status"), qb.placeholder("status")),
+				qb.range(qb.element("total"), "xs:int", Operator.GT, qb.placeholder("total", Integer.class))));
+
+		try {
+			template.bind().with("total", "ten");
+			fail("Bound value of wrong type");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			template.bind().with("count", 10);
+			fail("Bound unknown placeholder");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			template.bind().with("status", "open").serialize();
+			fail("Serialized without all values");
+		} catch (IllegalStateException e) {
+		}
+		try {
+			qb.placeholder("total", Long.class);
+			fail("Changed placeholder type");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// placeholders from another builder are not known to the compiling builder
+		StructuredQueryBuilder otherBuilder = new StructuredQueryBuilder();
+		try {
+			qb.compile(qb.value(qb.element("status"), otherBuilder.placeholder("other")));
+			fail("Compiled foreign placeholder");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testBindingThroughput() throws Exception {
+		Benchmarks.assumeEnabled();
+
+		int requests = 20000;
+		StructuredQueryBuilder qb = new StructuredQueryBuilder("orders");
+		StructuredQueryTemplate template = qb.compile(makeQuery(qb,
+				qb.placeholder("status"), qb.placeholder("minTotal", Number.class),
+				qb.placeholder("carrier"), qb.placeholder("shipped")));
+
+		// warm up both paths before timing
+		long length = 0;
+		for (int i=0; i < 2000; i++) {
+			length += makeQuery(new StructuredQueryBuilder("orders"),
+					"open", String.valueOf(i), "air", "2015-01-01T00:00:00Z").serialize().length();
+			length += template.bind().with("status", "open").with("minTotal", i)
+					.with("carrier", "air").with("shipped", "2015-01-01T00:00:00Z").serialize().length();
+		}
+
+		long start = System.nanoTime();
+		for (int i=0; i < requests; i++) {
+			length += makeQuery(new StructuredQueryBuilder("orders"),
+					"open", String.valueOf(i), "air", "2015-01-01T00:00:00Z").serialize().length();
+		}
+		long serializeNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i=0; i < requests; i++) {
+			length += template.bind().with("status", "open").with("minTotal", i)
+					.with("carrier", "air").with("shipped", "2015-01-01T00:00:00Z").serialize().length();
+		}
+		long bindNanos = System.nanoTime() - start;
+
+		System.out.println("structured query per request: build and serialize "+
+				(serializeNanos / requests)+" ns, bind template "+(bindNanos / requests)+
+				" ns ("+length+" characters)");
+	}
+}
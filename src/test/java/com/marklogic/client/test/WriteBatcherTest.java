@@ -0,0 +1,219 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.document.WriteBatcher;
+import com.marklogic.client.document.WriteBatcher.BatchFailureListener;
+import com.marklogic.client.document.WriteBatcher.BatchListener;
+import com.marklogic.client.document.WriteBatcher.WriteBatch;
+import com.marklogic.client.io.StringHandle;
+import com.marklogic.client.test.util.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class WriteBatcherTest {
+	private StubServer       server;
+	private DatabaseClient   client;
+	private AtomicInteger    requests  = new AtomicInteger();
+	private Set<String>      written   = Collections.synchronizedSet(new HashSet<String>());
+	private volatile boolean rejecting = false;
+
+	@Before
+	public void before() throws IOException {
+		server = new StubServer();
+		// records the documents in each bulk write
+		server.handle("/v1/documents", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				Set<String> uris = new HashSet<String>();
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+				String line = null;
+				while ((line = reader.readLine()) != null) {
+					int start = line.indexOf("filename=");
+					if (!line.toLowerCase().startsWith("content-disposition: attachment") || start == -1)
+						continue;
+					uris.add(line.substring(start + 9).replace("\"", ""));
+				}
+				if (rejecting) {
+					exchange.sendResponseHeaders(500, -1);
+				} else {
+					written.addAll(uris);
+					exchange.sendResponseHeaders(204, -1);
+				}
+				exchange.close();
+			}
+		});
+		server.start();
+
+		client = server.newClient("rest-writer");
+	}
+	@After
+	public void after() {
+		client.release();
+		server.stop();
+	}
+
+	@Test
+	public void testBatches() {
+		final AtomicInteger notified = new AtomicInteger();
+
+		WriteBatcher batcher = client.newTextDocumentManager().newWriteBatcher();
+		batcher.setBatchSize(10);
+		batcher.setThreadCount(3);
+		batcher.setBatchListener(new BatchListener() {
+			@Override
+			public void batchWritten(WriteBatch batch) {
+				notified.incrementAndGet();
+			}
+		});
+
+		for (int i=0; i < 95; i++) {
+			batcher.add("/batch/doc"+i+".txt", new StringHandle("document "+i));
+		}
+		assertTrue("Batches did not complete", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+		assertEquals("Wrong batches before flush", 9, batcher.getBatchesWritten());
+
+		batcher.flush();
+		assertTrue("Flush did not complete", batcher.awaitCompletion(10, TimeUnit.SECONDS));
+		batcher.release();
+
+		assertEquals("Wrong requests",           10, requests.get());
+		assertEquals("Wrong documents on server", 95, written.size());
+		assertEquals("Wrong batches",            10, batcher.getBatchesWritten());
+		assertEquals("Wrong documents",          95, batcher.getDocumentsWritten());
+		assertEquals("Wrong notifications",      10, notified.get());
+		assertEquals("Unexpected failures",       0, batcher.getBatchesFailed());
+		assertTrue("No throughput", batcher.getDocumentsPerSecond() > 0);
+	}
+
+	@Test
+	public void testConcurrentAdds() throws InterruptedException {
+		final WriteBatcher batcher = client.newTextDocumentManager().newWriteBatcher();
+		batcher.setBatchSize(7);
+
+		Thread[] threads = new Thread[4];
+		for (int i=0; i < threads.length; i++) {
+			final int threadNumber = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j=0; j < 50; j++) {
+						batcher.addAs("/batch/thread"+threadNumber+"/doc"+j+".txt", "document "+j);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread: threads) {
+			thread.join();
+		}
+		batcher.release();
+
+		assertEquals("Wrong documents on server", 200, written.size());
+		assertEquals("Wrong documents",           200, batcher.getDocumentsWritten());
+		assertEquals("Wrong batches",              29, batcher.getBatchesWritten());
+	}
+
+	@Test
+	public void testReleaseDuringAdds() throws InterruptedException {
+		final WriteBatcher batcher = client.newTextDocumentManager().newWriteBatcher();
+		batcher.setBatchSize(3);
+		final AtomicInteger added = new AtomicInteger();
+		final AtomicReference<Throwable> workerError = new AtomicReference<Throwable>();
+
+		Thread[] threads = new Thread[4];
+		for (int i=0; i < threads.length; i++) {
+			final int threadNumber = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j=0; j < 10000; j++) {
+							batcher.addAs("/batch/thread"+threadNumber+"/doc"+j+".txt", "document "+j);
+							added.incrementAndGet();
+						}
+					} catch (IllegalStateException e) {
+						// released
+					} catch (Throwable e) {
+						workerError.compareAndSet(null, e);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		while (added.get() < 20) {
+			Thread.sleep(1);
+		}
+		batcher.release();
+		for (Thread thread: threads) {
+			thread.join();
+		}
+
+		if (workerError.get() != null) {
+			AssertionError failure = new AssertionError("Worker thread failed: "+workerError.get());
+			failure.initCause(workerError.get());
+			throw failure;
+		}
+		// every document accepted before the release is written by the release
+		assertEquals("Stranded documents", added.get(), batcher.getDocumentsWritten());
+		assertEquals("Wrong documents on server", added.get(), written.size());
+	}
+
+	@Test
+	public void testFailureAndRetry() {
+		final WriteBatcher batcher = client.newTextDocumentManager().newWriteBatcher();
+		batcher.setBatchSize(5);
+		batcher.setThreadCount(1);
+		batcher.setBatchFailureListener(new BatchFailureListener() {
+			@Override
+			public void batchFailed(WriteBatch batch, Throwable failure) {
+				rejecting = false;
+				batcher.retry(batch);
+			}
+		});
+
+		rejecting = true;
+		for (int i=0; i < 5; i++) {
+			batcher.add("/batch/doc"+i+".txt", new StringHandle("document "+i));
+		}
+		batcher.release();
+
+		assertEquals("Wrong failed batches",   1, batcher.getBatchesFailed());
+		assertEquals("Wrong failed documents", 5, batcher.getDocumentsFailed());
+		assertEquals("Retry not written",      1, batcher.getBatchesWritten());
+		assertEquals("Wrong documents on server", 5, written.size());
+	}
+}
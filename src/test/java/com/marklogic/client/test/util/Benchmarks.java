@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test.util;
+
+import org.junit.Assume;
+
+/**
+ * Benchmarks gates the timing tests, which run only when the
+ * com.marklogic.client.test.benchmark system property is true,
+ * as in the benchmark profile:
+ * <pre>mvn test -Pbenchmark -Dtest=EvalStreamingTest</pre>
+ */
+public class Benchmarks {
+	public final static String PROPERTY = "com.marklogic.client.test.benchmark";
+
+	/**
+	 * Skips the calling test unless benchmarks are enabled.
+	 */
+	public static void assumeEnabled() {
+		Assume.assumeTrue(Boolean.getBoolean(PROPERTY));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012-2015 MarkLogic Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marklogic.client.test.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.marklogic.client.DatabaseClient;
+import com.marklogic.client.DatabaseClientFactory;
+import com.marklogic.client.DatabaseClientFactory.Authentication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * StubServer answers REST requests on an ephemeral local port with
+ * handlers supplied by a test, so tests can exercise the client without
+ * a MarkLogic server.  Create the stub in a Before method, add handlers,
+ * start it, and stop it in an After method.
+ */
+public class StubServer {
+	private HttpServer      server;
+	private ExecutorService executor;
+
+	public StubServer() throws IOException {
+		this(0);
+	}
+	/**
+	 * Creates a stub server on a specific port, as when a test
+	 * brings up a host that a client already knows about.
+	 * @param port	the port or 0 for an ephemeral port
+	 * @throws IOException	if the port cannot be bound
+	 */
+	public StubServer(int port) throws IOException {
+		super();
+		server   = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * Answers requests for paths starting with the path.
+	 * @param path	the path such as /v1/documents
+	 * @param handler	the handler for the requests
+	 * @return	this stub server
+	 */
+	public StubServer handle(String path, HttpHandler handler) {
+		server.createContext(path, handler);
+		return this;
+	}
+
+	public StubServer start() {
+		server.start();
+		return this;
+	}
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	public String getHost() {
+		return "localhost";
+	}
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Creates a client for the stub server with basic authentication.
+	 * @param user	the user, which the stub server ignores
+	 * @return	the client
+	 */
+	public DatabaseClient newClient(String user) {
+		return DatabaseClientFactory.newClient(getHost(), getPort(), user, "x", Authentication.BASIC);
+	}
+
+	/**
+	 * Reads the entire request body.
+	 * @param exchange	the request
+	 * @return	the body
+	 * @throws IOException	if the body cannot be read
+	 */
+	public static byte[] readBody(HttpExchange exchange) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		InputStream in = exchange.getRequestBody();
+		byte[] buffer = new byte[8192];
+		int len = 0;
+		while ((len = in.read(buffer)) != -1) {
+			body.write(buffer, 0, len);
+		}
+		return body.toByteArray();
+	}
+}